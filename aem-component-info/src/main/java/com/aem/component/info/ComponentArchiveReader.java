@@ -0,0 +1,262 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 组件归档读取器
+ *
+ * 读取 {@link ComponentArchiveWriter} 写出的归档文件。文件被内存映射，
+ * 打开时只解析末尾的索引；读取单个组件时只解压该组件的记录。
+ * 读取方法可以被多个线程同时调用。
+ *
+ * 使用示例：
+ * <pre>
+ * try (ComponentArchiveReader reader = ComponentArchiveReader.open("components.carc")) {
+ *     Map&lt;String, Object&gt; info = reader.read("/apps/myproject/components/teaser");
+ * }
+ * </pre>
+ */
+public class ComponentArchiveReader implements Closeable {
+
+    private final FileChannel channel;
+    // 文件不超过 2GB 时整体映射；否则按记录映射
+    private final MappedByteBuffer mapped;
+    private final ExportFormat format;
+    private final ObjectMapper objectMapper;
+    private final NavigableMap<String, long[]> index;
+
+    private ComponentArchiveReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        long size = channel.size();
+        if (size < ComponentArchiveWriter.MAGIC.length + 2 + 4 + ComponentArchiveWriter.TRAILER_LENGTH) {
+            throw new IOException("不是有效的组件归档文件（文件过小）");
+        }
+        this.mapped = size <= Integer.MAX_VALUE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+
+        ByteBuffer header = slice(0, ComponentArchiveWriter.MAGIC.length + 2);
+        checkMagic(header);
+        int version = header.get();
+        if (version != ComponentArchiveWriter.VERSION) {
+            throw new IOException("不支持的归档版本: " + version);
+        }
+        int formatCode = header.get();
+        this.format = ComponentArchiveWriter.formatOf(formatCode);
+        if (format == null) {
+            throw new IOException("未知的归档编码格式: " + formatCode);
+        }
+        this.objectMapper = format.createObjectMapper(false);
+
+        ByteBuffer trailer = slice(size - ComponentArchiveWriter.TRAILER_LENGTH, ComponentArchiveWriter.TRAILER_LENGTH);
+        long indexOffset = trailer.getLong();
+        checkMagic(trailer);
+
+        ByteBuffer indexBuffer = slice(indexOffset, (int) (size - ComponentArchiveWriter.TRAILER_LENGTH - indexOffset));
+        int count = indexBuffer.getInt();
+        NavigableMap<String, long[]> entries = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            String path = readUTF(indexBuffer);
+            long offset = indexBuffer.getLong();
+            int length = indexBuffer.getInt();
+            entries.put(path, new long[]{offset, length});
+        }
+        this.index = Collections.unmodifiableNavigableMap(entries);
+    }
+
+    /**
+     * 打开归档文件
+     *
+     * @param archivePath 归档文件路径
+     * @return 读取器
+     * @throws IOException 文件不存在或格式错误
+     */
+    public static ComponentArchiveReader open(String archivePath) throws IOException {
+        return open(Paths.get(archivePath));
+    }
+
+    /**
+     * 打开归档文件
+     *
+     * @param archivePath 归档文件路径
+     * @return 读取器
+     * @throws IOException 文件不存在或格式错误
+     */
+    public static ComponentArchiveReader open(Path archivePath) throws IOException {
+        FileChannel channel = FileChannel.open(archivePath, StandardOpenOption.READ);
+        try {
+            return new ComponentArchiveReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 获取归档中所有组件路径的索引（按路径排序）
+     *
+     * @return 路径 → {偏移量, 长度}
+     */
+    public NavigableMap<String, long[]> getIndex() {
+        return index;
+    }
+
+    /**
+     * 获取组件数量
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 检查归档中是否包含组件
+     */
+    public boolean contains(String componentPath) {
+        return index.containsKey(componentPath);
+    }
+
+    /**
+     * 获取组件编码格式
+     */
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * 读取单个组件信息
+     *
+     * @param componentPath 组件路径
+     * @return 组件信息，如果归档中不存在则返回 null
+     * @throws IOException 读取或解码错误
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> read(String componentPath) throws IOException {
+        byte[] encoded = readEncoded(componentPath);
+        return encoded != null ? objectMapper.readValue(encoded, Map.class) : null;
+    }
+
+    /**
+     * 读取单个组件的编码字节（已解压，格式见 {@link #getFormat()}）
+     *
+     * @param componentPath 组件路径
+     * @return 编码字节，如果归档中不存在则返回 null
+     * @throws IOException 读取或解压错误
+     */
+    public byte[] readEncoded(String componentPath) throws IOException {
+        long[] entry = index.get(componentPath);
+        if (entry == null) {
+            return null;
+        }
+
+        ByteBuffer record = slice(entry[0], (int) entry[1]);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteBufferInputStream(record))) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) entry[1] * 4);
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = gzip.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+            return buffer.toByteArray();
+        }
+    }
+
+    /**
+     * 按路径顺序逐个读取所有组件
+     *
+     * @param handler 组件信息处理器，返回 false 时停止
+     * @return 已处理的组件数量
+     * @throws IOException 读取错误
+     */
+    public int forEach(ComponentInfoExtractor.ComponentInfoHandler handler) throws IOException {
+        int count = 0;
+        for (String componentPath : index.keySet()) {
+            count++;
+            if (!handler.handle(read(componentPath))) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer slice(long offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > channel.size()) {
+            throw new IOException("归档文件已损坏（记录越界）");
+        }
+        if (mapped != null) {
+            ByteBuffer buffer = mapped.duplicate();
+            buffer.position((int) offset);
+            buffer.limit((int) offset + length);
+            return buffer.slice();
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    private static void checkMagic(ByteBuffer buffer) throws IOException {
+        byte[] magic = new byte[ComponentArchiveWriter.MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, ComponentArchiveWriter.MAGIC)) {
+            throw new IOException("不是有效的组件归档文件");
+        }
+    }
+
+    /**
+     * 读取 DataOutputStream.writeUTF 写出的字符串
+     */
+    private static String readUTF(ByteBuffer buffer) throws IOException {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length + 2];
+        bytes[0] = (byte) (length >>> 8);
+        bytes[1] = (byte) length;
+        buffer.get(bytes, 2, length);
+        return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+    }
+
+    /**
+     * ByteBuffer 适配为 InputStream
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 组件归档写出器
+ *
+ * 把一批组件写入单个归档文件，代替成千上万个小 JSON 文件。
+ * 每个组件单独 gzip 压缩，文件末尾是按组件路径排序的索引（路径 → 偏移量/长度），
+ * 读取方（{@link ComponentArchiveReader}）可以内存映射文件并只解压需要的组件。
+ *
+ * 文件格式：
+ * <pre>
+ * 头部:   MAGIC(8) 版本(1) 格式代码(1)
+ * 记录:   gzip(组件编码字节) ...
+ * 索引:   条目数(int) { 路径(UTF) 偏移量(long) 长度(int) } ...
+ * 尾部:   索引偏移量(long) MAGIC(8)
+ * </pre>
+ *
+ * 格式代码是固定的编号（见 {@link #formatCode(ExportFormat)}），与 ExportFormat 的声明顺序无关。
+ *
+ * 写完所有组件后必须调用 {@link #finish()} 写出索引和尾部。没有调用 finish() 就 close()
+ * （例如提取过程中抛出异常）时视为放弃，删除未完成的文件，不会留下看似完整的归档。
+ *
+ * 使用示例：
+ * <pre>
+ * try (ComponentArchiveWriter writer = new ComponentArchiveWriter("components.carc", ExportFormat.SMILE)) {
+ *     extractor.extractComponentsFromPath("/apps/myproject/components", writer);
+ *     writer.finish();
+ * }
+ * </pre>
+ */
+public class ComponentArchiveWriter implements ComponentInfoExtractor.ComponentInfoHandler, Closeable {
+
+    static final byte[] MAGIC = "AEMCARC1".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int TRAILER_LENGTH = 8 + MAGIC.length;
+
+    private final Path outputPath;
+    private final DataOutputStream out;
+    private final ExportFormat format;
+    private final ObjectMapper objectMapper;
+    // 路径 -> {偏移量, 长度}，只保存索引，不保存组件内容
+    private final Map<String, long[]> index = new TreeMap<>();
+    private long position;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * 构造函数
+     *
+     * @param outputPath 归档文件路径
+     * @param format 组件编码格式（JSON / SMILE / CBOR）
+     * @throws IOException 创建文件失败
+     */
+    public ComponentArchiveWriter(String outputPath, ExportFormat format) throws IOException {
+        this.outputPath = Paths.get(outputPath);
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputPath), 64 * 1024));
+        this.format = format;
+        this.objectMapper = format.createObjectMapper(false);
+
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(formatCode(format));
+        position = MAGIC.length + 2;
+    }
+
+    /**
+     * 写入一个组件
+     *
+     * 同一路径重复写入时，索引指向最后一次写入的记录。
+     *
+     * @param componentInfo 组件信息
+     * @throws IOException 写出错误
+     */
+    public void write(Map<String, Object> componentInfo) throws IOException {
+        if (finished || closed) {
+            throw new IllegalStateException("归档已关闭");
+        }
+
+        String path = ComponentExporter.extractComponentPath(componentInfo);
+        if (path == null) {
+            throw new IllegalArgumentException("组件信息缺少 componentPath，无法写入归档");
+        }
+
+        byte[] record = compress(objectMapper.writeValueAsBytes(componentInfo));
+        out.write(record);
+        index.put(path, new long[]{position, record.length});
+        position += record.length;
+    }
+
+    @Override
+    public boolean handle(Map<String, Object> componentInfo) throws IOException {
+        write(componentInfo);
+        return true;
+    }
+
+    /**
+     * 获取已写入的组件数量
+     */
+    public int getCount() {
+        return index.size();
+    }
+
+    /**
+     * 获取组件编码格式
+     */
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * 写出索引和尾部并关闭文件（提交归档）
+     *
+     * @throws IOException 写出错误（此时未完成的文件被删除）
+     * @throws IllegalStateException 归档已被放弃
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (closed) {
+            throw new IllegalStateException("归档已关闭");
+        }
+
+        boolean written = false;
+        try {
+            long indexOffset = position;
+            out.writeInt(index.size());
+            for (Map.Entry<String, long[]> entry : index.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue()[0]);
+                out.writeInt((int) entry.getValue()[1]);
+            }
+            out.writeLong(indexOffset);
+            out.write(MAGIC);
+            out.close();
+            written = true;
+        } finally {
+            if (written) {
+                finished = true;
+            }
+            close();
+        }
+    }
+
+    /**
+     * 关闭文件
+     *
+     * 已经调用过 {@link #finish()} 时什么也不做；否则放弃归档并删除未完成的文件。
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (!finished) {
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(outputPath);
+            }
+        }
+    }
+
+    /**
+     * 归档头部中的格式代码（固定编号，新增格式只能追加新代码）
+     */
+    static int formatCode(ExportFormat format) {
+        switch (format) {
+            case JSON:
+                return 0;
+            case SMILE:
+                return 1;
+            case CBOR:
+                return 2;
+            default:
+                throw new IllegalArgumentException("归档不支持的编码格式: " + format);
+        }
+    }
+
+    /**
+     * 根据格式代码获取编码格式
+     *
+     * @return 编码格式，未知代码返回 null
+     */
+    static ExportFormat formatOf(int code) {
+        switch (code) {
+            case 0:
+                return ExportFormat.JSON;
+            case 1:
+                return ExportFormat.SMILE;
+            case 2:
+                return ExportFormat.CBOR;
+            default:
+                return null;
+        }
+    }
+
+    private static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        }
+        return buffer.toByteArray();
+    }
+}
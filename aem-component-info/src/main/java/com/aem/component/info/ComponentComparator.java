@@ -2,11 +2,21 @@ package com.aem.component.info;
 
 import com.aem.component.util.JCRUtil;
 import javax.jcr.Node;
+import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * 组件对比工具
@@ -25,10 +35,35 @@ import java.util.Map;
  *     "/apps/myproject/components/v1/mycomponent",
  *     "/apps/myproject/components/v2/mycomponent"
  * );
+ * 
+ * // 一个基准对比多个变体：基准只提取一次，变体在当前会话上逐个提取
+ * Map<String, Object> result = comparator.compareAgainst(
+ *     "/apps/core/components/teaser", variantPaths);
+ * 
+ * // 并行提取变体：每个工作线程从 SessionCallback 取独立会话
+ * Map<String, Object> parallel = comparator.compareAgainst(
+ *     "/apps/core/components/teaser", variantPaths, sessions, 4);
  * </pre>
  */
 public class ComponentComparator {
 
+    // 参与指纹短路的段落
+    private static final String[] FINGERPRINT_SECTIONS = {"basicProperties", "dialog"};
+
+    /**
+     * 并行对比时工作线程的会话来源（JCR 会话不是线程安全的，每个工作线程独占一个会话）
+     * 
+     * 会话用完后交给 {@link #close(Session)}：默认登出，从会话池借出的会话应改为归还。
+     */
+    public interface SessionCallback {
+
+        Session open() throws RepositoryException;
+
+        default void close(Session session) {
+            session.logout();
+        }
+    }
+
     private final Session session;
     private final ComponentInfoExtractor extractor;
 
@@ -37,6 +72,16 @@ public class ComponentComparator {
         this.extractor = new ComponentInfoExtractor(session);
     }
 
+    /**
+     * 只对比已提取的组件信息（不访问 JCR）
+     * 
+     * 这种方式创建的对比器只能使用 {@link #compareComponentInfos(Map, Map)}。
+     */
+    public ComponentComparator() {
+        this.session = null;
+        this.extractor = null;
+    }
+
     /**
      * 对比两个组件
      * 
@@ -45,25 +90,264 @@ public class ComponentComparator {
      * @return 对比结果，包含差异信息
      */
     public Map<String, Object> compareComponents(String componentPath1, String componentPath2) {
-        Map<String, Object> comparison = new HashMap<>();
+        if (extractor == null) {
+            throw new IllegalStateException("没有 JCR 会话，只能对比已提取的组件信息");
+        }
         
         // 提取两个组件的信息
         Map<String, Object> info1 = extractor.extractComponentInfo(componentPath1);
         Map<String, Object> info2 = extractor.extractComponentInfo(componentPath2);
         
+        Map<String, Object> comparison = compareComponentInfos(info1, info2);
         comparison.put("component1", componentPath1);
         comparison.put("component2", componentPath2);
+        return comparison;
+    }
+
+    /**
+     * 对比两个已提取的组件信息
+     * 
+     * 批量对比时（如 {@link ComponentSimilarityFinder}）每个组件只提取一次，
+     * 之后可以与任意多个组件对比。
+     * 
+     * @param info1 第一个组件信息
+     * @param info2 第二个组件信息
+     * @return 对比结果，包含差异信息
+     */
+    public Map<String, Object> compareComponentInfos(Map<String, Object> info1, Map<String, Object> info2) {
+        return compareComponentInfos(info1, null, info2, null);
+    }
+
+    /**
+     * 一对多对比：基准组件只提取一次，变体逐个提取并立即与基准对比
+     * 
+     * 变体在调用线程上用当前会话依次提取（JCR 会话不是线程安全的），不会并行；
+     * 需要并行提取时使用带 {@link SessionCallback} 的重载，为每个工作线程提供独立会话。
+     * 每个变体提取后马上对比，不会同时保留所有变体的组件信息。
+     * 单个变体提取出错只记录在该变体的结果中（error）。
+     * 
+     * @param baselinePath 基准组件路径
+     * @param variantPaths 变体组件路径
+     * @return 对比结果（baseline、comparisons、identicalVariants），comparisons 顺序与 variantPaths 一致
+     */
+    public Map<String, Object> compareAgainst(String baselinePath, Collection<String> variantPaths) {
+        if (extractor == null) {
+            throw new IllegalStateException("没有 JCR 会话，只能对比已提取的组件信息");
+        }
+        
+        Map<String, Object> baseline = extractor.extractComponentInfo(baselinePath);
+        Map<String, String> baselineFingerprints = fingerprints(baseline);
+        List<Map<String, Object>> comparisons = new ArrayList<>(variantPaths.size());
+        for (String variantPath : variantPaths) {
+            try {
+                Map<String, Object> variant = extractor.extractComponentInfo(variantPath);
+                comparisons.add(compareWithBaseline(baselinePath, baseline, baselineFingerprints,
+                    variantPath, variant));
+            } catch (RuntimeException e) {
+                comparisons.add(errorComparison(baselinePath, variantPath, "变体提取失败: " + e.getMessage()));
+            }
+        }
+        return buildAgainstResult(baselinePath, comparisons);
+    }
+
+    /**
+     * 一对多对比（并行提取变体）
+     * 
+     * 基准组件用当前会话提取一次；每个工作线程取得一个独立会话，
+     * 从共享队列中领取变体，提取后立即与基准对比。
+     * 单个变体提取或对比出错只记录在该变体的结果中（error），不影响其他变体；
+     * 工作线程取不到会话时，它没有处理的变体由其他工作线程处理，全部工作线程都失败时这些变体记录为错误。
+     * 
+     * @param baselinePath 基准组件路径
+     * @param variantPaths 变体组件路径
+     * @param sessions 工作线程的会话来源
+     * @param threads 工作线程数
+     * @return 对比结果（baseline、comparisons、identicalVariants），comparisons 顺序与 variantPaths 一致
+     * @throws RepositoryException 对比被中断
+     */
+    public Map<String, Object> compareAgainst(String baselinePath, Collection<String> variantPaths,
+                                              final SessionCallback sessions,
+                                              int threads) throws RepositoryException {
+        if (extractor == null) {
+            throw new IllegalStateException("没有 JCR 会话，只能对比已提取的组件信息");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("线程数必须大于 0");
+        }
+        
+        final Map<String, Object> baseline = extractor.extractComponentInfo(baselinePath);
+        final Map<String, String> baselineFingerprints = fingerprints(baseline);
+        final List<String> paths = new ArrayList<>(variantPaths);
+        final AtomicReferenceArray<Map<String, Object>> results = new AtomicReferenceArray<>(paths.size());
+        final AtomicInteger nextIndex = new AtomicInteger();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, paths.size())));
+        List<Future<?>> workers = new ArrayList<>();
+        String workerError = null;
+        try {
+            for (int t = 0; t < threads && t < paths.size(); t++) {
+                workers.add(executor.submit(() -> {
+                    Session workerSession = sessions.open();
+                    try {
+                        ComponentInfoExtractor workerExtractor = new ComponentInfoExtractor(workerSession);
+                        int index;
+                        while ((index = nextIndex.getAndIncrement()) < paths.size()) {
+                            String variantPath = paths.get(index);
+                            try {
+                                Map<String, Object> variant = workerExtractor.extractComponentInfo(variantPath);
+                                results.set(index, compareWithBaseline(baselinePath, baseline, baselineFingerprints,
+                                    variantPath, variant));
+                            } catch (RuntimeException e) {
+                                results.set(index, errorComparison(baselinePath, variantPath,
+                                    "变体提取失败: " + e.getMessage()));
+                            }
+                        }
+                    } finally {
+                        sessions.close(workerSession);
+                    }
+                    return null;
+                }));
+            }
+            
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    workerError = e.getCause().getMessage();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("并行对比被中断", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        List<Map<String, Object>> comparisons = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            Map<String, Object> comparison = results.get(i);
+            comparisons.add(comparison != null ? comparison
+                : errorComparison(baselinePath, paths.get(i), "没有可用的工作线程会话: " + workerError));
+        }
+        return buildAgainstResult(baselinePath, comparisons);
+    }
+
+    /**
+     * 一对多对比已提取的组件信息
+     * 
+     * @param baseline 基准组件信息
+     * @param variants 变体组件信息
+     * @return 对比结果（baseline、comparisons、identicalVariants）
+     */
+    public Map<String, Object> compareAgainst(Map<String, Object> baseline,
+                                              Collection<Map<String, Object>> variants) {
+        List<String> paths = new ArrayList<>(variants.size());
+        for (Map<String, Object> variant : variants) {
+            paths.add(ComponentExporter.extractComponentPath(variant));
+        }
+        return compareAgainst(ComponentExporter.extractComponentPath(baseline), baseline,
+            paths, new ArrayList<>(variants));
+    }
+
+    private Map<String, Object> compareAgainst(String baselinePath, Map<String, Object> baseline,
+                                               List<String> variantPaths, List<Map<String, Object>> variants) {
+        Map<String, String> baselineFingerprints = fingerprints(baseline);
+        List<Map<String, Object>> comparisons = new ArrayList<>(variants.size());
+        for (int i = 0; i < variants.size(); i++) {
+            comparisons.add(compareWithBaseline(baselinePath, baseline, baselineFingerprints,
+                variantPaths.get(i), variants.get(i)));
+        }
+        return buildAgainstResult(baselinePath, comparisons);
+    }
+
+    private Map<String, Object> compareWithBaseline(String baselinePath, Map<String, Object> baseline,
+                                                    Map<String, String> baselineFingerprints,
+                                                    String variantPath, Map<String, Object> variant) {
+        if (baseline.containsKey("error") || variant.containsKey("error")) {
+            return errorComparison(baselinePath, variantPath,
+                String.valueOf(baseline.containsKey("error") ? baseline.get("error") : variant.get("error")));
+        }
+        Map<String, Object> comparison = compareComponentInfos(baseline, baselineFingerprints, variant, fingerprints(variant));
+        comparison.put("component1", baselinePath);
+        comparison.put("component2", variantPath);
+        return comparison;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> buildAgainstResult(String baselinePath, List<Map<String, Object>> comparisons) {
+        List<String> identicalVariants = new ArrayList<>();
+        for (Map<String, Object> comparison : comparisons) {
+            Map<String, Object> summary = (Map<String, Object>) comparison.get("summary");
+            if (summary != null && Boolean.TRUE.equals(summary.get("componentsIdentical"))) {
+                identicalVariants.add((String) comparison.get("component2"));
+            }
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("baseline", baselinePath);
+        result.put("comparisons", comparisons);
+        result.put("identicalVariants", identicalVariants);
+        return result;
+    }
+
+    private static Map<String, Object> errorComparison(String baselinePath, String variantPath, String error) {
+        Map<String, Object> comparison = new HashMap<>();
+        comparison.put("error", error);
+        comparison.put("component1", baselinePath);
+        comparison.put("component2", variantPath);
+        return comparison;
+    }
+
+    /**
+     * 计算各段落的指纹（基本属性、对话框）
+     * 
+     * 段落指纹相同时直接判定该段落相同，跳过逐字段对比。
+     * 计算前去掉组件自身的标识（componentPath、componentName 以及对话框字段的绝对路径 path，
+     * 见 {@link DedupComponentExporter#COMPONENT_SPECIFIC_KEYS}），
+     * 否则不同路径下内容相同的组件（如 /apps 覆盖 /libs）永远不会短路。
+     */
+    private static Map<String, String> fingerprints(Map<String, Object> info) {
+        Map<String, String> fingerprints = new HashMap<>();
+        for (String section : FINGERPRINT_SECTIONS) {
+            try {
+                Object shared = DedupComponentExporter.stripComponentSpecific(
+                    info.get(section), "", new ArrayList<Map<String, Object>>());
+                fingerprints.put(section, DedupComponentExporter.fingerprint(shared));
+            } catch (IOException e) {
+                // 无法序列化的段落不做短路，按原逻辑逐项对比
+            }
+        }
+        return fingerprints;
+    }
+
+    private static boolean sameSection(Map<String, String> fingerprints1, Map<String, String> fingerprints2,
+                                       String section) {
+        if (fingerprints1 == null || fingerprints2 == null) {
+            return false;
+        }
+        String fingerprint = fingerprints1.get(section);
+        return fingerprint != null && fingerprint.equals(fingerprints2.get(section));
+    }
+
+    private Map<String, Object> compareComponentInfos(Map<String, Object> info1, Map<String, String> fingerprints1,
+                                                      Map<String, Object> info2, Map<String, String> fingerprints2) {
+        Map<String, Object> comparison = new HashMap<>();
+        
+        comparison.put("component1", ComponentExporter.extractComponentPath(info1));
+        comparison.put("component2", ComponentExporter.extractComponentPath(info2));
         
         // 对比基本属性
-        Map<String, Object> basicDiff = compareBasicProperties(info1, info2);
+        Map<String, Object> basicDiff = sameSection(fingerprints1, fingerprints2, "basicProperties")
+            ? identicalDiff("differences") : compareBasicProperties(info1, info2);
         comparison.put("basicProperties", basicDiff);
         
-        // 对比对话框
-        Map<String, Object> dialogDiff = compareDialogs(info1, info2);
+        // 对比对话框（指纹相同时跳过结构对比）
+        boolean sameDialog = sameSection(fingerprints1, fingerprints2, "dialog");
+        Map<String, Object> dialogDiff = compareDialogs(info1, info2, sameDialog);
         comparison.put("dialog", dialogDiff);
         
-        // 对比字段
-        Map<String, Object> fieldsDiff = compareFields(info1, info2);
+        // 对比字段（对话框指纹相同时字段必然相同）
+        Map<String, Object> fieldsDiff = sameDialog ? identicalDiff("different") : compareFields(info1, info2);
         comparison.put("fields", fieldsDiff);
         
         // 对比依赖
@@ -77,6 +361,32 @@ public class ComponentComparator {
         return comparison;
     }
 
+    /**
+     * 段落相同时的对比结果（与逐项对比得到的结构一致）
+     * 
+     * @param differencesKey 差异列表的键（基本属性为 differences，字段为 different）
+     */
+    private static Map<String, Object> identicalDiff(String differencesKey) {
+        Map<String, Object> diff = new HashMap<>();
+        diff.put(differencesKey, new ArrayList<String>());
+        diff.put("onlyInComponent1", new ArrayList<String>());
+        diff.put("onlyInComponent2", new ArrayList<String>());
+        diff.put("identical", true);
+        return diff;
+    }
+
+    /**
+     * 对话框相同时的结构对比结果（与 DialogTreeDiff 相同时的结果一致，但不统计节点数）
+     */
+    private static Map<String, Object> identicalStructure() {
+        Map<String, Object> structure = new HashMap<>();
+        structure.put("identical", true);
+        structure.put("distance", 0);
+        structure.put("operations", new ArrayList<Map<String, Object>>());
+        structure.put("summary", new HashMap<String, Integer>());
+        return structure;
+    }
+
     /**
      * 对比基本属性
      */
@@ -97,21 +407,24 @@ public class ComponentComparator {
         List<String> onlyIn1 = new ArrayList<>();
         List<String> onlyIn2 = new ArrayList<>();
         
-        // 检查所有属性
+        // 检查所有属性（组件路径和名称是组件的标识，不算差异；与指纹的计算保持一致）
         for (String key : props1.keySet()) {
+            if (DedupComponentExporter.COMPONENT_SPECIFIC_KEYS.contains(key)) {
+                continue;
+            }
             String value1 = props1.get(key);
             String value2 = props2.get(key);
             
-            if (value2 == null) {
+            if (!props2.containsKey(key)) {
                 onlyIn1.add(key);
-            } else if (!value1.equals(value2)) {
+            } else if (!Objects.equals(value1, value2)) {
                 differences.add(key + ": '" + value1 + "' vs '" + value2 + "'");
             }
         }
         
         // 检查只在第二个组件中存在的属性
         for (String key : props2.keySet()) {
-            if (!props1.containsKey(key)) {
+            if (!props1.containsKey(key) && !DedupComponentExporter.COMPONENT_SPECIFIC_KEYS.contains(key)) {
                 onlyIn2.add(key);
             }
         }
@@ -125,18 +438,21 @@ public class ComponentComparator {
     }
 
     /**
-     * 对比对话框
+     * 对比对话框（类型相同时附带 DialogTreeDiff 的结构差异）
+     * 
+     * @param sameDialog 对话框指纹相同：结构差异直接记为相同，不再构建和对比对话框树
      */
     @SuppressWarnings("unchecked")
     private Map<String, Object> compareDialogs(Map<String, Object> info1, 
-                                               Map<String, Object> info2) {
+                                               Map<String, Object> info2,
+                                               boolean sameDialog) {
         Map<String, Object> diff = new HashMap<>();
         
         Map<String, Object> dialog1 = (Map<String, Object>) info1.get("dialog");
         Map<String, Object> dialog2 = (Map<String, Object>) info2.get("dialog");
         
-        String type1 = (String) dialog1.get("type");
-        String type2 = (String) dialog2.get("type");
+        String type1 = dialog1 != null && dialog1.get("type") != null ? (String) dialog1.get("type") : "none";
+        String type2 = dialog2 != null && dialog2.get("type") != null ? (String) dialog2.get("type") : "none";
         
         diff.put("type1", type1);
         diff.put("type2", type2);
@@ -144,13 +460,10 @@ public class ComponentComparator {
         
         // 如果类型相同，进一步对比
         if (type1.equals(type2) && !"none".equals(type1)) {
-            List<Map<String, Object>> fields1 = 
-                (List<Map<String, Object>>) dialog1.get("fields");
-            List<Map<String, Object>> fields2 = 
-                (List<Map<String, Object>>) dialog2.get("fields");
-            
-            diff.put("fieldsCount1", fields1 != null ? fields1.size() : 0);
-            diff.put("fieldsCount2", fields2 != null ? fields2.size() : 0);
+            diff.put("fieldsCount1", ComponentExporter.extractDialogFields(info1).size());
+            diff.put("fieldsCount2", ComponentExporter.extractDialogFields(info2).size());
+            // 结构对比：移动、重命名和嵌套变化
+            diff.put("structure", sameDialog ? identicalStructure() : DialogTreeDiff.compare(info1, info2));
         }
         
         return diff;
@@ -164,16 +477,9 @@ public class ComponentComparator {
                                              Map<String, Object> info2) {
         Map<String, Object> diff = new HashMap<>();
         
-        Map<String, Object> dialog1 = (Map<String, Object>) info1.get("dialog");
-        Map<String, Object> dialog2 = (Map<String, Object>) info2.get("dialog");
-        
-        List<Map<String, Object>> fields1 = 
-            (List<Map<String, Object>>) dialog1.get("fields");
-        List<Map<String, Object>> fields2 = 
-            (List<Map<String, Object>>) dialog2.get("fields");
-        
-        if (fields1 == null) fields1 = new ArrayList<>();
-        if (fields2 == null) fields2 = new ArrayList<>();
+        // 兼容 fields 位于 dialog 下或 touchDialog / classicDialog 下的结构
+        List<Map<String, Object>> fields1 = ComponentExporter.extractDialogFields(info1);
+        List<Map<String, Object>> fields2 = ComponentExporter.extractDialogFields(info2);
         
         // 构建字段映射（以字段名称为键）
         Map<String, Map<String, Object>> fieldsMap1 = new HashMap<>();
@@ -266,8 +572,8 @@ public class ComponentComparator {
         Map<String, Object> deps1 = (Map<String, Object>) info1.get("dependencies");
         Map<String, Object> deps2 = (Map<String, Object>) info2.get("dependencies");
         
-        String superType1 = (String) deps1.get("resourceSuperType");
-        String superType2 = (String) deps2.get("resourceSuperType");
+        String superType1 = deps1 != null ? (String) deps1.get("resourceSuperType") : null;
+        String superType2 = deps2 != null ? (String) deps2.get("resourceSuperType") : null;
         
         diff.put("superType1", superType1);
         diff.put("superType2", superType2);
@@ -0,0 +1,292 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 增量导出器（JSON Patch）
+ *
+ * 比较上一次导出和本次导出，只输出变化的部分：
+ * - patches.ndjson：每行一个变化的组件 {"componentPath": ..., "patch": [RFC 6902 操作]}
+ * - added.ndjson：新增组件的完整信息，每行一个
+ * - delta.json：新增和删除的组件路径列表，以及变化/未变化的组件数量
+ *
+ * 两边的组件都按路径排序读取，做一次归并：每一步只把两个组件放在内存中，
+ * 因此两次导出都不需要整体装入内存。extractedAt 等每次导出都会变化的字段不参与比较。
+ *
+ * 使用示例：
+ * <pre>
+ * try (ComponentSource previous = ComponentDeltaExporter.openSource("exports/2024-01-01");
+ *      ComponentSource current = ComponentDeltaExporter.openSource("exports/2024-01-02/components.carc")) {
+ *     new ComponentDeltaExporter(false).exportDelta(previous, current, "exports/delta");
+ * }
+ * </pre>
+ */
+public class ComponentDeltaExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ComponentDeltaExporter.class);
+
+    /**
+     * 不参与比较的顶层字段
+     */
+    public static final Set<String> IGNORED_KEYS = Collections.unmodifiableSet(
+        new HashSet<>(Collections.singletonList("extractedAt")));
+
+    static final String PATCHES_FILE = "patches.ndjson";
+    static final String ADDED_FILE = "added.ndjson";
+    static final String DELTA_FILE = "delta.json";
+    static final String SNAPSHOT_FILE = "components.carc";
+
+    private final ObjectWriter lineWriter;
+    private final ObjectWriter summaryWriter;
+
+    /**
+     * 按路径排序的组件来源（上一次导出或本次导出）
+     */
+    public interface ComponentSource extends Closeable {
+
+        /**
+         * 按字典序返回所有组件路径
+         */
+        Iterator<String> paths();
+
+        /**
+         * 读取组件信息
+         *
+         * @param componentPath 组件路径
+         * @return 组件信息
+         * @throws IOException 读取错误
+         */
+        Map<String, Object> read(String componentPath) throws IOException;
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param pretty delta.json 是否格式化输出（ndjson 文件总是紧凑格式）
+     */
+    public ComponentDeltaExporter(boolean pretty) {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+        this.lineWriter = mapper.writer();
+        this.summaryWriter = pretty ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+    }
+
+    /**
+     * 打开一次导出作为组件来源
+     *
+     * 支持：
+     * - 归档文件（{@link ComponentArchiveWriter}）
+     * - 包含 components.carc 的目录（上一次增量导出的输出目录）
+     * - 包含 index.json 的导出目录（ComponentExporter / ParallelComponentExporter / DedupComponentExporter）
+     *
+     * @param exportPath 导出路径
+     * @return 组件来源
+     * @throws IOException 路径不存在或格式无法识别
+     */
+    public static ComponentSource openSource(String exportPath) throws IOException {
+        Path path = Paths.get(exportPath);
+        if (Files.isRegularFile(path)) {
+            return new ArchiveSource(ComponentArchiveReader.open(path));
+        }
+        if (Files.isRegularFile(path.resolve(DedupComponentExporter.INDEX_FILE))) {
+            return new DirectorySource(path);
+        }
+        if (Files.isRegularFile(path.resolve(SNAPSHOT_FILE))) {
+            return new ArchiveSource(ComponentArchiveReader.open(path.resolve(SNAPSHOT_FILE)));
+        }
+        throw new IOException("无法识别的导出: " + exportPath + "（需要归档文件或包含 index.json 的目录）");
+    }
+
+    /**
+     * 计算增量并写出到目录
+     *
+     * @param previous 上一次导出
+     * @param current 本次导出
+     * @param outputDirectory 输出目录
+     * @return 增量统计（added、removed、changed、unchanged、operations）
+     * @throws IOException 读写错误
+     */
+    public Map<String, Object> exportDelta(ComponentSource previous, ComponentSource current,
+                                           String outputDirectory) throws IOException {
+        Path directory = Paths.get(outputDirectory);
+        Files.createDirectories(directory);
+
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        int changed = 0;
+        int unchanged = 0;
+        long operations = 0;
+
+        try (BufferedWriter patchesOut = Files.newBufferedWriter(directory.resolve(PATCHES_FILE), StandardCharsets.UTF_8);
+             BufferedWriter addedOut = Files.newBufferedWriter(directory.resolve(ADDED_FILE), StandardCharsets.UTF_8)) {
+
+            Iterator<String> previousPaths = previous.paths();
+            Iterator<String> currentPaths = current.paths();
+            String previousPath = next(previousPaths);
+            String currentPath = next(currentPaths);
+
+            while (previousPath != null || currentPath != null) {
+                int order = previousPath == null ? 1
+                    : currentPath == null ? -1
+                    : previousPath.compareTo(currentPath);
+
+                if (order < 0) {
+                    removed.add(previousPath);
+                    previousPath = next(previousPaths);
+                } else if (order > 0) {
+                    added.add(currentPath);
+                    writeLine(addedOut, current.read(currentPath));
+                    currentPath = next(currentPaths);
+                } else {
+                    List<Map<String, Object>> patch = JsonPatch.diff(
+                        JsonPatch.withoutKeys(previous.read(previousPath), IGNORED_KEYS),
+                        JsonPatch.withoutKeys(current.read(currentPath), IGNORED_KEYS));
+                    if (patch.isEmpty()) {
+                        unchanged++;
+                    } else {
+                        Map<String, Object> line = new HashMap<>();
+                        line.put("componentPath", currentPath);
+                        line.put("patch", patch);
+                        writeLine(patchesOut, line);
+                        changed++;
+                        operations += patch.size();
+                    }
+                    previousPath = next(previousPaths);
+                    currentPath = next(currentPaths);
+                }
+            }
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("added", added.size());
+        stats.put("removed", removed.size());
+        stats.put("changed", changed);
+        stats.put("unchanged", unchanged);
+        stats.put("operations", operations);
+
+        Map<String, Object> delta = new HashMap<>(stats);
+        delta.put("generatedAt", System.currentTimeMillis());
+        delta.put("addedComponents", added);
+        delta.put("removedComponents", removed);
+        summaryWriter.writeValue(directory.resolve(DELTA_FILE).toFile(), delta);
+
+        log.info("增量导出完成: 新增 {}, 删除 {}, 变化 {}, 未变化 {}",
+            added.size(), removed.size(), changed, unchanged);
+        return stats;
+    }
+
+    private void writeLine(BufferedWriter out, Object value) throws IOException {
+        out.write(lineWriter.writeValueAsString(value));
+        out.write('\n');
+    }
+
+    private static String next(Iterator<String> paths) {
+        return paths.hasNext() ? paths.next() : null;
+    }
+
+    /**
+     * 归档来源：索引本身按路径排序
+     */
+    static class ArchiveSource implements ComponentSource {
+        private final ComponentArchiveReader reader;
+
+        ArchiveSource(ComponentArchiveReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Iterator<String> paths() {
+            return reader.getIndex().keySet().iterator();
+        }
+
+        @Override
+        public Map<String, Object> read(String componentPath) throws IOException {
+            return reader.read(componentPath);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * 目录来源：只把 index.json 中的路径 → 文件名排序后放在内存中，组件文件按需读取
+     */
+    static class DirectorySource implements ComponentSource {
+        private final Path directory;
+        private final NavigableMap<String, String> files = new TreeMap<>();
+        private final DedupExportReader dedupReader;
+        private final Map<ExportFormat, ObjectMapper> mappers = new EnumMap<>(ExportFormat.class);
+
+        @SuppressWarnings("unchecked")
+        DirectorySource(Path directory) throws IOException {
+            this.directory = directory;
+            this.dedupReader = Files.exists(directory.resolve(DedupComponentExporter.SECTIONS_FILE))
+                ? new DedupExportReader(directory.toString()) : null;
+
+            Map<String, Object> index = new ObjectMapper().readValue(
+                directory.resolve(DedupComponentExporter.INDEX_FILE).toFile(), Map.class);
+            Object components = index.get("components");
+            if (components instanceof List) {
+                for (Map<String, String> summary : (List<Map<String, String>>) components) {
+                    if (summary.get("path") != null && summary.get("file") != null) {
+                        files.put(summary.get("path"), summary.get("file"));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Iterator<String> paths() {
+            return files.keySet().iterator();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> read(String componentPath) throws IOException {
+            String file = files.get(componentPath);
+            if (file == null) {
+                return null;
+            }
+            if (dedupReader != null) {
+                return dedupReader.readComponent(componentPath);
+            }
+            int dot = file.lastIndexOf('.');
+            ExportFormat format = ExportFormat.fromName(file.substring(dot + 1));
+            ObjectMapper mapper = mappers.get(format);
+            if (mapper == null) {
+                mapper = format.createObjectMapper(false);
+                mappers.put(format, mapper);
+            }
+            return mapper.readValue(directory.resolve(file).toFile(), Map.class);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 环境漂移报告（dev / stage / prod 组件定义对比）
+ *
+ * 输入是两个环境各自的一次导出（归档文件或导出目录，见 {@link ComponentDeltaExporter#openSource}），
+ * 两边按组件路径排序归并：每一步只有两个组件在内存中，报告逐行写出，
+ * 因此几万个组件的仓库也只占用常量内存。
+ *
+ * 每个组件先计算整体指纹（与 key 顺序无关的 SHA-256，忽略 extractedAt），
+ * 指纹相同即视为一致；只有指纹不同的组件才逐段计算指纹并生成 JSON Patch。
+ *
+ * 输出：
+ * - drift.ndjson：每行一个不一致的组件 {"componentPath", "status", "sections", "patch"}，
+ *   status 为 different 或 only-&lt;环境名&gt;
+ * - drift.json：环境名称、一致/不一致/单边组件数量，以及每个段落的漂移次数
+ *
+ * 使用示例：
+ * <pre>
+ * try (ComponentSource stage = ComponentDeltaExporter.openSource("exports/stage.carc");
+ *      ComponentSource prod = ComponentDeltaExporter.openSource("exports/prod")) {
+ *     Map<String, Object> summary = new ComponentDriftReporter("stage", "prod", true)
+ *         .report(stage, prod, "reports/stage-vs-prod");
+ * }
+ * </pre>
+ */
+public class ComponentDriftReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ComponentDriftReporter.class);
+
+    static final String DRIFT_FILE = "drift.ndjson";
+    static final String SUMMARY_FILE = "drift.json";
+
+    private final String environment1;
+    private final String environment2;
+    private final boolean includePatch;
+    private final ObjectWriter lineWriter;
+    private final ObjectWriter summaryWriter;
+
+    /**
+     * 构造函数
+     *
+     * @param environment1 第一个环境名称（如 stage）
+     * @param environment2 第二个环境名称（如 prod）
+     * @param includePatch 是否为不一致的组件写出 JSON Patch（从环境1到环境2）
+     */
+    public ComponentDriftReporter(String environment1, String environment2, boolean includePatch) {
+        if (environment1.equals(environment2)) {
+            throw new IllegalArgumentException("两个环境名称不能相同: " + environment1);
+        }
+        this.environment1 = environment1;
+        this.environment2 = environment2;
+        this.includePatch = includePatch;
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+        this.lineWriter = mapper.writer();
+        this.summaryWriter = mapper.writerWithDefaultPrettyPrinter();
+    }
+
+    /**
+     * 对比两个环境的导出并写出报告
+     *
+     * @param source1 环境1的导出
+     * @param source2 环境2的导出
+     * @param outputDirectory 输出目录
+     * @return 汇总（identical、different、onlyIn、driftedSections 等，与 drift.json 相同）
+     * @throws IOException 读写错误
+     */
+    public Map<String, Object> report(ComponentDeltaExporter.ComponentSource source1,
+                                      ComponentDeltaExporter.ComponentSource source2,
+                                      String outputDirectory) throws IOException {
+        Path directory = Paths.get(outputDirectory);
+        Files.createDirectories(directory);
+
+        int identical = 0;
+        int different = 0;
+        int onlyIn1 = 0;
+        int onlyIn2 = 0;
+        Map<String, Integer> driftedSections = new TreeMap<>();
+
+        try (BufferedWriter out = Files.newBufferedWriter(directory.resolve(DRIFT_FILE), StandardCharsets.UTF_8)) {
+            Iterator<String> paths1 = source1.paths();
+            Iterator<String> paths2 = source2.paths();
+            String path1 = next(paths1);
+            String path2 = next(paths2);
+
+            while (path1 != null || path2 != null) {
+                int order = path1 == null ? 1
+                    : path2 == null ? -1
+                    : path1.compareTo(path2);
+
+                if (order < 0) {
+                    writeLine(out, onlyIn(path1, environment1));
+                    onlyIn1++;
+                    path1 = next(paths1);
+                } else if (order > 0) {
+                    writeLine(out, onlyIn(path2, environment2));
+                    onlyIn2++;
+                    path2 = next(paths2);
+                } else {
+                    Map<String, Object> info1 = JsonPatch.withoutKeys(source1.read(path1), ComponentDeltaExporter.IGNORED_KEYS);
+                    Map<String, Object> info2 = JsonPatch.withoutKeys(source2.read(path2), ComponentDeltaExporter.IGNORED_KEYS);
+
+                    if (DedupComponentExporter.fingerprint(info1).equals(DedupComponentExporter.fingerprint(info2))) {
+                        identical++;
+                    } else {
+                        List<String> sections = driftedSections(info1, info2);
+                        for (String section : sections) {
+                            driftedSections.put(section, driftedSections.containsKey(section)
+                                ? driftedSections.get(section) + 1 : 1);
+                        }
+                        Map<String, Object> line = new LinkedHashMap<>();
+                        line.put("componentPath", path1);
+                        line.put("status", "different");
+                        line.put("sections", sections);
+                        if (includePatch) {
+                            line.put("patch", JsonPatch.diff(info1, info2));
+                        }
+                        writeLine(out, line);
+                        different++;
+                    }
+                    path1 = next(paths1);
+                    path2 = next(paths2);
+                }
+            }
+        }
+
+        Map<String, Integer> onlyIn = new LinkedHashMap<>();
+        onlyIn.put(environment1, onlyIn1);
+        onlyIn.put(environment2, onlyIn2);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("environments", new String[]{environment1, environment2});
+        summary.put("identical", identical);
+        summary.put("different", different);
+        summary.put("onlyIn", onlyIn);
+        summary.put("driftedSections", driftedSections);
+        summary.put("inSync", different == 0 && onlyIn1 == 0 && onlyIn2 == 0);
+        summary.put("generatedAt", System.currentTimeMillis());
+        summaryWriter.writeValue(directory.resolve(SUMMARY_FILE).toFile(), summary);
+
+        log.info("漂移报告完成 ({} vs {}): 一致 {}, 不一致 {}, 仅{} {}, 仅{} {}",
+            environment1, environment2, identical, different, environment1, onlyIn1, environment2, onlyIn2);
+        return summary;
+    }
+
+    /**
+     * 逐段比较指纹，返回不一致的顶层段落（按名称排序）
+     */
+    static List<String> driftedSections(Map<String, Object> info1, Map<String, Object> info2) throws IOException {
+        TreeSet<String> keys = new TreeSet<>(info1.keySet());
+        keys.addAll(info2.keySet());
+        List<String> sections = new ArrayList<>();
+        for (String key : keys) {
+            Object section1 = info1.get(key);
+            Object section2 = info2.get(key);
+            if (section1 == null || section2 == null
+                ? section1 != section2
+                : !DedupComponentExporter.fingerprint(section1).equals(DedupComponentExporter.fingerprint(section2))) {
+                sections.add(key);
+            }
+        }
+        return sections;
+    }
+
+    private Map<String, Object> onlyIn(String componentPath, String environment) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("componentPath", componentPath);
+        line.put("status", "only-" + environment);
+        return line;
+    }
+
+    private void writeLine(BufferedWriter out, Object value) throws IOException {
+        out.write(lineWriter.writeValueAsString(value));
+        out.write('\n');
+    }
+
+    private static String next(Iterator<String> paths) {
+        return paths.hasNext() ? paths.next() : null;
+    }
+}
@@ -1,16 +1,21 @@
 package com.aem.component.info;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
 
@@ -18,29 +23,55 @@ import java.util.Map;
  * 组件导出器
  * 
  * 将提取的组件信息导出为 JSON 格式，方便后续处理和 React 重构。
+ * 机器间传输时可以选择 Smile / CBOR 二进制格式（见 {@link ExportFormat}）。
  * 
  * 使用示例：
  * <pre>
  * ComponentExporter exporter = new ComponentExporter();
  * exporter.exportComponentToJson(componentInfo, "/path/to/output.json");
+ * 
+ * ComponentExporter binaryExporter = new ComponentExporter(ExportFormat.SMILE, false);
+ * byte[] bytes = binaryExporter.exportComponentToBytes(componentInfo);
  * </pre>
  */
 public class ComponentExporter {
 
     private static final Logger log = LoggerFactory.getLogger(ComponentExporter.class);
     
+    private final ExportFormat format;
     private final ObjectMapper objectMapper;
+    // 字符串导出和索引文件始终使用 JSON
+    private final ObjectMapper jsonMapper;
 
     public ComponentExporter() {
-        this.objectMapper = new ObjectMapper();
         // 格式化 JSON 输出，便于阅读
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-        // 处理空值
-        this.objectMapper.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+        this(ExportFormat.JSON, true);
     }
 
     /**
-     * 导出单个组件信息为 JSON 文件
+     * 构造函数
+     * 
+     * @param format 导出格式
+     * @param pretty 是否格式化输出（仅对 JSON 生效）
+     */
+    public ComponentExporter(ExportFormat format, boolean pretty) {
+        this.format = format;
+        this.objectMapper = format.createObjectMapper(pretty);
+        this.jsonMapper = format == ExportFormat.JSON 
+            ? objectMapper : ExportFormat.JSON.createObjectMapper(pretty);
+    }
+
+    /**
+     * 获取导出格式
+     */
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * 导出单个组件信息为文件
+     * 
+     * 文件内容使用构造时指定的格式（默认 JSON）。
      * 
      * @param componentInfo 组件信息 Map
      * @param outputPath 输出文件路径
@@ -71,12 +102,26 @@ public class ComponentExporter {
      */
     public String exportComponentToJsonString(Map<String, Object> componentInfo) 
             throws IOException {
-        return objectMapper.writeValueAsString(componentInfo);
+        return jsonMapper.writeValueAsString(componentInfo);
+    }
+
+    /**
+     * 导出组件信息为字节数组（使用构造时指定的格式）
+     * 
+     * @param componentInfo 组件信息 Map
+     * @return 编码后的字节
+     * @throws IOException 序列化错误
+     */
+    public byte[] exportComponentToBytes(Map<String, Object> componentInfo) 
+            throws IOException {
+        return objectMapper.writeValueAsBytes(componentInfo);
     }
 
     /**
      * 批量导出多个组件信息
      * 
+     * 逐个组件串行写出。组件数量较多时可以使用 {@link ParallelComponentExporter} 并行写出。
+     * 
      * @param componentsInfo 组件信息列表
      * @param outputDirectory 输出目录
      * @throws IOException 文件写入错误
@@ -92,7 +137,7 @@ public class ComponentExporter {
             try {
                 // 从组件信息中获取组件名称
                 String componentName = extractComponentName(componentInfo);
-                String outputPath = outputDirectory + File.separator + componentName + ".json";
+                String outputPath = outputDirectory + File.separator + componentName + "." + format.getFileExtension();
                 
                 exportComponentToJson(componentInfo, outputPath);
                 exportedCount++;
@@ -108,6 +153,171 @@ public class ComponentExporter {
         exportIndexFile(componentsInfo, outputDirectory);
     }
 
+    /**
+     * 流式批量导出组件信息到单个文件
+     * 
+     * 边提取边写出：每个组件提取完成后立即通过同一个 JsonGenerator 写入文件，
+     * 不会在内存中构建完整的组件列表，适合任意规模的批量导出。
+     * 
+     * @param extractor 组件信息提取器
+     * @param basePath 组件基础路径
+     * @param outputPath 输出文件路径（如 components.ndjson）
+     * @param format 输出格式（NDJSON 或 JSON 数组）
+     * @param pretty 是否格式化输出（默认应为 false，仅对 JSON 数组生效）
+     * @return 导出的组件数量
+     * @throws IOException 文件写入错误
+     * @throws RepositoryException 遍历仓库出错（不完整的输出文件会被删除）
+     */
+    public int exportComponentsStreaming(ComponentInfoExtractor extractor, String basePath,
+                                         String outputPath, ComponentStreamWriter.Format format,
+                                         boolean pretty) throws IOException, RepositoryException {
+        
+        File outputFile = new File(outputPath);
+        File parentDir = outputFile.getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+        
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile));
+             ComponentStreamWriter writer = new ComponentStreamWriter(out, format, pretty)) {
+            extractor.extractComponentsFromPath(basePath, writer);
+            log.info("成功流式导出 " + writer.getCount() + " 个组件到: " + outputPath);
+            return writer.getCount();
+        } catch (IOException | RepositoryException e) {
+            // 关闭写出器时会补全 JSON 数组，截断的文件看起来和完整导出一样
+            outputFile.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * 批量导出组件到单个归档文件
+     * 
+     * 每个组件单独压缩，文件末尾带有路径索引，读取方可以只解压需要的组件
+     * （见 {@link ComponentArchiveReader}）。组件编码使用构造时指定的格式。
+     * 
+     * @param extractor 组件信息提取器
+     * @param basePath 组件基础路径
+     * @param outputPath 归档文件路径
+     * @return 导出的组件数量
+     * @throws IOException 文件写入错误
+     * @throws RepositoryException 遍历仓库出错（此时不会留下归档文件）
+     */
+    public int exportComponentsToArchive(ComponentInfoExtractor extractor, String basePath,
+                                         String outputPath) throws IOException, RepositoryException {
+        
+        File parentDir = new File(outputPath).getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+        
+        try (ComponentArchiveWriter writer = new ComponentArchiveWriter(outputPath, format)) {
+            extractor.extractComponentsFromPath(basePath, writer);
+            writer.finish();
+            log.info("成功导出 " + writer.getCount() + " 个组件到归档: " + outputPath);
+            return writer.getCount();
+        }
+    }
+
+    /**
+     * 批量导出组件，共享的对话框和客户端库段落只写一次
+     *
+     * 输出目录格式见 {@link DedupComponentExporter}，读取时使用 {@link DedupExportReader}。
+     * 去重导出总是 JSON 格式。
+     *
+     * @param extractor 组件信息提取器
+     * @param basePath 组件基础路径
+     * @param outputDirectory 输出目录
+     * @param pretty 组件文件是否格式化输出
+     * @return 去重统计（components、sectionReferences、uniqueSections、bytesSaved）
+     * @throws IOException 文件写入错误
+     * @throws RepositoryException 遍历仓库出错
+     */
+    public Map<String, Object> exportComponentsDeduplicated(ComponentInfoExtractor extractor, String basePath,
+                                                            String outputDirectory, boolean pretty)
+            throws IOException, RepositoryException {
+
+        DedupComponentExporter exporter = new DedupComponentExporter(outputDirectory, pretty);
+        try {
+            extractor.extractComponentsFromPath(basePath, exporter);
+        } finally {
+            exporter.close();
+        }
+        return exporter.getStats();
+    }
+
+    /**
+     * 流式导出字段级扁平表格（每个对话框字段一行）
+     * 
+     * 供分析人员直接导入电子表格或 DuckDB，列定义见 {@link ComponentFieldTableWriter}。
+     * 边提取边写出，内存占用恒定。
+     * 
+     * @param extractor 组件信息提取器
+     * @param basePath 组件基础路径
+     * @param outputPath 输出文件路径（.tsv 为制表符分隔，其他为 CSV）
+     * @return 写出的字段行数
+     * @throws IOException 文件写入错误
+     * @throws RepositoryException 遍历仓库出错
+     */
+    public long exportFieldTable(ComponentInfoExtractor extractor, String basePath,
+                                 String outputPath) throws IOException, RepositoryException {
+        
+        File parentDir = new File(outputPath).getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+        
+        try (ComponentFieldTableWriter writer = new ComponentFieldTableWriter(
+                Files.newBufferedWriter(Paths.get(outputPath), java.nio.charset.StandardCharsets.UTF_8),
+                ComponentFieldTableWriter.Format.fromFileName(outputPath))) {
+            extractor.extractComponentsFromPath(basePath, writer);
+            log.info("成功导出 " + writer.getComponentCount() + " 个组件的 " + writer.getRowCount() 
+                + " 个字段到: " + outputPath);
+            return writer.getRowCount();
+        }
+    }
+
+    /**
+     * 增量导出：只输出相对上一次导出变化的组件（JSON Patch）
+     *
+     * 本次提取结果先写成按路径索引的归档（保存为输出目录中的 components.carc，
+     * 可以作为下一次增量导出的 previousExport），然后与上一次导出按路径归并比较。
+     * 输出文件格式见 {@link ComponentDeltaExporter}。
+     *
+     * @param extractor 组件信息提取器
+     * @param basePath 组件基础路径
+     * @param previousExport 上一次导出（归档文件、导出目录或上一次增量导出的输出目录）
+     * @param outputDirectory 输出目录
+     * @return 增量统计（added、removed、changed、unchanged、operations）
+     * @throws IOException 文件读写错误
+     * @throws RepositoryException 遍历仓库出错（此时不会替换快照）
+     */
+    public Map<String, Object> exportDelta(ComponentInfoExtractor extractor, String basePath,
+                                           String previousExport, String outputDirectory)
+            throws IOException, RepositoryException {
+
+        Path directory = Paths.get(outputDirectory);
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(ComponentDeltaExporter.SNAPSHOT_FILE);
+        Path tempSnapshot = directory.resolve(ComponentDeltaExporter.SNAPSHOT_FILE + ".tmp");
+
+        try (ComponentArchiveWriter writer = new ComponentArchiveWriter(tempSnapshot.toString(), format)) {
+            extractor.extractComponentsFromPath(basePath, writer);
+            writer.finish();
+        }
+
+        Map<String, Object> stats;
+        try (ComponentDeltaExporter.ComponentSource previous = ComponentDeltaExporter.openSource(previousExport);
+             ComponentDeltaExporter.ComponentSource current = ComponentDeltaExporter.openSource(tempSnapshot.toString())) {
+            stats = new ComponentDeltaExporter(true).exportDelta(previous, current, outputDirectory);
+        }
+
+        // 上一次导出可能就是这个目录中的快照，比较完成后再替换
+        Files.move(tempSnapshot, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        log.info("增量导出完成，新快照: " + snapshot);
+        return stats;
+    }
+
     /**
      * 导出索引文件（列出所有导出的组件）
      * 
@@ -126,21 +336,10 @@ public class ComponentExporter {
         // 组件列表（简化信息）
         List<Map<String, String>> componentList = new java.util.ArrayList<>();
         for (Map<String, Object> componentInfo : componentsInfo) {
-            Map<String, String> componentSummary = new java.util.HashMap<>();
-            
-            @SuppressWarnings("unchecked")
-            Map<String, String> basicProperties = 
-                (Map<String, String>) componentInfo.get("basicProperties");
-            
-            if (basicProperties != null) {
-                componentSummary.put("name", basicProperties.get("componentName"));
-                componentSummary.put("title", basicProperties.get("jcr:title"));
-                componentSummary.put("resourceType", basicProperties.get("sling:resourceType"));
-                componentSummary.put("path", basicProperties.get("componentPath"));
-                componentSummary.put("group", basicProperties.get("componentGroup"));
-                componentSummary.put("file", extractComponentName(componentInfo) + ".json");
+            Map<String, String> componentSummary = summarizeComponent(componentInfo);
+            if (componentSummary.containsKey("file")) {
+                componentSummary.put("file", extractComponentName(componentInfo) + "." + format.getFileExtension());
             }
-            
             componentList.add(componentSummary);
         }
         
@@ -148,17 +347,64 @@ public class ComponentExporter {
         
         // 写入索引文件
         String indexPath = outputDirectory + File.separator + "index.json";
-        objectMapper.writeValue(new File(indexPath), index);
+        jsonMapper.writeValue(new File(indexPath), index);
         log.info("索引文件已导出到: " + indexPath);
     }
 
+    /**
+     * 生成索引文件中的组件摘要
+     * 
+     * @param componentInfo 组件信息
+     * @return 组件摘要（名称、标题、资源类型、路径、分组、文件名）
+     */
+    static Map<String, String> summarizeComponent(Map<String, Object> componentInfo) {
+        Map<String, String> componentSummary = new java.util.HashMap<>();
+        
+        @SuppressWarnings("unchecked")
+        Map<String, String> basicProperties = 
+            (Map<String, String>) componentInfo.get("basicProperties");
+        
+        if (basicProperties != null) {
+            componentSummary.put("name", basicProperties.get("componentName"));
+            componentSummary.put("title", basicProperties.get("jcr:title"));
+            componentSummary.put("resourceType", basicProperties.get("sling:resourceType"));
+            componentSummary.put("path", basicProperties.get("componentPath"));
+            componentSummary.put("group", basicProperties.get("componentGroup"));
+            componentSummary.put("file", extractComponentName(componentInfo) + ".json");
+        }
+        
+        return componentSummary;
+    }
+
+    /**
+     * 从组件信息中提取组件路径（用于归档、增量导出等以路径为键的场景）
+     * 
+     * @param componentInfo 组件信息
+     * @return 组件路径，如果无法确定则返回 null
+     */
+    static String extractComponentPath(Map<String, Object> componentInfo) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> basicProperties = 
+            (Map<String, String>) componentInfo.get("basicProperties");
+        
+        if (basicProperties != null) {
+            String path = basicProperties.get("componentPath");
+            if (path != null && !path.isEmpty()) {
+                return path;
+            }
+        }
+        
+        Object path = componentInfo.get("componentPath");
+        return path != null && !path.toString().isEmpty() ? path.toString() : null;
+    }
+
     /**
      * 从组件信息中提取组件名称（用于文件名）
      * 
      * @param componentInfo 组件信息
      * @return 组件名称
      */
-    private String extractComponentName(Map<String, Object> componentInfo) {
+    static String extractComponentName(Map<String, Object> componentInfo) {
         // 尝试从不同位置获取组件名称
         @SuppressWarnings("unchecked")
         Map<String, String> basicProperties = 
@@ -188,7 +434,7 @@ public class ComponentExporter {
      * @param fileName 原始文件名
      * @return 清理后的文件名
      */
-    private String sanitizeFileName(String fileName) {
+    private static String sanitizeFileName(String fileName) {
         // 移除路径分隔符和其他不安全字符
         return fileName.replaceAll("[^a-zA-Z0-9._-]", "_");
     }
@@ -282,13 +528,64 @@ public class ComponentExporter {
         log.info("React 组件建议已导出到: " + outputPath);
     }
 
+    /**
+     * 从组件信息中提取对话框字段
+     * 
+     * 兼容 fields 直接位于 dialog 下，或位于 touchDialog / classicDialog 下的结构；
+     * 同时存在时优先使用 Touch UI 对话框。
+     * 
+     * @param componentInfo 组件信息
+     * @return 字段列表，没有对话框时返回空列表
+     */
+    @SuppressWarnings("unchecked")
+    static List<Map<String, Object>> extractDialogFields(Map<String, Object> componentInfo) {
+        Object dialogInfo = componentInfo.get("dialog");
+        if (!(dialogInfo instanceof Map)) {
+            return java.util.Collections.emptyList();
+        }
+        
+        Map<String, Object> dialog = (Map<String, Object>) dialogInfo;
+        for (String key : new String[]{"touchDialog", "classicDialog"}) {
+            Object nested = dialog.get(key);
+            if (nested instanceof Map && ((Map<String, Object>) nested).get("fields") instanceof List) {
+                return (List<Map<String, Object>>) ((Map<String, Object>) nested).get("fields");
+            }
+        }
+        
+        Object fields = dialog.get("fields");
+        return fields instanceof List ? (List<Map<String, Object>>) fields : java.util.Collections.emptyList();
+    }
+
+    /**
+     * 获取字段的组件类型
+     * 
+     * 依次使用字段属性中的 sling:resourceType（Touch UI）、xtype（经典 UI），最后使用节点类型。
+     * 
+     * @param field 对话框字段信息
+     * @return 字段类型，无法确定时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    static String extractFieldType(Map<String, Object> field) {
+        if (field.get("properties") instanceof Map) {
+            Map<String, Object> properties = (Map<String, Object>) field.get("properties");
+            for (String key : new String[]{"sling:resourceType", "xtype"}) {
+                Object type = properties.get(key);
+                if (type != null && !type.toString().isEmpty()) {
+                    return type.toString();
+                }
+            }
+        }
+        Object nodeType = field.get("nodeType");
+        return nodeType != null ? nodeType.toString() : null;
+    }
+
     /**
      * 根据字段类型推断 TypeScript 类型
      * 
-     * @param nodeType 节点类型
+     * @param nodeType 节点类型（或字段的 sling:resourceType / xtype）
      * @return TypeScript 类型字符串
      */
-    private String inferTypeFromFieldType(String nodeType) {
+    static String inferTypeFromFieldType(String nodeType) {
         if (nodeType == null) {
             return "string";
         }
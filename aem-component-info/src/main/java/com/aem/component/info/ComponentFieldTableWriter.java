@@ -0,0 +1,178 @@
+package com.aem.component.info;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 字段级扁平表格写出器（CSV / TSV）
+ *
+ * 每个对话框字段一行，边提取边写出，内存占用与组件数量无关。
+ * 输出可以直接导入电子表格或 DuckDB（read_csv_auto）。
+ *
+ * 列：component, componentPath, resourceType, group, fieldName, fieldType,
+ * required, defaultValue, optionCount, superType
+ *
+ * 使用示例：
+ * <pre>
+ * try (Writer out = Files.newBufferedWriter(Paths.get("fields.tsv"), StandardCharsets.UTF_8);
+ *      ComponentFieldTableWriter writer = new ComponentFieldTableWriter(out, ComponentFieldTableWriter.Format.TSV)) {
+ *     extractor.extractComponentsFromPath("/apps/myproject/components", writer);
+ * }
+ * </pre>
+ */
+public class ComponentFieldTableWriter implements ComponentInfoExtractor.ComponentInfoHandler, Flushable, Closeable {
+
+    /**
+     * 表格格式
+     */
+    public enum Format {
+        /** 逗号分隔，按 RFC 4180 加引号转义 */
+        CSV(','),
+        /** 制表符分隔，值中的制表符和换行替换为空格 */
+        TSV('\t');
+
+        private final char delimiter;
+
+        Format(char delimiter) {
+            this.delimiter = delimiter;
+        }
+
+        /**
+         * 根据文件扩展名选择格式，.tsv 以外都使用 CSV
+         */
+        public static Format fromFileName(String fileName) {
+            return fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".tsv") ? TSV : CSV;
+        }
+    }
+
+    static final String[] COLUMNS = {
+        "component", "componentPath", "resourceType", "group", "fieldName", "fieldType",
+        "required", "defaultValue", "optionCount", "superType"
+    };
+
+    private final Writer out;
+    private final Format format;
+    private final String[] row = new String[COLUMNS.length];
+    private long rowCount;
+    private int componentCount;
+
+    /**
+     * 构造函数（立即写出表头）
+     *
+     * @param out 输出（建议使用 BufferedWriter，关闭写出器时一并关闭）
+     * @param format 表格格式
+     * @throws IOException 写出错误
+     */
+    public ComponentFieldTableWriter(Writer out, Format format) throws IOException {
+        this.out = out;
+        this.format = format;
+        writeRow(COLUMNS);
+    }
+
+    /**
+     * 写出一个组件的所有字段行
+     *
+     * @param componentInfo 组件信息
+     * @throws IOException 写出错误
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Map<String, Object> componentInfo) throws IOException {
+        Map<String, String> basicProperties = componentInfo.get("basicProperties") instanceof Map
+            ? (Map<String, String>) componentInfo.get("basicProperties") : Collections.<String, String>emptyMap();
+
+        row[0] = ComponentExporter.extractComponentName(componentInfo);
+        row[1] = ComponentExporter.extractComponentPath(componentInfo);
+        row[2] = basicProperties.get("sling:resourceType");
+        row[3] = basicProperties.get("componentGroup");
+        row[9] = basicProperties.get("sling:resourceSuperType");
+
+        for (Map<String, Object> field : ComponentExporter.extractDialogFields(componentInfo)) {
+            Map<String, Object> properties = field.get("properties") instanceof Map
+                ? (Map<String, Object>) field.get("properties") : Collections.<String, Object>emptyMap();
+
+            Object name = field.get("name") != null ? field.get("name") : properties.get("name");
+            Object defaultValue = field.get("defaultValue") != null ? field.get("defaultValue") : properties.get("value");
+            Object options = field.get("options");
+
+            row[4] = name != null ? name.toString() : null;
+            row[5] = ComponentExporter.extractFieldType(field);
+            row[6] = String.valueOf(Boolean.TRUE.equals(field.get("required"))
+                || "true".equals(String.valueOf(properties.get("required"))));
+            row[7] = defaultValue != null ? defaultValue.toString() : null;
+            row[8] = String.valueOf(options instanceof List ? ((List<?>) options).size() : 0);
+            writeRow(row);
+            rowCount++;
+        }
+        componentCount++;
+    }
+
+    @Override
+    public boolean handle(Map<String, Object> componentInfo) throws IOException {
+        write(componentInfo);
+        return true;
+    }
+
+    /**
+     * 获取已写出的字段行数（不含表头）
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 获取已处理的组件数量
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeRow(String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(format.delimiter);
+            }
+            writeValue(values[i]);
+        }
+        out.write('\n');
+    }
+
+    private void writeValue(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        if (format == Format.TSV) {
+            out.write(value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' '));
+            return;
+        }
+
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (quote) {
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        } else {
+            out.write(value);
+        }
+    }
+}
@@ -2,8 +2,11 @@ package com.aem.component.info;
 
 import com.aem.component.util.JCRUtil;
 import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.PathNotFoundException;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -23,15 +26,99 @@ import java.util.Map;
  */
 public class ComponentInfoExtractor {
 
+    /**
+     * 错误信息中 status 的取值：组件不存在或不是组件节点
+     */
+    public static final int STATUS_NOT_FOUND = 404;
+
+    /**
+     * 错误信息中 status 的取值：提取过程出错
+     */
+    public static final int STATUS_ERROR = 500;
+
     private final Session session;
+    private final ComponentTypeResolver typeResolver;
+
+    /**
+     * 组件信息处理器（流式批量提取时使用）
+     * 
+     * 每提取完一个组件就回调一次，处理完后组件信息即可被回收，
+     * 因此批量处理的内存占用与组件数量无关。
+     */
+    public interface ComponentInfoHandler {
+        /**
+         * 处理一个组件的信息
+         * 
+         * @param componentInfo 组件信息
+         * @return 返回 false 时停止继续提取
+         * @throws IOException 写出错误（会中止提取并向上抛出）
+         */
+        boolean handle(Map<String, Object> componentInfo) throws IOException;
+    }
+
+    /**
+     * 段落耗时监听器（性能统计时使用）
+     * 
+     * 完整提取时每提取完一个段落（basicProperties、dialog、template 等）回调一次。
+     */
+    public interface SectionListener {
+        /**
+         * @param section 段落名称（与组件信息中的键相同）
+         * @param elapsedNanos 提取该段落的耗时（纳秒）
+         */
+        void sectionExtracted(String section, long elapsedNanos);
+    }
+
+    private SectionListener sectionListener;
+
+    /**
+     * 组件信息对应的 HTTP 状态码
+     *
+     * 没有 error 时为 200；错误信息带有 status 时使用它，否则按 {@link #STATUS_ERROR} 处理。
+     *
+     * @param componentInfo 组件信息或错误信息
+     * @return HTTP 状态码
+     */
+    public static int statusOf(Map<String, Object> componentInfo) {
+        if (!componentInfo.containsKey("error")) {
+            return 200;
+        }
+        Object status = componentInfo.get("status");
+        return status instanceof Number ? ((Number) status).intValue() : STATUS_ERROR;
+    }
 
     /**
      * 构造函数
      * 
+     * 解析缓存只在这个提取器内有效。按请求创建提取器的长期服务应使用下面的构造函数
+     * 传入共享的解析器（如 ComponentInfoServiceTemplate#getTypeResolver()）。
+     * 
      * @param session JCR 会话
      */
     public ComponentInfoExtractor(Session session) {
+        this(session, new ComponentTypeResolver());
+    }
+
+    /**
+     * 构造函数（共享资源类型解析缓存）
+     * 
+     * 批量扫描时多个提取器可以共享同一个解析器，避免重复解析相同的父组件类型。
+     * 
+     * @param session JCR 会话
+     * @param typeResolver 资源类型解析器
+     */
+    public ComponentInfoExtractor(Session session, ComponentTypeResolver typeResolver) {
         this.session = session;
+        this.typeResolver = typeResolver;
+    }
+
+    /**
+     * 设置段落耗时监听器
+     * 
+     * @param sectionListener 监听器，为 null 时不统计
+     */
+    public void setSectionListener(SectionListener sectionListener) {
+        this.sectionListener = sectionListener;
     }
 
     /**
@@ -54,6 +141,7 @@ public class ComponentInfoExtractor {
         Node componentNode = JCRUtil.getNode(session, componentPath);
         if (componentNode == null) {
             componentInfo.put("error", "组件节点不存在: " + componentPath);
+            componentInfo.put("status", STATUS_NOT_FOUND);
             return componentInfo;
         }
         
@@ -61,36 +149,45 @@ public class ComponentInfoExtractor {
             // 验证是否是组件节点
             if (!componentNode.isNodeType("cq:Component")) {
                 componentInfo.put("error", "指定的节点不是组件节点");
+                componentInfo.put("status", STATUS_NOT_FOUND);
                 return componentInfo;
             }
             
             // 1. 提取基本属性
+            long start = System.nanoTime();
             Map<String, String> basicProperties = ComponentPropertyExtractor.extractBasicProperties(componentNode);
             componentInfo.put("basicProperties", basicProperties);
+            start = sectionDone("basicProperties", start);
             
             // 2. 提取所有属性
             Map<String, Object> allProperties = ComponentPropertyExtractor.extractAllProperties(componentNode);
             componentInfo.put("properties", allProperties);
+            start = sectionDone("properties", start);
             
             // 3. 分析对话框
             Map<String, Object> dialogInfo = DialogAnalyzer.analyzeDialog(componentNode);
             componentInfo.put("dialog", dialogInfo);
+            start = sectionDone("dialog", start);
             
             // 4. 分析设计对话框
             Map<String, Object> designDialogInfo = DialogAnalyzer.analyzeDesignDialog(componentNode);
             componentInfo.put("designDialog", designDialogInfo);
+            start = sectionDone("designDialog", start);
             
             // 5. 提取模板文件信息
             Map<String, Object> templateInfo = extractTemplateInfo(componentNode);
             componentInfo.put("template", templateInfo);
+            start = sectionDone("template", start);
             
             // 6. 检查组件依赖
             Map<String, Object> dependencies = extractDependencies(componentNode);
             componentInfo.put("dependencies", dependencies);
+            start = sectionDone("dependencies", start);
             
             // 7. 提取组件使用信息（如果有）
             Map<String, Object> usageInfo = extractUsageInfo(componentNode);
             componentInfo.put("usage", usageInfo);
+            sectionDone("usage", start);
             
             // 8. 元数据
             componentInfo.put("extractedAt", System.currentTimeMillis());
@@ -99,12 +196,24 @@ public class ComponentInfoExtractor {
             
         } catch (RepositoryException e) {
             componentInfo.put("error", "提取组件信息时出错: " + e.getMessage());
+            componentInfo.put("status", STATUS_ERROR);
             e.printStackTrace();
         }
         
         return componentInfo;
     }
 
+    /**
+     * 通知段落耗时，返回下一个段落的开始时间
+     */
+    private long sectionDone(String section, long start) {
+        long now = System.nanoTime();
+        if (sectionListener != null) {
+            sectionListener.sectionExtracted(section, now - start);
+        }
+        return now;
+    }
+
     /**
      * 提取组件的模板文件信息
      * 
@@ -179,7 +288,10 @@ public class ComponentInfoExtractor {
                 dependencies.put("resourceSuperType", superType);
                 
                 // 如果父组件存在，可以递归提取父组件信息
-                if (JCRUtil.nodeExists(session, superType)) {
+                // superType 通常是相对资源类型，需要按搜索路径解析
+                String superTypePath = typeResolver.resolvePath(session, superType);
+                if (superTypePath != null) {
+                    dependencies.put("resourceSuperTypePath", superTypePath);
                     dependencies.put("resourceSuperTypeExists", true);
                 } else {
                     dependencies.put("resourceSuperTypeExists", false);
@@ -273,6 +385,55 @@ public class ComponentInfoExtractor {
         return componentsInfo;
     }
 
+    /**
+     * 流式批量提取组件信息
+     * 
+     * 与 {@link #extractComponentsFromPath(String)} 不同，这个方法不会把所有结果放进列表，
+     * 而是边遍历边提取，每个组件提取完成后立即交给 handler 处理。
+     * 
+     * @param basePath 基础路径（如 /apps/myproject/components）
+     * @param handler 组件信息处理器，返回 false 时停止提取
+     * @return 已处理的组件数量
+     * @throws IOException handler 抛出的写出错误
+     * @throws RepositoryException 基础路径不存在或遍历仓库出错（此时已处理的组件不完整）
+     */
+    public int extractComponentsFromPath(String basePath, ComponentInfoHandler handler) 
+            throws IOException, RepositoryException {
+        
+        Node baseNode = JCRUtil.getNode(session, basePath);
+        if (baseNode == null) {
+            throw new PathNotFoundException("基础路径不存在: " + basePath);
+        }
+        
+        int[] count = new int[1];
+        visitComponentNodes(baseNode, handler, count);
+        return count[0];
+    }
+
+    /**
+     * 递归遍历组件节点并逐个提取
+     * 
+     * @return 返回 false 表示 handler 要求停止
+     */
+    private boolean visitComponentNodes(Node node, ComponentInfoHandler handler, int[] count) 
+            throws RepositoryException, IOException {
+        
+        if (node.isNodeType("cq:Component")) {
+            Map<String, Object> componentInfo = extractComponentInfo(JCRUtil.getPath(node));
+            count[0]++;
+            return handler.handle(componentInfo);
+        }
+        
+        NodeIterator nodeIterator = node.getNodes();
+        while (nodeIterator.hasNext()) {
+            if (!visitComponentNodes(nodeIterator.nextNode(), handler, count)) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+
     /**
      * 递归查找组件节点
      * 
@@ -312,6 +473,7 @@ public class ComponentInfoExtractor {
         Node componentNode = JCRUtil.getNode(session, componentPath);
         if (componentNode == null) {
             componentInfo.put("error", "组件节点不存在: " + componentPath);
+            componentInfo.put("status", STATUS_NOT_FOUND);
             return componentInfo;
         }
         
@@ -326,6 +488,7 @@ public class ComponentInfoExtractor {
             
         } catch (RepositoryException e) {
             componentInfo.put("error", "提取组件信息时出错: " + e.getMessage());
+            componentInfo.put("status", STATUS_ERROR);
         }
         
         return componentInfo;
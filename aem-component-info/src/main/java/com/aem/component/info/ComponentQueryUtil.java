@@ -49,6 +49,22 @@ public class ComponentQueryUtil {
         return null;
     }
 
+    /**
+     * 根据资源类型查找组件节点（使用解析缓存）
+     * 
+     * 扫描大量内容时推荐使用这个方法：重复的资源类型直接命中缓存，
+     * 不再每次都探测 /apps 和 /libs。
+     * 
+     * @param session JCR 会话
+     * @param resourceType 资源类型
+     * @param resolver 资源类型解析器（可在多次调用之间共享）
+     * @return 组件节点，如果不存在则返回 null
+     */
+    public static Node findComponentByResourceType(Session session, String resourceType, 
+                                                   ComponentTypeResolver resolver) {
+        return resolver.resolve(session, resourceType);
+    }
+
     /**
      * 查找使用指定组件的所有页面内容节点
      * 
@@ -208,6 +224,9 @@ public class ComponentQueryUtil {
     /**
      * 搜索组件（根据名称、标题等）
      * 
+     * 注意：LIKE '%term%' 无法使用索引，每次调用都是全量扫描。
+     * 需要频繁搜索时（如组件选择器），请使用 {@link #buildSearchIndex(Session, String)}。
+     * 
      * @param session JCR 会话
      * @param searchTerm 搜索关键词
      * @param basePath 搜索基础路径
@@ -240,42 +259,42 @@ public class ComponentQueryUtil {
     /**
      * 获取组件统计信息（在指定路径下）
      * 
+     * 统计由 {@link ComponentStatisticsEngine} 在一次节点树遍历中完成，
+     * 不再为每个组件单独查询属性和对话框。除原有的分组、对话框统计外，
+     * 结果还包含对话框字段数和继承深度统计。
+     * 
      * @param session JCR 会话
      * @param basePath 基础路径
      * @return 统计信息
      */
     public static Map<String, Object> getComponentStatistics(Session session, String basePath) 
             throws RepositoryException {
+        return ComponentStatisticsEngine.compute(session, basePath);
+    }
+
+    /**
+     * 构建组件的内存搜索索引
+     * 
+     * 查询 basePath 下的所有组件，提取基本属性和对话框字段标签并建立 trigram 索引。
+     * 索引构建一次即可反复使用，组件变化后通过 addComponent / removeComponent 增量更新。
+     * 
+     * @param session JCR 会话
+     * @param basePath 基础路径
+     * @return 搜索索引
+     */
+    public static ComponentSearchIndex buildSearchIndex(Session session, String basePath) 
+            throws RepositoryException {
         
-        Map<String, Object> stats = new HashMap<>();
+        ComponentSearchIndex index = new ComponentSearchIndex();
         
         List<Node> components = findAllComponents(session, basePath);
-        stats.put("totalComponents", components.size());
-        
-        // 按组件分组统计
-        Map<String, Integer> groupCount = new HashMap<>();
-        int withDialog = 0;
-        int withDesignDialog = 0;
-        
         for (Node component : components) {
-            // 组件分组统计
-            String group = JCRUtil.getProperty(component, "componentGroup", "未分组");
-            groupCount.put(group, groupCount.getOrDefault(group, 0) + 1);
-            
-            // 对话框统计
-            if (ComponentPropertyExtractor.hasDialog(component)) {
-                withDialog++;
-            }
-            if (ComponentPropertyExtractor.hasDesignDialog(component)) {
-                withDesignDialog++;
-            }
+            Map<String, Object> componentInfo = new HashMap<>();
+            componentInfo.put("basicProperties", ComponentPropertyExtractor.extractBasicProperties(component));
+            componentInfo.put("dialog", DialogAnalyzer.analyzeDialog(component));
+            index.addComponent(componentInfo);
         }
         
-        stats.put("componentsByGroup", groupCount);
-        stats.put("componentsWithDialog", withDialog);
-        stats.put("componentsWithDesignDialog", withDesignDialog);
-        
-        return stats;
+        return index;
     }
 }
-
@@ -0,0 +1,481 @@
+package com.aem.component.info;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 组件搜索索引（内存 Trigram 索引）
+ *
+ * ComponentQueryUtil.searchComponents 使用 LIKE '%term%' 查询，无法利用索引，
+ * 每次搜索都是一次全量扫描。这个类在内存中为组件建立三元组（trigram）倒排索引，
+ * 适合组件选择器这类"每次按键都搜索"的场景。
+ *
+ * 索引的字段（按权重从高到低）：
+ * - 组件名称（节点名）
+ * - 标题（jcr:title）
+ * - 分组（componentGroup）
+ * - 描述（jcr:description）
+ * - 对话框字段标签（fieldLabel）
+ *
+ * 特性：
+ * - 一次构建，之后通过 addComponent / removeComponent 增量更新
+ * - 基于 trigram 重叠度打分，天然容忍拼写错误
+ * - 读写锁保护，支持并发查询
+ *
+ * 使用示例：
+ * <pre>
+ * ComponentSearchIndex index = ComponentQueryUtil.buildSearchIndex(session, "/apps/myproject");
+ * List&lt;Map&lt;String, Object&gt;&gt; hits = index.search("tesser", 10);
+ * </pre>
+ */
+public class ComponentSearchIndex {
+
+    /**
+     * 默认最低相似度，低于该值的结果不返回
+     */
+    public static final float DEFAULT_MIN_SCORE = 0.3f;
+
+    // 字段权重（归一化到 0~1，保证总分不超过 1）
+    private static final float WEIGHT_NAME = 1.0f;
+    private static final float WEIGHT_TITLE = 1.0f;
+    private static final float WEIGHT_GROUP = 0.6f;
+    private static final float WEIGHT_DESCRIPTION = 0.5f;
+    private static final float WEIGHT_FIELD_LABEL = 0.4f;
+
+    // 前缀/子串完全命中时的额外加分
+    private static final float EXACT_MATCH_BONUS = 0.5f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // trigram -> 倒排列表
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    // 组件路径 -> 文档 ID
+    private final Map<String, Integer> docIds = new HashMap<>();
+
+    // 文档 ID -> 文档（已删除的位置为 null，ID 会被复用）
+    private final List<Document> documents = new ArrayList<>();
+    private final List<Integer> freeIds = new ArrayList<>();
+
+    private final float minScore;
+
+    public ComponentSearchIndex() {
+        this(DEFAULT_MIN_SCORE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param minScore 最低相似度（0~1），低于该值的结果会被过滤
+     */
+    public ComponentSearchIndex(float minScore) {
+        this.minScore = minScore;
+    }
+
+    /**
+     * 从已提取的组件信息列表构建索引
+     *
+     * @param componentsInfo 组件信息列表（ComponentInfoExtractor 的输出）
+     * @return 构建好的索引
+     */
+    public static ComponentSearchIndex build(List<Map<String, Object>> componentsInfo) {
+        ComponentSearchIndex index = new ComponentSearchIndex();
+        for (Map<String, Object> componentInfo : componentsInfo) {
+            index.addComponent(componentInfo);
+        }
+        return index;
+    }
+
+    /**
+     * 添加或更新一个组件
+     *
+     * 如果组件路径已存在，旧的索引数据会先被移除。
+     *
+     * @param componentInfo 组件信息（至少需要 basicProperties.componentPath）
+     * @return 如果成功索引则返回 true
+     */
+    @SuppressWarnings("unchecked")
+    public boolean addComponent(Map<String, Object> componentInfo) {
+        Map<String, String> basicProperties =
+            (Map<String, String>) componentInfo.get("basicProperties");
+        if (basicProperties == null) {
+            return false;
+        }
+
+        String path = ComponentExporter.extractComponentPath(componentInfo);
+        if (path == null) {
+            return false;
+        }
+
+        Document document = new Document(path,
+            basicProperties.get("componentName"),
+            basicProperties.get("jcr:title"),
+            basicProperties.get("componentGroup"),
+            basicProperties.get("jcr:description"),
+            extractFieldLabels(componentInfo));
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(path);
+
+            int docId = freeIds.isEmpty() ? documents.size() : freeIds.remove(freeIds.size() - 1);
+            if (docId == documents.size()) {
+                documents.add(document);
+            } else {
+                documents.set(docId, document);
+            }
+            docIds.put(path, docId);
+
+            for (Map.Entry<String, Float> entry : document.trigrams.entrySet()) {
+                Postings list = postings.get(entry.getKey());
+                if (list == null) {
+                    list = new Postings();
+                    postings.put(entry.getKey(), list);
+                }
+                list.add(docId, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * 从索引中移除组件
+     *
+     * @param componentPath 组件路径
+     * @return 如果组件存在并被移除则返回 true
+     */
+    public boolean removeComponent(String componentPath) {
+        lock.writeLock().lock();
+        try {
+            return removeInternal(componentPath);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean removeInternal(String componentPath) {
+        Integer docId = docIds.remove(componentPath);
+        if (docId == null) {
+            return false;
+        }
+
+        Document document = documents.get(docId);
+        for (String trigram : document.trigrams.keySet()) {
+            Postings list = postings.get(trigram);
+            if (list != null) {
+                list.remove(docId);
+                if (list.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+        documents.set(docId, null);
+        freeIds.add(docId);
+        return true;
+    }
+
+    /**
+     * 搜索组件
+     *
+     * 结果按相似度从高到低排序，每个结果包含：
+     * componentPath、componentName、title、group、score
+     *
+     * @param searchTerm 搜索关键词（允许拼写错误）
+     * @param limit 最大返回数量，小于等于 0 表示不限制
+     * @return 排序后的搜索结果
+     */
+    public List<Map<String, Object>> search(String searchTerm, int limit) {
+        if (searchTerm == null) {
+            return Collections.emptyList();
+        }
+
+        String normalizedTerm = normalize(searchTerm);
+        List<String> queryTrigrams = new ArrayList<>(trigrams(normalizedTerm));
+        if (queryTrigrams.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            // 按文档 ID 累加分数，避免为每个候选创建对象
+            float[] scores = new float[documents.size()];
+            for (String trigram : queryTrigrams) {
+                Postings list = postings.get(trigram);
+                if (list == null) {
+                    continue;
+                }
+                for (int i = 0; i < list.size; i++) {
+                    scores[list.docIds[i]] += list.weights[i];
+                }
+            }
+
+            List<ScoredDocument> hits = new ArrayList<>();
+            for (int docId = 0; docId < scores.length; docId++) {
+                if (scores[docId] <= 0) {
+                    continue;
+                }
+                Document document = documents.get(docId);
+                float score = scores[docId] / queryTrigrams.size();
+                if (document.containsExact(normalizedTerm)) {
+                    score += EXACT_MATCH_BONUS;
+                }
+                if (score >= minScore) {
+                    hits.add(new ScoredDocument(document, score));
+                }
+            }
+
+            Collections.sort(hits);
+            if (limit > 0 && hits.size() > limit) {
+                hits = hits.subList(0, limit);
+            }
+
+            List<Map<String, Object>> result = new ArrayList<>(hits.size());
+            for (ScoredDocument hit : hits) {
+                result.add(hit.toMap());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取已索引的组件数量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 检查组件是否已被索引
+     */
+    public boolean contains(String componentPath) {
+        lock.readLock().lock();
+        try {
+            return docIds.containsKey(componentPath);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docIds.clear();
+            documents.clear();
+            freeIds.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从组件信息中提取对话框字段标签
+     *
+     * 兼容两种结构：fields 直接位于 dialog 下，或位于 touchDialog / classicDialog 下。
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> extractFieldLabels(Map<String, Object> componentInfo) {
+        List<String> labels = new ArrayList<>();
+
+        Map<String, Object> dialogInfo = (Map<String, Object>) componentInfo.get("dialog");
+        if (dialogInfo == null) {
+            return labels;
+        }
+
+        collectFieldLabels(dialogInfo.get("fields"), labels);
+        for (String key : new String[]{"touchDialog", "classicDialog"}) {
+            Object dialog = dialogInfo.get(key);
+            if (dialog instanceof Map) {
+                collectFieldLabels(((Map<String, Object>) dialog).get("fields"), labels);
+            }
+        }
+
+        return labels;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectFieldLabels(Object fields, List<String> labels) {
+        if (!(fields instanceof List)) {
+            return;
+        }
+        for (Object field : (List<Object>) fields) {
+            if (field instanceof Map) {
+                Object label = ((Map<String, Object>) field).get("fieldLabel");
+                if (label != null) {
+                    labels.add(label.toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * 规范化文本：小写，非字母数字字符替换为空格
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) ? c : ' ');
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * 生成文本的 trigram 集合
+     *
+     * 每个词前后各补一个空格，这样短词和词首词尾也能产生 trigram。
+     *
+     * @param normalizedText 规范化后的文本
+     * @return trigram 集合
+     */
+    static Set<String> trigrams(String normalizedText) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String word : normalizedText.split(" +")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 索引中的一个组件文档
+     */
+    private static class Document {
+        final String path;
+        final String name;
+        final String title;
+        final String group;
+        final String[] searchableTexts;
+        // trigram -> 该 trigram 在本文档中出现的最高字段权重
+        final Map<String, Float> trigrams = new HashMap<>();
+
+        Document(String path, String name, String title, String group,
+                 String description, List<String> fieldLabels) {
+            this.path = path;
+            this.name = name;
+            this.title = title;
+            this.group = group;
+
+            String normalizedName = normalize(name);
+            String normalizedTitle = normalize(title);
+            this.searchableTexts = new String[]{normalizedName, normalizedTitle};
+
+            addField(normalizedName, WEIGHT_NAME);
+            addField(normalizedTitle, WEIGHT_TITLE);
+            addField(normalize(group), WEIGHT_GROUP);
+            addField(normalize(description), WEIGHT_DESCRIPTION);
+            for (String label : fieldLabels) {
+                addField(normalize(label), WEIGHT_FIELD_LABEL);
+            }
+        }
+
+        private void addField(String normalizedText, float weight) {
+            for (String trigram : ComponentSearchIndex.trigrams(normalizedText)) {
+                Float existing = trigrams.get(trigram);
+                if (existing == null || existing < weight) {
+                    trigrams.put(trigram, weight);
+                }
+            }
+        }
+
+        boolean containsExact(String normalizedTerm) {
+            for (String text : searchableTexts) {
+                if (!text.isEmpty() && text.contains(normalizedTerm)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 带分数的搜索结果（按分数降序，分数相同按路径升序）
+     */
+    private static class ScoredDocument implements Comparable<ScoredDocument> {
+        final Document document;
+        final float score;
+
+        ScoredDocument(Document document, float score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(ScoredDocument other) {
+            int byScore = Float.compare(other.score, score);
+            return byScore != 0 ? byScore : document.path.compareTo(other.document.path);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> hit = new HashMap<>();
+            hit.put("componentPath", document.path);
+            hit.put("componentName", document.name);
+            hit.put("title", document.title);
+            hit.put("group", document.group);
+            hit.put("score", score);
+            return hit;
+        }
+    }
+
+    /**
+     * 单个 trigram 的倒排列表（基本类型数组，避免装箱）
+     */
+    private static class Postings {
+        int[] docIds = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        void add(int docId, float weight) {
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docIds[size] = docId;
+            weights[size] = weight;
+            size++;
+        }
+
+        void remove(int docId) {
+            for (int i = 0; i < size; i++) {
+                if (docIds[i] == docId) {
+                    // 用最后一个元素填补空位
+                    size--;
+                    docIds[i] = docIds[size];
+                    weights[i] = weights[size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.aem.component.info;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 近似重复组件查找器（MinHash + LSH）
+ *
+ * ComponentComparator 每次只能对比两个组件，在几千个组件中两两对比需要几百万次调用。
+ * 这个查找器为每个组件计算一次 MinHash 签名，用局部敏感哈希（LSH）分桶找出候选对，
+ * 只对候选对计算精确 Jaccard 相似度并运行 ComponentComparator 的详细对比。
+ *
+ * 组件的特征集合包括：
+ * - 对话框字段（字段名 + 字段类型，以及单独的字段名）
+ * - 基本属性中有区分度的部分（父类型、图标、标签）
+ *
+ * 路径、名称、标题等标识性属性每个组件都不同，节点类型、组件分组和模板文件名
+ * （提取器只识别 component.html 等固定文件名）几乎每个组件都相同，都不参与计算，
+ * 否则它们会冲淡或抬高字段的相似度。没有对话框字段的组件不参与查找：
+ * 只剩基本属性时，继承同一个父类型的组件都会显得完全相同。
+ *
+ * 默认 128 个哈希函数分为 32 个 band（每个 band 4 行）：Jaccard 相似度 0.6 的组件对
+ * 被选为候选的概率约 99%，0.2 的约 5%。
+ *
+ * 使用示例：
+ * <pre>
+ * ComponentSimilarityFinder finder = new ComponentSimilarityFinder();
+ * extractor.extractComponentsFromPath("/apps", finder);
+ * List&lt;Map&lt;String, Object&gt;&gt; duplicates = finder.findDuplicates(0.7, new ComponentComparator(), archive::read);
+ * </pre>
+ */
+public class ComponentSimilarityFinder implements ComponentInfoExtractor.ComponentInfoHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ComponentSimilarityFinder.class);
+
+    /**
+     * 不参与相似度计算的基本属性（每个组件都不同，或几乎每个组件都相同）
+     */
+    private static final Set<String> IGNORED_PROPERTIES = new HashSet<>(Arrays.asList(
+        "componentPath", "componentName", "jcr:title", "jcr:description", "sling:resourceType",
+        "primaryNodeType", "isCqComponent", "componentGroup"));
+
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+
+    private final List<String> paths = new ArrayList<>();
+    private final List<int[]> signatures = new ArrayList<>();
+    // 特征哈希（已排序），用于候选对的精确 Jaccard 计算
+    private final List<int[]> features = new ArrayList<>();
+    // 每个 band 一个桶表：band 哈希 → 组件下标
+    private final List<Map<Long, List<Integer>>> buckets = new ArrayList<>();
+    private int skipped;
+
+    /**
+     * 使用默认参数：32 个 band × 4 行
+     */
+    public ComponentSimilarityFinder() {
+        this(32, 4);
+    }
+
+    /**
+     * 构造函数
+     *
+     * band 越多、每个 band 行数越少，召回率越高，候选对也越多。
+     *
+     * @param bands band 数量
+     * @param rows 每个 band 的行数（签名长度 = bands × rows）
+     */
+    public ComponentSimilarityFinder(int bands, int rows) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("band 数量和行数必须大于 0");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = new long[bands * rows];
+        // 固定种子，保证多次运行结果一致
+        Random random = new Random(0x5EED);
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        for (int b = 0; b < bands; b++) {
+            buckets.add(new HashMap<Long, List<Integer>>());
+        }
+    }
+
+    /**
+     * 添加组件：计算特征集合和签名并放入 LSH 桶，不保存组件信息本身
+     *
+     * @param componentInfo 组件信息
+     */
+    public void add(Map<String, Object> componentInfo) {
+        String path = ComponentExporter.extractComponentPath(componentInfo);
+        int[] featureHashes = featureHashes(componentInfo);
+        if (path == null || featureHashes.length == 0) {
+            // 没有对话框字段的组件不参与比较
+            skipped++;
+            return;
+        }
+
+        int[] signature = signature(featureHashes);
+        int index = paths.size();
+        paths.add(path);
+        signatures.add(signature);
+        features.add(featureHashes);
+
+        for (int b = 0; b < bands; b++) {
+            long bandHash = b;
+            for (int r = 0; r < rows; r++) {
+                bandHash = bandHash * 0x9E3779B97F4A7C15L + signature[b * rows + r];
+            }
+            List<Integer> bucket = buckets.get(b).get(bandHash);
+            if (bucket == null) {
+                bucket = new ArrayList<>(2);
+                buckets.get(b).put(bandHash, bucket);
+            }
+            bucket.add(index);
+        }
+    }
+
+    @Override
+    public boolean handle(Map<String, Object> componentInfo) {
+        add(componentInfo);
+        return true;
+    }
+
+    /**
+     * 获取已添加的组件数量
+     */
+    public int size() {
+        return paths.size();
+    }
+
+    /**
+     * 获取因没有对话框字段而跳过的组件数量
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * 查找相似度不低于阈值的组件对（不做详细对比）
+     *
+     * @param threshold Jaccard 相似度阈值（0~1）
+     * @return 组件对列表（component1、component2、similarity），按相似度降序
+     */
+    public List<Map<String, Object>> findSimilarPairs(double threshold) {
+        Set<Long> seen = new HashSet<>();
+        List<Map<String, Object>> pairs = new ArrayList<>();
+        long candidates = 0;
+
+        for (Map<Long, List<Integer>> bandBuckets : buckets) {
+            for (List<Integer> bucket : bandBuckets.values()) {
+                for (int i = 0; i < bucket.size(); i++) {
+                    for (int j = i + 1; j < bucket.size(); j++) {
+                        int a = bucket.get(i);
+                        int b = bucket.get(j);
+                        if (!seen.add(((long) a << 32) | b)) {
+                            continue;
+                        }
+                        candidates++;
+                        double similarity = jaccard(features.get(a), features.get(b));
+                        if (similarity >= threshold) {
+                            Map<String, Object> pair = new HashMap<>();
+                            pair.put("component1", paths.get(a));
+                            pair.put("component2", paths.get(b));
+                            pair.put("similarity", similarity);
+                            pairs.add(pair);
+                        }
+                    }
+                }
+            }
+        }
+
+        pairs.sort((p1, p2) -> Double.compare((Double) p2.get("similarity"), (Double) p1.get("similarity")));
+        log.info("相似组件查找: {} 个组件, {} 个候选对, {} 对相似度 >= {}（跳过 {} 个没有对话框字段的组件）",
+            paths.size(), candidates, pairs.size(), threshold, skipped);
+        return pairs;
+    }
+
+    /**
+     * 查找相似组件对并对每一对运行 ComponentComparator 详细对比
+     *
+     * @param threshold Jaccard 相似度阈值（0~1）
+     * @param comparator 组件对比器（可以使用无会话的 {@code new ComponentComparator()}）
+     * @param loader 按路径加载组件信息（如 ComponentArchiveReader::read 或 Map::get）
+     * @return 组件对列表（component1、component2、similarity、comparison），按相似度降序
+     * @throws IOException 加载组件信息失败
+     */
+    public List<Map<String, Object>> findDuplicates(double threshold, ComponentComparator comparator,
+                                                    ComponentLoader loader) throws IOException {
+        List<Map<String, Object>> pairs = findSimilarPairs(threshold);
+        for (Map<String, Object> pair : pairs) {
+            Map<String, Object> info1 = loader.load((String) pair.get("component1"));
+            Map<String, Object> info2 = loader.load((String) pair.get("component2"));
+            if (info1 != null && info2 != null) {
+                pair.put("comparison", comparator.compareComponentInfos(info1, info2));
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * 按路径加载组件信息
+     */
+    public interface ComponentLoader {
+        Map<String, Object> load(String componentPath) throws IOException;
+    }
+
+    /**
+     * 把相似组件对合并为重复组（并查集），用于决定组件合并方案
+     *
+     * @param pairs findSimilarPairs / findDuplicates 的结果
+     * @return 每组的组件路径（组内和组间均按路径排序），只包含两个及以上组件的组
+     */
+    public static List<List<String>> groupPairs(Collection<Map<String, Object>> pairs) {
+        Map<String, String> parent = new HashMap<>();
+        for (Map<String, Object> pair : pairs) {
+            String root1 = find(parent, (String) pair.get("component1"));
+            String root2 = find(parent, (String) pair.get("component2"));
+            if (!root1.equals(root2)) {
+                parent.put(root1, root2);
+            }
+        }
+
+        Map<String, List<String>> groups = new TreeMap<>();
+        for (String path : new ArrayList<>(parent.keySet())) {
+            String root = find(parent, path);
+            List<String> group = groups.get(root);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(root, group);
+            }
+            group.add(path);
+        }
+
+        List<List<String>> result = new ArrayList<>();
+        for (List<String> group : groups.values()) {
+            Collections.sort(group);
+            result.add(group);
+        }
+        result.sort((g1, g2) -> g1.get(0).compareTo(g2.get(0)));
+        return result;
+    }
+
+    private static String find(Map<String, String> parent, String path) {
+        String root = path;
+        String next;
+        while ((next = parent.get(root)) != null && !next.equals(root)) {
+            root = next;
+        }
+        parent.put(root, root);
+        // 路径压缩
+        String current = path;
+        while (!current.equals(root)) {
+            next = parent.get(current);
+            parent.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    /**
+     * 计算组件特征集合的哈希（去重并排序）
+     *
+     * @return 特征哈希；没有对话框字段时为空数组
+     */
+    @SuppressWarnings("unchecked")
+    static int[] featureHashes(Map<String, Object> componentInfo) {
+        Set<String> tokens = new HashSet<>();
+
+        for (Map<String, Object> field : ComponentExporter.extractDialogFields(componentInfo)) {
+            Object name = field.get("name");
+            if (name == null && field.get("properties") instanceof Map) {
+                name = ((Map<String, Object>) field.get("properties")).get("name");
+            }
+            if (name != null) {
+                tokens.add("fieldName:" + name);
+                tokens.add("field:" + name + "|" + ComponentExporter.extractFieldType(field));
+            }
+        }
+        if (tokens.isEmpty()) {
+            return new int[0];
+        }
+
+        if (componentInfo.get("basicProperties") instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) componentInfo.get("basicProperties")).entrySet()) {
+                if (!IGNORED_PROPERTIES.contains(entry.getKey()) && entry.getValue() != null) {
+                    tokens.add("prop:" + entry.getKey() + "=" + entry.getValue());
+                }
+            }
+        }
+
+        int[] hashes = new int[tokens.size()];
+        int i = 0;
+        for (String token : tokens) {
+            hashes[i++] = (int) mix(token.hashCode());
+        }
+        Arrays.sort(hashes);
+        // 去掉哈希碰撞产生的重复值
+        int unique = 0;
+        for (int k = 0; k < hashes.length; k++) {
+            if (k == 0 || hashes[k] != hashes[k - 1]) {
+                hashes[unique++] = hashes[k];
+            }
+        }
+        return Arrays.copyOf(hashes, unique);
+    }
+
+    /**
+     * MinHash 签名：每个哈希函数取特征集合上的最小值
+     */
+    private int[] signature(int[] featureHashes) {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int feature : featureHashes) {
+            for (int h = 0; h < seeds.length; h++) {
+                int value = (int) mix(feature ^ seeds[h]);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 两个已排序特征集合的精确 Jaccard 相似度
+     */
+    static double jaccard(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int intersection = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                intersection++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - intersection;
+        return union == 0 ? 0 : (double) intersection / union;
+    }
+
+    /**
+     * 64 位混合函数（MurmurHash3 fmix64）
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
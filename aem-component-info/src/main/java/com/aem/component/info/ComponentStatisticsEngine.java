@@ -0,0 +1,338 @@
+package com.aem.component.info;
+
+import com.aem.component.util.JCRUtil;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 组件统计引擎
+ *
+ * ComponentQueryUtil.getComponentStatistics 原先先查询所有组件，再对每个组件分别调用
+ * getProperty、hasDialog、hasDesignDialog，每个组件多出三次仓库访问。
+ * 这个引擎只遍历一次节点树，在遍历过程中同时计算：
+ * - 组件总数和按分组统计
+ * - 有对话框 / 设计对话框的组件数
+ * - 对话框字段数（总数、最大值、分布）
+ * - 继承深度（sling:resourceSuperType 链长度），按组件统计：分布的总数等于组件总数，
+ *   /apps 下覆盖 /libs 的同名组件各算一个；沿继承链解析父类型时与 Sling 一样优先使用 /apps 下的定义
+ *
+ * 计数全部使用基本类型，不为每个组件创建中间对象。
+ * 对于大型仓库，可以按子路径分区并行统计，每个分区使用独立的会话（JCR 会话不是线程安全的）。
+ *
+ * 使用示例：
+ * <pre>
+ * Map&lt;String, Object&gt; stats = ComponentStatisticsEngine.compute(session, "/apps/myproject");
+ * </pre>
+ */
+public class ComponentStatisticsEngine {
+
+    // 对话框子树由字段计数单独处理，遍历组件时不再进入
+    private static final String TOUCH_DIALOG = "_cq_dialog";
+    private static final String CLASSIC_DIALOG = "dialog";
+    private static final String DESIGN_DIALOG = "_cq_design_dialog";
+
+    // 字段数分布的桶上限：0, 1-5, 6-10, 11-20, 21+
+    private static final int[] FIELD_BUCKET_LIMITS = {0, 5, 10, 20};
+    private static final String[] FIELD_BUCKET_NAMES = {"0", "1-5", "6-10", "11-20", "21+"};
+
+    /**
+     * 会话提供者（并行统计时每个分区需要独立会话）
+     */
+    public interface SessionProvider {
+        Session login() throws RepositoryException;
+    }
+
+    /**
+     * 单次遍历统计指定路径下的组件
+     *
+     * @param session JCR 会话
+     * @param basePath 基础路径
+     * @return 统计信息
+     */
+    public static Map<String, Object> compute(Session session, String basePath) {
+        Accumulator accumulator = new Accumulator();
+        Node baseNode = JCRUtil.getNode(session, basePath);
+        if (baseNode != null) {
+            accumulator.traverse(baseNode);
+        } else {
+            System.err.println("基础路径不存在: " + basePath);
+        }
+        return accumulator.toMap();
+    }
+
+    /**
+     * 按子路径分区并行统计
+     *
+     * 每个分区在线程池中用独立会话遍历，完成后合并计数。
+     * 继承深度在合并后统一计算，因此跨分区的继承链也能正确统计。
+     *
+     * @param sessionProvider 会话提供者
+     * @param partitionPaths 分区路径（彼此不应重叠）
+     * @param executor 线程池
+     * @return 合并后的统计信息
+     */
+    public static Map<String, Object> computeParallel(final SessionProvider sessionProvider,
+                                                      List<String> partitionPaths,
+                                                      ExecutorService executor)
+            throws RepositoryException {
+
+        List<Future<Accumulator>> futures = new ArrayList<>();
+        for (final String partitionPath : partitionPaths) {
+            futures.add(executor.submit(() -> {
+                Session session = sessionProvider.login();
+                try {
+                    Accumulator accumulator = new Accumulator();
+                    Node partitionNode = JCRUtil.getNode(session, partitionPath);
+                    if (partitionNode != null) {
+                        accumulator.traverse(partitionNode);
+                    }
+                    return accumulator;
+                } finally {
+                    session.logout();
+                }
+            }));
+        }
+
+        Accumulator total = new Accumulator();
+        for (Future<Accumulator> future : futures) {
+            try {
+                total.merge(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RepositoryException("并行统计被中断", e);
+            } catch (ExecutionException e) {
+                throw new RepositoryException("分区统计失败: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return total.toMap();
+    }
+
+    /**
+     * 统计累加器（单线程使用，分区结果通过 merge 合并）
+     */
+    static class Accumulator {
+        int totalComponents;
+        int withDialog;
+        int withDesignDialog;
+        long totalFields;
+        int maxFields;
+        final int[] fieldBuckets = new int[FIELD_BUCKET_NAMES.length];
+        // 分组 -> 计数（int[1] 作为可变计数器，避免 Integer 装箱）
+        final Map<String, int[]> groupCounts = new HashMap<>();
+        // 资源类型 -> 父资源类型（用于遍历结束后解析继承链；同名类型以 /apps 下的定义为准）
+        final Map<String, String> superTypes = new HashMap<>();
+        final Set<String> resourceTypes = new HashSet<>();
+        // 由 /apps 下的组件定义的资源类型
+        final Set<String> appsTypes = new HashSet<>();
+        // 每个组件自己的父资源类型（没有时为 null），继承深度按组件统计
+        final List<String> componentSuperTypes = new ArrayList<>();
+
+        void traverse(Node node) {
+            try {
+                if (node.isNodeType("cq:Component")) {
+                    visitComponent(node);
+                }
+
+                NodeIterator children = node.getNodes();
+                while (children.hasNext()) {
+                    Node child = children.nextNode();
+                    String name = child.getName();
+                    if (TOUCH_DIALOG.equals(name) || CLASSIC_DIALOG.equals(name)
+                            || DESIGN_DIALOG.equals(name)) {
+                        continue;
+                    }
+                    traverse(child);
+                }
+            } catch (RepositoryException e) {
+                System.err.println("统计时遍历节点出错: " + e.getMessage());
+            }
+        }
+
+        private void visitComponent(Node component) throws RepositoryException {
+            totalComponents++;
+
+            String group = JCRUtil.getProperty(component, "componentGroup", "未分组");
+            int[] groupCount = groupCounts.get(group);
+            if (groupCount == null) {
+                groupCount = new int[1];
+                groupCounts.put(group, groupCount);
+            }
+            groupCount[0]++;
+
+            // 触摸对话框优先，没有时再统计经典对话框
+            Node dialog = JCRUtil.getChildNode(component, TOUCH_DIALOG);
+            if (dialog == null) {
+                dialog = JCRUtil.getChildNode(component, CLASSIC_DIALOG);
+            }
+            int fieldCount = 0;
+            if (dialog != null) {
+                withDialog++;
+                fieldCount = countFields(dialog);
+            }
+            recordFieldCount(fieldCount);
+
+            if (component.hasNode(DESIGN_DIALOG)) {
+                withDesignDialog++;
+            }
+
+            String path = component.getPath();
+            String superType = JCRUtil.getProperty(component, "sling:resourceSuperType");
+            superType = superType != null && !superType.isEmpty() ? toResourceType(superType) : null;
+            componentSuperTypes.add(superType);
+            defineType(toResourceType(path), superType, path.startsWith("/apps/"));
+        }
+
+        /**
+         * 记录资源类型的父类型；/apps 下的定义覆盖其他搜索路径下的同名定义
+         */
+        private void defineType(String resourceType, String superType, boolean fromApps) {
+            if (!fromApps && appsTypes.contains(resourceType)) {
+                return;
+            }
+            resourceTypes.add(resourceType);
+            if (fromApps) {
+                appsTypes.add(resourceType);
+            }
+            if (superType != null) {
+                superTypes.put(resourceType, superType);
+            } else {
+                superTypes.remove(resourceType);
+            }
+        }
+
+        private int countFields(Node node) throws RepositoryException {
+            // 字段由 sling:resourceType 标识；没有时按节点类型判断（与 DialogAnalyzer 一致）
+            String fieldType = JCRUtil.getProperty(node, "sling:resourceType", node.getPrimaryNodeType().getName());
+            int count = DialogAnalyzer.isFieldNode(fieldType) ? 1 : 0;
+            NodeIterator children = node.getNodes();
+            while (children.hasNext()) {
+                count += countFields(children.nextNode());
+            }
+            return count;
+        }
+
+        void recordFieldCount(int fieldCount) {
+            totalFields += fieldCount;
+            if (fieldCount > maxFields) {
+                maxFields = fieldCount;
+            }
+            int bucket = FIELD_BUCKET_LIMITS.length;
+            for (int i = 0; i < FIELD_BUCKET_LIMITS.length; i++) {
+                if (fieldCount <= FIELD_BUCKET_LIMITS[i]) {
+                    bucket = i;
+                    break;
+                }
+            }
+            fieldBuckets[bucket]++;
+        }
+
+        void merge(Accumulator other) {
+            totalComponents += other.totalComponents;
+            withDialog += other.withDialog;
+            withDesignDialog += other.withDesignDialog;
+            totalFields += other.totalFields;
+            maxFields = Math.max(maxFields, other.maxFields);
+            for (int i = 0; i < fieldBuckets.length; i++) {
+                fieldBuckets[i] += other.fieldBuckets[i];
+            }
+            for (Map.Entry<String, int[]> entry : other.groupCounts.entrySet()) {
+                int[] groupCount = groupCounts.get(entry.getKey());
+                if (groupCount == null) {
+                    groupCounts.put(entry.getKey(), new int[]{entry.getValue()[0]});
+                } else {
+                    groupCount[0] += entry.getValue()[0];
+                }
+            }
+            for (String resourceType : other.resourceTypes) {
+                defineType(resourceType, other.superTypes.get(resourceType), other.appsTypes.contains(resourceType));
+            }
+            componentSuperTypes.addAll(other.componentSuperTypes);
+        }
+
+        /**
+         * 计算继承深度
+         *
+         * 深度 0 表示没有父组件。父组件不在统计范围内（如 /libs 下的核心组件）时，
+         * 该父组件记为一层并停止，不额外访问仓库。
+         */
+        private int superTypeDepth(String resourceType, Map<String, Integer> memo) {
+            Integer cached = memo.get(resourceType);
+            if (cached != null) {
+                return cached;
+            }
+
+            // 先占位，防止循环继承导致无限递归
+            memo.put(resourceType, 0);
+            String superType = superTypes.get(resourceType);
+            int depth = 0;
+            if (superType != null) {
+                depth = resourceTypes.contains(superType) ? 1 + superTypeDepth(superType, memo) : 1;
+            }
+            memo.put(resourceType, depth);
+            return depth;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("totalComponents", totalComponents);
+
+            Map<String, Integer> componentsByGroup = new HashMap<>();
+            for (Map.Entry<String, int[]> entry : groupCounts.entrySet()) {
+                componentsByGroup.put(entry.getKey(), entry.getValue()[0]);
+            }
+            stats.put("componentsByGroup", componentsByGroup);
+            stats.put("componentsWithDialog", withDialog);
+            stats.put("componentsWithDesignDialog", withDesignDialog);
+
+            stats.put("totalDialogFields", totalFields);
+            stats.put("maxDialogFields", maxFields);
+            stats.put("averageDialogFields", totalComponents > 0 ? (double) totalFields / totalComponents : 0.0);
+            Map<String, Integer> fieldDistribution = new LinkedHashMap<>();
+            for (int i = 0; i < FIELD_BUCKET_NAMES.length; i++) {
+                fieldDistribution.put(FIELD_BUCKET_NAMES[i], fieldBuckets[i]);
+            }
+            stats.put("dialogFieldDistribution", fieldDistribution);
+
+            Map<String, Integer> memo = new HashMap<>();
+            Map<Integer, Integer> depthDistribution = new TreeMap<>();
+            int maxDepth = 0;
+            for (String superType : componentSuperTypes) {
+                int depth = 0;
+                if (superType != null) {
+                    depth = resourceTypes.contains(superType) ? 1 + superTypeDepth(superType, memo) : 1;
+                }
+                maxDepth = Math.max(maxDepth, depth);
+                depthDistribution.put(depth, depthDistribution.getOrDefault(depth, 0) + 1);
+            }
+            stats.put("maxSuperTypeDepth", maxDepth);
+            stats.put("superTypeDepthDistribution", depthDistribution);
+
+            return stats;
+        }
+    }
+
+    /**
+     * 把组件路径或资源类型统一转换为相对资源类型（去掉 /apps/ 或 /libs/ 前缀）
+     */
+    static String toResourceType(String pathOrType) {
+        for (String searchPath : ComponentTypeResolver.DEFAULT_SEARCH_PATHS) {
+            if (pathOrType.startsWith(searchPath)) {
+                return pathOrType.substring(searchPath.length());
+            }
+        }
+        return pathOrType;
+    }
+}
@@ -0,0 +1,145 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * 组件信息流式写出器
+ *
+ * 通过单个 Jackson JsonGenerator 逐个写出组件信息，写完一个组件后不再持有它，
+ * 因此无论批量有多大，内存占用都保持不变。
+ *
+ * 支持两种输出格式：
+ * - NDJSON：每行一个组件（默认），适合逐行读取和追加
+ * - JSON_ARRAY：整个输出是一个 JSON 数组
+ *
+ * 可以直接作为 {@link ComponentInfoExtractor.ComponentInfoHandler} 传给流式提取方法：
+ * <pre>
+ * try (ComponentStreamWriter writer = new ComponentStreamWriter(out, ComponentStreamWriter.Format.NDJSON, false)) {
+ *     extractor.extractComponentsFromPath("/apps/myproject/components", writer);
+ * }
+ * </pre>
+ */
+public class ComponentStreamWriter implements ComponentInfoExtractor.ComponentInfoHandler, Closeable {
+
+    /**
+     * 输出格式
+     */
+    public enum Format {
+        NDJSON,
+        JSON_ARRAY
+    }
+
+    // ObjectMapper 是线程安全的，所有写出器共享一个实例
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+
+    private final JsonGenerator generator;
+    private final Format format;
+    private int count;
+    private boolean closed;
+
+    /**
+     * 构造函数
+     *
+     * @param outputStream 输出流（关闭写出器时会一并关闭）
+     * @param format 输出格式
+     * @param pretty 是否格式化输出（仅对 JSON_ARRAY 生效，NDJSON 必须每行一个对象）
+     * @throws IOException 创建 JsonGenerator 失败
+     */
+    public ComponentStreamWriter(OutputStream outputStream, Format format, boolean pretty)
+            throws IOException {
+        this(MAPPER.getFactory().createGenerator(outputStream, JsonEncoding.UTF8), format, pretty);
+    }
+
+    /**
+     * 构造函数（使用已有的 JsonGenerator，如绑定到 HTTP 响应的生成器）
+     *
+     * @param generator JSON 生成器
+     * @param format 输出格式
+     * @param pretty 是否格式化输出（仅对 JSON_ARRAY 生效）
+     * @throws IOException 写出数组起始符失败
+     */
+    public ComponentStreamWriter(JsonGenerator generator, Format format, boolean pretty)
+            throws IOException {
+        this.generator = generator;
+        this.format = format;
+
+        if (generator.getCodec() == null) {
+            generator.setCodec(MAPPER);
+        }
+        if (pretty && format == Format.JSON_ARRAY) {
+            generator.useDefaultPrettyPrinter();
+        }
+        if (format == Format.JSON_ARRAY) {
+            generator.writeStartArray();
+        } else {
+            // 行之间只用换行分隔：默认的根值分隔符是空格，会出现在第二行起的行首
+            generator.setRootValueSeparator(null);
+        }
+    }
+
+    /**
+     * 写出一个组件
+     *
+     * @param componentInfo 组件信息
+     * @throws IOException 写出错误
+     */
+    public void write(Map<String, Object> componentInfo) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("写出器已关闭");
+        }
+
+        generator.writeObject(componentInfo);
+        if (format == Format.NDJSON) {
+            generator.writeRaw('\n');
+        }
+        count++;
+    }
+
+    /**
+     * 作为流式提取的处理器使用
+     */
+    @Override
+    public boolean handle(Map<String, Object> componentInfo) throws IOException {
+        write(componentInfo);
+        return true;
+    }
+
+    /**
+     * 刷新缓冲区
+     */
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    /**
+     * 获取已写出的组件数量
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 结束输出（JSON_ARRAY 会写出数组结束符）并关闭底层流
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (format == Format.JSON_ARRAY) {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+}
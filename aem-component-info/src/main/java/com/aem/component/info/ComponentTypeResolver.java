@@ -0,0 +1,255 @@
+package com.aem.component.info;
+
+import com.aem.component.util.JCRUtil;
+import javax.jcr.Node;
+import javax.jcr.Session;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 组件资源类型解析器（带缓存）
+ *
+ * 按照类似 Sling ResourceResolver 搜索路径的规则，把资源类型（如 "myproject/components/text"）
+ * 解析为组件节点路径。默认搜索路径为 /apps/ 和 /libs/。
+ *
+ * 扫描内容时同一批资源类型会被反复解析，每次都调用 nodeExists + getNode 开销很大。
+ * 这个解析器用有界 LRU 缓存解析结果：
+ * - 命中（正向缓存）：直接返回组件路径
+ * - 未命中（负向缓存）：记住"不存在"，避免重复探测
+ *
+ * 缓存的是路径字符串而不是 Node，因此可以跨会话共享。
+ * 组件变化后应调用 invalidate 系列方法清理缓存。
+ *
+ * 使用示例：
+ * <pre>
+ * ComponentTypeResolver resolver = new ComponentTypeResolver();
+ * Node component = resolver.resolve(session, "myproject/components/text");
+ * </pre>
+ */
+public class ComponentTypeResolver {
+
+    /**
+     * 默认搜索路径（与 Sling 默认配置一致）
+     */
+    public static final String[] DEFAULT_SEARCH_PATHS = {"/apps/", "/libs/"};
+
+    /**
+     * 默认缓存容量
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    // 负向缓存的占位值（组件路径不可能为空字符串）
+    private static final String NOT_FOUND = "";
+
+    private final List<String> searchPaths;
+    private final Map<String, String> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ComponentTypeResolver() {
+        this(DEFAULT_SEARCH_PATHS, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param searchPaths 搜索路径（按优先级排序，如 {"/apps/", "/libs/"}）
+     * @param maxEntries 缓存最大条目数（正向和负向结果共享）
+     */
+    public ComponentTypeResolver(String[] searchPaths, final int maxEntries) {
+        if (searchPaths == null || searchPaths.length == 0) {
+            throw new IllegalArgumentException("搜索路径不能为空");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于 0");
+        }
+
+        String[] normalized = new String[searchPaths.length];
+        for (int i = 0; i < searchPaths.length; i++) {
+            String searchPath = searchPaths[i];
+            normalized[i] = searchPath.endsWith("/") ? searchPath : searchPath + "/";
+        }
+        this.searchPaths = Collections.unmodifiableList(Arrays.asList(normalized));
+
+        // accessOrder = true，实现 LRU
+        this.cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 解析资源类型对应的组件节点
+     *
+     * @param session JCR 会话
+     * @param resourceType 资源类型（相对或绝对路径）
+     * @return 组件节点，如果不存在则返回 null
+     */
+    public Node resolve(Session session, String resourceType) {
+        String componentPath = resolvePath(session, resourceType);
+        if (componentPath == null) {
+            return null;
+        }
+
+        Node node = JCRUtil.getNode(session, componentPath);
+        if (node == null) {
+            // 缓存过期（节点已被删除），清理后重新解析
+            invalidate(resourceType);
+            componentPath = resolvePath(session, resourceType);
+            node = componentPath != null ? JCRUtil.getNode(session, componentPath) : null;
+        }
+        return node;
+    }
+
+    /**
+     * 解析资源类型对应的组件路径
+     *
+     * 缓存命中时不访问仓库。
+     *
+     * @param session JCR 会话（仅在缓存未命中时使用）
+     * @param resourceType 资源类型（相对或绝对路径）
+     * @return 组件路径，如果不存在则返回 null
+     */
+    public String resolvePath(Session session, String resourceType) {
+        if (resourceType == null || resourceType.isEmpty()) {
+            return null;
+        }
+
+        String cached;
+        synchronized (cache) {
+            cached = cache.get(resourceType);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached.isEmpty() ? null : cached;
+        }
+
+        misses.incrementAndGet();
+        String componentPath = probe(session, resourceType);
+
+        synchronized (cache) {
+            cache.put(resourceType, componentPath != null ? componentPath : NOT_FOUND);
+        }
+        return componentPath;
+    }
+
+    /**
+     * 按搜索路径探测仓库
+     */
+    private String probe(Session session, String resourceType) {
+        if (resourceType.startsWith("/")) {
+            return JCRUtil.nodeExists(session, resourceType) ? resourceType : null;
+        }
+
+        for (String searchPath : searchPaths) {
+            String componentPath = searchPath + resourceType;
+            if (JCRUtil.nodeExists(session, componentPath)) {
+                return componentPath;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 使单个资源类型的缓存失效
+     *
+     * @param resourceType 资源类型
+     */
+    public void invalidate(String resourceType) {
+        synchronized (cache) {
+            cache.remove(resourceType);
+        }
+    }
+
+    /**
+     * 使某个路径下的缓存失效（例如部署了 /apps/myproject 之后）
+     *
+     * 移除以下条目：
+     * - 解析到该路径下（或该路径的上级）的正向结果
+     * - 变化的路径位于某个搜索路径下时，相对资源类型与之相关的正向结果，不论当初解析到哪个搜索路径：
+     *   新建的 /apps/core/components/teaser 覆盖了已缓存的 /libs/core/components/teaser
+     * - 所有负向结果：新节点可能让之前"不存在"的类型变得可解析
+     *
+     * @param path 发生变化的仓库路径
+     */
+    public void invalidatePath(String path) {
+        String prefix = path.endsWith("/") ? path : path + "/";
+        String changedType = relativeType(prefix);
+        synchronized (cache) {
+            Iterator<Map.Entry<String, String>> iterator = cache.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, String> entry = iterator.next();
+                String componentPath = entry.getValue();
+                if (componentPath.isEmpty()
+                        || related(componentPath + "/", prefix)
+                        || (changedType != null && related(relativeType(entry.getKey() + "/"), changedType))) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 去掉搜索路径前缀
+     *
+     * @param path 以 / 结尾的路径或资源类型
+     * @return 以 / 结尾的相对资源类型（搜索路径本身为空字符串）；绝对路径不在任何搜索路径下时返回 null
+     */
+    private String relativeType(String path) {
+        if (!path.startsWith("/")) {
+            return path;
+        }
+        for (String searchPath : searchPaths) {
+            if (path.startsWith(searchPath)) {
+                return path.substring(searchPath.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 两个以 / 结尾的路径相同或其中一个位于另一个之下
+     */
+    private static boolean related(String path1, String path2) {
+        return path1 != null && (path1.startsWith(path2) || path2.startsWith(path1));
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * 获取搜索路径
+     */
+    public List<String> getSearchPaths() {
+        return searchPaths;
+    }
+
+    /**
+     * 获取缓存统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (cache) {
+            stats.put("size", cache.size());
+        }
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("searchPaths", searchPaths);
+        return stats;
+    }
+}
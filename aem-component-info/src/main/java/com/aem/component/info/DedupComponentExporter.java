@@ -0,0 +1,263 @@
+package com.aem.component.info;
+
+import com.aem.component.util.HashUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 去重组件导出器（内容寻址）
+ *
+ * 继承同一个核心组件的组件往往有完全相同的对话框、设计对话框和客户端库配置，
+ * 普通导出会在每个文件中重复写出这些内容。这个导出器对每个共享段落计算 SHA-256，
+ * 相同内容只在段落表中写一次，组件文件中只保留引用：
+ * <pre>
+ * "dialog": { "$section": "9f86d081...", "$local": [ {"op": "add", "path": "/touchDialog/fields/0/path", "value": "..."} ] }
+ * </pre>
+ *
+ * 段落中与组件本身有关的值（如对话框字段的绝对路径 path）在计算哈希前去掉，
+ * 以 JSON Patch add 操作的形式保存在组件自己的引用中（$local），否则不同组件的对话框永远不会相同。
+ *
+ * 输出目录结构：
+ * - &lt;组件名&gt;-&lt;路径哈希&gt;.json：组件信息（共享段落替换为引用），文件名规则与
+ *   {@link ParallelComponentExporter} 相同，/apps 覆盖 /libs 的同名组件不会互相覆盖
+ * - sections.ndjson：段落表，每行 {"hash": ..., "section": ...}，边导出边追加
+ * - index.json：组件索引（与 ComponentExporter 格式一致，另含去重统计）
+ *
+ * 读取时使用 {@link DedupExportReader} 还原完整组件信息。
+ */
+public class DedupComponentExporter implements ComponentInfoExtractor.ComponentInfoHandler, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(DedupComponentExporter.class);
+
+    /**
+     * 参与去重的段落（点号表示嵌套路径）
+     */
+    public static final String[] SECTION_PATHS = {
+        "dialog",
+        "designDialog",
+        "dependencies.clientLibraries",
+        "properties.clientLibraries"
+    };
+
+    /**
+     * 段落中与组件本身有关的键（在任意层级出现时都不参与哈希，按组件单独保存）
+     */
+    public static final Set<String> COMPONENT_SPECIFIC_KEYS =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList("path", "componentPath", "componentName")));
+
+    static final String REFERENCE_KEY = "$section";
+    static final String LOCAL_KEY = "$local";
+    static final String SECTIONS_FILE = "sections.ndjson";
+    static final String INDEX_FILE = "index.json";
+
+    // 计算哈希时按键排序，保证相同内容得到相同字节
+    private static final ObjectWriter CANONICAL_WRITER = new ObjectMapper()
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+        .writer();
+
+    private final Path outputDirectory;
+    private final ObjectWriter componentWriter;
+    private final ObjectWriter lineWriter;
+    private final Writer sectionsOut;
+    private final Set<String> writtenHashes = new HashSet<>();
+    private final List<Map<String, String>> summaries = new ArrayList<>();
+
+    private long sectionReferences;
+    private long bytesSaved;
+    private boolean closed;
+
+    /**
+     * 构造函数
+     *
+     * @param outputDirectory 输出目录
+     * @param pretty 组件文件是否格式化输出
+     * @throws IOException 创建目录或段落表失败
+     */
+    public DedupComponentExporter(String outputDirectory, boolean pretty) throws IOException {
+        this.outputDirectory = Paths.get(outputDirectory);
+        Files.createDirectories(this.outputDirectory);
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+        this.componentWriter = pretty ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+        this.lineWriter = mapper.writer();
+        this.sectionsOut = Files.newBufferedWriter(this.outputDirectory.resolve(SECTIONS_FILE), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 导出一个组件
+     *
+     * @param componentInfo 组件信息（不会被修改）
+     * @throws IOException 写出错误
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Map<String, Object> componentInfo) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("导出器已关闭");
+        }
+
+        Map<String, Object> deduplicated = new HashMap<>(componentInfo);
+        for (String sectionPath : SECTION_PATHS) {
+            String[] keys = sectionPath.split("\\.");
+            Map<String, Object> parent = deduplicated;
+            for (int i = 0; i < keys.length - 1 && parent != null; i++) {
+                Object child = parent.get(keys[i]);
+                if (child instanceof Map) {
+                    // 复制路径上的 Map，避免修改调用方的数据
+                    Map<String, Object> copy = new HashMap<>((Map<String, Object>) child);
+                    parent.put(keys[i], copy);
+                    parent = copy;
+                } else {
+                    parent = null;
+                }
+            }
+
+            String key = keys[keys.length - 1];
+            if (parent != null && parent.get(key) instanceof Map) {
+                parent.put(key, reference(parent.get(key)));
+            }
+        }
+
+        String fileName = ParallelComponentExporter.fileName(componentInfo);
+        componentWriter.writeValue(outputDirectory.resolve(fileName).toFile(), deduplicated);
+
+        Map<String, String> summary = ComponentExporter.summarizeComponent(componentInfo);
+        summary.put("file", fileName);
+        summaries.add(summary);
+    }
+
+    @Override
+    public boolean handle(Map<String, Object> componentInfo) throws IOException {
+        write(componentInfo);
+        return true;
+    }
+
+    /**
+     * 把段落写入段落表（如果尚未写过）并返回引用
+     */
+    private Map<String, Object> reference(Object section) throws IOException {
+        List<Map<String, Object>> local = new ArrayList<>();
+        Object shared = stripComponentSpecific(section, "", local);
+        byte[] canonical = CANONICAL_WRITER.writeValueAsBytes(shared);
+        String hash = HashUtil.sha256(canonical);
+
+        sectionReferences++;
+        if (writtenHashes.add(hash)) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("hash", hash);
+            entry.put("section", shared);
+            sectionsOut.write(lineWriter.writeValueAsString(entry));
+            sectionsOut.write('\n');
+        } else {
+            bytesSaved += canonical.length;
+        }
+
+        Map<String, Object> reference = new HashMap<>();
+        reference.put(REFERENCE_KEY, hash);
+        if (!local.isEmpty()) {
+            reference.put(LOCAL_KEY, local);
+        }
+        return reference;
+    }
+
+    /**
+     * 复制段落并去掉 {@link #COMPONENT_SPECIFIC_KEYS}，去掉的值记录为 JSON Patch add 操作
+     *
+     * @param value 段落或其中的值
+     * @param pointer value 在段落中的 JSON Pointer
+     * @param local 收集去掉的值
+     * @return 不含组件相关键的副本
+     */
+    @SuppressWarnings("unchecked")
+    static Object stripComponentSpecific(Object value, String pointer, List<Map<String, Object>> local) {
+        if (value instanceof Map) {
+            Map<String, Object> copy = new HashMap<>();
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                String childPointer = pointer + "/" + JsonPatch.escape(entry.getKey());
+                if (COMPONENT_SPECIFIC_KEYS.contains(entry.getKey())) {
+                    Map<String, Object> operation = new HashMap<>();
+                    operation.put("op", "add");
+                    operation.put("path", childPointer);
+                    operation.put("value", entry.getValue());
+                    local.add(operation);
+                } else {
+                    copy.put(entry.getKey(), stripComponentSpecific(entry.getValue(), childPointer, local));
+                }
+            }
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            List<Object> copy = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                copy.add(stripComponentSpecific(list.get(i), pointer + "/" + i, local));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * 获取去重统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("components", summaries.size());
+        stats.put("sectionReferences", sectionReferences);
+        stats.put("uniqueSections", writtenHashes.size());
+        stats.put("bytesSaved", bytesSaved);
+        return stats;
+    }
+
+    /**
+     * 关闭段落表并写出索引文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        sectionsOut.close();
+
+        Map<String, Object> index = new HashMap<>();
+        index.put("exportedAt", System.currentTimeMillis());
+        index.put("totalComponents", summaries.size());
+        index.put("components", summaries);
+        index.put("deduplication", getStats());
+        componentWriter.writeValue(outputDirectory.resolve(INDEX_FILE).toFile(), index);
+
+        log.info("去重导出完成: {} 个组件, {} 个段落引用, {} 个唯一段落, 节省约 {} 字节",
+            summaries.size(), sectionReferences, writtenHashes.size(), bytesSaved);
+    }
+
+    /**
+     * 计算段落的内容指纹（与键顺序无关，包含组件相关的键）
+     *
+     * @param section 段落内容
+     * @return SHA-256 十六进制字符串
+     * @throws IOException 序列化错误
+     */
+    static String fingerprint(Object section) throws IOException {
+        return HashUtil.sha256(CANONICAL_WRITER.writeValueAsBytes(section));
+    }
+}
@@ -0,0 +1,220 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 去重导出读取器
+ *
+ * 读取 {@link DedupComponentExporter} 的输出目录，把组件文件中的段落引用
+ * 还原为完整内容（段落副本加上组件自己的 $local 值）。组件按路径读取，
+ * 路径到文件名的映射取自 index.json；索引和段落表都在第一次需要时加载，
+ * 每个组件拿到的都是段落的副本，调用方修改返回值不会影响其他组件。
+ *
+ * 使用示例：
+ * <pre>
+ * DedupExportReader reader = new DedupExportReader("output/components");
+ * Map&lt;String, Object&gt; teaser = reader.readComponent("/apps/myproject/components/teaser");
+ * </pre>
+ */
+public class DedupExportReader {
+
+    private final Path exportDirectory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile Map<String, Object> sections;
+    private volatile Map<String, String> files;
+
+    /**
+     * 构造函数
+     *
+     * @param exportDirectory 去重导出目录
+     */
+    public DedupExportReader(String exportDirectory) {
+        this.exportDirectory = Paths.get(exportDirectory);
+    }
+
+    /**
+     * 读取索引文件
+     *
+     * @return 索引内容（组件列表和去重统计）
+     * @throws IOException 读取错误
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> readIndex() throws IOException {
+        return objectMapper.readValue(exportDirectory.resolve(DedupComponentExporter.INDEX_FILE).toFile(), Map.class);
+    }
+
+    /**
+     * 读取并还原组件信息
+     *
+     * @param componentPath 组件路径（如 /apps/myproject/components/teaser）
+     * @return 完整组件信息，如果索引中没有该路径或文件不存在则返回 null
+     * @throws IOException 读取错误或引用的段落不存在
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> readComponent(String componentPath) throws IOException {
+        Map<String, Object> component = readComponentShallow(componentPath);
+        return component != null ? (Map<String, Object>) rehydrate(component) : null;
+    }
+
+    /**
+     * 读取组件文件但不还原引用（只需要基本属性时更快）
+     *
+     * @param componentPath 组件路径
+     * @return 组件信息（共享段落为引用），如果索引中没有该路径或文件不存在则返回 null
+     * @throws IOException 读取错误
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> readComponentShallow(String componentPath) throws IOException {
+        String fileName = loadFiles().get(componentPath);
+        if (fileName == null) {
+            return null;
+        }
+        Path file = exportDirectory.resolve(fileName);
+        return Files.exists(file) ? objectMapper.readValue(file.toFile(), Map.class) : null;
+    }
+
+    /**
+     * 按哈希获取段落
+     *
+     * @param hash 段落哈希
+     * @return 段落内容，不存在时返回 null
+     * @throws IOException 读取段落表错误
+     */
+    public Object getSection(String hash) throws IOException {
+        return loadSections().get(hash);
+    }
+
+    /**
+     * 递归还原引用
+     */
+    @SuppressWarnings("unchecked")
+    private Object rehydrate(Object value) throws IOException {
+        if (value instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) value;
+            if (isReference(map)) {
+                String hash = String.valueOf(map.get(DedupComponentExporter.REFERENCE_KEY));
+                Object section = getSection(hash);
+                if (section == null) {
+                    throw new IOException("段落表中不存在引用的段落: " + hash);
+                }
+                Object copy = copy(section);
+                Object local = map.get(DedupComponentExporter.LOCAL_KEY);
+                if (local instanceof List) {
+                    try {
+                        copy = JsonPatch.apply(copy, (List<Map<String, Object>>) local);
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("无法还原段落 " + hash + " 中的组件相关值: " + e.getMessage(), e);
+                    }
+                }
+                return copy;
+            }
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                entry.setValue(rehydrate(entry.getValue()));
+            }
+        } else if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            for (int i = 0; i < list.size(); i++) {
+                list.set(i, rehydrate(list.get(i)));
+            }
+        }
+        return value;
+    }
+
+    private static boolean isReference(Map<String, Object> map) {
+        if (!map.containsKey(DedupComponentExporter.REFERENCE_KEY)) {
+            return false;
+        }
+        int expectedSize = map.containsKey(DedupComponentExporter.LOCAL_KEY) ? 2 : 1;
+        return map.size() == expectedSize;
+    }
+
+    /**
+     * 深拷贝段落（段落表中的对象在组件之间共享，不能直接返回）
+     */
+    @SuppressWarnings("unchecked")
+    private static Object copy(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> copy = new HashMap<>();
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                copy.put(entry.getKey(), copy(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            for (Object element : (List<Object>) value) {
+                copy.add(copy(element));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * 加载索引中的组件路径 → 文件名（只加载一次）
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, String> loadFiles() throws IOException {
+        Map<String, String> loaded = files;
+        if (loaded != null) {
+            return loaded;
+        }
+
+        synchronized (this) {
+            if (files == null) {
+                Map<String, String> table = new HashMap<>();
+                Object components = readIndex().get("components");
+                if (components instanceof List) {
+                    for (Map<String, String> summary : (List<Map<String, String>>) components) {
+                        if (summary.get("path") != null && summary.get("file") != null) {
+                            table.put(summary.get("path"), summary.get("file"));
+                        }
+                    }
+                }
+                files = table;
+            }
+            return files;
+        }
+    }
+
+    /**
+     * 加载段落表（只加载一次）
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> loadSections() throws IOException {
+        Map<String, Object> loaded = sections;
+        if (loaded != null) {
+            return loaded;
+        }
+
+        synchronized (this) {
+            if (sections == null) {
+                Map<String, Object> table = new HashMap<>();
+                Path file = exportDirectory.resolve(DedupComponentExporter.SECTIONS_FILE);
+                try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isEmpty()) {
+                            continue;
+                        }
+                        Map<String, Object> entry = objectMapper.readValue(line, Map.class);
+                        table.put((String) entry.get("hash"), entry.get("section"));
+                    }
+                }
+                sections = table;
+            }
+            return sections;
+        }
+    }
+}
@@ -221,7 +221,7 @@ public class DialogAnalyzer {
      * @param nodeType 节点类型
      * @return 如果是字段节点则返回 true
      */
-    private static boolean isFieldNode(String nodeType) {
+    static boolean isFieldNode(String nodeType) {
         // Granite UI 字段节点类型
         String[] fieldTypes = {
             "granite/ui/components/coral/foundation/form/textfield",
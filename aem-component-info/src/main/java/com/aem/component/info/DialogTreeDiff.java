@@ -0,0 +1,563 @@
+package com.aem.component.info;
+
+import com.aem.component.util.HashUtil;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 对话框结构化对比（树编辑距离）
+ *
+ * 把 DialogAnalyzer 输出的对话框项（content/items 及其 childItems）视为有序树，
+ * 使用 Zhang-Shasha 算法计算树编辑距离和节点映射，再从映射中归纳出
+ * 新增、删除、重命名、改类型、属性修改、移动（含嵌套层级变化）和同级重排。
+ *
+ * 性能：对比前先计算每棵子树的 Merkle 哈希，两侧都出现的相同子树
+ * 折叠为一个叶子节点，因此实际参与计算的只有发生变化的分支；
+ * 几百个节点的对话框通常只剩几十个节点。另一侧有相同副本的节点只允许与副本映射，
+ * 未映射的子树再按哈希（其次按名称和类型）配对为移动。
+ *
+ * 没有 content 结构的对话框（如经典对话框）使用扁平字段列表作为一层子节点。
+ *
+ * 使用示例：
+ * <pre>
+ * Map<String, Object> diff = DialogTreeDiff.diff(
+ *     (Map<String, Object>) info1.get("dialog"), (Map<String, Object>) info2.get("dialog"));
+ * List<Map<String, Object>> operations = (List<Map<String, Object>>) diff.get("operations");
+ * </pre>
+ */
+public class DialogTreeDiff {
+
+    // 编辑代价：删除、插入一个节点各为 2，便于表达"只改名"等半步代价
+    private static final int DELETE_COST = 2;
+    private static final int INSERT_COST = 2;
+    // 名称和类型都不同的节点不允许互相映射
+    private static final int FORBIDDEN_COST = DELETE_COST + INSERT_COST + 1;
+
+    // 折叠后单侧节点数超过该值时不做树编辑距离计算（距离矩阵为 n1 * n2）
+    static final int MAX_NODES = 5000;
+
+    private DialogTreeDiff() {
+    }
+
+    /**
+     * 对比两个组件信息中的对话框结构
+     *
+     * @param info1 组件1信息
+     * @param info2 组件2信息
+     * @return 结构差异
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> compare(Map<String, Object> info1, Map<String, Object> info2) {
+        return diff(info1.get("dialog") instanceof Map ? (Map<String, Object>) info1.get("dialog") : null,
+            info2.get("dialog") instanceof Map ? (Map<String, Object>) info2.get("dialog") : null);
+    }
+
+    /**
+     * 对比两个对话框的结构
+     *
+     * @param dialog1 对话框1（组件信息中的 dialog 段落，或 analyzeTouchDialog 的结果）
+     * @param dialog2 对话框2
+     * @return 结构差异：identical、distance、nodes1、nodes2、comparedNodes1、comparedNodes2、
+     *         operations（每项包含 op、path1、path2 等）和 summary（按 op 计数）
+     */
+    public static Map<String, Object> diff(Map<String, Object> dialog1, Map<String, Object> dialog2) {
+        TreeNode root1 = buildTree(dialog1);
+        TreeNode root2 = buildTree(dialog2);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("nodes1", root1.size - 1);
+        result.put("nodes2", root2.size - 1);
+
+        if (root1.hash.equals(root2.hash)) {
+            result.put("identical", true);
+            result.put("distance", 0);
+            result.put("comparedNodes1", 0);
+            result.put("comparedNodes2", 0);
+            result.put("operations", new ArrayList<Map<String, Object>>());
+            result.put("summary", new LinkedHashMap<String, Integer>());
+            return result;
+        }
+
+        // 两侧都存在的相同子树折叠为叶子
+        List<TreeNode> nodes1 = postOrder(root1, collectHashes(root2));
+        List<TreeNode> nodes2 = postOrder(root2, collectHashes(root1));
+        result.put("comparedNodes1", nodes1.size() - 1);
+        result.put("comparedNodes2", nodes2.size() - 1);
+
+        if (nodes1.size() > MAX_NODES || nodes2.size() > MAX_NODES) {
+            result.put("identical", false);
+            result.put("error", "对话框节点过多，跳过结构对比");
+            return result;
+        }
+
+        EditDistance distance = new EditDistance(nodes1, nodes2);
+        result.put("identical", false);
+        result.put("distance", distance.compute());
+
+        List<Map<String, Object>> operations = describe(root1, root2, distance.mapping());
+        result.put("operations", operations);
+
+        Map<String, Integer> summary = new LinkedHashMap<>();
+        for (Map<String, Object> operation : operations) {
+            String op = (String) operation.get("op");
+            summary.put(op, summary.containsKey(op) ? summary.get(op) + 1 : 1);
+        }
+        result.put("summary", summary);
+        return result;
+    }
+
+    // ==================== 树构建 ====================
+
+    @SuppressWarnings("unchecked")
+    static TreeNode buildTree(Map<String, Object> dialog) {
+        TreeNode root = new TreeNode(null, "", "dialog", null, Collections.<String, String>emptyMap());
+
+        Map<String, Object> section = dialog;
+        if (dialog != null && dialog.get("touchDialog") instanceof Map) {
+            section = (Map<String, Object>) dialog.get("touchDialog");
+        } else if (dialog != null && dialog.get("classicDialog") instanceof Map) {
+            section = (Map<String, Object>) dialog.get("classicDialog");
+        }
+
+        if (section != null) {
+            Map<String, Object> content = section.get("content") instanceof Map
+                ? (Map<String, Object>) section.get("content") : null;
+            if (content != null && content.get("items") instanceof List) {
+                addChildren(root, (List<Object>) content.get("items"));
+            } else if (section.get("fields") instanceof List) {
+                addChildren(root, (List<Object>) section.get("fields"));
+            }
+        }
+
+        root.seal();
+        return root;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addChildren(TreeNode parent, List<Object> items) {
+        for (Object item : items) {
+            if (!(item instanceof Map)) {
+                continue;
+            }
+            Map<String, Object> itemInfo = (Map<String, Object>) item;
+            Map<String, Object> properties = itemInfo.get("properties") instanceof Map
+                ? (Map<String, Object>) itemInfo.get("properties") : Collections.<String, Object>emptyMap();
+
+            Object name = itemInfo.get("nodeName") != null ? itemInfo.get("nodeName") : itemInfo.get("name");
+            Object fieldName = properties.get("name");
+            TreeNode node = new TreeNode(parent, name != null ? name.toString() : "",
+                ComponentExporter.extractFieldType(itemInfo), fieldName != null ? fieldName.toString() : null,
+                properties);
+            parent.children.add(node);
+
+            if (itemInfo.get("childItems") instanceof List) {
+                addChildren(node, (List<Object>) itemInfo.get("childItems"));
+            }
+        }
+    }
+
+    private static Set<String> collectHashes(TreeNode root) {
+        Set<String> hashes = new HashSet<>();
+        Deque<TreeNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            TreeNode node = stack.pop();
+            hashes.add(node.hash);
+            for (TreeNode child : node.children) {
+                stack.push(child);
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * 后序遍历，另一侧也存在的子树不再展开（根节点始终展开）
+     */
+    private static List<TreeNode> postOrder(TreeNode root, Set<String> otherHashes) {
+        List<TreeNode> order = new ArrayList<>();
+        postOrder(root, otherHashes, order);
+        return order;
+    }
+
+    private static void postOrder(TreeNode node, Set<String> otherHashes, List<TreeNode> order) {
+        node.anchored = node.parent != null && otherHashes.contains(node.hash);
+        node.collapsed = node.anchored && !node.children.isEmpty();
+        if (!node.collapsed) {
+            for (TreeNode child : node.children) {
+                postOrder(child, otherHashes, order);
+            }
+        }
+        order.add(node);
+    }
+
+    // ==================== 结果归纳 ====================
+
+    private static List<Map<String, Object>> describe(TreeNode root1, TreeNode root2, Map<TreeNode, TreeNode> mapping) {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        Map<TreeNode, TreeNode> reverse = new HashMap<>();
+        for (Map.Entry<TreeNode, TreeNode> entry : mapping.entrySet()) {
+            reverse.put(entry.getValue(), entry.getKey());
+        }
+
+        // 未映射子树的根：先按子树哈希配对，再按名称和类型配对，配上的视为移动
+        List<TreeNode> removed = unmappedRoots(root1, mapping);
+        List<TreeNode> added = unmappedRoots(root2, reverse);
+        Set<TreeNode> moved = new HashSet<>();
+        pairMoves(removed, added, mapping, moved, true);
+        pairMoves(removed, added, mapping, moved, false);
+
+        for (TreeNode node1 : preOrder(root1)) {
+            TreeNode node2 = mapping.get(node1);
+            if (node2 == null || node1.parent == null) {
+                continue;
+            }
+            // Zhang-Shasha 映射保持同级顺序，同一父节点下的换位只能来自移动配对
+            boolean sameParent = mapping.get(node1.parent) == node2.parent;
+            if (!sameParent || moved.contains(node1)) {
+                Map<String, Object> operation = operation(sameParent ? "reordered" : "moved", node1, node2);
+                if (node2.depth != node1.depth) {
+                    operation.put("nestingChange", node2.depth - node1.depth);
+                }
+                operations.add(operation);
+            }
+            if (node1.hash.equals(node2.hash)) {
+                continue;
+            }
+            if (!node1.name.equals(node2.name) || !equal(node1.fieldName, node2.fieldName)) {
+                Map<String, Object> operation = operation("renamed", node1, node2);
+                operation.put("from", node1.fieldName != null ? node1.fieldName : node1.name);
+                operation.put("to", node2.fieldName != null ? node2.fieldName : node2.name);
+                operations.add(operation);
+            }
+            if (!equal(node1.type, node2.type)) {
+                Map<String, Object> operation = operation("retyped", node1, node2);
+                operation.put("from", node1.type);
+                operation.put("to", node2.type);
+                operations.add(operation);
+            }
+            if (!node1.attributes.equals(node2.attributes)) {
+                Map<String, Object> operation = operation("modified", node1, node2);
+                operation.put("properties", changedKeys(node1.attributes, node2.attributes));
+                operations.add(operation);
+            }
+        }
+
+        for (TreeNode node : removed) {
+            Map<String, Object> operation = operation("removed", node, null);
+            operation.put("nodes", node.size);
+            operations.add(operation);
+        }
+        for (TreeNode node : added) {
+            Map<String, Object> operation = operation("added", null, node);
+            operation.put("nodes", node.size);
+            operations.add(operation);
+        }
+        return operations;
+    }
+
+    private static void pairMoves(List<TreeNode> removed, List<TreeNode> added, Map<TreeNode, TreeNode> mapping,
+                                  Set<TreeNode> moved, boolean byHash) {
+        Map<String, List<TreeNode>> candidates = new HashMap<>();
+        for (TreeNode node : added) {
+            candidates.computeIfAbsent(byHash ? node.hash : node.key(), k -> new ArrayList<>()).add(node);
+        }
+        Iterator<TreeNode> iterator = removed.iterator();
+        while (iterator.hasNext()) {
+            TreeNode node1 = iterator.next();
+            List<TreeNode> matches = candidates.get(byHash ? node1.hash : node1.key());
+            if (matches == null || matches.isEmpty()) {
+                continue;
+            }
+            TreeNode node2 = matches.remove(0);
+            added.remove(node2);
+            iterator.remove();
+            mapping.put(node1, node2);
+            moved.add(node1);
+        }
+    }
+
+    private static List<TreeNode> unmappedRoots(TreeNode root, Map<TreeNode, TreeNode> mapping) {
+        List<TreeNode> roots = new ArrayList<>();
+        for (TreeNode node : preOrder(root)) {
+            if (node.parent != null && !mapping.containsKey(node) && mapping.containsKey(node.parent)) {
+                roots.add(node);
+            }
+        }
+        return roots;
+    }
+
+    private static List<TreeNode> preOrder(TreeNode root) {
+        List<TreeNode> order = new ArrayList<>();
+        Deque<TreeNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            TreeNode node = stack.pop();
+            order.add(node);
+            if (!node.collapsed) {
+                for (int i = node.children.size() - 1; i >= 0; i--) {
+                    stack.push(node.children.get(i));
+                }
+            }
+        }
+        return order;
+    }
+
+    private static Map<String, Object> operation(String op, TreeNode node1, TreeNode node2) {
+        Map<String, Object> operation = new LinkedHashMap<>();
+        operation.put("op", op);
+        if (node1 != null) {
+            operation.put("path1", node1.path());
+        }
+        if (node2 != null) {
+            operation.put("path2", node2.path());
+        }
+        return operation;
+    }
+
+    private static List<String> changedKeys(Map<String, String> attributes1, Map<String, String> attributes2) {
+        Set<String> keys = new TreeSet<>(attributes1.keySet());
+        keys.addAll(attributes2.keySet());
+        List<String> changed = new ArrayList<>();
+        for (String key : keys) {
+            if (!equal(attributes1.get(key), attributes2.get(key))) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    // ==================== 树编辑距离 ====================
+
+    /**
+     * Zhang-Shasha 树编辑距离（后序编号，keyroot 分解）
+     */
+    static class EditDistance {
+
+        private final List<TreeNode> nodes1;
+        private final List<TreeNode> nodes2;
+        private final int[] leftmost1;
+        private final int[] leftmost2;
+        private final int[][] treeDistance;
+
+        EditDistance(List<TreeNode> nodes1, List<TreeNode> nodes2) {
+            this.nodes1 = nodes1;
+            this.nodes2 = nodes2;
+            this.leftmost1 = leftmostLeaves(nodes1);
+            this.leftmost2 = leftmostLeaves(nodes2);
+            this.treeDistance = new int[nodes1.size()][nodes2.size()];
+        }
+
+        /**
+         * 计算两棵树之间的编辑距离
+         */
+        int compute() {
+            for (int i : keyroots(leftmost1)) {
+                for (int j : keyroots(leftmost2)) {
+                    forestDistance(i, j, true);
+                }
+            }
+            return treeDistance[nodes1.size() - 1][nodes2.size() - 1];
+        }
+
+        /**
+         * 回溯得到节点映射（需先调用 compute）
+         */
+        Map<TreeNode, TreeNode> mapping() {
+            Map<TreeNode, TreeNode> mapping = new HashMap<>();
+            Deque<int[]> pairs = new ArrayDeque<>();
+            pairs.push(new int[]{nodes1.size() - 1, nodes2.size() - 1});
+
+            while (!pairs.isEmpty()) {
+                int[] pair = pairs.pop();
+                int i = pair[0];
+                int j = pair[1];
+                int l1 = leftmost1[i];
+                int l2 = leftmost2[j];
+                int[][] distance = forestDistance(i, j, false);
+
+                int row = i - l1 + 1;
+                int column = j - l2 + 1;
+                while (row > 0 || column > 0) {
+                    int i1 = row - 1 + l1;
+                    int j1 = column - 1 + l2;
+                    if (row > 0 && column > 0 && leftmost1[i1] == l1 && leftmost2[j1] == l2
+                        && distance[row - 1][column - 1] + cost(i1, j1) == distance[row][column]) {
+                        mapping.put(nodes1.get(i1), nodes2.get(j1));
+                        row--;
+                        column--;
+                    } else if (row > 0 && column > 0 && (leftmost1[i1] != l1 || leftmost2[j1] != l2)
+                        && distance[leftmost1[i1] - l1][leftmost2[j1] - l2] + treeDistance[i1][j1] == distance[row][column]) {
+                        pairs.push(new int[]{i1, j1});
+                        row = leftmost1[i1] - l1;
+                        column = leftmost2[j1] - l2;
+                    } else if (row > 0 && distance[row - 1][column] + DELETE_COST == distance[row][column]) {
+                        row--;
+                    } else {
+                        column--;
+                    }
+                }
+            }
+            return mapping;
+        }
+
+        private int[][] forestDistance(int i, int j, boolean record) {
+            int l1 = leftmost1[i];
+            int l2 = leftmost2[j];
+            int[][] distance = new int[i - l1 + 2][j - l2 + 2];
+            for (int row = 1; row < distance.length; row++) {
+                distance[row][0] = distance[row - 1][0] + DELETE_COST;
+            }
+            for (int column = 1; column < distance[0].length; column++) {
+                distance[0][column] = distance[0][column - 1] + INSERT_COST;
+            }
+
+            for (int i1 = l1; i1 <= i; i1++) {
+                int row = i1 - l1 + 1;
+                for (int j1 = l2; j1 <= j; j1++) {
+                    int column = j1 - l2 + 1;
+                    int edit = Math.min(distance[row - 1][column] + DELETE_COST, distance[row][column - 1] + INSERT_COST);
+                    if (leftmost1[i1] == l1 && leftmost2[j1] == l2) {
+                        distance[row][column] = Math.min(edit, distance[row - 1][column - 1] + cost(i1, j1));
+                        if (record) {
+                            treeDistance[i1][j1] = distance[row][column];
+                        }
+                    } else {
+                        distance[row][column] = Math.min(edit,
+                            distance[leftmost1[i1] - l1][leftmost2[j1] - l2] + treeDistance[i1][j1]);
+                    }
+                }
+            }
+            return distance;
+        }
+
+        /**
+         * 节点替换代价：名称或字段名不同 +1，类型不同 +2，其他属性不同 +1；
+         * 名称和类型都不同则禁止映射
+         */
+        private int cost(int i, int j) {
+            TreeNode node1 = nodes1.get(i);
+            TreeNode node2 = nodes2.get(j);
+            if (node1.hash.equals(node2.hash)) {
+                return 0;
+            }
+            // 另一侧有相同副本的节点只与副本映射，否则廉价的连锁改名会掩盖移动
+            if (node1.anchored || node2.anchored) {
+                return FORBIDDEN_COST;
+            }
+            boolean renamed = !node1.name.equals(node2.name) || !equal(node1.fieldName, node2.fieldName);
+            boolean retyped = !equal(node1.type, node2.type);
+            if (renamed && retyped) {
+                return FORBIDDEN_COST;
+            }
+            int cost = (renamed ? 1 : 0) + (retyped ? 2 : 0);
+            if (!node1.attributes.equals(node2.attributes)) {
+                cost++;
+            }
+            return cost;
+        }
+
+        private static int[] leftmostLeaves(List<TreeNode> nodes) {
+            Map<TreeNode, Integer> index = new HashMap<>();
+            int[] leftmost = new int[nodes.size()];
+            for (int i = 0; i < nodes.size(); i++) {
+                TreeNode node = nodes.get(i);
+                index.put(node, i);
+                leftmost[i] = node.collapsed || node.children.isEmpty() ? i : leftmost[index.get(node.children.get(0))];
+            }
+            return leftmost;
+        }
+
+        /**
+         * keyroot：对每个最左叶子，取以它为最左叶子的最高节点
+         */
+        private static List<Integer> keyroots(int[] leftmost) {
+            Map<Integer, Integer> highest = new TreeMap<>();
+            for (int i = 0; i < leftmost.length; i++) {
+                highest.put(leftmost[i], i);
+            }
+            List<Integer> keyroots = new ArrayList<>(highest.values());
+            Collections.sort(keyroots);
+            return keyroots;
+        }
+    }
+
+    // ==================== 树节点 ====================
+
+    static class TreeNode {
+
+        final TreeNode parent;
+        final String name;
+        final String type;
+        final String fieldName;
+        // 除 name 和类型以外的属性
+        final Map<String, String> attributes = new TreeMap<>();
+        final List<TreeNode> children = new ArrayList<>();
+        final int depth;
+        String hash;
+        int size;
+        boolean collapsed;
+        // 另一侧存在完全相同的子树
+        boolean anchored;
+
+        TreeNode(TreeNode parent, String name, String type, String fieldName, Map<String, ?> properties) {
+            this.parent = parent;
+            this.name = name;
+            this.type = type;
+            this.fieldName = fieldName;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            for (Map.Entry<String, ?> entry : properties.entrySet()) {
+                String key = entry.getKey();
+                if (!"name".equals(key) && !"sling:resourceType".equals(key) && !"xtype".equals(key)
+                    && entry.getValue() != null) {
+                    attributes.put(key, entry.getValue().toString());
+                }
+            }
+        }
+
+        /**
+         * 自底向上计算子树哈希和大小
+         */
+        void seal() {
+            StringBuilder label = new StringBuilder();
+            label.append(name).append('\u0000').append(type).append('\u0000').append(fieldName).append('\u0000');
+            for (Map.Entry<String, String> entry : attributes.entrySet()) {
+                label.append(entry.getKey()).append('=').append(entry.getValue()).append('\u0000');
+            }
+            size = 1;
+            for (TreeNode child : children) {
+                child.seal();
+                size += child.size;
+                label.append('(').append(child.hash).append(')');
+            }
+            hash = HashUtil.sha256(label.toString());
+        }
+
+        String key() {
+            return name + '\u0000' + type;
+        }
+
+        String path() {
+            if (parent == null) {
+                return "";
+            }
+            String parentPath = parent.path();
+            return parentPath.isEmpty() ? name : parentPath + "/" + name;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.util.Locale;
+
+/**
+ * 导出格式
+ *
+ * - JSON：文本格式，便于阅读（可选格式化）
+ * - SMILE：Jackson 的二进制 JSON，生成和解析都比文本 JSON 快，体积更小
+ * - CBOR：RFC 8949 二进制格式，跨语言支持更广
+ *
+ * 二进制格式适合机器间传输（如迁移流水线读取导出结果），数据模型与 JSON 完全一致。
+ */
+public enum ExportFormat {
+
+    JSON("application/json", "json"),
+    SMILE("application/x-jackson-smile", "smile"),
+    CBOR("application/cbor", "cbor");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * HTTP Content-Type
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * 导出文件扩展名（不含点）
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * 是否是二进制格式
+     */
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    /**
+     * 创建该格式的 ObjectMapper
+     *
+     * @param pretty 是否格式化输出（仅对 JSON 生效）
+     * @return 配置好的 ObjectMapper
+     */
+    public ObjectMapper createObjectMapper(boolean pretty) {
+        ObjectMapper mapper;
+        switch (this) {
+            case SMILE:
+                mapper = new ObjectMapper(new SmileFactory());
+                break;
+            case CBOR:
+                mapper = new ObjectMapper(new CBORFactory());
+                break;
+            default:
+                mapper = new ObjectMapper();
+                if (pretty) {
+                    mapper.enable(SerializationFeature.INDENT_OUTPUT);
+                }
+                break;
+        }
+        mapper.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+        return mapper;
+    }
+
+    /**
+     * 根据名称解析格式（用于命令行参数）
+     *
+     * @param name 格式名称：json、pretty、smile、cbor，为空时返回 JSON
+     * @return 导出格式
+     * @throws IllegalArgumentException 不支持的格式
+     */
+    public static ExportFormat fromName(String name) {
+        if (name == null || name.isEmpty()) {
+            return JSON;
+        }
+
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        if ("pretty".equals(normalized)) {
+            return JSON;
+        }
+        for (ExportFormat format : values()) {
+            if (format.fileExtension.equals(normalized)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("不支持的导出格式: " + name);
+    }
+
+    /**
+     * 根据 HTTP Accept 头选择格式（内容协商）
+     *
+     * 按 q 值选择权重最高的支持类型，q=0 的类型表示不接受、直接跳过；
+     * 权重相同时选择 Accept 中先出现的类型。通配符（*&#47;* 和 application/*）按 JSON 处理。
+     * 没有 Accept 头、或没有可接受的支持类型时返回 JSON。
+     *
+     * @param accept Accept 请求头
+     * @return 导出格式
+     */
+    public static ExportFormat fromAcceptHeader(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return JSON;
+        }
+
+        ExportFormat best = JSON;
+        double bestQuality = 0;
+        for (String mediaRange : accept.split(",")) {
+            String[] parts = mediaRange.split(";");
+            ExportFormat format = fromMediaType(parts[0].trim().toLowerCase(Locale.ROOT));
+            if (format == null) {
+                continue;
+            }
+            double quality = quality(parts);
+            if (quality > bestQuality) {
+                best = format;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 媒体类型对应的格式，不支持时返回 null
+     */
+    private static ExportFormat fromMediaType(String mediaType) {
+        for (ExportFormat format : values()) {
+            if (format.contentType.equals(mediaType)) {
+                return format;
+            }
+        }
+        if ("application/smile".equals(mediaType)) {
+            return SMILE;
+        }
+        if ("*/*".equals(mediaType) || "application/*".equals(mediaType)) {
+            return JSON;
+        }
+        return null;
+    }
+
+    /**
+     * 解析媒体范围参数中的 q 值（默认 1，无法解析时按 0 处理）
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.charAt(1) == '=') {
+                try {
+                    double quality = Double.parseDouble(parameter.substring(2).trim());
+                    return quality >= 0 && quality <= 1 ? quality : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,226 @@
+package com.aem.component.info;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON Patch（RFC 6902）工具
+ *
+ * 对 Map / List / 标量组成的组件信息计算差异，生成 add、remove、replace 操作；
+ * 也可以把补丁应用到文档上（下游系统增量同步时使用）。
+ *
+ * 列表按下标比较：公共部分逐项递归比较，多出的元素追加（add）或从末尾开始删除（remove），
+ * 因此补丁可以按顺序直接应用。
+ *
+ * 使用示例：
+ * <pre>
+ * List&lt;Map&lt;String, Object&gt;&gt; patch = JsonPatch.diff(oldInfo, newInfo);
+ * Object updated = JsonPatch.apply(oldInfo, patch);
+ * </pre>
+ */
+public final class JsonPatch {
+
+    private static final Set<Class<?>> INTEGRAL_TYPES = new HashSet<>();
+
+    static {
+        INTEGRAL_TYPES.add(Byte.class);
+        INTEGRAL_TYPES.add(Short.class);
+        INTEGRAL_TYPES.add(Integer.class);
+        INTEGRAL_TYPES.add(Long.class);
+    }
+
+    private JsonPatch() {
+    }
+
+    /**
+     * 计算从 source 到 target 的补丁
+     *
+     * @param source 原文档
+     * @param target 新文档
+     * @return 补丁操作列表，文档相同时返回空列表
+     */
+    public static List<Map<String, Object>> diff(Object source, Object target) {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        diff("", source, target, operations);
+        return operations;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void diff(String pointer, Object source, Object target, List<Map<String, Object>> operations) {
+        if (source instanceof Map && target instanceof Map) {
+            Map<String, Object> sourceMap = (Map<String, Object>) source;
+            Map<String, Object> targetMap = (Map<String, Object>) target;
+            for (Map.Entry<String, Object> entry : sourceMap.entrySet()) {
+                String childPointer = pointer + "/" + escape(entry.getKey());
+                if (!targetMap.containsKey(entry.getKey())) {
+                    operations.add(operation("remove", childPointer, null, false));
+                } else {
+                    diff(childPointer, entry.getValue(), targetMap.get(entry.getKey()), operations);
+                }
+            }
+            for (Map.Entry<String, Object> entry : targetMap.entrySet()) {
+                if (!sourceMap.containsKey(entry.getKey())) {
+                    operations.add(operation("add", pointer + "/" + escape(entry.getKey()), entry.getValue(), true));
+                }
+            }
+        } else if (source instanceof List && target instanceof List) {
+            List<Object> sourceList = (List<Object>) source;
+            List<Object> targetList = (List<Object>) target;
+            int common = Math.min(sourceList.size(), targetList.size());
+            for (int i = 0; i < common; i++) {
+                diff(pointer + "/" + i, sourceList.get(i), targetList.get(i), operations);
+            }
+            for (int i = common; i < targetList.size(); i++) {
+                operations.add(operation("add", pointer + "/" + i, targetList.get(i), true));
+            }
+            for (int i = sourceList.size() - 1; i >= common; i--) {
+                operations.add(operation("remove", pointer + "/" + i, null, false));
+            }
+        } else if (!valueEquals(source, target)) {
+            operations.add(operation("replace", pointer, target, true));
+        }
+    }
+
+    /**
+     * 把补丁应用到文档上
+     *
+     * 文档中的 Map 和 List 会被直接修改；替换根节点时返回新的根。
+     *
+     * @param document 文档（必须是可修改的 Map / List）
+     * @param patch 补丁操作列表（支持 add、remove、replace）
+     * @return 应用补丁后的文档
+     * @throws IllegalArgumentException 操作不支持或路径不存在
+     */
+    @SuppressWarnings("unchecked")
+    public static Object apply(Object document, List<Map<String, Object>> patch) {
+        Object root = document;
+        for (Map<String, Object> operation : patch) {
+            String op = (String) operation.get("op");
+            String pointer = (String) operation.get("path");
+            Object value = operation.get("value");
+
+            if (pointer.isEmpty()) {
+                if (!"replace".equals(op) && !"add".equals(op)) {
+                    throw new IllegalArgumentException("不能对根节点执行 " + op);
+                }
+                root = value;
+                continue;
+            }
+
+            int slash = pointer.lastIndexOf('/');
+            Object parent = resolve(root, pointer.substring(0, slash));
+            String key = unescape(pointer.substring(slash + 1));
+
+            if (parent instanceof Map) {
+                Map<String, Object> map = (Map<String, Object>) parent;
+                if ("remove".equals(op)) {
+                    requirePresent(map.containsKey(key), pointer);
+                    map.remove(key);
+                } else if ("add".equals(op) || "replace".equals(op)) {
+                    requirePresent("add".equals(op) || map.containsKey(key), pointer);
+                    map.put(key, value);
+                } else {
+                    throw new IllegalArgumentException("不支持的补丁操作: " + op);
+                }
+            } else if (parent instanceof List) {
+                List<Object> list = (List<Object>) parent;
+                int index = "-".equals(key) ? list.size() : Integer.parseInt(key);
+                if ("remove".equals(op)) {
+                    requirePresent(index < list.size(), pointer);
+                    list.remove(index);
+                } else if ("add".equals(op)) {
+                    requirePresent(index <= list.size(), pointer);
+                    list.add(index, value);
+                } else if ("replace".equals(op)) {
+                    requirePresent(index < list.size(), pointer);
+                    list.set(index, value);
+                } else {
+                    throw new IllegalArgumentException("不支持的补丁操作: " + op);
+                }
+            } else {
+                throw new IllegalArgumentException("路径不存在: " + pointer);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * 复制文档并去掉顶层的指定键（用于忽略 extractedAt 等每次都会变化的字段）
+     *
+     * @param document 组件信息
+     * @param ignoredKeys 要忽略的键
+     * @return 浅拷贝
+     */
+    static Map<String, Object> withoutKeys(Map<String, Object> document, Set<String> ignoredKeys) {
+        Map<String, Object> copy = new HashMap<>(document);
+        copy.keySet().removeAll(ignoredKeys);
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object resolve(Object root, String pointer) {
+        Object current = root;
+        if (pointer.isEmpty()) {
+            return current;
+        }
+        for (String token : pointer.substring(1).split("/", -1)) {
+            String key = unescape(token);
+            if (current instanceof Map) {
+                current = ((Map<String, Object>) current).get(key);
+            } else if (current instanceof List) {
+                current = ((List<Object>) current).get(Integer.parseInt(key));
+            } else {
+                throw new IllegalArgumentException("路径不存在: " + pointer);
+            }
+        }
+        return current;
+    }
+
+    private static void requirePresent(boolean present, String pointer) {
+        if (!present) {
+            throw new IllegalArgumentException("路径不存在: " + pointer);
+        }
+    }
+
+    private static Map<String, Object> operation(String op, String pointer, Object value, boolean hasValue) {
+        Map<String, Object> operation = new HashMap<>();
+        operation.put("op", op);
+        operation.put("path", pointer);
+        if (hasValue) {
+            operation.put("value", value);
+        }
+        return operation;
+    }
+
+    /**
+     * 比较标量：整数按数值比较（不同编码格式解析出的 Integer / Long 视为相同）
+     */
+    private static boolean valueEquals(Object source, Object target) {
+        if (source == null || target == null) {
+            return source == target;
+        }
+        if (isIntegral(source) && isIntegral(target)) {
+            return ((Number) source).longValue() == ((Number) target).longValue();
+        }
+        return source.equals(target);
+    }
+
+    private static boolean isIntegral(Object value) {
+        return INTEGRAL_TYPES.contains(value.getClass());
+    }
+
+    /**
+     * JSON Pointer 转义（RFC 6901）
+     */
+    static String escape(String key) {
+        return key.replace("~", "~0").replace("/", "~1");
+    }
+
+    static String unescape(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+}
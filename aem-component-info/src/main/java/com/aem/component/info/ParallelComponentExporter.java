@@ -0,0 +1,260 @@
+package com.aem.component.info;
+
+import com.aem.component.util.HashUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并行组件导出器
+ *
+ * ComponentExporter.exportComponentsToJson 逐个组件串行地格式化并写入文件。
+ * 这个导出器把序列化和写文件交给有界线程池并行执行：
+ * - 所有线程共享一个线程安全的 ObjectWriter（默认紧凑输出）
+ * - 通过 FileChannel 直接写出序列化后的字节
+ * - 用信号量限制同时在途的组件数量（背压），提取速度再快也不会把内存撑满
+ * - 所有组件成功写出后，才原子地写入 index.json（先写临时文件再 move）
+ *
+ * 索引格式与 ComponentExporter.exportComponentsToJson 一致。文件名为"组件名-路径哈希.json"
+ * （见 {@link #fileName(Map)}）：/apps 覆盖 /libs 的同名组件、不同项目中的同名组件
+ * 不会互相覆盖，index.json 中每个路径都指向自己的文件。
+ *
+ * 使用示例：
+ * <pre>
+ * ParallelComponentExporter exporter = new ParallelComponentExporter(4, 64, false);
+ * exporter.exportComponents(extractor, "/apps/myproject/components", "output/components");
+ * </pre>
+ */
+public class ParallelComponentExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelComponentExporter.class);
+
+    private static final String INDEX_FILE = "index.json";
+
+    private final int threads;
+    private final int maxInFlight;
+    private final ObjectWriter writer;
+    private final ObjectWriter indexWriter;
+
+    /**
+     * 使用默认配置：线程数为 CPU 核数，最多 4 倍线程数的组件在途，紧凑输出
+     */
+    public ParallelComponentExporter() {
+        this(Runtime.getRuntime().availableProcessors(),
+             Runtime.getRuntime().availableProcessors() * 4, false);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param threads 写出线程数
+     * @param maxInFlight 最多同时在途（已提取但尚未写完）的组件数量
+     * @param pretty 是否格式化输出
+     */
+    public ParallelComponentExporter(int threads, int maxInFlight, boolean pretty) {
+        if (threads <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("线程数和在途数量必须大于 0");
+        }
+        this.threads = threads;
+        this.maxInFlight = maxInFlight;
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+        this.writer = pretty ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+        this.indexWriter = mapper.writerWithDefaultPrettyPrinter();
+    }
+
+    /**
+     * 边提取边并行导出
+     *
+     * 提取在当前线程进行（JCR 会话不是线程安全的），序列化和写文件在线程池中进行。
+     *
+     * @param extractor 组件信息提取器
+     * @param basePath 组件基础路径
+     * @param outputDirectory 输出目录
+     * @return 导出的组件数量
+     * @throws IOException 任一组件写出失败（此时不会写入索引文件）
+     * @throws RepositoryException 遍历仓库出错（此时不会写入索引文件）
+     */
+    public int exportComponents(ComponentInfoExtractor extractor, String basePath,
+                                String outputDirectory) throws IOException, RepositoryException {
+        Batch batch = new Batch(Paths.get(outputDirectory));
+        try {
+            extractor.extractComponentsFromPath(basePath, batch);
+        } finally {
+            batch.awaitCompletion();
+        }
+        return batch.finish();
+    }
+
+    /**
+     * 并行导出已提取的组件信息
+     *
+     * @param componentsInfo 组件信息
+     * @param outputDirectory 输出目录
+     * @return 导出的组件数量
+     * @throws IOException 任一组件写出失败（此时不会写入索引文件）
+     */
+    public int exportComponents(Iterable<Map<String, Object>> componentsInfo,
+                                String outputDirectory) throws IOException {
+        Batch batch = new Batch(Paths.get(outputDirectory));
+        try {
+            for (Map<String, Object> componentInfo : componentsInfo) {
+                batch.handle(componentInfo);
+            }
+        } finally {
+            batch.awaitCompletion();
+        }
+        return batch.finish();
+    }
+
+    /**
+     * 写出单个文件
+     */
+    static void writeFile(Path file, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * 组件文件名：组件名加上组件路径 SHA-256 的前 12 位十六进制
+     *
+     * @param componentInfo 组件信息
+     * @return 文件名（如 teaser-3f2a9c0d41b7.json），没有组件路径时为"组件名.json"
+     */
+    static String fileName(Map<String, Object> componentInfo) {
+        String componentName = ComponentExporter.extractComponentName(componentInfo);
+        String componentPath = ComponentExporter.extractComponentPath(componentInfo);
+        if (componentPath == null) {
+            return componentName + ".json";
+        }
+        String hash = HashUtil.sha256(componentPath);
+        return componentName + "-" + hash.substring(0, 12) + ".json";
+    }
+
+    /**
+     * 一次导出任务
+     */
+    private class Batch implements ComponentInfoExtractor.ComponentInfoHandler {
+
+        private final Path outputDirectory;
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        private final Queue<Map<String, String>> summaries = new ConcurrentLinkedQueue<>();
+        private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+        Batch(Path outputDirectory) throws IOException {
+            Files.createDirectories(outputDirectory);
+            this.outputDirectory = outputDirectory;
+            this.executor = Executors.newFixedThreadPool(threads);
+            this.permits = new Semaphore(maxInFlight);
+        }
+
+        @Override
+        public boolean handle(final Map<String, Object> componentInfo) throws IOException {
+            try {
+                // 背压：在途组件达到上限时阻塞提取线程
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("导出被中断", e);
+            }
+
+            try {
+                executor.execute(() -> {
+                    String componentName = ComponentExporter.extractComponentName(componentInfo);
+                    try {
+                        String fileName = fileName(componentInfo);
+                        writeFile(outputDirectory.resolve(fileName), writer.writeValueAsBytes(componentInfo));
+
+                        Map<String, String> summary = ComponentExporter.summarizeComponent(componentInfo);
+                        summary.put("file", fileName);
+                        summaries.add(summary);
+                    } catch (Exception e) {
+                        log.error("导出组件时出错: " + componentName, e);
+                        failures.add(componentName + ": " + e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+            return true;
+        }
+
+        void awaitCompletion() throws IOException {
+            executor.shutdown();
+            try {
+                while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    log.info("等待组件写出完成，剩余在途: {}", maxInFlight - permits.availablePermits());
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IOException("导出被中断", e);
+            }
+        }
+
+        /**
+         * 所有组件写完后检查失败并原子地写入索引
+         */
+        int finish() throws IOException {
+            if (!failures.isEmpty()) {
+                throw new IOException(failures.size() + " 个组件导出失败，未写入索引文件: " + failures);
+            }
+
+            List<Map<String, String>> componentList = new ArrayList<>(summaries);
+            componentList.sort(Comparator.comparing(summary -> String.valueOf(summary.get("path"))));
+
+            Map<String, Object> index = new HashMap<>();
+            index.put("exportedAt", System.currentTimeMillis());
+            index.put("totalComponents", componentList.size());
+            index.put("components", componentList);
+
+            Path indexFile = outputDirectory.resolve(INDEX_FILE);
+            Path tempFile = outputDirectory.resolve(INDEX_FILE + ".tmp");
+            writeFile(tempFile, indexWriter.writeValueAsBytes(index));
+            try {
+                Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            log.info("成功并行导出 " + componentList.size() + " 个组件到目录: " + outputDirectory);
+            return componentList.size();
+        }
+    }
+}
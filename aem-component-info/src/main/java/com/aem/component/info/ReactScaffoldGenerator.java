@@ -0,0 +1,564 @@
+package com.aem.component.info;
+
+import com.aem.component.util.HashUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * React 脚手架批量生成器
+ *
+ * 为每个组件生成 TypeScript Props 接口和 React 组件骨架（默认每个组件一个目录）：
+ * - &lt;Name&gt;/&lt;Name&gt;.types.ts：由对话框字段生成的 Props 接口
+ * - &lt;Name&gt;/&lt;Name&gt;.tsx：组件骨架
+ * - &lt;Name&gt;/&lt;Name&gt;.module.css：样式文件
+ * - &lt;Name&gt;/index.ts：导出文件
+ *
+ * 模板生成的路径放在组件父路径对应的目录下（见 {@link #namespace(Map)}），
+ * 例如 /apps/myproject/components/teaser 生成 apps/myproject/components/Teaser/Teaser.tsx：
+ * /apps 覆盖 /libs 的组件、不同项目中的同名组件各自生成到不同目录。
+ *
+ * 模板在构造时预编译为字面量/变量片段，渲染只做字符串拼接；渲染和写文件在线程池中并行执行。
+ * 输出目录中的 .scaffold-manifest.json 记录每个文件内容的 SHA-256，
+ * 重新生成时内容没有变化的文件不会被重写（文件时间戳不变，前端构建不会被无谓触发）。
+ *
+ * 使用示例：
+ * <pre>
+ * ReactScaffoldGenerator generator = new ReactScaffoldGenerator();
+ * Map&lt;String, Object&gt; stats = generator.generate(extractor, "/apps/myproject/components", "frontend/src/components");
+ * </pre>
+ */
+public class ReactScaffoldGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactScaffoldGenerator.class);
+
+    static final String MANIFEST_FILE = ".scaffold-manifest.json";
+
+    /**
+     * 默认模板：文件名模板 → 内容模板。可用变量见 {@link #buildVariables(Map)}。
+     */
+    public static final Map<String, String> DEFAULT_TEMPLATES;
+
+    static {
+        Map<String, String> templates = new LinkedHashMap<>();
+        templates.put("{{componentName}}/{{componentName}}.types.ts",
+            "/**\n"
+            + " * {{title}}\n"
+            + " * {{description}}\n"
+            + " *\n"
+            + " * AEM resource type: {{resourceType}}\n"
+            + " * 由 ReactScaffoldGenerator 根据组件对话框生成，对话框变化后会重新生成。\n"
+            + " */\n"
+            + "export interface {{componentName}}Props {\n"
+            + "{{propsMembers}}"
+            + "}\n");
+        templates.put("{{componentName}}/{{componentName}}.tsx",
+            "import React from 'react';\n"
+            + "import styles from './{{componentName}}.module.css';\n"
+            + "import { {{componentName}}Props } from './{{componentName}}.types';\n"
+            + "\n"
+            + "export const {{componentName}}: React.FC<{{componentName}}Props> = ({{propsDestructure}}) => {\n"
+            + "  return (\n"
+            + "    <div className={styles.root} data-resource-type=\"{{resourceType}}\">\n"
+            + "      {/* TODO: 迁移 {{title}} 的 HTL 模板 */}\n"
+            + "    </div>\n"
+            + "  );\n"
+            + "};\n"
+            + "\n"
+            + "export default {{componentName}};\n");
+        templates.put("{{componentName}}/{{componentName}}.module.css",
+            ".root {\n"
+            + "}\n");
+        templates.put("{{componentName}}/index.ts",
+            "export { default, {{componentName}} } from './{{componentName}}';\n"
+            + "export type { {{componentName}}Props } from './{{componentName}}.types';\n");
+        DEFAULT_TEMPLATES = Collections.unmodifiableMap(templates);
+    }
+
+    private final int threads;
+    // 预编译的 {文件名模板, 内容模板}
+    private final List<Template[]> templates = new ArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 使用默认模板，线程数为 CPU 核数
+     */
+    public ReactScaffoldGenerator() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_TEMPLATES);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param threads 渲染和写文件的线程数
+     * @param templates 文件名模板（相对输出目录）→ 内容模板，变量写作 {{name}}
+     */
+    public ReactScaffoldGenerator(int threads, Map<String, String> templates) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("线程数必须大于 0");
+        }
+        this.threads = threads;
+        for (Map.Entry<String, String> entry : templates.entrySet()) {
+            this.templates.add(new Template[]{Template.compile(entry.getKey()), Template.compile(entry.getValue())});
+        }
+    }
+
+    /**
+     * 边提取边生成
+     *
+     * 提取在当前线程进行（JCR 会话不是线程安全的），渲染和写文件在线程池中进行。
+     *
+     * @param extractor 组件信息提取器
+     * @param basePath 组件基础路径
+     * @param outputDirectory 输出目录
+     * @return 生成统计（components、filesWritten、filesUnchanged）
+     * @throws IOException 任一组件生成失败（成功的文件仍会记录到清单中）
+     * @throws RepositoryException 遍历仓库出错（此时不会更新清单）
+     */
+    public Map<String, Object> generate(ComponentInfoExtractor extractor, String basePath,
+                                        String outputDirectory) throws IOException, RepositoryException {
+        Run run = new Run(Paths.get(outputDirectory));
+        try {
+            extractor.extractComponentsFromPath(basePath, run);
+        } finally {
+            run.awaitCompletion();
+        }
+        return run.finish();
+    }
+
+    /**
+     * 为已提取的组件信息生成脚手架
+     *
+     * @param componentsInfo 组件信息
+     * @param outputDirectory 输出目录
+     * @return 生成统计（components、filesWritten、filesUnchanged）
+     * @throws IOException 任一组件生成失败（成功的文件仍会记录到清单中）
+     */
+    public Map<String, Object> generate(Iterable<Map<String, Object>> componentsInfo,
+                                        String outputDirectory) throws IOException {
+        Run run = new Run(Paths.get(outputDirectory));
+        try {
+            for (Map<String, Object> componentInfo : componentsInfo) {
+                run.handle(componentInfo);
+            }
+        } finally {
+            run.awaitCompletion();
+        }
+        return run.finish();
+    }
+
+    /**
+     * 渲染单个组件的所有文件（不写盘）
+     *
+     * @param componentInfo 组件信息
+     * @return 相对路径（以组件父路径为前缀）→ 文件内容
+     */
+    public Map<String, String> render(Map<String, Object> componentInfo) {
+        Map<String, String> variables = buildVariables(componentInfo);
+        String namespace = namespace(componentInfo);
+        Map<String, String> files = new LinkedHashMap<>();
+        for (Template[] template : templates) {
+            files.put(namespace + template[0].render(variables), template[1].render(variables));
+        }
+        return files;
+    }
+
+    /**
+     * 组件父路径对应的目录前缀
+     *
+     * @param componentInfo 组件信息
+     * @return 如 /apps/myproject/components/teaser → "apps/myproject/components/"；没有组件路径时为空字符串
+     */
+    static String namespace(Map<String, Object> componentInfo) {
+        String componentPath = ComponentExporter.extractComponentPath(componentInfo);
+        if (componentPath == null) {
+            return "";
+        }
+        StringBuilder namespace = new StringBuilder();
+        String[] segments = componentPath.split("/");
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (segments[i].isEmpty() || ".".equals(segments[i]) || "..".equals(segments[i])) {
+                continue;
+            }
+            namespace.append(segments[i].replaceAll("[^A-Za-z0-9._-]", "_")).append('/');
+        }
+        return namespace.toString();
+    }
+
+    /**
+     * 构建模板变量
+     *
+     * - componentName：PascalCase 组件名（如 hero-banner → HeroBanner）
+     * - title、description、resourceType、group：组件基本属性（已去掉换行和注释结束符）
+     * - propsMembers：Props 接口成员（每个对话框字段两行：注释和声明）
+     * - propsDestructure：解构参数（如 "{ title, text }"，没有字段时为空）
+     *
+     * @param componentInfo 组件信息
+     * @return 变量表
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, String> buildVariables(Map<String, Object> componentInfo) {
+        Map<String, String> basicProperties = componentInfo.get("basicProperties") instanceof Map
+            ? (Map<String, String>) componentInfo.get("basicProperties") : Collections.<String, String>emptyMap();
+
+        Map<String, String> variables = new HashMap<>();
+        variables.put("componentName", pascalCase(ComponentExporter.extractComponentName(componentInfo)));
+        variables.put("title", commentText(basicProperties.get("jcr:title")));
+        variables.put("description", commentText(basicProperties.get("jcr:description")));
+        variables.put("resourceType", commentText(basicProperties.get("sling:resourceType")));
+        variables.put("group", commentText(basicProperties.get("componentGroup")));
+
+        StringBuilder members = new StringBuilder();
+        List<String> propNames = new ArrayList<>();
+        Set<String> usedNames = new HashSet<>();
+        for (Map<String, Object> field : ComponentExporter.extractDialogFields(componentInfo)) {
+            String propName = propName(field);
+            if (propName == null) {
+                continue;
+            }
+            String uniqueName = propName;
+            for (int i = 2; !usedNames.add(uniqueName); i++) {
+                uniqueName = propName + i;
+            }
+            propNames.add(uniqueName);
+
+            Object label = field.get("fieldLabel");
+            if (label != null && !label.toString().isEmpty()) {
+                members.append("  /** ").append(commentText(label.toString())).append(" */\n");
+            }
+            members.append("  ").append(uniqueName)
+                .append(Boolean.TRUE.equals(field.get("required")) ? ": " : "?: ")
+                .append(propType(field)).append(";\n");
+        }
+        variables.put("propsMembers", members.toString());
+        variables.put("propsDestructure", propNames.isEmpty() ? "" : "{ " + String.join(", ", propNames) + " }");
+        return variables;
+    }
+
+    /**
+     * 字段名（如 ./jcr:title、./items/link-url）转为 camelCase 属性名
+     */
+    @SuppressWarnings("unchecked")
+    private static String propName(Map<String, Object> field) {
+        Object name = field.get("name");
+        if (name == null && field.get("properties") instanceof Map) {
+            name = ((Map<String, Object>) field.get("properties")).get("name");
+        }
+        if (name == null) {
+            return null;
+        }
+
+        String raw = name.toString();
+        if (raw.startsWith("./")) {
+            raw = raw.substring(2);
+        }
+        raw = raw.substring(raw.lastIndexOf('/') + 1);
+        // 去掉命名空间前缀（jcr:title → title），重名由调用方加序号
+        raw = raw.substring(raw.indexOf(':') + 1);
+
+        String camel = camelCase(raw, false);
+        if (camel.isEmpty()) {
+            return null;
+        }
+        return Character.isDigit(camel.charAt(0)) ? "_" + camel : camel;
+    }
+
+    /**
+     * 推断字段的 TypeScript 类型：有选项的 select/radio 生成字面量联合类型
+     */
+    @SuppressWarnings("unchecked")
+    private static String propType(Map<String, Object> field) {
+        String fieldType = ComponentExporter.extractFieldType(field);
+
+        if (fieldType != null && fieldType.contains("multifield")) {
+            return "string[]";
+        }
+
+        if (fieldType != null && (fieldType.contains("select") || fieldType.contains("radio"))
+                && field.get("options") instanceof List) {
+            StringBuilder union = new StringBuilder();
+            for (Object option : (List<Object>) field.get("options")) {
+                Object value = option instanceof Map ? ((Map<String, Object>) option).get("value") : null;
+                if (value != null) {
+                    if (union.length() > 0) {
+                        union.append(" | ");
+                    }
+                    union.append('\'').append(value.toString().replace("\\", "\\\\").replace("'", "\\'")).append('\'');
+                }
+            }
+            if (union.length() > 0) {
+                return union.toString();
+            }
+        }
+
+        return ComponentExporter.inferTypeFromFieldType(fieldType);
+    }
+
+    static String pascalCase(String name) {
+        String pascal = camelCase(name, true);
+        if (pascal.isEmpty()) {
+            return "Component";
+        }
+        return Character.isDigit(pascal.charAt(0)) ? "Component" + pascal : pascal;
+    }
+
+    /**
+     * 按非字母数字字符分词后拼接为 camelCase / PascalCase
+     */
+    private static String camelCase(String text, boolean upperFirst) {
+        StringBuilder result = new StringBuilder(text.length());
+        boolean upperNext = upperFirst;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) && c < 128) {
+                if (result.length() == 0 && !upperFirst) {
+                    result.append(Character.toLowerCase(c));
+                } else {
+                    result.append(upperNext ? Character.toUpperCase(c) : c);
+                }
+                upperNext = false;
+            } else {
+                upperNext = result.length() > 0 || upperFirst;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * 去掉换行和注释结束符，保证文本可以安全地放进 TypeScript 注释和字符串
+     */
+    private static String commentText(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("*/", "* /").replace('\r', ' ').replace('\n', ' ').replace("\"", "'").trim();
+    }
+
+    /**
+     * 预编译模板：按 {{变量}} 切分为字面量和变量片段
+     */
+    static final class Template {
+        private final String[] literals;
+        private final String[] variables;
+        private final int literalLength;
+
+        private Template(String[] literals, String[] variables, int literalLength) {
+            this.literals = literals;
+            this.variables = variables;
+            this.literalLength = literalLength;
+        }
+
+        static Template compile(String source) {
+            List<String> literals = new ArrayList<>();
+            List<String> variables = new ArrayList<>();
+            int literalLength = 0;
+            int position = 0;
+            while (true) {
+                int start = source.indexOf("{{", position);
+                int end = start < 0 ? -1 : source.indexOf("}}", start + 2);
+                if (end < 0) {
+                    literals.add(source.substring(position));
+                    literalLength += source.length() - position;
+                    break;
+                }
+                literals.add(source.substring(position, start));
+                literalLength += start - position;
+                variables.add(source.substring(start + 2, end).trim());
+                position = end + 2;
+            }
+            return new Template(literals.toArray(new String[0]), variables.toArray(new String[0]), literalLength);
+        }
+
+        /**
+         * 渲染模板，未定义的变量渲染为空字符串
+         */
+        String render(Map<String, String> values) {
+            StringBuilder out = new StringBuilder(literalLength + 256);
+            for (int i = 0; i < variables.length; i++) {
+                out.append(literals[i]);
+                String value = values.get(variables[i]);
+                if (value != null) {
+                    out.append(value);
+                }
+            }
+            return out.append(literals[literals.length - 1]).toString();
+        }
+    }
+
+    /**
+     * 一次生成任务
+     */
+    private class Run implements ComponentInfoExtractor.ComponentInfoHandler {
+
+        private final Path outputDirectory;
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        // 上一次生成的清单（只读）和本次生成的清单（只记录已写入或确认未变化的文件）
+        private final Map<String, String> previousManifest;
+        private final Map<String, String> manifest = new ConcurrentHashMap<>();
+        private final Set<String> claimedPaths = ConcurrentHashMap.newKeySet();
+        private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger components = new AtomicInteger();
+        private final AtomicInteger filesWritten = new AtomicInteger();
+        private final AtomicInteger filesUnchanged = new AtomicInteger();
+
+        @SuppressWarnings("unchecked")
+        Run(Path outputDirectory) throws IOException {
+            Files.createDirectories(outputDirectory);
+            this.outputDirectory = outputDirectory;
+            Path manifestFile = outputDirectory.resolve(MANIFEST_FILE);
+            this.previousManifest = Files.exists(manifestFile)
+                ? objectMapper.readValue(manifestFile.toFile(), Map.class)
+                : Collections.<String, String>emptyMap();
+            this.executor = Executors.newFixedThreadPool(threads);
+            this.permits = new Semaphore(threads * 4);
+        }
+
+        @Override
+        public boolean handle(final Map<String, Object> componentInfo) throws IOException {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("生成被中断", e);
+            }
+
+            try {
+                executor.execute(() -> {
+                    String componentName = ComponentExporter.extractComponentName(componentInfo);
+                    try {
+                        for (Map.Entry<String, String> file : render(componentInfo).entrySet()) {
+                            write(file.getKey(), file.getValue().getBytes(StandardCharsets.UTF_8));
+                        }
+                        components.incrementAndGet();
+                    } catch (Exception e) {
+                        log.error("生成脚手架时出错: " + componentName, e);
+                        failures.add(componentName + ": " + e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+            return true;
+        }
+
+        /**
+         * 内容哈希与上一次相同且文件仍存在时跳过写入
+         *
+         * 文件先写到临时文件再替换，写入失败时原文件保持不变；哈希只在写入成功后记入清单。
+         */
+        private void write(String relativePath, byte[] content) throws IOException {
+            if (!claimedPaths.add(relativePath)) {
+                throw new IOException("同一目录下的多个组件生成了同一个文件（组件名转为 PascalCase 后相同）: " + relativePath);
+            }
+
+            String hash = HashUtil.sha256(content);
+            Path file = outputDirectory.resolve(relativePath);
+            if (hash.equals(previousManifest.get(relativePath)) && Files.exists(file)) {
+                manifest.put(relativePath, hash);
+                filesUnchanged.incrementAndGet();
+                return;
+            }
+
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                ParallelComponentExporter.writeFile(tempFile, content);
+                replace(tempFile, file);
+            } catch (IOException e) {
+                Files.deleteIfExists(tempFile);
+                throw e;
+            }
+            manifest.put(relativePath, hash);
+            filesWritten.incrementAndGet();
+        }
+
+        void awaitCompletion() throws IOException {
+            executor.shutdown();
+            try {
+                while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    log.info("等待脚手架生成完成，已完成 {} 个组件", components.get());
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IOException("生成被中断", e);
+            }
+        }
+
+        /**
+         * 原子地写出新清单，然后检查失败
+         *
+         * 有失败时保留上一次清单中本次没有记录的条目（失败的文件仍是上一次的内容），
+         * 没有失败时清单只包含本次生成的文件。
+         */
+        Map<String, Object> finish() throws IOException {
+            Map<String, String> newManifest = new TreeMap<>(manifest);
+            if (!failures.isEmpty()) {
+                for (Map.Entry<String, String> entry : previousManifest.entrySet()) {
+                    newManifest.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+            Path manifestFile = outputDirectory.resolve(MANIFEST_FILE);
+            Path tempFile = outputDirectory.resolve(MANIFEST_FILE + ".tmp");
+            ParallelComponentExporter.writeFile(tempFile,
+                objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(newManifest));
+            replace(tempFile, manifestFile);
+
+            if (!failures.isEmpty()) {
+                throw new IOException(failures.size() + " 个组件生成失败: " + failures);
+            }
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("components", components.get());
+            stats.put("filesWritten", filesWritten.get());
+            stats.put("filesUnchanged", filesUnchanged.get());
+            log.info("脚手架生成完成: {} 个组件, 写入 {} 个文件, {} 个文件未变化",
+                components.get(), filesWritten.get(), filesUnchanged.get());
+            return stats;
+        }
+
+        /**
+         * 用临时文件替换目标文件（文件系统支持时为原子操作）
+         */
+        private void replace(Path tempFile, Path target) throws IOException {
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
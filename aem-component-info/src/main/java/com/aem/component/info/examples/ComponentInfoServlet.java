@@ -2,12 +2,21 @@ package com.aem.component.info.examples;
 
 import com.aem.component.info.ComponentExporter;
 import com.aem.component.info.ComponentInfoExtractor;
+import com.aem.component.info.ExportFormat;
+import com.aem.component.info.templates.ComponentInfoEncoding;
+import com.aem.component.info.templates.ComponentInfoServiceTemplate;
+import com.aem.component.info.templates.JcrSessionPoolService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
 import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
-import org.apache.sling.jcr.api.SlingRepository;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,8 +25,6 @@ import javax.jcr.Session;
 import javax.servlet.Servlet;
 import javax.servlet.ServletException;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -32,6 +39,15 @@ import java.util.Map;
  * 
  * 部署后访问：
  * http://localhost:4502/bin/componentinfo?path=/apps/myproject/components/mycomponent
+ * 
+ * 二进制格式（内容协商）：
+ * curl -H "Accept: application/cbor" "http://localhost:4502/bin/componentinfo?path=..."
+ * curl -H "Accept: application/x-jackson-smile" "http://localhost:4502/bin/componentinfo?path=..."
+ * 
+ * 部署了 {@link ComponentInfoServiceTemplate} 时，服务范围内（allowedBasePath 和 /libs 下）的单个组件
+ * JSON 请求经由服务的缓存返回预编码字节（客户端接受 gzip 时直接返回压缩后的字节）；其他路径直接提取。
+ *
+ * 状态码：组件不存在或不是组件节点时为 404，提取超时为 503，提取失败和系统错误为 500。
  */
 @Component(
     service = Servlet.class,
@@ -45,8 +61,20 @@ public class ComponentInfoServlet extends SlingSafeMethodsServlet {
 
     private static final Logger log = LoggerFactory.getLogger(ComponentInfoServlet.class);
 
+    // 批量输出每写出多少个组件刷新一次响应
+    private static final int BATCH_FLUSH_INTERVAL = 10;
+
+    // ObjectMapper 是线程安全的，批量输出共享一个实例
+    private static final ObjectMapper BATCH_MAPPER = ExportFormat.JSON.createObjectMapper(false);
+
+    // 只读会话从共享会话池借出，不再每个请求登录
     @Reference
-    private SlingRepository repository;
+    private JcrSessionPoolService sessionPool;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+               policy = ReferencePolicy.DYNAMIC,
+               policyOption = ReferencePolicyOption.GREEDY)
+    private volatile ComponentInfoServiceTemplate componentInfoService;
 
     @Override
     protected void doGet(SlingHttpServletRequest request, 
@@ -56,16 +84,16 @@ public class ComponentInfoServlet extends SlingSafeMethodsServlet {
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
         
+        // 获取请求路径信息
+        String requestPath = request.getPathInfo();
+        
+        // 处理批量请求（流式输出，异常在方法内部处理）
+        if (requestPath != null && requestPath.contains("/batch")) {
+            handleBatchRequest(request, response);
+            return;
+        }
+        
         try {
-            // 获取请求路径信息
-            String requestPath = request.getPathInfo();
-            
-            // 处理批量请求
-            if (requestPath != null && requestPath.contains("/batch")) {
-                handleBatchRequest(request, response);
-                return;
-            }
-            
             // 处理简化信息请求
             if (requestPath != null && requestPath.contains("/simple")) {
                 handleSimpleRequest(request, response);
@@ -88,6 +116,9 @@ public class ComponentInfoServlet extends SlingSafeMethodsServlet {
      * 参数：
      * - path: 组件路径（必需）
      * - format: 输出格式（json|pretty，默认 json）
+     * 
+     * 内容协商：Accept 头为 application/x-jackson-smile 或 application/cbor 时，
+     * 返回对应的二进制格式（供迁移流水线等机器客户端使用），否则返回 JSON。
      */
     private void handleSingleComponentRequest(SlingHttpServletRequest request,
                                              SlingHttpServletResponse response)
@@ -102,36 +133,76 @@ public class ComponentInfoServlet extends SlingSafeMethodsServlet {
         
         String format = request.getParameter("format");
         boolean pretty = "pretty".equals(format);
+        ExportFormat exportFormat = ExportFormat.fromAcceptHeader(request.getHeader("Accept"));
+        response.setHeader("Vary", "Accept");
         
-        Session session = repository.loginAdministrative(null);
+        ComponentInfoServiceTemplate service = componentInfoService;
+        if (service != null && !exportFormat.isBinary() && service.isServedPath(componentPath)) {
+            writeEncoded(service, componentPath, pretty, request, response);
+            return;
+        }
+        
+        Session session = sessionPool.borrow();
         try {
-            ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
-            ComponentExporter exporter = new ComponentExporter();
+            ComponentInfoExtractor extractor = createExtractor(session);
+            ComponentExporter exporter = new ComponentExporter(exportFormat, pretty);
             
             // 提取组件信息
             Map<String, Object> componentInfo = extractor.extractComponentInfo(componentPath);
             
-            // 检查是否有错误
+            // 检查是否有错误（错误信息始终以 JSON 返回）
             if (componentInfo.containsKey("error")) {
-                response.setStatus(404);
+                response.setStatus(ComponentInfoExtractor.statusOf(componentInfo));
                 response.getWriter().write(exporter.exportComponentToJsonString(componentInfo));
                 return;
             }
             
-            // 导出为 JSON
-            if (pretty) {
-                // 格式化输出
+            if (exportFormat.isBinary()) {
+                // 二进制输出（Smile / CBOR）
+                byte[] body = exporter.exportComponentToBytes(componentInfo);
+                response.setContentType(exportFormat.getContentType());
+                response.setContentLength(body.length);
+                response.getOutputStream().write(body);
+            } else {
+                // JSON 输出（format=pretty 时格式化，否则紧凑输出）
                 String json = exporter.exportComponentToJsonString(componentInfo);
                 response.getWriter().write(json);
-            } else {
-                // 紧凑输出
-            String json = exporter.exportComponentToJsonString(componentInfo);
-            response.getWriter().write(json);
             }
             
         } finally {
-            session.logout();
+            sessionPool.release(session);
+        }
+    }
+
+    /**
+     * 通过组件信息服务返回预编码的 JSON（缓存命中时不再序列化）
+     */
+    private void writeEncoded(ComponentInfoServiceTemplate service, String componentPath, boolean pretty,
+                              SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws IOException {
+        ComponentInfoEncoding encoding = ComponentInfoEncoding.select(pretty, request.getHeader("Accept-Encoding"));
+        ComponentInfoServiceTemplate.EncodedComponentInfo encoded =
+            service.getEncodedComponentInfo(componentPath, encoding);
+        
+        response.addHeader("Vary", "Accept-Encoding");
+        if (encoded.isError()) {
+            response.setStatus(encoded.getStatus());
+        }
+        if (encoding.getContentEncoding() != null) {
+            response.setHeader("Content-Encoding", encoding.getContentEncoding());
         }
+        response.setContentLength(encoded.getBytes().length);
+        encoded.writeTo(response.getOutputStream());
+    }
+
+    /**
+     * 创建提取器：部署了组件信息服务时共享它的资源类型解析缓存（组件变化时由服务清空）
+     */
+    private ComponentInfoExtractor createExtractor(Session session) {
+        ComponentInfoServiceTemplate service = componentInfoService;
+        return service != null
+            ? new ComponentInfoExtractor(session, service.getTypeResolver())
+            : new ComponentInfoExtractor(session);
     }
 
     /**
@@ -139,11 +210,17 @@ public class ComponentInfoServlet extends SlingSafeMethodsServlet {
      * 
      * 参数：
      * - basePath: 组件基础路径（必需）
-     * - limit: 限制返回数量（可选）
+     * - limit: 限制返回数量（可选，达到后立即停止提取）
+     * - format: 输出格式（json|pretty，默认 json）
+     * 
+     * 流式输出：每提取完一个组件就通过绑定到响应输出流的 JsonGenerator 写出，
+     * 每 {@value #BATCH_FLUSH_INTERVAL} 个组件刷新一次，内存占用与组件数量无关。
+     * 响应为 {"basePath": ..., "components": [...], "total": n}，total 在组件数组之后写出。
+     * 开始写出后出错时响应被截断（不补全括号），客户端据此判断结果不完整。
      */
     private void handleBatchRequest(SlingHttpServletRequest request,
                                    SlingHttpServletResponse response)
-            throws RepositoryException, IOException {
+            throws IOException {
         
         String basePath = request.getParameter("basePath");
         if (basePath == null || basePath.isEmpty()) {
@@ -152,34 +229,73 @@ public class ComponentInfoServlet extends SlingSafeMethodsServlet {
             return;
         }
         
-        String limitStr = request.getParameter("limit");
-        int limit = limitStr != null ? Integer.parseInt(limitStr) : -1;
+        int limit;
+        try {
+            String limitStr = request.getParameter("limit");
+            limit = limitStr != null ? Integer.parseInt(limitStr) : -1;
+        } catch (NumberFormatException e) {
+            response.setStatus(400);
+            response.getWriter().write("{\"error\":\"limit 参数不是整数\"}");
+            return;
+        }
+        
+        boolean pretty = "pretty".equals(request.getParameter("format"));
         
-        Session session = repository.loginAdministrative(null);
+        // 开始写出之前的错误仍然可以返回错误状态
+        Session session;
         try {
-            ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
-            ComponentExporter exporter = new ComponentExporter();
-            
-            // 批量提取组件信息
-            List<Map<String, Object>> components = extractor.extractComponentsFromPath(basePath);
-            
-            // 应用限制
-            if (limit > 0 && components.size() > limit) {
-                components = components.subList(0, limit);
+            session = sessionPool.borrow();
+        } catch (RepositoryException | RuntimeException e) {
+            log.error("批量请求获取会话失败: " + basePath, e);
+            response.setStatus(500);
+            response.getWriter().write("{\"error\":\"无法获取仓库会话\"}");
+            return;
+        }
+        
+        // 一旦开始写出就只使用这个输出流，不再调用 getWriter（两者互斥）
+        JsonGenerator generator = null;
+        try {
+            generator = BATCH_MAPPER.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+            // 出错时 close() 不自动补全括号：中断的响应保持为不完整的 JSON，客户端不会把部分结果当成完整结果
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            if (pretty) {
+                generator.useDefaultPrettyPrinter();
             }
+            ComponentInfoExtractor extractor = createExtractor(session);
+            JsonGenerator out = generator;
             
-            // 构建响应
-            Map<String, Object> responseData = new HashMap<>();
-            responseData.put("total", components.size());
-            responseData.put("basePath", basePath);
-            responseData.put("components", components);
+            out.writeStartObject();
+            out.writeStringField("basePath", basePath);
+            out.writeArrayFieldStart("components");
             
-            // 导出为 JSON
-            String json = exporter.exportComponentToJsonString(responseData);
-            response.getWriter().write(json);
+            // 边提取边写出，达到 limit 时返回 false 停止遍历
+            int[] written = new int[1];
+            extractor.extractComponentsFromPath(basePath, componentInfo -> {
+                out.writeObject(componentInfo);
+                written[0]++;
+                if (written[0] % BATCH_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+                return limit <= 0 || written[0] < limit;
+            });
             
+            out.writeEndArray();
+            out.writeNumberField("total", written[0]);
+            out.writeEndObject();
+            
+        } catch (Exception e) {
+            // 响应已经开始写出，无法再返回错误状态（通常是客户端断开或提取出错），只记录日志
+            log.warn("批量输出中断: " + basePath, e);
         } finally {
-            session.logout();
+            try {
+                if (generator != null) {
+                    generator.close();
+                }
+            } catch (IOException e) {
+                log.debug("关闭批量输出失败: " + basePath, e);
+            } finally {
+                sessionPool.release(session);
+            }
         }
     }
 
@@ -199,9 +315,9 @@ public class ComponentInfoServlet extends SlingSafeMethodsServlet {
             return;
         }
         
-        Session session = repository.loginAdministrative(null);
+        Session session = sessionPool.borrow();
         try {
-            ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
+            ComponentInfoExtractor extractor = createExtractor(session);
             ComponentExporter exporter = new ComponentExporter();
             
             // 提取简化信息
@@ -212,7 +328,7 @@ public class ComponentInfoServlet extends SlingSafeMethodsServlet {
                 response.getWriter().write(json);
             
         } finally {
-            session.logout();
+            sessionPool.release(session);
         }
     }
 }
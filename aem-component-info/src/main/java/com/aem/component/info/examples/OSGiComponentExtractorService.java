@@ -2,7 +2,7 @@ package com.aem.component.info.examples;
 
 import com.aem.component.info.ComponentExporter;
 import com.aem.component.info.ComponentInfoExtractor;
-import org.apache.sling.jcr.api.SlingRepository;
+import com.aem.component.info.templates.JcrSessionPoolService;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
@@ -22,7 +22,7 @@ import java.util.Map;
  * 
  * 使用方法：
  * 1. 将这个类放在你的 AEM bundle 中
- * 2. 确保依赖了必要的 OSGi 服务（SlingRepository）
+ * 2. 确保依赖了必要的 OSGi 服务（JcrSessionPoolService，需要配置服务用户映射）
  * 3. 通过 HTTP Servlet、Sling Model 或其他方式调用服务方法
  */
 @Component(
@@ -33,9 +33,9 @@ public class OSGiComponentExtractorService {
 
     private static final Logger log = LoggerFactory.getLogger(OSGiComponentExtractorService.class);
 
-    // 注入 SlingRepository 服务
+    // 注入共享的 JCR 会话池
     @Reference
-    private SlingRepository repository;
+    private JcrSessionPoolService sessionPool;
 
     /**
      * 提取组件信息的服务方法
@@ -46,9 +46,8 @@ public class OSGiComponentExtractorService {
     public Map<String, Object> extractComponentInfo(String componentPath) {
         Session session = null;
         try {
-            // 使用管理会话（具有完整权限）
-            // 注意：在生产环境中，应该使用适当的权限会话
-            session = repository.loginAdministrative(null);
+            // 从会话池借出服务用户会话（只读权限，用完归还而不是登出）
+            session = sessionPool.borrow();
             
             ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
             return extractor.extractComponentInfo(componentPath);
@@ -57,9 +56,7 @@ public class OSGiComponentExtractorService {
             log.error("提取组件信息时出错: " + e.getMessage(), e);
             return null;
         } finally {
-            if (session != null) {
-                session.logout();
-            }
+            sessionPool.release(session);
         }
     }
 
@@ -72,7 +69,7 @@ public class OSGiComponentExtractorService {
     public List<Map<String, Object>> extractComponentsFromPath(String basePath) {
         Session session = null;
         try {
-            session = repository.loginAdministrative(null);
+            session = sessionPool.borrow();
             
             ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
             return extractor.extractComponentsFromPath(basePath);
@@ -81,9 +78,7 @@ public class OSGiComponentExtractorService {
             log.error("批量提取组件信息时出错: " + e.getMessage(), e);
             return null;
         } finally {
-            if (session != null) {
-                session.logout();
-            }
+            sessionPool.release(session);
         }
     }
 
@@ -96,7 +91,7 @@ public class OSGiComponentExtractorService {
     public String exportComponentInfoAsJson(String componentPath) {
         Session session = null;
         try {
-            session = repository.loginAdministrative(null);
+            session = sessionPool.borrow();
             
             ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
             ComponentExporter exporter = new ComponentExporter();
@@ -108,9 +103,7 @@ public class OSGiComponentExtractorService {
             log.error("导出组件信息时出错: " + e.getMessage(), e);
             return null;
         } finally {
-            if (session != null) {
-                session.logout();
-            }
+            sessionPool.release(session);
         }
     }
 
@@ -124,7 +117,7 @@ public class OSGiComponentExtractorService {
     public boolean exportComponentInfoToFile(String componentPath, String outputPath) {
         Session session = null;
         try {
-            session = repository.loginAdministrative(null);
+            session = sessionPool.borrow();
             
             ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
             ComponentExporter exporter = new ComponentExporter();
@@ -138,9 +131,7 @@ public class OSGiComponentExtractorService {
             log.error("导出组件信息到文件时出错: " + e.getMessage(), e);
             return false;
         } finally {
-            if (session != null) {
-                session.logout();
-            }
+            sessionPool.release(session);
         }
     }
 
@@ -0,0 +1,142 @@
+package com.aem.component.info.templates;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 跨实例缓存失效（轮询版本标记）
+ *
+ * 每次 {@link #poll()} 读取所有基础路径的版本，与上次看到的版本比较，变化的基础路径交给
+ * {@link Listener} 丢弃缓存条目。第一次读到某个基础路径时只记录版本，不触发失效
+ * （此前的修改已经由激活时的空缓存或快照版本核对覆盖）。
+ *
+ * 收敛时间不超过一个轮询间隔加一次读取的耗时。本实例发布的失效也会在下一次轮询时再次触发，
+ * 只多一次未命中，换来不需要区分版本来源。
+ */
+public class CacheInvalidator {
+
+    /**
+     * 失效回调
+     */
+    public interface Listener {
+        /**
+         * @param basePath 版本发生变化的基础路径（应丢弃该路径及其子路径的缓存）
+         */
+        void invalidated(String basePath);
+    }
+
+    private final InvalidationProtocol protocol;
+    private final List<String> basePaths;
+    private final Listener listener;
+    private final Map<String, Long> seenVersions = new ConcurrentHashMap<>();
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong pollFailures = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+
+    /**
+     * @param protocol 失效协议
+     * @param basePaths 基础路径（各自独立失效）
+     * @param listener 失效回调
+     */
+    public CacheInvalidator(InvalidationProtocol protocol, Collection<String> basePaths, Listener listener) {
+        this.protocol = protocol;
+        this.listener = listener;
+        // 最长的基础路径优先匹配
+        List<String> sorted = new ArrayList<>();
+        for (String basePath : basePaths) {
+            String trimmed = basePath.trim();
+            if (!trimmed.isEmpty() && !sorted.contains(trimmed)) {
+                sorted.add(trimmed);
+            }
+        }
+        sorted.sort(Comparator.comparingInt(String::length).reversed());
+        this.basePaths = sorted;
+    }
+
+    /**
+     * 组件路径所属的基础路径
+     *
+     * @param path 组件路径
+     * @return 最长的匹配基础路径，不属于任何基础路径时返回 null
+     */
+    public String basePathOf(String path) {
+        for (String basePath : basePaths) {
+            if (isUnder(path, basePath)) {
+                return basePath;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 发布路径所属基础路径的失效（路径不属于任何基础路径时忽略）
+     *
+     * @param path 发生变化的路径
+     * @return 发布的基础路径，没有发布时返回 null
+     * @throws Exception 协议写入失败
+     */
+    public String publish(String path) throws Exception {
+        String basePath = basePathOf(path);
+        if (basePath != null) {
+            protocol.publish(basePath);
+            published.incrementAndGet();
+        }
+        return basePath;
+    }
+
+    /**
+     * 读取版本标记，对版本变化的基础路径回调失效
+     *
+     * @return 本次失效的基础路径数量
+     * @throws Exception 协议读取失败
+     */
+    public int poll() throws Exception {
+        Map<String, Long> versions;
+        try {
+            versions = protocol.readVersions(basePaths);
+        } catch (Exception e) {
+            pollFailures.incrementAndGet();
+            throw e;
+        }
+        polls.incrementAndGet();
+
+        int changed = 0;
+        for (Map.Entry<String, Long> entry : versions.entrySet()) {
+            Long previous = seenVersions.put(entry.getKey(), entry.getValue());
+            if (previous != null && !previous.equals(entry.getValue())) {
+                listener.invalidated(entry.getKey());
+                received.incrementAndGet();
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 获取统计信息
+     *
+     * @return basePaths、polls、pollFailures、published、received、versions
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("basePaths", basePaths);
+        stats.put("polls", polls.get());
+        stats.put("pollFailures", pollFailures.get());
+        stats.put("published", published.get());
+        stats.put("received", received.get());
+        stats.put("versions", new LinkedHashMap<>(seenVersions));
+        return stats;
+    }
+
+    static boolean isUnder(String path, String basePath) {
+        return path.equals(basePath) || path.startsWith(basePath.endsWith("/") ? basePath : basePath + "/");
+    }
+}
@@ -0,0 +1,114 @@
+package com.aem.component.info.templates;
+
+import com.aem.component.info.ComponentArchiveReader;
+import com.aem.component.info.ComponentArchiveWriter;
+import com.aem.component.info.ExportFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 缓存快照（服务重启后的热启动）
+ *
+ * 快照是一个 SMILE 格式的组件归档（{@link ComponentArchiveWriter}），每条记录为
+ * {"componentPath": 缓存键, "revision": 数据来源版本, "data": 组件信息}。
+ *
+ * 打开快照只读取路径索引，记录在第一次请求对应路径时才解压（{@link #take(String)}），
+ * 每条记录最多取一次。调用方必须先用 revision 与仓库中的当前版本核对，再使用数据。
+ */
+public class CacheSnapshot implements Closeable {
+
+    private final ComponentArchiveReader reader;
+    private final Set<String> remaining;
+
+    private CacheSnapshot(ComponentArchiveReader reader) {
+        this.reader = reader;
+        this.remaining = new HashSet<>(reader.getIndex().keySet());
+    }
+
+    /**
+     * 把缓存条目写成快照（先写临时文件再原子替换）
+     *
+     * 版本未知（revision 为 0）的条目无法核对，不写入快照。
+     *
+     * @param file 快照文件
+     * @param entries 缓存条目
+     * @return 写入的条目数量
+     * @throws IOException 写出错误
+     */
+    public static int write(Path file, List<ComponentInfoCache.Entry> entries) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int count;
+        try (ComponentArchiveWriter writer = new ComponentArchiveWriter(temp.toString(), ExportFormat.SMILE)) {
+            for (ComponentInfoCache.Entry entry : entries) {
+                if (entry.getRevision() == 0) {
+                    continue;
+                }
+                Map<String, Object> record = new HashMap<>();
+                record.put("componentPath", entry.getKey());
+                record.put("revision", entry.getRevision());
+                record.put("data", entry.getData());
+                writer.write(record);
+            }
+            writer.finish();
+            count = writer.getCount();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * 打开快照（只读取索引）
+     *
+     * @param file 快照文件
+     * @return 快照，文件不存在时返回 null
+     * @throws IOException 文件损坏或读取错误
+     */
+    public static CacheSnapshot open(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        return new CacheSnapshot(ComponentArchiveReader.open(file));
+    }
+
+    /**
+     * 取出一条记录（之后不能再次取出）
+     *
+     * @param componentPath 组件路径
+     * @return 记录（componentPath、revision、data），快照中没有或已取出时返回 null
+     * @throws IOException 读取错误
+     */
+    public Map<String, Object> take(String componentPath) throws IOException {
+        synchronized (remaining) {
+            if (!remaining.remove(componentPath)) {
+                return null;
+            }
+        }
+        return reader.read(componentPath);
+    }
+
+    /**
+     * 尚未取出的记录数量
+     */
+    public int remaining() {
+        synchronized (remaining) {
+            return remaining.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
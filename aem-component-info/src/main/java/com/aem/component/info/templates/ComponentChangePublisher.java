@@ -0,0 +1,66 @@
+package com.aem.component.info.templates;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.Designate;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 组件变化监听器
+ *
+ * 监听本实例上组件定义的变化（部署、CRXDE 编辑等），交给
+ * {@link ComponentInfoServiceTemplate#invalidate(java.util.Collection)} 丢弃本地缓存并发布版本标记。
+ * 只处理本地变化：同一集群中其他实例上的变化由那个实例自己发布。
+ */
+@Component(
+    service = ResourceChangeListener.class,
+    property = {
+        // 没有 OSGi 配置时 Sling 只认组件属性，metatype 默认值不会生效
+        ResourceChangeListener.PATHS + "=/apps/myproject",
+        ResourceChangeListener.CHANGES + "=ADDED",
+        ResourceChangeListener.CHANGES + "=CHANGED",
+        ResourceChangeListener.CHANGES + "=REMOVED"
+    }
+)
+@Designate(ocd = ComponentChangePublisher.ListenerConfig.class)
+public class ComponentChangePublisher implements ResourceChangeListener {
+
+    @Reference
+    private ComponentInfoServiceTemplate service;
+
+    /**
+     * OSGi 配置接口
+     */
+    @org.osgi.service.metatype.annotations.ObjectClassDefinition(
+        name = "Component Info Change Publisher",
+        description = "组件变化时使组件信息缓存失效"
+    )
+    public @interface ListenerConfig {
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Watched Paths",
+            description = "监听的路径（与组件信息服务的 allowedBasePath 一致；范围外的变化会被服务忽略），"
+                + "默认值与组件属性 resource.paths 相同"
+        )
+        String[] resource_paths() default {"/apps/myproject"};
+    }
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        // 一批变化中同一基础路径只发布一次
+        Set<String> paths = new LinkedHashSet<>();
+        for (ResourceChange change : changes) {
+            if (!change.isExternal()) {
+                paths.add(change.getPath());
+            }
+        }
+        if (!paths.isEmpty()) {
+            service.invalidate(paths);
+        }
+    }
+}
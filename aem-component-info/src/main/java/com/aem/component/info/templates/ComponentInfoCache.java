@@ -0,0 +1,810 @@
+package com.aem.component.info.templates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * 有界组件信息缓存（W-TinyLFU 风格）
+ *
+ * 结构：
+ * - 窗口区（约 1% 容量，LRU）：新条目先进入窗口，吸收突发访问
+ * - 主区（分段 LRU）：试用段 + 保护段（保护段约占主区 80%），试用段中再次命中的条目晋升到保护段
+ * - 频率草图（Count-Min Sketch，每个计数器一个字节、上限 15，定期减半）：窗口淘汰出的候选者
+ *   只有比主区的淘汰对象访问更频繁时才被接纳，避免一次性扫描冲掉热点组件
+ *
+ * 容量按权重计算（默认按组件信息的估算字节数，见 {@link #estimateWeight(Object)}），
+ * 单个权重超过上限的条目不缓存。过期条目在访问时删除，也可以由调用方定期调用
+ * {@link #cleanUp()} 主动清除。
+ *
+ * 条目可以附带组件信息的预编码字节（{@link #attachEncoded}），命中时直接写出，不再序列化；
+ * 附带的字节计入条目权重。
+ *
+ * 并发：读取不加锁。索引是 ConcurrentHashMap，命中和未命中只写入一个有界的读缓冲区；
+ * 调整 LRU 顺序和更新频率草图推迟到持锁时批量应用（缓冲区积累到 {@value #DRAIN_THRESHOLD} 条、
+ * 以及每次写入前）。缓冲区满时丢弃访问记录，只影响淘汰精度。写入、失效和淘汰仍在一把锁内完成。
+ */
+public class ComponentInfoCache {
+
+    /**
+     * 缓存条目
+     */
+    public static class Entry {
+        private final String key;
+        private final Map<String, Object> data;
+        private long weight;
+        private final long revision;
+        private final long createdAt;
+        private final long expiresAt;
+        private Segment segment = Segment.WINDOW;
+        // 写时复制，读取不加锁
+        private volatile Map<ComponentInfoEncoding, byte[]> encoded = Collections.emptyMap();
+
+        Entry(String key, Map<String, Object> data, long weight, long revision, long createdAt, long expiresAt) {
+            this.key = key;
+            this.data = data;
+            this.weight = weight;
+            this.revision = revision;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Map<String, Object> getData() {
+            return data;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        /**
+         * 预编码字节
+         *
+         * @param encoding 编码
+         * @return 字节，尚未编码时返回 null
+         */
+        public byte[] getEncoded(ComponentInfoEncoding encoding) {
+            return encoded.get(encoding);
+        }
+
+        /**
+         * 数据来源的版本（如组件节点的最后修改时间），0 表示未知
+         */
+        public long getRevision() {
+            return revision;
+        }
+
+        /**
+         * 写入时间（毫秒）
+         */
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private enum Segment {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    // 读缓冲区积累到这么多条时由读取线程获取锁批量应用
+    static final int DRAIN_THRESHOLD = 32;
+
+    private final long maxWeight;
+    private final long windowMaxWeight;
+    private final long protectedMaxWeight;
+    private final long expireAfterWriteMillis;
+    private final LongSupplier clock;
+    private final FrequencySketch sketch;
+
+    // 索引允许不加锁读取，只在锁内修改；三个分段都按插入顺序排列，头部是最久未使用的条目
+    private final Map<String, Entry> data = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, Entry> window = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Entry> protectedSegment = new LinkedHashMap<>();
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    // 访问记录（命中为 Entry，未命中为键），在锁内应用
+    private final ReadBuffer readBuffer = new ReadBuffer();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long evictions;
+    private long expirations;
+    private long rejections;
+
+    /**
+     * 构造函数
+     *
+     * @param maxWeight 最大总权重（估算字节数）
+     * @param expireAfterWriteMillis 写入后过期时间（毫秒）
+     */
+    public ComponentInfoCache(long maxWeight, long expireAfterWriteMillis) {
+        this(maxWeight, expireAfterWriteMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * 构造函数（指定时钟，写入时间和过期判断都以它为准）
+     *
+     * @param maxWeight 最大总权重（估算字节数）
+     * @param expireAfterWriteMillis 写入后过期时间（毫秒）
+     * @param clock 当前时间（毫秒）
+     */
+    ComponentInfoCache(long maxWeight, long expireAfterWriteMillis, LongSupplier clock) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight 必须大于 0");
+        }
+        this.maxWeight = maxWeight;
+        this.windowMaxWeight = Math.max(1, maxWeight / 100);
+        this.protectedMaxWeight = (maxWeight - windowMaxWeight) * 8 / 10;
+        this.expireAfterWriteMillis = expireAfterWriteMillis;
+        this.clock = clock;
+        // 按平均每个组件约 4KB 估算条目数，决定草图宽度
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(256, maxWeight / 4096)));
+    }
+
+    /**
+     * 获取未过期的条目（记录一次访问频率）
+     *
+     * 命中不加锁，访问记录稍后在锁内应用；只有条目已过期时才获取锁删除它。
+     *
+     * @param key 组件路径
+     * @return 条目，不存在或已过期时返回 null
+     */
+    public Entry getEntry(String key) {
+        Entry entry = data.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            afterRead(key);
+            return null;
+        }
+        if (entry.isExpired(clock.getAsLong())) {
+            synchronized (this) {
+                drainReadBuffer();
+                sketch.increment(key);
+                if (data.get(key) == entry) {
+                    remove(entry);
+                    expirations++;
+                }
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        afterRead(entry);
+        return entry;
+    }
+
+    /**
+     * 获取未过期的组件信息
+     *
+     * @param key 组件路径
+     * @return 组件信息，不存在或已过期时返回 null
+     */
+    public Map<String, Object> get(String key) {
+        Entry entry = getEntry(key);
+        return entry != null ? entry.data : null;
+    }
+
+    /**
+     * 查看未过期的组件信息（不记录访问频率、命中统计，也不调整 LRU 顺序）
+     *
+     * @param key 组件路径
+     * @return 组件信息，不存在或已过期时返回 null
+     */
+    public Map<String, Object> peek(String key) {
+        Entry entry = peekEntry(key);
+        return entry != null ? entry.data : null;
+    }
+
+    /**
+     * 查看未过期的条目（不记录访问频率、命中统计，也不调整 LRU 顺序）
+     *
+     * @param key 组件路径
+     * @return 条目，不存在或已过期时返回 null
+     */
+    public Entry peekEntry(String key) {
+        Entry entry = data.get(key);
+        return entry != null && !entry.isExpired(clock.getAsLong()) ? entry : null;
+    }
+
+    /**
+     * 写入组件信息（权重按估算字节数计算）
+     *
+     * @param key 组件路径
+     * @param value 组件信息
+     * @return 是否被缓存（权重超过上限或未通过接纳时为 false）
+     */
+    public boolean put(String key, Map<String, Object> value) {
+        return put(key, value, estimateWeight(value));
+    }
+
+    /**
+     * 写入组件信息
+     *
+     * @param key 组件路径
+     * @param value 组件信息
+     * @param weight 权重
+     * @return 是否被缓存（权重超过上限或未通过接纳时为 false）
+     */
+    public boolean put(String key, Map<String, Object> value, long weight) {
+        return put(key, value, weight, 0);
+    }
+
+    /**
+     * 写入组件信息并记录数据来源的版本
+     *
+     * @param key 组件路径
+     * @param value 组件信息
+     * @param weight 权重
+     * @param revision 数据来源的版本（0 表示未知）
+     * @return 是否被缓存（权重超过上限或未通过接纳时为 false）
+     */
+    public synchronized boolean put(String key, Map<String, Object> value, long weight, long revision) {
+        drainReadBuffer();
+        Entry existing = data.get(key);
+        if (existing != null) {
+            remove(existing);
+        }
+        if (weight > maxWeight) {
+            rejections++;
+            return false;
+        }
+
+        long now = clock.getAsLong();
+        Entry entry = new Entry(key, value, weight, revision, now, now + expireAfterWriteMillis);
+        sketch.increment(key);
+        data.put(key, entry);
+        window.put(key, entry);
+        windowWeight += weight;
+
+        evictFromWindow();
+        return data.get(key) == entry;
+    }
+
+    /**
+     * 为条目附带预编码字节（权重相应增加，超出上限时照常淘汰）
+     *
+     * 只有条目仍在缓存中时才附带；同一编码已存在时保留原有字节。
+     *
+     * @param entry 通过 {@link #getEntry(String)} 取得的条目
+     * @param encoding 编码
+     * @param bytes 编码后的字节
+     * @return 是否已附带
+     */
+    public synchronized boolean attachEncoded(Entry entry, ComponentInfoEncoding encoding, byte[] bytes) {
+        drainReadBuffer();
+        if (data.get(entry.key) != entry || entry.encoded.containsKey(encoding)) {
+            return false;
+        }
+        Map<ComponentInfoEncoding, byte[]> encoded = new EnumMap<>(ComponentInfoEncoding.class);
+        encoded.putAll(entry.encoded);
+        encoded.put(encoding, bytes);
+        entry.encoded = encoded;
+
+        long delta = 16 + bytes.length;
+        entry.weight += delta;
+        switch (entry.segment) {
+            case WINDOW:
+                windowWeight += delta;
+                break;
+            case PROBATION:
+                probationWeight += delta;
+                break;
+            default:
+                protectedWeight += delta;
+                break;
+        }
+        evictFromWindow();
+        return data.get(entry.key) == entry;
+    }
+
+    /**
+     * 删除条目
+     *
+     * @param key 组件路径
+     */
+    public synchronized void invalidate(String key) {
+        Entry entry = data.get(key);
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * 删除路径及其所有子路径的条目
+     *
+     * @param basePath 基础路径
+     * @return 删除的条目数量
+     */
+    public synchronized int invalidateAll(String basePath) {
+        String prefix = basePath.endsWith("/") ? basePath : basePath + "/";
+        List<Entry> matched = new ArrayList<>();
+        for (Entry entry : data.values()) {
+            if (entry.key.equals(basePath) || entry.key.startsWith(prefix)) {
+                matched.add(entry);
+            }
+        }
+        for (Entry entry : matched) {
+            remove(entry);
+        }
+        return matched.size();
+    }
+
+    /**
+     * 删除多个路径及其所有子路径的条目（整批只遍历一次缓存）
+     *
+     * @param basePaths 基础路径
+     * @return 删除的条目数量
+     */
+    public synchronized int invalidateAll(Collection<String> basePaths) {
+        // 只保留最上层的前缀：互不包含时，键的前缀只可能是按字典序不大于它的最近一个
+        TreeSet<String> prefixes = new TreeSet<>();
+        for (String basePath : basePaths) {
+            prefixes.add(basePath.endsWith("/") ? basePath : basePath + "/");
+        }
+        String previous = null;
+        for (Iterator<String> iterator = prefixes.iterator(); iterator.hasNext(); ) {
+            String prefix = iterator.next();
+            if (previous != null && prefix.startsWith(previous)) {
+                iterator.remove();
+            } else {
+                previous = prefix;
+            }
+        }
+        if (prefixes.isEmpty()) {
+            return 0;
+        }
+
+        List<Entry> matched = new ArrayList<>();
+        for (Entry entry : data.values()) {
+            String key = entry.key + "/";
+            String prefix = prefixes.floor(key);
+            if (prefix != null && key.startsWith(prefix)) {
+                matched.add(entry);
+            }
+        }
+        for (Entry entry : matched) {
+            remove(entry);
+        }
+        return matched.size();
+    }
+
+    /**
+     * 清空缓存（频率草图保留）
+     */
+    public synchronized void clear() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        windowWeight = 0;
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    /**
+     * 主动删除所有过期条目
+     *
+     * @return 删除的条目数量
+     */
+    public synchronized int cleanUp() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (Iterator<Entry> iterator = data.values().iterator(); iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (entry.isExpired(now)) {
+                iterator.remove();
+                unlink(entry);
+                removed++;
+            }
+        }
+        expirations += removed;
+        return removed;
+    }
+
+    /**
+     * 获取所有未过期条目的快照，按热度从高到低（保护段、试用段、窗口，各段内最近使用的在前）
+     *
+     * @return 条目列表
+     */
+    public synchronized List<Entry> entries() {
+        drainReadBuffer();
+        long now = clock.getAsLong();
+        List<Entry> entries = new ArrayList<>(data.size());
+        for (LinkedHashMap<String, Entry> segment : Arrays.asList(protectedSegment, probation, window)) {
+            List<Entry> segmentEntries = new ArrayList<>(segment.values());
+            for (int i = segmentEntries.size() - 1; i >= 0; i--) {
+                if (!segmentEntries.get(i).isExpired(now)) {
+                    entries.add(segmentEntries.get(i));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 按估算访问频率从高到低返回缓存中的键（频率相同时按 {@link #entries()} 的热度顺序）
+     *
+     * @param limit 最多返回的数量
+     * @return 组件路径列表
+     */
+    public synchronized List<String> hottestKeys(int limit) {
+        List<Entry> entries = entries();
+        final Map<String, Integer> frequencies = new HashMap<>();
+        for (Entry entry : entries) {
+            frequencies.put(entry.key, sketch.frequency(entry.key));
+        }
+        // 稳定排序，保留同频率条目的原有顺序
+        entries.sort((a, b) -> Integer.compare(frequencies.get(b.key), frequencies.get(a.key)));
+
+        List<String> keys = new ArrayList<>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            keys.add(entries.get(i).key);
+        }
+        return keys;
+    }
+
+    public synchronized int size() {
+        return data.size();
+    }
+
+    /**
+     * 当前总权重
+     */
+    public synchronized long weightedSize() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * 获取统计信息
+     *
+     * @return size、weightedSize、maxWeight、hits、misses、hitRate、evictions、expirations、rejections
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", data.size());
+        stats.put("weightedSize", weightedSize());
+        stats.put("maxWeight", maxWeight);
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        stats.put("rejections", rejections);
+        return stats;
+    }
+
+    // ==================== 读缓冲区 ====================
+
+    /**
+     * 记录一次访问；缓冲区积累到阈值或已满时，由一个读取线程获取锁批量应用
+     */
+    private void afterRead(Object record) {
+        int pending = readBuffer.offer(record);
+        if ((pending < 0 || pending >= DRAIN_THRESHOLD) && draining.compareAndSet(false, true)) {
+            try {
+                synchronized (this) {
+                    drainReadBuffer();
+                }
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * 应用缓冲的访问记录（调用方持有锁）
+     */
+    private void drainReadBuffer() {
+        Object record;
+        while ((record = readBuffer.poll()) != null) {
+            if (record instanceof Entry) {
+                Entry entry = (Entry) record;
+                sketch.increment(entry.key);
+                // 记录之后条目可能已被淘汰或替换
+                if (data.get(entry.key) == entry) {
+                    onHit(entry);
+                }
+            } else {
+                sketch.increment((String) record);
+            }
+        }
+    }
+
+    /**
+     * 有界环形缓冲区：多个读取线程无锁写入，持锁的线程单独消费
+     */
+    static final class ReadBuffer {
+        static final int SIZE = 128;
+        private static final int MASK = SIZE - 1;
+
+        private final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        // 只由消费者修改
+        private volatile long readCounter;
+
+        /**
+         * @return 写入后尚未消费的记录数；缓冲区已满时丢弃记录并返回 -1
+         */
+        int offer(Object record) {
+            while (true) {
+                long tail = writeCounter.get();
+                long pending = tail - readCounter;
+                if (pending >= SIZE) {
+                    return -1;
+                }
+                if (writeCounter.compareAndSet(tail, tail + 1)) {
+                    slots.lazySet((int) (tail & MASK), record);
+                    return (int) pending + 1;
+                }
+            }
+        }
+
+        /**
+         * @return 下一条记录；没有记录、或下一个位置已被占用但尚未写入时返回 null
+         */
+        Object poll() {
+            long head = readCounter;
+            if (head == writeCounter.get()) {
+                return null;
+            }
+            int index = (int) (head & MASK);
+            Object record = slots.get(index);
+            if (record == null) {
+                return null;
+            }
+            slots.lazySet(index, null);
+            readCounter = head + 1;
+            return record;
+        }
+    }
+
+    // ==================== 淘汰策略 ====================
+
+    private void onHit(Entry entry) {
+        switch (entry.segment) {
+            case WINDOW:
+                moveToTail(window, entry);
+                break;
+            case PROBATION:
+                // 试用段再次命中：晋升到保护段，保护段超限时把最久未用的降回试用段
+                probation.remove(entry.key);
+                probationWeight -= entry.weight;
+                entry.segment = Segment.PROTECTED;
+                protectedSegment.put(entry.key, entry);
+                protectedWeight += entry.weight;
+                while (protectedWeight > protectedMaxWeight && protectedSegment.size() > 1) {
+                    Entry demoted = first(protectedSegment);
+                    protectedSegment.remove(demoted.key);
+                    protectedWeight -= demoted.weight;
+                    demoted.segment = Segment.PROBATION;
+                    probation.put(demoted.key, demoted);
+                    probationWeight += demoted.weight;
+                }
+                break;
+            default:
+                moveToTail(protectedSegment, entry);
+                break;
+        }
+    }
+
+    /**
+     * 窗口超限时把最久未用的条目作为候选者交给主区接纳
+     */
+    private void evictFromWindow() {
+        while (windowWeight > windowMaxWeight && window.size() > 1) {
+            Entry candidate = first(window);
+            window.remove(candidate.key);
+            windowWeight -= candidate.weight;
+            admit(candidate);
+        }
+        // 窗口只剩一个超大条目时也要保证总权重不超限
+        while (weightedSize() > maxWeight) {
+            Entry victim = victim();
+            if (victim == null) {
+                victim = first(window);
+            }
+            evict(victim);
+        }
+    }
+
+    /**
+     * 接纳：主区放得下直接进入试用段；否则候选者必须比每个被挤出的条目访问更频繁
+     */
+    private void admit(Entry candidate) {
+        long mainMaxWeight = maxWeight - windowMaxWeight;
+        int candidateFrequency = sketch.frequency(candidate.key);
+
+        while (probationWeight + protectedWeight + candidate.weight > mainMaxWeight) {
+            Entry victim = victim();
+            if (victim == null || sketch.frequency(victim.key) >= candidateFrequency) {
+                data.remove(candidate.key);
+                evictions++;
+                return;
+            }
+            evict(victim);
+        }
+        candidate.segment = Segment.PROBATION;
+        probation.put(candidate.key, candidate);
+        probationWeight += candidate.weight;
+    }
+
+    private Entry victim() {
+        if (!probation.isEmpty()) {
+            return first(probation);
+        }
+        return protectedSegment.isEmpty() ? null : first(protectedSegment);
+    }
+
+    private void evict(Entry entry) {
+        remove(entry);
+        evictions++;
+    }
+
+    private void remove(Entry entry) {
+        data.remove(entry.key);
+        unlink(entry);
+    }
+
+    private void unlink(Entry entry) {
+        switch (entry.segment) {
+            case WINDOW:
+                if (window.remove(entry.key) != null) {
+                    windowWeight -= entry.weight;
+                }
+                break;
+            case PROBATION:
+                if (probation.remove(entry.key) != null) {
+                    probationWeight -= entry.weight;
+                }
+                break;
+            default:
+                if (protectedSegment.remove(entry.key) != null) {
+                    protectedWeight -= entry.weight;
+                }
+                break;
+        }
+    }
+
+    private static void moveToTail(LinkedHashMap<String, Entry> segment, Entry entry) {
+        segment.remove(entry.key);
+        segment.put(entry.key, entry);
+    }
+
+    private static Entry first(LinkedHashMap<String, Entry> segment) {
+        return segment.values().iterator().next();
+    }
+
+    // ==================== 权重估算 ====================
+
+    /**
+     * 估算组件信息占用的堆内存字节数（字符串按 UTF-16，容器按条目开销粗略计算）
+     *
+     * @param value 组件信息或其中的值
+     * @return 估算字节数
+     */
+    public static long estimateWeight(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        }
+        if (value instanceof Map) {
+            long weight = 48;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                weight += 32 + estimateWeight(entry.getKey()) + estimateWeight(entry.getValue());
+            }
+            return weight;
+        }
+        if (value instanceof Collection) {
+            long weight = 24;
+            for (Object element : (Collection<?>) value) {
+                weight += 8 + estimateWeight(element);
+            }
+            return weight;
+        }
+        if (value instanceof Object[]) {
+            long weight = 16;
+            for (Object element : (Object[]) value) {
+                weight += 8 + estimateWeight(element);
+            }
+            return weight;
+        }
+        if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        }
+        return 16;
+    }
+
+    // ==================== 频率草图 ====================
+
+    /**
+     * Count-Min Sketch：4 行计数器，每个计数器占一个字节，计数上限 15；
+     * 记录次数达到宽度的 10 倍时所有计数减半，使频率随时间衰减
+     */
+    static class FrequencySketch {
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final byte[][] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int expectedEntries) {
+            int width = Integer.highestOneBit(Math.max(16, expectedEntries - 1) << 1);
+            this.table = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+        void increment(String key) {
+            int hash = key.hashCode();
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = index(hash, i);
+                if (table[i][index] < 15) {
+                    table[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(String key) {
+            int hash = key.hashCode();
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < SEEDS.length; i++) {
+                frequency = Math.min(frequency, table[i][index(hash, i)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9E3779B1;
+            h ^= h >>> 16;
+            return h & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            additions /= 2;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.aem.component.info.templates;
+
+import com.aem.component.info.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 组件信息的序列化编码（缓存中与组件信息一起保存的预编码字节）
+ *
+ * 编码器共享同一组 ObjectMapper（线程安全），不需要每次新建 {@link com.aem.component.info.ComponentExporter}。
+ */
+public enum ComponentInfoEncoding {
+
+    /**
+     * 紧凑 JSON
+     */
+    JSON(false, null),
+
+    /**
+     * 格式化 JSON
+     */
+    PRETTY_JSON(true, null),
+
+    /**
+     * gzip 压缩的紧凑 JSON（响应头 Content-Encoding: gzip）
+     */
+    GZIP_JSON(false, "gzip");
+
+    private static final ObjectMapper COMPACT_MAPPER = ExportFormat.JSON.createObjectMapper(false);
+    private static final ObjectMapper PRETTY_MAPPER = ExportFormat.JSON.createObjectMapper(true);
+
+    private final boolean pretty;
+    private final String contentEncoding;
+
+    ComponentInfoEncoding(boolean pretty, String contentEncoding) {
+        this.pretty = pretty;
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * 内容类型（始终是 JSON）
+     */
+    public String getContentType() {
+        return "application/json";
+    }
+
+    /**
+     * 内容编码（Content-Encoding 响应头），未压缩时为 null
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * 编码组件信息
+     *
+     * @param componentInfo 组件信息
+     * @return UTF-8 JSON 字节（GZIP_JSON 为压缩后的字节）
+     * @throws IOException 序列化错误
+     */
+    public byte[] encode(Map<String, Object> componentInfo) throws IOException {
+        ObjectMapper mapper = pretty ? PRETTY_MAPPER : COMPACT_MAPPER;
+        if (contentEncoding == null) {
+            return mapper.writeValueAsBytes(componentInfo);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(gzip, componentInfo);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 按请求选择编码：客户端接受 gzip 时优先压缩（格式化输出不压缩，便于调试时直接查看）
+     *
+     * @param pretty 是否格式化
+     * @param acceptEncoding Accept-Encoding 请求头，可以为 null
+     * @return 编码
+     */
+    public static ComponentInfoEncoding select(boolean pretty, String acceptEncoding) {
+        if (pretty) {
+            return PRETTY_JSON;
+        }
+        if (acceptEncoding != null) {
+            for (String coding : acceptEncoding.split(",")) {
+                String[] parts = coding.split(";");
+                if ("gzip".equals(parts[0].trim().toLowerCase(Locale.ROOT)) && !rejected(parts)) {
+                    return GZIP_JSON;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    // gzip;q=0 表示明确拒绝
+    private static boolean rejected(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim().replace(" ", "");
+            if (parameter.matches("q=0(\\.0*)?")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
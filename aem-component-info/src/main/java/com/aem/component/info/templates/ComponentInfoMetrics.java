@@ -0,0 +1,272 @@
+package com.aem.component.info.templates;
+
+import com.aem.component.info.ComponentInfoExtractor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 组件信息服务指标
+ *
+ * 请求路径上的计数器都是 LongAdder、耗时是 {@link LatencyHistogram}，记录时不加锁；
+ * 缓存大小、淘汰数等来自缓存自身的统计（读取时才取），在途提取数来自 {@link SingleFlight}。
+ *
+ * 用来区分"慢"的来源：命中率低说明是缓存问题，loadTime 高而 loginTime 低说明是仓库读取，
+ * sections 中各段落的耗时说明具体慢在哪一部分（对话框、模板、依赖等）。
+ */
+public class ComponentInfoMetrics implements ComponentInfoMetricsMBean, ComponentInfoExtractor.SectionListener {
+
+    /**
+     * JMX 注册名
+     */
+    public static final String OBJECT_NAME = "com.aem.component.info:type=ComponentInfoService";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Supplier<ComponentInfoCache> cache;
+    private final SingleFlight singleFlight;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    private final LatencyHistogram loadTime = new LatencyHistogram();
+    private final LatencyHistogram loginTime = new LatencyHistogram();
+    private final ConcurrentHashMap<String, LatencyHistogram> sectionTimes = new ConcurrentHashMap<>();
+
+    /**
+     * @param cache 当前缓存（服务重新激活时缓存会重建，因此按需获取）
+     * @param singleFlight 提取合并器
+     */
+    public ComponentInfoMetrics(Supplier<ComponentInfoCache> cache, SingleFlight singleFlight) {
+        this.cache = cache;
+        this.singleFlight = singleFlight;
+    }
+
+    /**
+     * 记录一次请求；hit 为 false 表示未命中，stale 表示命中了超过软过期时间的条目
+     */
+    public void recordRequest(boolean hit, boolean stale) {
+        requests.increment();
+        if (hit) {
+            hits.increment();
+            if (stale) {
+                staleHits.increment();
+            }
+        } else {
+            misses.increment();
+        }
+    }
+
+    /**
+     * 记录一次仓库提取的耗时（包括登录）
+     */
+    public void recordLoad(long elapsedNanos, boolean failed) {
+        loadTime.record(elapsedNanos);
+        if (failed) {
+            loadFailures.increment();
+        }
+    }
+
+    /**
+     * 记录一次获取会话的耗时（登录，或从会话池借出）
+     */
+    public void recordLogin(long elapsedNanos) {
+        loginTime.record(elapsedNanos);
+    }
+
+    /**
+     * 记录一次后台刷新
+     */
+    public void recordRefresh() {
+        refreshes.increment();
+    }
+
+    @Override
+    public void sectionExtracted(String section, long elapsedNanos) {
+        sectionTimes.computeIfAbsent(section, key -> new LatencyHistogram()).record(elapsedNanos);
+    }
+
+    @Override
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    @Override
+    public long getCacheEvictions() {
+        return cacheStat("evictions");
+    }
+
+    @Override
+    public long getCacheExpirations() {
+        return cacheStat("expirations");
+    }
+
+    @Override
+    public int getCacheSize() {
+        ComponentInfoCache current = cache.get();
+        return current != null ? current.size() : 0;
+    }
+
+    @Override
+    public long getCacheWeightedSize() {
+        ComponentInfoCache current = cache.get();
+        return current != null ? current.weightedSize() : 0;
+    }
+
+    @Override
+    public long getLoads() {
+        return loadTime.getCount();
+    }
+
+    @Override
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    @Override
+    public long getCoalescedRequests() {
+        return singleFlight.getCoalescedCount();
+    }
+
+    @Override
+    public long getExtractionTimeouts() {
+        return singleFlight.getTimeoutCount();
+    }
+
+    @Override
+    public int getInFlightExtractions() {
+        return singleFlight.inFlightCount();
+    }
+
+    @Override
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    @Override
+    public double getLoadTimeMeanMillis() {
+        return loadTime.getMeanMillis();
+    }
+
+    @Override
+    public double getLoadTimeP50Millis() {
+        return loadTime.getPercentileMillis(0.5);
+    }
+
+    @Override
+    public double getLoadTimeP99Millis() {
+        return loadTime.getPercentileMillis(0.99);
+    }
+
+    @Override
+    public double getLoadTimeMaxMillis() {
+        return loadTime.getMaxMillis();
+    }
+
+    @Override
+    public double getLoginTimeMeanMillis() {
+        return loginTime.getMeanMillis();
+    }
+
+    @Override
+    public double getLoginTimeP99Millis() {
+        return loginTime.getPercentileMillis(0.99);
+    }
+
+    @Override
+    public double getLoginTimeMaxMillis() {
+        return loginTime.getMaxMillis();
+    }
+
+    @Override
+    public String getMetricsJson() {
+        try {
+            return MAPPER.writeValueAsString(toMap());
+        } catch (JsonProcessingException e) {
+            return "{\"error\":\"" + e.getMessage() + "\"}";
+        }
+    }
+
+    /**
+     * 导出全部指标
+     *
+     * @return requests、cache（缓存自身的统计）、extraction（提取与合并计数）、
+     *         loadTime、loginTime、sections（按段落名排序的耗时分布）
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+
+        Map<String, Object> requestStats = new LinkedHashMap<>();
+        requestStats.put("total", getRequests());
+        requestStats.put("hits", getCacheHits());
+        requestStats.put("misses", getCacheMisses());
+        requestStats.put("staleHits", getStaleHits());
+        requestStats.put("hitRate", getCacheHitRate());
+        metrics.put("requests", requestStats);
+
+        ComponentInfoCache current = cache.get();
+        if (current != null) {
+            metrics.put("cache", current.getStats());
+        }
+
+        Map<String, Object> extraction = new LinkedHashMap<>();
+        extraction.put("loads", getLoads());
+        extraction.put("failures", getLoadFailures());
+        extraction.put("coalesced", getCoalescedRequests());
+        extraction.put("timeouts", getExtractionTimeouts());
+        extraction.put("inFlight", getInFlightExtractions());
+        extraction.put("refreshes", getRefreshes());
+        metrics.put("extraction", extraction);
+
+        metrics.put("loadTime", loadTime.toMap());
+        metrics.put("loginTime", loginTime.toMap());
+
+        Map<String, Object> sections = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : sectionTimes.entrySet()) {
+            sections.put(entry.getKey(), entry.getValue().toMap());
+        }
+        metrics.put("sections", sections);
+        return metrics;
+    }
+
+    private long cacheStat(String name) {
+        ComponentInfoCache current = cache.get();
+        if (current == null) {
+            return 0;
+        }
+        Object value = current.getStats().get(name);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.aem.component.info.templates;
+
+/**
+ * 组件信息服务 JMX 接口
+ *
+ * 注册名为 {@value ComponentInfoMetrics#OBJECT_NAME}，可以在 JConsole / VisualVM
+ * 或 AEM 的 /system/console/jmx 中查看。耗时单位均为毫秒。
+ */
+public interface ComponentInfoMetricsMBean {
+
+    long getRequests();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    double getCacheHitRate();
+
+    long getStaleHits();
+
+    long getCacheEvictions();
+
+    long getCacheExpirations();
+
+    int getCacheSize();
+
+    long getCacheWeightedSize();
+
+    long getLoads();
+
+    long getLoadFailures();
+
+    long getCoalescedRequests();
+
+    long getExtractionTimeouts();
+
+    int getInFlightExtractions();
+
+    long getRefreshes();
+
+    double getLoadTimeMeanMillis();
+
+    double getLoadTimeP50Millis();
+
+    double getLoadTimeP99Millis();
+
+    double getLoadTimeMaxMillis();
+
+    double getLoginTimeMeanMillis();
+
+    double getLoginTimeP99Millis();
+
+    double getLoginTimeMaxMillis();
+
+    /**
+     * 全部指标（包括每个段落的提取耗时分布）的 JSON
+     */
+    String getMetricsJson();
+}
@@ -0,0 +1,46 @@
+package com.aem.component.info.templates;
+
+import com.aem.component.info.ComponentExporter;
+import com.aem.component.info.ExportFormat;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import javax.servlet.Servlet;
+import java.io.IOException;
+
+/**
+ * 组件信息服务指标 Servlet
+ *
+ * 以 JSON 返回 {@link ComponentInfoServiceTemplate#getMetrics()}，内容与 JMX MBean
+ * （{@value ComponentInfoMetrics#OBJECT_NAME}）相同，便于监控系统直接抓取。
+ *
+ * 使用示例：
+ * GET /bin/componentinfo/metrics
+ * GET /bin/componentinfo/metrics?format=pretty
+ */
+@Component(
+    service = Servlet.class,
+    property = {
+        "sling.servlet.paths=/bin/componentinfo/metrics",
+        "sling.servlet.methods=GET"
+    }
+)
+public class ComponentInfoMetricsServlet extends SlingSafeMethodsServlet {
+
+    @Reference
+    private ComponentInfoServiceTemplate service;
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response) throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+
+        boolean pretty = "pretty".equals(request.getParameter("format"));
+        ComponentExporter exporter = new ComponentExporter(ExportFormat.JSON, pretty);
+        response.getWriter().write(exporter.exportComponentToJsonString(service.getMetrics()));
+    }
+}
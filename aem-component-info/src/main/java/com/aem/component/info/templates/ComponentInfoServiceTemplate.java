@@ -1,7 +1,7 @@
 package com.aem.component.info.templates;
 
-import com.aem.component.info.ComponentExporter;
 import com.aem.component.info.ComponentInfoExtractor;
+import com.aem.component.info.ComponentTypeResolver;
 import org.apache.sling.jcr.api.SlingRepository;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -11,10 +11,40 @@ import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 组件信息服务模板
@@ -24,7 +54,15 @@ import java.util.concurrent.ConcurrentHashMap;
  * 
  * 特性：
  * - OSGi 服务配置
- * - 缓存支持
+ * - 有界缓存（W-TinyLFU 风格接纳、按估算大小加权、过期条目定期清除）
+ * - 缓存未命中时同一路径的并发请求合并为一次提取（single-flight）
+ * - 软过期后台刷新（stale-while-revalidate）：超过软过期时间的条目照常返回并在后台重新提取，
+ *   只有超过硬过期时间（cacheExpirationTime）的条目才需要同步等待
+ * - 热启动：停用时把缓存写成快照文件，激活后按需读取，使用前与仓库中的修改时间核对
+ * - 激活后台预热：按配置列表或上次运行的访问频率，限速预先提取最常用的组件
+ * - 缓存条目附带预编码字节（紧凑 JSON、格式化 JSON、gzip），命中时直接写出，不再重复序列化
+ * - 跨实例失效：组件变化时递增基础路径的版本标记，各实例定期轮询并丢弃该基础路径下的缓存
+ * - 指标：命中/未命中、提取与登录耗时分布、各段落提取耗时，通过 JMX 和 {@link #getMetrics()} 查看
  * - 错误处理
  * - 资源管理
  * - 日志记录
@@ -38,6 +76,20 @@ public class ComponentInfoServiceTemplate {
 
     private static final Logger log = LoggerFactory.getLogger(ComponentInfoServiceTemplate.class);
 
+    // 停用时记录的高频组件数量上限
+    private static final int MAX_HOT_LIST = 1000;
+
+    // 参与版本计算的时间戳属性
+    private static final String[] REVISION_PROPERTIES = {"jcr:lastModified", "cq:lastModified", "jcr:created"};
+
+    // 等待提取超时时错误信息的状态码（可重试）
+    private static final int STATUS_TIMEOUT = 503;
+
+    // 只读会话从共享会话池借出（服务用户登录），用完归还
+    @Reference
+    private JcrSessionPoolService sessionPool;
+
+    // 只用于登录写入失效版本标记的会话（见 invalidationWriterSubService）
     @Reference
     private SlingRepository repository;
 
@@ -47,8 +99,86 @@ public class ComponentInfoServiceTemplate {
     private boolean enableCache;
     private long cacheExpirationTime;
 
-    // 缓存
-    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    // 缓存（activate 时按配置创建）
+    private volatile ComponentInfoCache cache;
+    private ScheduledExecutorService cacheCleaner;
+    private long extractionTimeoutMillis;
+    private long refreshAfterMillis;
+
+    // 正在进行的提取（按组件路径合并）
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    // 资源类型解析缓存（所有提取共享，组件变化时清空）
+    private final ComponentTypeResolver typeResolver = new ComponentTypeResolver();
+
+    // 后台刷新（队列有界，排队中的路径不重复提交）
+    private volatile ExecutorService refreshExecutor;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    // 热启动快照（激活时打开，未命中时按路径取出并核对版本）
+    private Path snapshotFile;
+    private volatile CacheSnapshot warmSnapshot;
+    private final AtomicLong warmStartHits = new AtomicLong();
+    private final AtomicLong warmStartStale = new AtomicLong();
+
+    // 后台预热（低优先级单线程，停用时中断）
+    private volatile Thread warmupThread;
+    private volatile int warmupTotal;
+    private final AtomicLong warmupCompleted = new AtomicLong();
+
+    // 跨实例失效（轮询版本标记）；每次失效递增代数，失效前开始的提取结果不写入缓存
+    private volatile CacheInvalidator invalidator;
+    private final AtomicLong invalidationGeneration = new AtomicLong();
+
+    // 指标（无锁计数，激活时注册为 MBean）
+    private final ComponentInfoMetrics metrics = new ComponentInfoMetrics(() -> cache, singleFlight);
+
+    /**
+     * 编码后的组件信息
+     */
+    public static class EncodedComponentInfo {
+        private final byte[] bytes;
+        private final ComponentInfoEncoding encoding;
+        private final int status;
+
+        EncodedComponentInfo(byte[] bytes, ComponentInfoEncoding encoding, int status) {
+            this.bytes = bytes;
+            this.encoding = encoding;
+            this.status = status;
+        }
+
+        /**
+         * 编码后的字节（与缓存共享，不能修改）
+         */
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public ComponentInfoEncoding getEncoding() {
+            return encoding;
+        }
+
+        /**
+         * 内容是否为错误信息（组件不存在、提取失败等）
+         */
+        public boolean isError() {
+            return status != 200;
+        }
+
+        /**
+         * HTTP 状态码：200；组件不存在为 404；提取超时为 503；提取失败和系统错误为 500
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * 写出到响应流
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(bytes);
+        }
+    }
 
     /**
      * OSGi 配置接口
@@ -82,23 +212,84 @@ public class ComponentInfoServiceTemplate {
             description = "缓存过期时间（秒）"
         )
         long cacheExpirationTime() default 3600;
-    }
 
-    /**
-     * 缓存条目
-     */
-    private static class CacheEntry {
-        final Map<String, Object> data;
-        final long timestamp;
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Cache Max Weight (bytes)",
+            description = "缓存最大总权重（按组件信息估算的堆内存字节数），超过后按访问频率淘汰"
+        )
+        long cacheMaxWeight() default 64L * 1024 * 1024;
 
-        CacheEntry(Map<String, Object> data) {
-            this.data = data;
-            this.timestamp = System.currentTimeMillis();
-        }
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Extraction Wait Timeout (seconds)",
+            description = "等待同一路径上正在进行的提取的最长时间（秒），超时返回错误响应"
+        )
+        long extractionTimeout() default 30;
 
-        boolean isExpired(long expirationTime) {
-            return System.currentTimeMillis() - timestamp > expirationTime * 1000;
-        }
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Cache Refresh After (seconds)",
+            description = "软过期时间（秒）：超过后继续返回缓存并在后台重新提取；0 或不小于缓存过期时间时不做后台刷新"
+        )
+        long cacheRefreshAfter() default 600;
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Refresh Threads",
+            description = "后台刷新线程数"
+        )
+        int refreshThreads() default 2;
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Warm Start",
+            description = "停用时把缓存写成快照，重新激活后复用（使用前核对仓库中的修改时间）"
+        )
+        boolean warmStart() default true;
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Cache Snapshot File",
+            description = "快照文件路径；为空时使用 ${sling.home}/component-info/cache-snapshot.carc（未设置 sling.home 时不持久化）"
+        )
+        String cacheSnapshotFile() default "";
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Warmup Count",
+            description = "激活后后台预热的组件数量上限；0 表示不预热"
+        )
+        int warmupCount() default 50;
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Warmup Paths",
+            description = "预热的组件路径列表；为空时使用上次运行中访问最频繁的组件（需要启用 Warm Start）"
+        )
+        String[] warmupPaths() default {};
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Warmup Rate (per second)",
+            description = "预热时每秒最多提取的组件数量"
+        )
+        double warmupRate() default 2.0;
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Invalidation Poll Interval (seconds)",
+            description = "轮询跨实例失效版本标记的间隔（秒），也是各实例缓存收敛的最长时间；0 表示不启用"
+        )
+        long invalidationPollInterval() default 5;
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Invalidation Base Paths",
+            description = "各自独立失效的基础路径（每个路径一个版本标记）；为空时使用 allowedBasePath"
+        )
+        String[] invalidationBasePaths() default {};
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Invalidation Marker Root",
+            description = "版本标记节点的根路径（所有实例共享；会话池的只读服务用户需要读权限）"
+        )
+        String invalidationMarkerRoot() default "/var/component-info/invalidation";
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Invalidation Writer Sub-service Name",
+            description = "发布版本标记时登录使用的子服务名；对应的服务用户只需要版本标记根路径的写权限，会话池保持只读"
+        )
+        String invalidationWriterSubService() default "component-invalidation-writer";
     }
 
     /**
@@ -110,9 +301,60 @@ public class ComponentInfoServiceTemplate {
         this.maxDepth = config.maxDepth();
         this.enableCache = config.enableCache();
         this.cacheExpirationTime = config.cacheExpirationTime();
+        this.cache = new ComponentInfoCache(config.cacheMaxWeight(), cacheExpirationTime * 1000,
+            this::currentTimeMillis);
+        this.extractionTimeoutMillis = config.extractionTimeout() * 1000;
+        this.refreshAfterMillis = 0;
+
+        if (enableCache) {
+            // 主动清除过期条目，不依赖再次访问
+            long interval = Math.max(1, Math.min(cacheExpirationTime, 60));
+            cacheCleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "component-info-cache-cleaner");
+                thread.setDaemon(true);
+                return thread;
+            });
+            cacheCleaner.scheduleWithFixedDelay(cache::cleanUp, interval, interval, TimeUnit.SECONDS);
+
+            long refreshAfter = config.cacheRefreshAfter();
+            if (refreshAfter > 0 && refreshAfter < cacheExpirationTime) {
+                this.refreshAfterMillis = refreshAfter * 1000;
+                int threads = Math.max(1, config.refreshThreads());
+                refreshExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(1000), runnable -> {
+                        Thread thread = new Thread(runnable, "component-info-cache-refresh");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            } else if (refreshAfter > 0) {
+                log.warn("软过期时间 {} 秒不小于缓存过期时间 {} 秒，不启用后台刷新", refreshAfter, cacheExpirationTime);
+            }
+        }
 
-        log.info("组件信息服务已激活 - 基础路径: {}, 最大深度: {}, 缓存: {}", 
-            allowedBasePath, maxDepth, enableCache);
+        this.snapshotFile = enableCache && config.warmStart() ? resolveSnapshotFile(config.cacheSnapshotFile()) : null;
+        if (snapshotFile != null) {
+            try {
+                warmSnapshot = CacheSnapshot.open(snapshotFile);
+                if (warmSnapshot != null) {
+                    log.info("已打开缓存快照: {}（{} 个条目，按需核对后使用）", snapshotFile, warmSnapshot.remaining());
+                }
+            } catch (IOException e) {
+                log.warn("缓存快照无法读取，已忽略: " + snapshotFile, e);
+            }
+        }
+
+        if (enableCache && config.invalidationPollInterval() > 0) {
+            startInvalidation(config);
+        }
+
+        if (enableCache && config.warmupCount() > 0) {
+            startWarmup(warmupCandidates(config), config.warmupRate());
+        }
+
+        registerMBean();
+
+        log.info("组件信息服务已激活 - 基础路径: {}, 最大深度: {}, 缓存: {}, 缓存上限: {} 字节", 
+            allowedBasePath, maxDepth, enableCache, config.cacheMaxWeight());
     }
 
     /**
@@ -120,6 +362,32 @@ public class ComponentInfoServiceTemplate {
      */
     @Deactivate
     protected void deactivate() {
+        unregisterMBean();
+        invalidator = null;
+        Thread warmup = warmupThread;
+        if (warmup != null) {
+            warmup.interrupt();
+            warmupThread = null;
+        }
+        if (cacheCleaner != null) {
+            cacheCleaner.shutdownNow();
+            cacheCleaner = null;
+        }
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+            refreshExecutor = null;
+        }
+        refreshing.clear();
+        closeWarmSnapshot();
+        if (snapshotFile != null) {
+            try {
+                int count = CacheSnapshot.write(snapshotFile, cache.entries());
+                Files.write(hotListFile(), cache.hottestKeys(MAX_HOT_LIST), StandardCharsets.UTF_8);
+                log.info("已写出缓存快照: {}（{} 个条目）", snapshotFile, count);
+            } catch (IOException e) {
+                log.warn("写出缓存快照失败: " + snapshotFile, e);
+            }
+        }
         clearCache();
         log.info("组件信息服务已停用");
     }
@@ -134,44 +402,533 @@ public class ComponentInfoServiceTemplate {
         // 验证路径
         validatePath(componentPath);
 
-        // 检查缓存
+        ComponentInfoCache.Entry cached = lookup(componentPath);
+        return cached != null ? cached.getData() : load(componentPath);
+    }
+
+    /**
+     * 提取组件信息并编码
+     *
+     * 缓存命中且该编码已经生成过时直接返回缓存中的字节；否则编码一次并附带到缓存条目上。
+     * 返回的字节数组与缓存共享，调用方不能修改。
+     *
+     * @param componentPath 组件路径
+     * @param encoding 编码
+     * @return 编码后的组件信息（可能是错误信息）
+     * @throws IOException 序列化错误
+     */
+    public EncodedComponentInfo getEncodedComponentInfo(String componentPath, ComponentInfoEncoding encoding)
+            throws IOException {
+        validatePath(componentPath);
+
+        ComponentInfoCache.Entry entry = lookup(componentPath);
+        if (entry == null) {
+            Map<String, Object> componentInfo = load(componentPath);
+            // 刚提取的结果通常已写入缓存；错误响应、缓存关闭或未被接纳时只编码不保存
+            entry = enableCache ? cache.peekEntry(componentPath) : null;
+            if (entry == null || entry.getData() != componentInfo) {
+                return new EncodedComponentInfo(encoding.encode(componentInfo), encoding,
+                    ComponentInfoExtractor.statusOf(componentInfo));
+            }
+        }
+
+        byte[] bytes = entry.getEncoded(encoding);
+        if (bytes == null) {
+            bytes = encoding.encode(entry.getData());
+            cache.attachEncoded(entry, encoding, bytes);
+        }
+        return new EncodedComponentInfo(bytes, encoding, ComponentInfoExtractor.statusOf(entry.getData()));
+    }
+
+    /**
+     * 查找缓存（超过软过期时间的条目照常返回，同时安排后台刷新）
+     */
+    private ComponentInfoCache.Entry lookup(String componentPath) {
         if (enableCache) {
-            CacheEntry cached = cache.get(componentPath);
-            if (cached != null && !cached.isExpired(cacheExpirationTime)) {
+            ComponentInfoCache.Entry cached = cache.getEntry(componentPath);
+            if (cached != null) {
                 log.debug("从缓存获取组件信息: {}", componentPath);
-                return cached.data;
+                boolean stale = refreshAfterMillis > 0
+                    && currentTimeMillis() - cached.getCreatedAt() >= refreshAfterMillis;
+                metrics.recordRequest(true, stale);
+                if (stale) {
+                    scheduleRefresh(componentPath);
+                }
+                return cached;
             }
         }
+        metrics.recordRequest(false, false);
+        return null;
+    }
 
-        // 提取信息
-        Session session = null;
+    /**
+     * 缓存未命中时提取（同一路径的并发未命中合并为一次提取），失败时返回错误响应
+     */
+    private Map<String, Object> load(String componentPath) {
         try {
-            // 使用服务用户（生产环境推荐）
-            // session = repository.loginService("component-reader", null);
-            
-            // 开发环境可以使用管理会话
-            session = repository.loginAdministrative(null);
-
-            ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
-            Map<String, Object> componentInfo = extractor.extractComponentInfo(componentPath);
-
-            // 存入缓存
-            if (enableCache) {
-                cache.put(componentPath, new CacheEntry(componentInfo));
-            }
-
-            return componentInfo;
-
+            return singleFlight.load(componentPath, () -> extractAndCache(componentPath), extractionTimeoutMillis);
+        } catch (TimeoutException e) {
+            log.warn("等待组件信息提取超时: {}", componentPath);
+            return createErrorResponse(STATUS_TIMEOUT, "提取超时: " + componentPath);
         } catch (RepositoryException e) {
             log.error("提取组件信息失败: " + componentPath, e);
-            return createErrorResponse("提取失败: " + e.getMessage());
+            return createErrorResponse(ComponentInfoExtractor.STATUS_ERROR, "提取失败: " + e.getMessage());
         } catch (Exception e) {
             log.error("意外错误", e);
-            return createErrorResponse("系统错误");
+            return createErrorResponse(ComponentInfoExtractor.STATUS_ERROR, "系统错误");
+        }
+    }
+
+    /**
+     * 安排后台刷新（同一路径同时只排队一次，队列满时放弃，等下一次命中再安排）
+     */
+    private void scheduleRefresh(String componentPath) {
+        ExecutorService executor = refreshExecutor;
+        if (executor == null || !refreshing.add(componentPath)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    // 命中与安排之间上一次刷新可能刚好完成，此时不再重复提取
+                    ComponentInfoCache.Entry current = cache.peekEntry(componentPath);
+                    if (current != null && currentTimeMillis() - current.getCreatedAt() < refreshAfterMillis) {
+                        return;
+                    }
+                    // 与前台未命中共用 single-flight：刷新期间到达的硬过期请求等待同一次提取
+                    singleFlight.load(componentPath, () -> refresh(componentPath), extractionTimeoutMillis);
+                } catch (Exception e) {
+                    log.warn("后台刷新组件信息失败，继续使用旧数据: " + componentPath, e);
+                } finally {
+                    refreshing.remove(componentPath);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(componentPath);
+            log.debug("后台刷新队列已满，跳过: {}", componentPath);
+        }
+    }
+
+    /**
+     * 后台重新提取；提取结果是错误信息而旧数据正常时保留旧数据
+     */
+    private Map<String, Object> refresh(String componentPath) throws RepositoryException {
+        Map<String, Object> previous = cache.peek(componentPath);
+        metrics.recordRefresh();
+        long generation = invalidationGeneration.get();
+        long revision = snapshotRevision(componentPath);
+        Map<String, Object> componentInfo = timedExtract(componentPath);
+        if (previous != null && componentInfo.containsKey("error") && !previous.containsKey("error")) {
+            log.warn("后台刷新得到错误结果，保留旧数据: {}", componentPath);
+            return previous;
+        }
+        putIfNotInvalidated(componentPath, componentInfo, revision, generation);
+        return componentInfo;
+    }
+
+    /**
+     * 从热启动快照中取出条目；版本与仓库当前版本一致时放入缓存并返回，否则返回 null
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> takeFromSnapshot(String componentPath) throws RepositoryException {
+        CacheSnapshot snapshot = warmSnapshot;
+        if (snapshot == null) {
+            return null;
+        }
+        Map<String, Object> record;
+        try {
+            record = snapshot.take(componentPath);
+        } catch (IOException e) {
+            log.warn("读取缓存快照条目失败: " + componentPath, e);
+            return null;
+        } finally {
+            if (snapshot.remaining() == 0) {
+                closeWarmSnapshot();
+            }
+        }
+        if (record == null || !(record.get("data") instanceof Map) || !(record.get("revision") instanceof Number)) {
+            return null;
+        }
+
+        long revision = ((Number) record.get("revision")).longValue();
+        if (revision == 0 || revision != readRevision(componentPath)) {
+            warmStartStale.incrementAndGet();
+            log.debug("快照条目已过时，重新提取: {}", componentPath);
+            return null;
+        }
+        Map<String, Object> componentInfo = (Map<String, Object>) record.get("data");
+        cache.put(componentPath, componentInfo, ComponentInfoCache.estimateWeight(componentInfo), revision);
+        warmStartHits.incrementAndGet();
+        return componentInfo;
+    }
+
+    private synchronized void closeWarmSnapshot() {
+        if (warmSnapshot != null) {
+            try {
+                warmSnapshot.close();
+            } catch (IOException e) {
+                log.debug("关闭缓存快照失败", e);
+            }
+            warmSnapshot = null;
+        }
+    }
+
+    /**
+     * 预热候选：配置的路径列表优先，否则使用上次停用时记录的高频组件；只保留 allowedBasePath 下的路径
+     */
+    private List<String> warmupCandidates(ServiceConfig config) {
+        List<String> paths = new ArrayList<>();
+        String[] configured = config.warmupPaths();
+        if (configured != null && configured.length > 0) {
+            paths.addAll(Arrays.asList(configured));
+        } else if (snapshotFile != null && Files.isRegularFile(hotListFile())) {
+            try {
+                paths.addAll(Files.readAllLines(hotListFile(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                log.warn("读取高频组件列表失败: " + hotListFile(), e);
+            }
+        }
+
+        List<String> candidates = new ArrayList<>();
+        for (String path : paths) {
+            String trimmed = path.trim();
+            if (trimmed.startsWith(allowedBasePath) && !trimmed.contains("..") && !candidates.contains(trimmed)) {
+                candidates.add(trimmed);
+                if (candidates.size() >= config.warmupCount()) {
+                    break;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 启动后台预热线程：按给定速率逐个提取尚未缓存的组件，单个失败不影响其余组件
+     */
+    private void startWarmup(final List<String> paths, double ratePerSecond) {
+        warmupTotal = paths.size();
+        warmupCompleted.set(0);
+        if (paths.isEmpty()) {
+            return;
+        }
+        final long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(0.01, ratePerSecond));
+
+        Thread thread = new Thread(() -> {
+            long next = System.nanoTime();
+            for (String path : paths) {
+                try {
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    if (cache.peek(path) == null) {
+                        singleFlight.load(path, () -> extractAndCache(path), extractionTimeoutMillis);
+                        next = System.nanoTime() + intervalNanos;
+                    }
+                } catch (InterruptedException e) {
+                    log.info("缓存预热已中断，完成 {}/{}", warmupCompleted.get(), paths.size());
+                    return;
+                } catch (Exception e) {
+                    log.warn("预热组件失败: " + path, e);
+                }
+                warmupCompleted.incrementAndGet();
+            }
+            log.info("缓存预热完成: {} 个组件", paths.size());
+        }, "component-info-cache-warmup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        warmupThread = thread;
+        thread.start();
+    }
+
+    private Path hotListFile() {
+        return snapshotFile.resolveSibling(snapshotFile.getFileName() + ".hot");
+    }
+
+    private static Path resolveSnapshotFile(String configured) {
+        if (configured != null && !configured.trim().isEmpty()) {
+            return Paths.get(configured.trim());
+        }
+        String slingHome = System.getProperty("sling.home");
+        return slingHome != null ? Paths.get(slingHome, "component-info", "cache-snapshot.carc") : null;
+    }
+
+    /**
+     * 提取组件信息并存入缓存（只由 single-flight 的 leader 调用）
+     */
+    private Map<String, Object> extractAndCache(String componentPath) throws RepositoryException {
+        // 上一轮提取可能刚刚完成并写入缓存
+        if (enableCache) {
+            Map<String, Object> cached = cache.peek(componentPath);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        if (!enableCache) {
+            return timedExtract(componentPath);
+        }
+
+        // 重启前缓存过、且之后没有修改的组件直接复用快照
+        Map<String, Object> warm = takeFromSnapshot(componentPath);
+        if (warm != null) {
+            return warm;
+        }
+
+        // 先读版本再提取：提取期间发生的修改会让下一次核对失败，而不是被误认为最新
+        long generation = invalidationGeneration.get();
+        long revision = snapshotRevision(componentPath);
+        Map<String, Object> componentInfo = timedExtract(componentPath);
+        putIfNotInvalidated(componentPath, componentInfo, revision, generation);
+        return componentInfo;
+    }
+
+    /**
+     * 提取开始后没有发生失效时才写入缓存（否则结果可能是修改前的数据，只返回给本次调用方）
+     */
+    private void putIfNotInvalidated(String componentPath, Map<String, Object> componentInfo, long revision,
+                                     long generation) {
+        if (generation == invalidationGeneration.get()) {
+            cache.put(componentPath, componentInfo, ComponentInfoCache.estimateWeight(componentInfo), revision);
+        } else {
+            log.debug("提取期间发生失效，结果不写入缓存: {}", componentPath);
+        }
+    }
+
+    // ==================== 跨实例失效 ====================
+
+    /**
+     * 创建失效协议（默认为共享仓库中的版本标记节点，可以在子类中替换）
+     *
+     * @param config 服务配置
+     * @return 失效协议
+     */
+    protected InvalidationProtocol createInvalidationProtocol(ServiceConfig config) {
+        final String writerSubService = config.invalidationWriterSubService();
+        return new JcrInvalidationProtocol(sessionPool, () -> repository.loginService(writerSubService, null),
+            config.invalidationMarkerRoot());
+    }
+
+    /**
+     * 记录版本标记的初始值，并在清理线程上定期轮询
+     */
+    private void startInvalidation(ServiceConfig config) {
+        String[] configured = config.invalidationBasePaths();
+        List<String> basePaths = configured != null && configured.length > 0
+            ? Arrays.asList(configured) : Collections.singletonList(allowedBasePath);
+        CacheInvalidator current = new CacheInvalidator(createInvalidationProtocol(config), basePaths,
+            this::dropBasePath);
+        invalidator = current;
+        pollInvalidations();
+
+        long interval = config.invalidationPollInterval();
+        cacheCleaner.scheduleWithFixedDelay(this::pollInvalidations, interval, interval, TimeUnit.SECONDS);
+        log.info("跨实例缓存失效已启用 - 基础路径: {}, 轮询间隔: {} 秒", basePaths, interval);
+    }
+
+    /**
+     * 轮询一次版本标记（包内可见，测试按轮次驱动而不是等待定时任务）
+     */
+    void pollInvalidations() {
+        CacheInvalidator current = invalidator;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.poll();
+        } catch (Exception e) {
+            // 下一次轮询重试；版本标记只会增加，错过的变化不会丢失
+            log.warn("读取缓存失效标记失败", e);
+        }
+    }
+
+    private void dropBasePath(String basePath) {
+        invalidationGeneration.incrementAndGet();
+        typeResolver.invalidateAll();
+        int removed = cache.invalidateAll(basePath);
+        log.info("缓存失效: {}（{} 个条目）", basePath, removed);
+    }
+
+    /**
+     * 使变化的路径失效：本实例立即丢弃所属基础路径下的缓存，并递增版本标记通知其他实例
+     *
+     * @param path 发生变化的路径（组件路径或其子节点路径）
+     */
+    public void invalidate(String path) {
+        validatePath(path);
+        invalidate(Collections.singletonList(path));
+    }
+
+    /**
+     * 批量使变化的路径失效（同一基础路径只发布一次，适合部署时的大量变化）
+     *
+     * 缓存中只有服务范围内（allowedBasePath 和 /libs 下）的组件，与之无关的路径直接忽略；
+     * 不属于任何基础路径的路径去重后只在本实例丢弃对应组件的缓存（整批只遍历一次缓存）。
+     *
+     * @param paths 发生变化的路径
+     */
+    public void invalidate(Collection<String> paths) {
+        CacheInvalidator current = invalidator;
+        Set<String> basePaths = new LinkedHashSet<>();
+        Set<String> localPaths = new LinkedHashSet<>();
+        for (String path : paths) {
+            if (!affectsCache(path)) {
+                continue;
+            }
+            String basePath = current != null ? current.basePathOf(path) : null;
+            if (basePath != null) {
+                basePaths.add(basePath);
+            } else {
+                localPaths.add(path);
+            }
+        }
+        if (!localPaths.isEmpty()) {
+            dropPaths(localPaths);
+        }
+        for (String basePath : basePaths) {
+            dropBasePath(basePath);
+            try {
+                current.publish(basePath);
+            } catch (Exception e) {
+                log.warn("发布缓存失效失败，其他实例将在缓存过期后更新: " + basePath, e);
+            }
+        }
+    }
+
+    /**
+     * 变化的路径是否可能影响缓存：位于服务范围内，或是服务范围的上级路径（如整个项目被删除）
+     */
+    private boolean affectsCache(String path) {
+        if (path == null || path.isEmpty()) {
+            return false;
+        }
+        String prefix = path.endsWith("/") ? path : path + "/";
+        return isServedPath(path) || allowedBasePath.startsWith(prefix) || "/libs/".startsWith(prefix);
+    }
+
+    /**
+     * 丢弃路径本身、子路径以及上级路径（变化的可能是组件的子节点，如对话框）的缓存
+     */
+    private void dropPaths(Collection<String> paths) {
+        invalidationGeneration.incrementAndGet();
+        typeResolver.invalidateAll();
+        cache.invalidateAll(paths);
+        Set<String> ancestors = new LinkedHashSet<>();
+        for (String path : paths) {
+            for (int slash = path.lastIndexOf('/'); slash > 0; slash = path.lastIndexOf('/', slash - 1)) {
+                if (!ancestors.add(path.substring(0, slash))) {
+                    break;
+                }
+            }
+        }
+        for (String ancestor : ancestors) {
+            cache.invalidate(ancestor);
+        }
+    }
+
+    /**
+     * 提取并记录耗时；抛出异常或结果中带 error 时计为失败
+     */
+    private Map<String, Object> timedExtract(String componentPath) throws RepositoryException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Map<String, Object> componentInfo = extract(componentPath);
+            failed = componentInfo.containsKey("error");
+            return componentInfo;
         } finally {
-            if (session != null) {
-                session.logout();
+            metrics.recordLoad(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * 写入缓存条目时记录的版本
+     *
+     * 版本只用于热启动快照；没有配置快照文件时返回 0（未知），
+     * 不为每次未命中额外借出会话并遍历组件子树。
+     */
+    private long snapshotRevision(String componentPath) throws RepositoryException {
+        return snapshotFile != null ? readRevision(componentPath) : 0;
+    }
+
+    /**
+     * 当前时间（毫秒），缓存的写入时间、过期和软过期判断都以它为准
+     *
+     * @return 当前时间
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * 读取组件在仓库中的版本，用于核对快照条目
+     *
+     * 遍历组件子树（对话框、脚本等），取 jcr:lastModified / cq:lastModified / jcr:created 的最大值，
+     * 再与节点数量组合，这样删除子节点也会改变版本。没有任何时间戳时返回 0（未知，不写入快照）。
+     *
+     * @param componentPath 组件路径
+     * @return 版本，组件不存在或没有时间戳时为 0
+     * @throws RepositoryException 仓库访问错误
+     */
+    protected long readRevision(String componentPath) throws RepositoryException {
+        Session session = null;
+        try {
+            session = login();
+            if (!session.nodeExists(componentPath)) {
+                return 0;
+            }
+
+            long lastModified = 0;
+            long nodes = 0;
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(session.getNode(componentPath));
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                nodes++;
+                for (String property : REVISION_PROPERTIES) {
+                    if (node.hasProperty(property)) {
+                        lastModified = Math.max(lastModified, node.getProperty(property).getDate().getTimeInMillis());
+                    }
+                }
+                for (NodeIterator children = node.getNodes(); children.hasNext(); ) {
+                    pending.push(children.nextNode());
+                }
             }
+            return lastModified == 0 ? 0 : lastModified * 31 + nodes;
+        } finally {
+            sessionPool.release(session);
+        }
+    }
+
+    /**
+     * 从仓库提取组件信息（使用会话池中的会话）
+     *
+     * @param componentPath 组件路径
+     * @return 组件信息
+     * @throws RepositoryException 仓库访问错误
+     */
+    protected Map<String, Object> extract(String componentPath) throws RepositoryException {
+        Session session = null;
+        try {
+            session = login();
+
+            ComponentInfoExtractor extractor = new ComponentInfoExtractor(session, typeResolver);
+            extractor.setSectionListener(metrics);
+            return extractor.extractComponentInfo(componentPath);
+        } finally {
+            sessionPool.release(session);
+        }
+    }
+
+    /**
+     * 从会话池借出会话并记录耗时（包括等待空闲会话，池中没有空闲会话时还包括登录）
+     */
+    private Session login() throws RepositoryException {
+        long start = System.nanoTime();
+        try {
+            return sessionPool.borrow();
+        } finally {
+            metrics.recordLogin(System.nanoTime() - start);
         }
     }
 
@@ -183,33 +940,53 @@ public class ComponentInfoServiceTemplate {
 
         Session session = null;
         try {
-            session = repository.loginAdministrative(null);
-            ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
+            session = login();
+            ComponentInfoExtractor extractor = new ComponentInfoExtractor(session, typeResolver);
             return extractor.extractComponentInfoSimple(componentPath);
         } catch (RepositoryException e) {
             log.error("提取简化组件信息失败: " + componentPath, e);
-            return createErrorResponse("提取失败: " + e.getMessage());
+            return createErrorResponse(ComponentInfoExtractor.STATUS_ERROR, "提取失败: " + e.getMessage());
         } finally {
-            if (session != null) {
-                session.logout();
-            }
+            sessionPool.release(session);
         }
     }
 
     /**
-     * 导出组件信息为 JSON 字符串
+     * 导出组件信息为 JSON 字符串（格式化输出，复用缓存中的预编码字节）
      */
     public String exportComponentInfoAsJson(String componentPath) {
-        Map<String, Object> componentInfo = getComponentInfo(componentPath);
         try {
-            ComponentExporter exporter = new ComponentExporter();
-            return exporter.exportComponentToJsonString(componentInfo);
-        } catch (Exception e) {
+            return new String(getEncodedComponentInfo(componentPath, ComponentInfoEncoding.PRETTY_JSON).getBytes(),
+                StandardCharsets.UTF_8);
+        } catch (IOException e) {
             log.error("导出组件信息失败", e);
             return "{\"error\":\"" + e.getMessage() + "\"}";
         }
     }
 
+    /**
+     * 获取共享的资源类型解析器
+     *
+     * 服务之外的提取（如 Servlet 直接提取范围外的路径）也应使用它，组件变化时由服务统一清空。
+     */
+    public ComponentTypeResolver getTypeResolver() {
+        return typeResolver;
+    }
+
+    /**
+     * 路径是否由这个服务提供（位于 allowedBasePath 或 /libs 下）
+     *
+     * 其他路径调用 getComponentInfo 等方法会抛出 SecurityException，调用方（如 Servlet）
+     * 应当改为直接提取，而不是把异常当作服务器错误返回。
+     *
+     * @param path 组件路径
+     * @return 是否可以交给服务处理
+     */
+    public boolean isServedPath(String path) {
+        return path != null && !path.isEmpty() && !path.contains("..")
+            && (path.startsWith(allowedBasePath) || path.startsWith("/libs/"));
+    }
+
     /**
      * 验证路径
      */
@@ -229,10 +1006,14 @@ public class ComponentInfoServiceTemplate {
 
     /**
      * 创建错误响应
+     *
+     * @param status HTTP 状态码（见 {@link EncodedComponentInfo#getStatus()}）
+     * @param errorMessage 错误信息
      */
-    private Map<String, Object> createErrorResponse(String errorMessage) {
+    private Map<String, Object> createErrorResponse(int status, String errorMessage) {
         Map<String, Object> error = new java.util.HashMap<>();
         error.put("error", errorMessage);
+        error.put("status", status);
         error.put("timestamp", System.currentTimeMillis());
         return error;
     }
@@ -242,6 +1023,7 @@ public class ComponentInfoServiceTemplate {
      */
     public void clearCache() {
         cache.clear();
+        typeResolver.invalidateAll();
         log.info("缓存已清理");
     }
 
@@ -249,11 +1031,65 @@ public class ComponentInfoServiceTemplate {
      * 获取缓存统计信息
      */
     public Map<String, Object> getCacheStats() {
-        Map<String, Object> stats = new java.util.HashMap<>();
-        stats.put("size", cache.size());
+        Map<String, Object> stats = new java.util.HashMap<>(cache.getStats());
         stats.put("enabled", enableCache);
         stats.put("expirationTime", cacheExpirationTime);
+        stats.put("extractions", singleFlight.getLoadCount());
+        stats.put("coalescedRequests", singleFlight.getCoalescedCount());
+        stats.put("extractionTimeouts", singleFlight.getTimeoutCount());
+        stats.put("inFlight", singleFlight.inFlightCount());
+        stats.put("refreshAfter", refreshAfterMillis / 1000);
+        stats.put("refreshing", refreshing.size());
+        CacheSnapshot snapshot = warmSnapshot;
+        stats.put("warmStartRemaining", snapshot != null ? snapshot.remaining() : 0);
+        stats.put("warmStartHits", warmStartHits.get());
+        stats.put("warmStartStale", warmStartStale.get());
+        stats.put("warmupTotal", warmupTotal);
+        stats.put("warmupCompleted", warmupCompleted.get());
+        CacheInvalidator current = invalidator;
+        if (current != null) {
+            stats.put("invalidation", current.getStats());
+        }
         return stats;
     }
+
+    /**
+     * 获取完整指标（请求命中、缓存、提取、登录与各段落耗时分布）
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> all = metrics.toMap();
+        if (sessionPool != null) {
+            all.put("sessionPool", sessionPool.getStats());
+        }
+        return all;
+    }
+
+    /**
+     * 注册 JMX MBean（同名 MBean 已存在时替换，例如上一次停用没有正常完成）
+     */
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(ComponentInfoMetrics.OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+        } catch (JMException e) {
+            log.warn("注册组件信息服务 MBean 失败", e);
+        }
+    }
+
+    private void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(ComponentInfoMetrics.OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            log.debug("注销组件信息服务 MBean 失败", e);
+        }
+    }
 }
 
@@ -0,0 +1,34 @@
+package com.aem.component.info.templates;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 跨实例缓存失效协议
+ *
+ * 每个基础路径对应一个版本标记：某个实例上的组件发生变化时递增该基础路径的版本（{@link #publish(String)}），
+ * 所有实例定期读取版本（{@link #readVersions(Collection)}），发现版本变化就丢弃该基础路径下的缓存条目。
+ * 协议只需要保证版本单调变化且最终对所有实例可见，不需要传递具体的修改内容。
+ *
+ * 默认实现是 {@link JcrInvalidationProtocol}（标记节点存放在共享仓库中），
+ * 也可以在 {@link ComponentInfoServiceTemplate#createInvalidationProtocol} 中替换为其他实现（如消息队列）。
+ */
+public interface InvalidationProtocol {
+
+    /**
+     * 递增基础路径的版本标记
+     *
+     * @param basePath 基础路径
+     * @throws Exception 写入失败
+     */
+    void publish(String basePath) throws Exception;
+
+    /**
+     * 读取基础路径的当前版本标记
+     *
+     * @param basePaths 基础路径
+     * @return 基础路径到版本的映射，从未发布过的基础路径版本为 0
+     * @throws Exception 读取失败
+     */
+    Map<String, Long> readVersions(Collection<String> basePaths) throws Exception;
+}
@@ -0,0 +1,91 @@
+package com.aem.component.info.templates;
+
+import org.apache.jackrabbit.commons.JcrUtils;
+
+import javax.jcr.InvalidItemStateException;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基于 JCR 标记节点的失效协议
+ *
+ * 每个基础路径在 markerRoot 下有一个镜像路径的标记节点，例如基础路径
+ * /apps/myproject/components 的标记为 /var/component-info/invalidation/apps/myproject/components，
+ * 属性 version 是递增的版本号。读取时每个基础路径只读一个属性，开销很小。
+ *
+ * 标记必须写在所有实例都能看到的仓库中（同一 Oak 集群的作者实例共享仓库；
+ * 发布实例需要把 markerRoot 纳入内容分发）。
+ *
+ * 读写使用不同的会话：轮询读取使用只读会话池（服务用户需要 markerRoot 的读权限）；
+ * 发布时由单独的写入会话工厂登录（通常是只对 markerRoot 有写权限的服务用户），用完即登出。
+ * 发布只在组件变化时发生，不需要池化。
+ */
+public class JcrInvalidationProtocol implements InvalidationProtocol {
+
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
+    private final JcrSessionPoolService sessionPool;
+    private final JcrSessionPool.SessionFactory writerSessions;
+    private final String markerRoot;
+
+    /**
+     * @param sessionPool 只读会话池（读取版本标记）
+     * @param writerSessions 写入会话工厂（发布版本标记，会话用完后登出）
+     * @param markerRoot 标记节点的根路径（如 /var/component-info/invalidation）
+     */
+    public JcrInvalidationProtocol(JcrSessionPoolService sessionPool, JcrSessionPool.SessionFactory writerSessions,
+                                   String markerRoot) {
+        this.sessionPool = sessionPool;
+        this.writerSessions = writerSessions;
+        this.markerRoot = markerRoot.endsWith("/") ? markerRoot.substring(0, markerRoot.length() - 1) : markerRoot;
+    }
+
+    @Override
+    public void publish(String basePath) throws RepositoryException {
+        Session session = writerSessions.login();
+        try {
+            // 多个实例同时递增时保存会冲突，刷新后重试
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    Node marker = JcrUtils.getOrCreateByPath(markerPath(basePath), "nt:unstructured", session);
+                    long version = marker.hasProperty("version") ? marker.getProperty("version").getLong() : 0;
+                    marker.setProperty("version", version + 1);
+                    marker.setProperty("lastModified", Calendar.getInstance());
+                    session.save();
+                    return;
+                } catch (InvalidItemStateException e) {
+                    session.refresh(false);
+                    if (attempt >= MAX_SAVE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            session.logout();
+        }
+    }
+
+    @Override
+    public Map<String, Long> readVersions(Collection<String> basePaths) throws RepositoryException {
+        Map<String, Long> versions = new HashMap<>();
+        Session session = sessionPool.borrow();
+        try {
+            for (String basePath : basePaths) {
+                String property = markerPath(basePath) + "/version";
+                versions.put(basePath, session.propertyExists(property) ? session.getProperty(property).getLong() : 0L);
+            }
+        } finally {
+            sessionPool.release(session);
+        }
+        return versions;
+    }
+
+    String markerPath(String basePath) {
+        return markerRoot + (basePath.startsWith("/") ? basePath : "/" + basePath);
+    }
+}
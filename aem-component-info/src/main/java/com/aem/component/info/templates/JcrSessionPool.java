@@ -0,0 +1,248 @@
+package com.aem.component.info.templates;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JCR 会话池
+ *
+ * 登录的代价远高于简单查询，因此会话按请求借出、用完归还，而不是每次登录再登出：
+ * - 借出的会话数量不超过 maxSize，池满时最多等待 borrowTimeout，超时抛出 RepositoryException
+ * - 归还时调用 refresh(false) 丢弃未保存的修改并看到仓库的最新状态（会话只用于读取）
+ * - 存活超过 maxAge 的会话在归还或借出时登出，避免长期持有的会话累积缓存和权限变化不生效
+ * - 空闲会话后进先出，最近使用的会话优先借出
+ *
+ * 使用示例：
+ * <pre>
+ * Session session = pool.borrow();
+ * try {
+ *     ...
+ * } finally {
+ *     pool.release(session);
+ * }
+ * </pre>
+ */
+public class JcrSessionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(JcrSessionPool.class);
+
+    /**
+     * 会话工厂（如 repository.loginService(subServiceName, null)）
+     */
+    public interface SessionFactory {
+        Session login() throws RepositoryException;
+    }
+
+    private static class PooledSession {
+        final Session session;
+        final long createdAt;
+
+        PooledSession(Session session, long createdAt) {
+            this.session = session;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final SessionFactory factory;
+    private final int maxSize;
+    private final long maxAgeMillis;
+    private final long borrowTimeoutMillis;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledSession> idle = new ConcurrentLinkedDeque<>();
+    private final ConcurrentHashMap<Session, Long> borrowed = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LatencyHistogram borrowWait = new LatencyHistogram();
+
+    /**
+     * 构造函数
+     *
+     * @param factory 会话工厂
+     * @param maxSize 最多同时借出的会话数量
+     * @param maxAgeMillis 会话最长存活时间（毫秒）
+     * @param borrowTimeoutMillis 池满时借出的最长等待时间（毫秒）
+     */
+    public JcrSessionPool(SessionFactory factory, int maxSize, long maxAgeMillis, long borrowTimeoutMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize 必须大于 0");
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.maxAgeMillis = maxAgeMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * 借出会话（优先使用空闲会话，没有时登录新会话）
+     *
+     * @return 会话，用完必须调用 {@link #release(Session)}
+     * @throws RepositoryException 等待超时、池已关闭或登录失败
+     */
+    public Session borrow() throws RepositoryException {
+        if (closed) {
+            throw new RepositoryException("会话池已关闭");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new RepositoryException("等待 JCR 会话超时（" + borrowTimeoutMillis + " 毫秒，池大小 " + maxSize + "）");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("等待 JCR 会话时被中断", e);
+        }
+        borrowWait.record(System.nanoTime() - start);
+        borrows.increment();
+
+        try {
+            PooledSession pooled;
+            long now = System.currentTimeMillis();
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled.session, pooled.createdAt, now)) {
+                    borrowed.put(pooled.session, pooled.createdAt);
+                    return pooled.session;
+                }
+                destroy(pooled.session);
+            }
+
+            Session session = factory.login();
+            created.increment();
+            borrowed.put(session, now);
+            return session;
+        } catch (RepositoryException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 归还会话（刷新后放回空闲队列；已失效、超过最长存活时间或池已关闭时登出）
+     *
+     * @param session 借出的会话，为 null 时忽略
+     */
+    public void release(Session session) {
+        if (session == null) {
+            return;
+        }
+        Long createdAt = borrowed.remove(session);
+        if (createdAt == null) {
+            log.warn("归还的会话不是从本池借出的，直接登出");
+            destroy(session);
+            return;
+        }
+        try {
+            if (!closed && isUsable(session, createdAt, System.currentTimeMillis())) {
+                session.refresh(false);
+                idle.offerFirst(new PooledSession(session, createdAt));
+            } else {
+                destroy(session);
+            }
+        } catch (RepositoryException | RuntimeException e) {
+            log.debug("刷新会话失败，丢弃该会话", e);
+            destroy(session);
+        } finally {
+            permits.release();
+        }
+        if (closed) {
+            drainIdle();
+        }
+    }
+
+    /**
+     * 归还一个出错的会话（直接登出，不再放回池中）
+     *
+     * @param session 借出的会话
+     */
+    public void invalidate(Session session) {
+        if (session == null) {
+            return;
+        }
+        boolean wasBorrowed = borrowed.remove(session) != null;
+        destroy(session);
+        if (wasBorrowed) {
+            permits.release();
+        }
+    }
+
+    /**
+     * 登出超过最长存活时间的空闲会话（可以定期调用）
+     *
+     * @return 登出的会话数量
+     */
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+        for (PooledSession pooled : idle) {
+            if (!isUsable(pooled.session, pooled.createdAt, now) && idle.removeFirstOccurrence(pooled)) {
+                destroy(pooled.session);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * 关闭会话池：登出空闲会话，借出中的会话在归还时登出
+     */
+    public void close() {
+        closed = true;
+        drainIdle();
+    }
+
+    /**
+     * 获取统计信息
+     *
+     * @return maxSize、active、idle、borrows、timeouts、created、destroyed、borrowWait（等待耗时分布）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxSize", maxSize);
+        stats.put("active", borrowed.size());
+        stats.put("idle", idle.size());
+        stats.put("borrows", borrows.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("created", created.sum());
+        stats.put("destroyed", destroyed.sum());
+        stats.put("borrowWait", borrowWait.toMap());
+        return stats;
+    }
+
+    private boolean isUsable(Session session, long createdAt, long now) {
+        return now - createdAt < maxAgeMillis && session.isLive();
+    }
+
+    private void drainIdle() {
+        PooledSession pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled.session);
+        }
+    }
+
+    private void destroy(Session session) {
+        destroyed.increment();
+        try {
+            if (session.isLive()) {
+                session.logout();
+            }
+        } catch (RuntimeException e) {
+            log.debug("登出会话失败", e);
+        }
+    }
+}
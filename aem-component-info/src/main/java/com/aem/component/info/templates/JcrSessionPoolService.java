@@ -0,0 +1,139 @@
+package com.aem.component.info.templates;
+
+import org.apache.sling.jcr.api.SlingRepository;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.Designate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 共享 JCR 会话池服务
+ *
+ * 组件信息的 Servlet 和服务从这里借出只读会话（见 {@link JcrSessionPool}），不再每个请求登录一次。
+ *
+ * 会话由服务用户登录（repository.loginService），需要在
+ * Apache Sling Service User Mapper 中为本 bundle 配置子服务映射，例如：
+ * <pre>
+ * &lt;bundle-symbolic-name&gt;:component-reader=component-reader-user
+ * </pre>
+ * 服务用户只需要 /apps、/libs、内容路径以及失效版本标记根路径的读取权限；
+ * 版本标记由组件信息服务用单独的写入服务用户发布。
+ */
+@Component(
+    service = JcrSessionPoolService.class,
+    immediate = true
+)
+@Designate(ocd = JcrSessionPoolService.PoolConfig.class)
+public class JcrSessionPoolService {
+
+    private static final Logger log = LoggerFactory.getLogger(JcrSessionPoolService.class);
+
+    @Reference
+    private SlingRepository repository;
+
+    private volatile JcrSessionPool pool;
+    private ScheduledExecutorService evictor;
+
+    /**
+     * OSGi 配置接口
+     */
+    @org.osgi.service.metatype.annotations.ObjectClassDefinition(
+        name = "Component Info Session Pool Configuration",
+        description = "组件信息 JCR 会话池配置"
+    )
+    public @interface PoolConfig {
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Sub-service Name",
+            description = "服务用户映射的子服务名（必填）"
+        )
+        String subServiceName() default "component-reader";
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Max Pool Size",
+            description = "最多同时借出的会话数量"
+        )
+        int maxSize() default 8;
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Max Session Age (seconds)",
+            description = "会话最长存活时间（秒），超过后登出并重新登录"
+        )
+        long maxAge() default 300;
+
+        @org.osgi.service.metatype.annotations.AttributeDefinition(
+            name = "Borrow Timeout (milliseconds)",
+            description = "池满时等待空闲会话的最长时间（毫秒）"
+        )
+        long borrowTimeout() default 5000;
+    }
+
+    @Activate
+    protected void activate(PoolConfig config) {
+        if (config.subServiceName() == null || config.subServiceName().trim().isEmpty()) {
+            throw new IllegalArgumentException("未配置子服务名，会话池必须使用服务用户登录");
+        }
+        final String subServiceName = config.subServiceName().trim();
+        JcrSessionPool.SessionFactory factory = () -> repository.loginService(subServiceName, null);
+        long maxAgeMillis = config.maxAge() * 1000;
+        pool = new JcrSessionPool(factory, config.maxSize(), maxAgeMillis, config.borrowTimeout());
+
+        long interval = Math.max(1, Math.min(config.maxAge(), 60));
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "component-info-session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(pool::evictExpired, interval, interval, TimeUnit.SECONDS);
+
+        log.info("JCR 会话池已激活 - 子服务: {}, 池大小: {}, 最长存活: {} 秒",
+            subServiceName, config.maxSize(), config.maxAge());
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * 借出会话，用完必须调用 {@link #release(Session)}
+     *
+     * @return 会话
+     * @throws RepositoryException 等待超时或登录失败
+     */
+    public Session borrow() throws RepositoryException {
+        return pool.borrow();
+    }
+
+    /**
+     * 归还会话
+     *
+     * @param session 借出的会话，为 null 时忽略
+     */
+    public void release(Session session) {
+        pool.release(session);
+    }
+
+    /**
+     * 获取会话池统计信息
+     */
+    public Map<String, Object> getStats() {
+        return pool.getStats();
+    }
+}
@@ -0,0 +1,115 @@
+package com.aem.component.info.templates;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 同键请求合并（single-flight）
+ *
+ * 同一个键的并发加载只执行一次：第一个调用者（leader）在自己的线程中执行加载，
+ * 其余调用者等待同一个结果。加载完成后键立即移除，因此：
+ * - 失败只影响这一轮等待者，下一次调用会重新加载（失败不缓存）
+ * - 等待者超时只放弃等待，不影响 leader 和其他等待者
+ *
+ * 使用示例：
+ * <pre>
+ * Map<String, Object> info = singleFlight.load(path, () -> extract(path), 30000);
+ * </pre>
+ */
+public class SingleFlight {
+
+    /**
+     * 加载函数
+     */
+    public interface Loader {
+        Map<String, Object> load() throws Exception;
+    }
+
+    private final ConcurrentHashMap<String, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /**
+     * 加载键对应的值，同键并发调用共享一次加载
+     *
+     * @param key 键
+     * @param loader 加载函数（只由 leader 调用）
+     * @param timeoutMillis 等待者的最长等待时间（毫秒）
+     * @return 加载结果
+     * @throws TimeoutException 等待其他线程的加载超时
+     * @throws Exception 加载函数抛出的异常（所有等待者收到同一个异常）
+     */
+    public Map<String, Object> load(String key, Loader loader, long timeoutMillis) throws Exception {
+        CompletableFuture<Map<String, Object>> flight = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = inFlight.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            try {
+                return existing.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                timeouts.incrementAndGet();
+                throw e;
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        loads.incrementAndGet();
+        try {
+            Map<String, Object> value = loader.load();
+            flight.complete(value);
+            return value;
+        } catch (Throwable t) {
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 当前正在加载的键数量
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 实际执行的加载次数
+     */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    /**
+     * 合并到已有加载上的调用次数
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * 等待超时次数
+     */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return e;
+    }
+}
@@ -1,7 +1,10 @@
 package com.aem.component.info.tools;
 
+import com.aem.component.info.ComponentDeltaExporter;
+import com.aem.component.info.ComponentDriftReporter;
 import com.aem.component.info.ComponentExporter;
 import com.aem.component.info.ComponentInfoExtractor;
+import com.aem.component.info.ExportFormat;
 import org.apache.sling.jcr.api.SlingRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,14 +23,19 @@ import java.util.Map;
  * 使用方式：
  * java -cp ... ComponentInfoCLI --path /apps/myproject/components/mycomponent --output output.json
  * java -cp ... ComponentInfoCLI --basePath /apps/myproject/components --outputDir output/
+ * java -cp ... ComponentInfoCLI --driftFrom exports/stage.carc --driftTo exports/prod --outputDir reports/
  * 
  * 参数说明：
  * --path: 单个组件路径
  * --basePath: 组件基础路径（批量提取）
  * --output: 输出文件路径（单个组件）
  * --outputDir: 输出目录（批量提取）
- * --format: 输出格式（json|pretty，默认 json）
+ * --archive: 归档文件路径（批量提取时写入单个压缩归档，代替逐个文件输出）
+ * --fieldTable: 字段表格文件路径（批量提取时每个对话框字段一行，.tsv 为制表符分隔，其他为 CSV）
+ * --format: 输出格式（json|pretty|smile|cbor，默认 json；smile/cbor 为二进制格式）
  * --simple: 是否只提取简化信息
+ * --driftFrom / --driftTo: 两个环境的导出（归档文件或导出目录），生成漂移报告，不需要 Repository
+ * --environments: 漂移报告中的环境名称，逗号分隔（默认 from,to）
  */
 public class ComponentInfoCLI {
 
@@ -57,7 +65,9 @@ public class ComponentInfoCLI {
         
         // 执行命令
         try {
-            if (params.containsKey("--path")) {
+            if (params.containsKey("--driftFrom") && params.containsKey("--driftTo")) {
+                cli.handleDrift(params);
+            } else if (params.containsKey("--path")) {
                 cli.handleSingleComponent(params);
             } else if (params.containsKey("--basePath")) {
                 cli.handleBatchComponents(params);
@@ -78,17 +88,20 @@ public class ComponentInfoCLI {
             throws RepositoryException, IOException {
         
         String componentPath = params.get("--path");
-        String outputPath = params.getOrDefault("--output", "component-info.json");
+        ExportFormat format = ExportFormat.fromName(params.get("--format"));
+        boolean pretty = "pretty".equals(params.get("--format"));
+        String outputPath = params.getOrDefault("--output", "component-info." + format.getFileExtension());
         boolean simple = params.containsKey("--simple");
         
         log.info("提取组件: " + componentPath);
         log.info("输出文件: " + outputPath);
+        log.info("输出格式: " + format);
         
         // 注意：这里需要实际的 Repository
         // Session session = repository.loginAdministrative(null);
         // try {
         //     ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
-        //     ComponentExporter exporter = new ComponentExporter();
+        //     ComponentExporter exporter = new ComponentExporter(format, pretty);
         //     
         //     Map<String, Object> componentInfo;
         //     if (simple) {
@@ -114,15 +127,41 @@ public class ComponentInfoCLI {
         
         String basePath = params.get("--basePath");
         String outputDir = params.getOrDefault("--outputDir", "output/components");
+        ExportFormat format = ExportFormat.fromName(params.get("--format"));
+        boolean pretty = "pretty".equals(params.get("--format"));
+        
+        String archivePath = params.get("--archive");
+        String fieldTablePath = params.get("--fieldTable");
         
         log.info("批量提取组件: " + basePath);
         log.info("输出目录: " + outputDir);
+        log.info("输出格式: " + format);
+        if (archivePath != null) {
+            log.info("归档文件: " + archivePath);
+        }
+        if (fieldTablePath != null) {
+            log.info("字段表格: " + fieldTablePath);
+        }
         
         // 注意：这里需要实际的 Repository
         // Session session = repository.loginAdministrative(null);
         // try {
         //     ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
-        //     ComponentExporter exporter = new ComponentExporter();
+        //     ComponentExporter exporter = new ComponentExporter(format, pretty);
+        //     
+        //     if (archivePath != null) {
+        //         // 单个归档文件：每个组件单独压缩，末尾带路径索引
+        //         int count = exporter.exportComponentsToArchive(extractor, basePath, archivePath);
+        //         log.info("已导出 " + count + " 个组件到归档: " + archivePath);
+        //         return;
+        //     }
+        //     
+        //     if (fieldTablePath != null) {
+        //         // 扁平表格：每个对话框字段一行，供电子表格 / DuckDB 分析
+        //         long rows = exporter.exportFieldTable(extractor, basePath, fieldTablePath);
+        //         log.info("已导出 " + rows + " 个字段到: " + fieldTablePath);
+        //         return;
+        //     }
         //     
         //     List<Map<String, Object>> components = 
         //         extractor.extractComponentsFromPath(basePath);
@@ -136,6 +175,25 @@ public class ComponentInfoCLI {
         log.info("（示例代码，需要实际的 Repository 对象）");
     }
 
+    /**
+     * 处理环境漂移报告（直接读取两个导出，不需要 Repository）
+     */
+    private void handleDrift(Map<String, String> params) throws IOException {
+        String outputDir = params.getOrDefault("--outputDir", "output/drift");
+        String[] environments = params.getOrDefault("--environments", "from,to").split(",");
+        if (environments.length != 2) {
+            throw new IllegalArgumentException("--environments 需要两个逗号分隔的环境名称");
+        }
+        
+        log.info("漂移报告: " + params.get("--driftFrom") + " vs " + params.get("--driftTo"));
+        try (ComponentDeltaExporter.ComponentSource from = ComponentDeltaExporter.openSource(params.get("--driftFrom"));
+             ComponentDeltaExporter.ComponentSource to = ComponentDeltaExporter.openSource(params.get("--driftTo"))) {
+            Map<String, Object> summary = new ComponentDriftReporter(environments[0].trim(), environments[1].trim(),
+                !params.containsKey("--simple")).report(from, to, outputDir);
+            log.info("漂移报告已写出到: " + outputDir + "（一致: " + Boolean.TRUE.equals(summary.get("inSync")) + "）");
+        }
+    }
+
     /**
      * 解析命令行参数
      */
@@ -171,8 +229,13 @@ public class ComponentInfoCLI {
         System.out.println("  --basePath <路径>          组件基础路径（批量提取）");
         System.out.println("  --output <文件>            输出文件路径（单个组件，默认: component-info.json）");
         System.out.println("  --outputDir <目录>         输出目录（批量提取，默认: output/components）");
-        System.out.println("  --format <格式>            输出格式: json|pretty（默认: json）");
-        System.out.println("  --simple                   只提取简化信息");
+        System.out.println("  --archive <文件>           批量提取时写入单个压缩归档（带随机访问索引）");
+        System.out.println("  --fieldTable <文件>        批量提取时导出字段级扁平表格（.tsv 或 .csv）");
+        System.out.println("  --format <格式>            输出格式: json|pretty|smile|cbor（默认: json）");
+        System.out.println("  --simple                   只提取简化信息（漂移报告中不写出 JSON Patch）");
+        System.out.println("  --driftFrom <导出>         漂移报告：第一个环境的导出（归档文件或导出目录）");
+        System.out.println("  --driftTo <导出>           漂移报告：第二个环境的导出");
+        System.out.println("  --environments <a,b>       漂移报告中的环境名称（默认: from,to）");
         System.out.println("  --help                     显示帮助信息");
         System.out.println();
         System.out.println("示例:");
@@ -184,6 +247,15 @@ public class ComponentInfoCLI {
         System.out.println();
         System.out.println("  # 提取简化信息");
         System.out.println("  java ComponentInfoCLI --path /apps/myproject/components/mycomponent --simple --output simple.json");
+        System.out.println();
+        System.out.println("  # 二进制格式批量导出（供迁移流水线读取）");
+        System.out.println("  java ComponentInfoCLI --basePath /apps/myproject/components --outputDir output/ --format smile");
+        System.out.println();
+        System.out.println("  # 字段级表格（供电子表格 / DuckDB 分析）");
+        System.out.println("  java ComponentInfoCLI --basePath /apps/myproject/components --fieldTable fields.tsv");
+        System.out.println();
+        System.out.println("  # 环境漂移报告（stage 与 prod 的导出对比）");
+        System.out.println("  java ComponentInfoCLI --driftFrom stage.carc --driftTo prod.carc --environments stage,prod --outputDir reports/");
     }
 }
 
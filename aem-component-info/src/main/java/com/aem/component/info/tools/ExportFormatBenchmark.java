@@ -0,0 +1,182 @@
+package com.aem.component.info.tools;
+
+import com.aem.component.info.ComponentExporter;
+import com.aem.component.info.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 导出格式基准测试
+ *
+ * 生成一批结构与 ComponentInfoExtractor 输出一致的组件信息（默认 600 个组件，
+ * 每个组件 5~30 个对话框字段），分别用以下方式序列化并反序列化，比较耗时和体积：
+ * - JSON（格式化，即 ComponentExporter 默认输出）
+ * - JSON（紧凑）
+ * - Smile
+ * - CBOR
+ *
+ * 不依赖 AEM 环境，可以直接运行：
+ * java -cp ... com.aem.component.info.tools.ExportFormatBenchmark [组件数量] [轮数]
+ */
+public class ExportFormatBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int componentCount = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<Map<String, Object>> batch = generateBatch(componentCount, new Random(42));
+
+        System.out.println("导出格式基准测试: " + componentCount + " 个组件, " + rounds + " 轮");
+        System.out.println();
+        System.out.println(String.format("%-14s %14s %16s %16s", "格式", "总字节数", "序列化 (ms/批)", "解析 (ms/批)"));
+
+        run("JSON (pretty)", ExportFormat.JSON, true, batch, rounds);
+        run("JSON", ExportFormat.JSON, false, batch, rounds);
+        run("Smile", ExportFormat.SMILE, false, batch, rounds);
+        run("CBOR", ExportFormat.CBOR, false, batch, rounds);
+    }
+
+    private static void run(String label, ExportFormat format, boolean pretty,
+                            List<Map<String, Object>> batch, int rounds) throws IOException {
+        ComponentExporter exporter = new ComponentExporter(format, pretty);
+        ObjectMapper reader = format.createObjectMapper(false);
+
+        List<byte[]> encoded = new ArrayList<>(batch.size());
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            encoded = serialize(exporter, batch);
+            parse(reader, encoded);
+        }
+
+        long serializeNanos = 0;
+        long parseNanos = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            encoded = serialize(exporter, batch);
+            serializeNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            parse(reader, encoded);
+            parseNanos += System.nanoTime() - start;
+        }
+
+        long totalBytes = 0;
+        for (byte[] bytes : encoded) {
+            totalBytes += bytes.length;
+        }
+
+        System.out.println(String.format("%-14s %14d %16.2f %16.2f", label, totalBytes,
+            serializeNanos / 1_000_000.0 / rounds, parseNanos / 1_000_000.0 / rounds));
+    }
+
+    private static List<byte[]> serialize(ComponentExporter exporter, List<Map<String, Object>> batch)
+            throws IOException {
+        List<byte[]> encoded = new ArrayList<>(batch.size());
+        for (Map<String, Object> componentInfo : batch) {
+            encoded.add(exporter.exportComponentToBytes(componentInfo));
+        }
+        return encoded;
+    }
+
+    private static void parse(ObjectMapper reader, List<byte[]> encoded) throws IOException {
+        for (byte[] bytes : encoded) {
+            reader.readValue(bytes, Map.class);
+        }
+    }
+
+    /**
+     * 生成与提取器输出结构一致的组件信息
+     */
+    static List<Map<String, Object>> generateBatch(int componentCount, Random random) {
+        String[] fieldTypes = {"textfield", "textarea", "select", "checkbox", "pathfield", "numberfield"};
+        String[] groups = {"MyProject - Content", "MyProject - Structure", "MyProject - Forms", ".hidden"};
+
+        List<Map<String, Object>> batch = new ArrayList<>(componentCount);
+        for (int c = 0; c < componentCount; c++) {
+            String name = "component" + c;
+            String path = "/apps/myproject/components/" + name;
+
+            Map<String, String> basicProperties = new HashMap<>();
+            basicProperties.put("sling:resourceType", "myproject/components/" + name);
+            basicProperties.put("jcr:title", "Component " + c);
+            basicProperties.put("jcr:description", "Generated component number " + c + " for benchmarking");
+            basicProperties.put("componentGroup", groups[c % groups.length]);
+            basicProperties.put("sling:resourceSuperType", "core/wcm/components/text/v2/text");
+            basicProperties.put("componentPath", path);
+            basicProperties.put("componentName", name);
+            basicProperties.put("primaryNodeType", "cq:Component");
+            basicProperties.put("isCqComponent", "true");
+
+            List<Map<String, Object>> fields = new ArrayList<>();
+            int fieldCount = 5 + random.nextInt(26);
+            for (int f = 0; f < fieldCount; f++) {
+                String fieldType = fieldTypes[random.nextInt(fieldTypes.length)];
+                Map<String, String> fieldProperties = new HashMap<>();
+                fieldProperties.put("sling:resourceType", "granite/ui/components/coral/foundation/form/" + fieldType);
+                fieldProperties.put("name", "./field" + f);
+                fieldProperties.put("fieldLabel", "Field " + f);
+                fieldProperties.put("fieldDescription", "Description of field " + f);
+
+                Map<String, Object> field = new HashMap<>();
+                field.put("nodeName", "field" + f);
+                field.put("nodeType", "nt:unstructured");
+                field.put("path", path + "/_cq_dialog/content/items/tabs/items/tab/items/field" + f);
+                field.put("properties", fieldProperties);
+                field.put("name", "./field" + f);
+                field.put("fieldLabel", "Field " + f);
+                field.put("required", random.nextBoolean());
+                if ("select".equals(fieldType)) {
+                    List<Map<String, String>> options = new ArrayList<>();
+                    for (int o = 0; o < 4; o++) {
+                        Map<String, String> option = new HashMap<>();
+                        option.put("text", "Option " + o);
+                        option.put("value", "option" + o);
+                        options.add(option);
+                    }
+                    field.put("options", options);
+                }
+                fields.add(field);
+            }
+
+            Map<String, Object> touchDialog = new HashMap<>();
+            touchDialog.put("fields", fields);
+            Map<String, Object> dialog = new HashMap<>();
+            dialog.put("type", "touch");
+            dialog.put("touchDialog", touchDialog);
+
+            Map<String, Object> designDialog = new HashMap<>();
+            designDialog.put("exists", false);
+
+            Map<String, Object> clientLibraries = new HashMap<>();
+            clientLibraries.put("exists", false);
+            Map<String, Object> dependencies = new HashMap<>();
+            dependencies.put("resourceSuperType", "core/wcm/components/text/v2/text");
+            dependencies.put("resourceSuperTypeExists", true);
+            dependencies.put("clientLibraries", clientLibraries);
+
+            Map<String, Object> template = new HashMap<>();
+            List<String> templateFiles = new ArrayList<>();
+            templateFiles.add(name + ".html");
+            template.put("templateFiles", templateFiles);
+
+            Map<String, Object> componentInfo = new HashMap<>();
+            componentInfo.put("basicProperties", basicProperties);
+            componentInfo.put("dialog", dialog);
+            componentInfo.put("designDialog", designDialog);
+            componentInfo.put("dependencies", dependencies);
+            componentInfo.put("template", template);
+            componentInfo.put("extractedAt", 1700000000000L + c);
+            componentInfo.put("componentPath", path);
+            componentInfo.put("componentName", name);
+            batch.add(componentInfo);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,44 @@
+package com.aem.component.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 哈希工具类
+ * 
+ * 导出去重、文件命名、脚手架清单等处使用的内容哈希。
+ */
+public class HashUtil {
+
+    /**
+     * 计算 SHA-256 十六进制字符串
+     * 
+     * @param data 数据
+     * @return 64 位小写十六进制字符串
+     */
+    public static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // 所有 JVM 都必须支持 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 计算字符串（UTF-8）的 SHA-256 十六进制字符串
+     * 
+     * @param text 字符串
+     * @return 64 位小写十六进制字符串
+     */
+    public static String sha256(String text) {
+        return sha256(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,96 @@
+package com.aem.component.info;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.aem.component.info.ComponentFixtures.component;
+import static org.junit.Assert.*;
+
+/**
+ * ComponentArchiveWriter / ComponentArchiveReader 单元测试
+ */
+public class ComponentArchiveTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * 测试写入归档后按路径随机读取
+     */
+    @Test
+    public void testRandomAccessRead() throws Exception {
+        File archive = temporaryFolder.newFile("components.carc");
+        try (ComponentArchiveWriter writer = new ComponentArchiveWriter(archive.getPath(), ExportFormat.SMILE)) {
+            for (String name : new String[]{"title", "teaser", "carousel"}) {
+                writer.write(component(name).build());
+            }
+            writer.finish();
+        }
+
+        try (ComponentArchiveReader reader = ComponentArchiveReader.open(archive.getPath())) {
+            assertEquals(ExportFormat.SMILE, reader.getFormat());
+            assertEquals(3, reader.size());
+            // 索引按路径排序
+            assertEquals("/apps/test/components/carousel", reader.getIndex().firstKey());
+
+            Map<String, Object> teaser = reader.read("/apps/test/components/teaser");
+            assertEquals("teaser", teaser.get("componentName"));
+            assertNull(reader.read("/apps/test/components/missing"));
+
+            final List<String> names = new ArrayList<>();
+            reader.forEach(info -> names.add((String) info.get("componentName")));
+            assertEquals(3, names.size());
+            assertEquals("title", names.get(2));
+        }
+    }
+
+    /**
+     * 测试空归档
+     */
+    @Test
+    public void testEmptyArchive() throws Exception {
+        File archive = temporaryFolder.newFile("empty.carc");
+        try (ComponentArchiveWriter writer = new ComponentArchiveWriter(archive.getPath(), ExportFormat.JSON)) {
+            writer.finish();
+        }
+
+        try (ComponentArchiveReader reader = ComponentArchiveReader.open(archive.getPath())) {
+            assertEquals(0, reader.size());
+        }
+    }
+
+    /**
+     * 测试没有调用 finish() 就关闭时删除未完成的文件
+     */
+    @Test
+    public void testCloseWithoutFinishDiscardsArchive() throws Exception {
+        File archive = temporaryFolder.newFile("aborted.carc");
+        try (ComponentArchiveWriter writer = new ComponentArchiveWriter(archive.getPath(), ExportFormat.SMILE)) {
+            writer.write(component("title").build());
+        }
+        assertFalse(archive.exists());
+    }
+
+    /**
+     * 测试头部写入固定的格式代码
+     */
+    @Test
+    public void testFormatCodeIsStable() throws Exception {
+        File archive = temporaryFolder.newFile("cbor.carc");
+        try (ComponentArchiveWriter writer = new ComponentArchiveWriter(archive.getPath(), ExportFormat.CBOR)) {
+            writer.finish();
+        }
+        byte[] bytes = Files.readAllBytes(archive.toPath());
+        assertEquals(2, bytes[ComponentArchiveWriter.MAGIC.length + 1]);
+        try (ComponentArchiveReader reader = ComponentArchiveReader.open(archive.getPath())) {
+            assertEquals(ExportFormat.CBOR, reader.getFormat());
+        }
+    }
+}
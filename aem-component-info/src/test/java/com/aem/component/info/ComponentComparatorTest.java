@@ -0,0 +1,181 @@
+package com.aem.component.info;
+
+import org.junit.Test;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aem.component.info.ComponentFixtures.component;
+import static org.junit.Assert.*;
+
+/**
+ * ComponentComparator 单元测试（使用已提取的组件信息）
+ */
+public class ComponentComparatorTest {
+
+    /**
+     * 测试一对多对比：指纹短路的结果与逐项对比一致
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCompareAgainstBaseline() {
+        ComponentComparator comparator = new ComponentComparator();
+        Map<String, Object> baseline = component("/apps/core/components/teaser")
+            .superType("core/wcm/components/teaser/v2/teaser").fields("title", "text").build();
+        Map<String, Object> sameDialog = component("/apps/site/components/teaser")
+            .superType("core/wcm/components/teaser/v2/teaser").fields("title", "text").build();
+        Map<String, Object> extraField = component("/apps/site/components/promo")
+            .superType("core/wcm/components/teaser/v2/teaser").fields("title", "text", "link").build();
+        Map<String, Object> missing = new HashMap<>();
+        missing.put("error", "组件节点不存在: /apps/site/components/missing");
+        missing.put("componentPath", "/apps/site/components/missing");
+
+        Map<String, Object> result = comparator.compareAgainst(baseline, Arrays.asList(sameDialog, extraField, missing));
+        assertEquals("/apps/core/components/teaser", result.get("baseline"));
+
+        List<Map<String, Object>> comparisons = (List<Map<String, Object>>) result.get("comparisons");
+        assertEquals(3, comparisons.size());
+
+        Map<String, Object> first = comparisons.get(0);
+        assertEquals("/apps/site/components/teaser", first.get("component2"));
+        assertEquals(true, ((Map<String, Object>) first.get("fields")).get("identical"));
+        assertEquals(comparator.compareComponentInfos(baseline, sameDialog).get("fields"), first.get("fields"));
+        // 对话框指纹相同：结构对比直接记为相同，没有构建对话框树（没有节点数）
+        Map<String, Object> structure = (Map<String, Object>) ((Map<String, Object>) first.get("dialog")).get("structure");
+        assertEquals(true, structure.get("identical"));
+        assertEquals(0, structure.get("distance"));
+        assertFalse(structure.containsKey("nodes1"));
+
+        Map<String, Object> second = comparisons.get(1);
+        Map<String, Object> fields = (Map<String, Object>) second.get("fields");
+        assertEquals(false, fields.get("identical"));
+        assertEquals(Arrays.asList("./link"), fields.get("onlyInComponent2"));
+        assertEquals(2, ((Map<String, Object>) second.get("dialog")).get("fieldsCount1"));
+        assertEquals(3, ((Map<String, Object>) second.get("dialog")).get("fieldsCount2"));
+        assertTrue(((Map<String, Object>) ((Map<String, Object>) second.get("dialog")).get("structure"))
+            .containsKey("nodes1"));
+
+        assertNotNull(comparisons.get(2).get("error"));
+        // 资源类型不同，因此没有完全相同的变体
+        assertTrue(((List<String>) result.get("identicalVariants")).isEmpty());
+    }
+
+    /**
+     * 测试缺少对话框和依赖信息时不会抛出异常
+     */
+    @Test
+    public void testMissingSections() {
+        Map<String, Object> info1 = new HashMap<>();
+        info1.put("basicProperties", new HashMap<String, String>());
+        Map<String, Object> info2 = component("a").fields("title").build();
+
+        Map<String, Object> comparison = new ComponentComparator().compareComponentInfos(info1, info2);
+        assertNotNull(comparison.get("summary"));
+    }
+
+    /**
+     * 测试路径不同但内容相同的组件（/apps 覆盖 /libs）通过指纹判定为完全相同
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOverlayWithSameContentIsIdentical() {
+        ComponentComparator comparator = new ComponentComparator();
+        Map<String, Object> libs = component("/libs/core/components/teaser").resourceType("core/components/teaser")
+            .superType("core/wcm/components/teaser/v2/teaser").fields("title", "text").build();
+        Map<String, Object> apps = component("/apps/core/components/teaser").resourceType("core/components/teaser")
+            .superType("core/wcm/components/teaser/v2/teaser").fields("title", "text").build();
+
+        Map<String, Object> result = comparator.compareAgainst(libs, Collections.singletonList(apps));
+        assertEquals(Collections.singletonList("/apps/core/components/teaser"), result.get("identicalVariants"));
+
+        // 不使用指纹的逐项对比得到相同结论
+        Map<String, Object> full = comparator.compareComponentInfos(libs, apps);
+        assertEquals(true, ((Map<String, Object>) full.get("summary")).get("componentsIdentical"));
+        assertEquals(full.get("basicProperties"),
+            ((List<Map<String, Object>>) result.get("comparisons")).get(0).get("basicProperties"));
+    }
+
+    /**
+     * 测试并行对比中单个变体出错或取不到会话时，只记录在对应变体的结果中
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testParallelCompareRecordsErrorsPerVariant() throws Exception {
+        final AtomicInteger closed = new AtomicInteger();
+        ComponentComparator comparator = new ComponentComparator(session());
+        ComponentComparator.SessionCallback sessions = new ComponentComparator.SessionCallback() {
+            @Override
+            public Session open() {
+                return session();
+            }
+
+            @Override
+            public void close(Session session) {
+                closed.incrementAndGet();
+            }
+        };
+
+        List<String> variants = Arrays.asList("/apps/site/components/missing", "/apps/site/components/broken",
+            "/apps/site/components/other");
+        Map<String, Object> result = comparator.compareAgainst("/apps/core/components/teaser", variants, sessions, 2);
+        List<Map<String, Object>> comparisons = (List<Map<String, Object>>) result.get("comparisons");
+        assertEquals(3, comparisons.size());
+        for (int i = 0; i < variants.size(); i++) {
+            assertEquals(variants.get(i), comparisons.get(i).get("component2"));
+            assertNotNull(comparisons.get(i).get("error"));
+        }
+        assertTrue(((String) comparisons.get(1).get("error")).contains("仓库读取失败"));
+        assertEquals(2, closed.get());
+
+        // 所有工作线程都取不到会话
+        result = comparator.compareAgainst("/apps/core/components/teaser", variants, () -> {
+            throw new RepositoryException("登录失败");
+        }, 2);
+        comparisons = (List<Map<String, Object>>) result.get("comparisons");
+        assertEquals(3, comparisons.size());
+        assertTrue(((String) comparisons.get(2).get("error")).contains("登录失败"));
+    }
+
+    /**
+     * 测试顺序对比（当前会话）中单个变体出错只记录在对应变体的结果中，结果顺序与输入一致
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSequentialCompareRecordsErrorsPerVariant() {
+        ComponentComparator comparator = new ComponentComparator(session());
+        List<String> variants = Arrays.asList("/apps/site/components/missing", "/apps/site/components/broken",
+            "/apps/site/components/other");
+
+        Map<String, Object> result = comparator.compareAgainst("/apps/core/components/teaser", variants);
+        List<Map<String, Object>> comparisons = (List<Map<String, Object>>) result.get("comparisons");
+        assertEquals(3, comparisons.size());
+        for (int i = 0; i < variants.size(); i++) {
+            assertEquals(variants.get(i), comparisons.get(i).get("component2"));
+            assertNotNull(comparisons.get(i).get("error"));
+        }
+        assertTrue(((String) comparisons.get(1).get("error")).contains("仓库读取失败"));
+    }
+
+    /**
+     * 没有任何节点的会话；路径以 broken 结尾时抛出运行时异常
+     */
+    private static Session session() {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+            (proxy, method, args) -> {
+                if ("nodeExists".equals(method.getName())) {
+                    if (((String) args[0]).endsWith("/broken")) {
+                        throw new IllegalStateException("仓库读取失败");
+                    }
+                    return false;
+                }
+                return null;
+            });
+    }
+}
@@ -0,0 +1,111 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.aem.component.info.ComponentFixtures.component;
+import static org.junit.Assert.*;
+
+/**
+ * JsonPatch / ComponentDeltaExporter 单元测试
+ */
+public class ComponentDeltaExporterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * 测试补丁应用到原文档后得到新文档
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDiffAndApplyRoundTrip() throws Exception {
+        Map<String, Object> source = mapper.readValue(
+            "{\"a\":1,\"b\":{\"c\":[1,2,3],\"d\":\"x\"},\"e/f\":true}", Map.class);
+        Map<String, Object> target = mapper.readValue(
+            "{\"a\":2,\"b\":{\"c\":[1,5],\"g\":null},\"h\":[{\"i\":1}]}", Map.class);
+
+        List<Map<String, Object>> patch = JsonPatch.diff(source, target);
+        assertTrue(patch.size() > 0);
+        assertTrue(JsonPatch.diff(target, target).isEmpty());
+
+        // 键中的 / 按 RFC 6901 转义
+        boolean escaped = false;
+        for (Map<String, Object> operation : patch) {
+            escaped |= "/e~1f".equals(operation.get("path"));
+        }
+        assertTrue(escaped);
+
+        Object patched = JsonPatch.apply(mapper.readValue(mapper.writeValueAsString(source), Map.class),
+            mapper.readValue(mapper.writeValueAsString(patch), List.class));
+        assertEquals(mapper.valueToTree(target), mapper.valueToTree(patched));
+    }
+
+    /**
+     * 测试归并出新增、删除、变化和未变化的组件
+     */
+    @Test
+    public void testDeltaBetweenArchiveAndDirectory() throws Exception {
+        // 上一次导出：普通导出目录
+        File previousDir = temporaryFolder.newFolder("previous");
+        List<Map<String, Object>> previous = new ArrayList<>();
+        previous.add(component("title").title("Title").extractedAt(1L).build());
+        previous.add(component("teaser").title("Teaser").extractedAt(1L).build());
+        previous.add(component("legacy").title("Legacy").extractedAt(1L).build());
+        new ComponentExporter(ExportFormat.JSON, false).exportComponentsToJson(previous, previousDir.getPath());
+
+        // 本次导出：归档（extractedAt 变化不算修改）
+        File archive = temporaryFolder.newFile("current.carc");
+        try (ComponentArchiveWriter writer = new ComponentArchiveWriter(archive.getPath(), ExportFormat.SMILE)) {
+            writer.write(component("title").title("Title").extractedAt(2L).build());
+            writer.write(component("teaser").title("Teaser v2").extractedAt(2L).build());
+            writer.write(component("carousel").title("Carousel").extractedAt(2L).build());
+            writer.finish();
+        }
+
+        File output = temporaryFolder.newFolder("delta");
+        Map<String, Object> stats;
+        try (ComponentDeltaExporter.ComponentSource previousSource = ComponentDeltaExporter.openSource(previousDir.getPath());
+             ComponentDeltaExporter.ComponentSource currentSource = ComponentDeltaExporter.openSource(archive.getPath())) {
+            stats = new ComponentDeltaExporter(false).exportDelta(previousSource, currentSource, output.getPath());
+        }
+
+        assertEquals(1, stats.get("added"));
+        assertEquals(1, stats.get("removed"));
+        assertEquals(1, stats.get("changed"));
+        assertEquals(1, stats.get("unchanged"));
+
+        Map<?, ?> delta = mapper.readValue(new File(output, ComponentDeltaExporter.DELTA_FILE), Map.class);
+        assertEquals(Arrays.asList("/apps/test/components/carousel"), delta.get("addedComponents"));
+        assertEquals(Arrays.asList("/apps/test/components/legacy"), delta.get("removedComponents"));
+
+        List<String> patches = Files.readAllLines(
+            new File(output, ComponentDeltaExporter.PATCHES_FILE).toPath(), StandardCharsets.UTF_8);
+        assertEquals(1, patches.size());
+        Map<?, ?> line = mapper.readValue(patches.get(0), Map.class);
+        assertEquals("/apps/test/components/teaser", line.get("componentPath"));
+        // 标题同时出现在 basicProperties 和 properties.basic 中
+        List<?> operations = (List<?>) line.get("patch");
+        assertEquals(2, operations.size());
+        List<Object> paths = new ArrayList<>();
+        for (Object operation : operations) {
+            assertEquals("replace", ((Map<?, ?>) operation).get("op"));
+            assertEquals("Teaser v2", ((Map<?, ?>) operation).get("value"));
+            paths.add(((Map<?, ?>) operation).get("path"));
+        }
+        assertTrue(paths.contains("/basicProperties/jcr:title"));
+        assertTrue(paths.contains("/properties/basic/jcr:title"));
+    }
+}
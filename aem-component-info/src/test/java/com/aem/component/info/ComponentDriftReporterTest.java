@@ -0,0 +1,116 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * ComponentDriftReporter 单元测试
+ */
+public class ComponentDriftReporterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * 测试归并出一致、不一致和单边组件，key 顺序和 extractedAt 不影响结果
+     */
+    @Test
+    public void testDriftBetweenEnvironments() throws Exception {
+        File stage = temporaryFolder.newFile("stage.carc");
+        try (ComponentArchiveWriter writer = new ComponentArchiveWriter(stage.getPath(), ExportFormat.JSON)) {
+            writer.write(component("title", "Title", "textfield", 1L, false));
+            writer.write(component("teaser", "Teaser", "textarea", 1L, false));
+            writer.write(component("experimental", "Experimental", "textfield", 1L, false));
+            writer.finish();
+        }
+        File prod = temporaryFolder.newFile("prod.carc");
+        try (ComponentArchiveWriter writer = new ComponentArchiveWriter(prod.getPath(), ExportFormat.SMILE)) {
+            writer.write(component("title", "Title", "textfield", 2L, true));
+            writer.write(component("teaser", "Teaser", "textfield", 2L, true));
+            writer.write(component("legacy", "Legacy", "textfield", 2L, true));
+            writer.finish();
+        }
+
+        File output = temporaryFolder.newFolder("drift");
+        Map<String, Object> summary;
+        try (ComponentDeltaExporter.ComponentSource stageSource = ComponentDeltaExporter.openSource(stage.getPath());
+             ComponentDeltaExporter.ComponentSource prodSource = ComponentDeltaExporter.openSource(prod.getPath())) {
+            summary = new ComponentDriftReporter("stage", "prod", true).report(stageSource, prodSource, output.getPath());
+        }
+
+        assertEquals(1, summary.get("identical"));
+        assertEquals(1, summary.get("different"));
+        assertEquals(false, summary.get("inSync"));
+        Map<?, ?> saved = mapper.readValue(new File(output, ComponentDriftReporter.SUMMARY_FILE), Map.class);
+        assertEquals(1, ((Map<?, ?>) saved.get("onlyIn")).get("stage"));
+        assertEquals(1, ((Map<?, ?>) saved.get("onlyIn")).get("prod"));
+        assertEquals(1, ((Map<?, ?>) saved.get("driftedSections")).get("dialog"));
+
+        List<String> lines = Files.readAllLines(
+            new File(output, ComponentDriftReporter.DRIFT_FILE).toPath(), StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        Map<?, ?> experimental = mapper.readValue(lines.get(0), Map.class);
+        assertEquals("/apps/test/components/experimental", experimental.get("componentPath"));
+        assertEquals("only-stage", experimental.get("status"));
+        assertEquals("only-prod", mapper.readValue(lines.get(1), Map.class).get("status"));
+
+        Map<?, ?> teaser = mapper.readValue(lines.get(2), Map.class);
+        assertEquals("different", teaser.get("status"));
+        assertEquals(Arrays.asList("dialog"), teaser.get("sections"));
+        // 字段类型同时出现在 content.items 和 fields 中
+        List<?> patch = (List<?>) teaser.get("patch");
+        assertEquals(2, patch.size());
+        Map<?, ?> operation = (Map<?, ?>) patch.get(patch.get(0).toString().contains("/fields/") ? 0 : 1);
+        assertEquals("/dialog/touchDialog/fields/0/properties/sling:resourceType", operation.get("path"));
+        assertEquals("granite/ui/components/coral/foundation/form/textfield", operation.get("value"));
+    }
+
+    private static Map<String, Object> component(String name, String title, String fieldType,
+                                                 long extractedAt, boolean reversed) {
+        Map<String, Object> info = ComponentFixtures.component(name).title(title)
+            .field(ComponentFixtures.field("./text").type(fieldType))
+            .extractedAt(extractedAt)
+            .build();
+        return reversed ? reverseKeys(info) : info;
+    }
+
+    /**
+     * 以相反的键顺序重建各层 Map
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T reverseKeys(T value) {
+        if (value instanceof Map) {
+            List<Map.Entry<?, ?>> entries = new ArrayList<>(((Map<?, ?>) value).entrySet());
+            Collections.reverse(entries);
+            Map<Object, Object> reversed = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : entries) {
+                reversed.put(entry.getKey(), reverseKeys(entry.getValue()));
+            }
+            return (T) reversed;
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                list.add(reverseKeys(element));
+            }
+            return (T) list;
+        }
+        return value;
+    }
+}
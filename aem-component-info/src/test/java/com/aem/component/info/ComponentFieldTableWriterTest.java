@@ -0,0 +1,69 @@
+package com.aem.component.info;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Map;
+
+import static com.aem.component.info.ComponentFixtures.field;
+import static org.junit.Assert.*;
+
+/**
+ * ComponentFieldTableWriter 单元测试
+ */
+public class ComponentFieldTableWriterTest {
+
+    /**
+     * 测试 CSV 每个字段一行，含逗号和引号的值被转义
+     */
+    @Test
+    public void testCsvRows() throws Exception {
+        StringWriter out = new StringWriter();
+        try (ComponentFieldTableWriter writer = new ComponentFieldTableWriter(out, ComponentFieldTableWriter.Format.CSV)) {
+            writer.write(fieldTableComponent("teaser", "Hello, \"world\""));
+            writer.write(fieldTableComponent("empty", null));
+            assertEquals(2, writer.getRowCount());
+            assertEquals(2, writer.getComponentCount());
+        }
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(String.join(",", ComponentFieldTableWriter.COLUMNS), lines[0]);
+        assertEquals("teaser,/apps/test/components/teaser,test/components/teaser,Content,./title,"
+            + "granite/ui/components/coral/foundation/form/textfield,true,\"Hello, \"\"world\"\"\",0,"
+            + "core/wcm/components/teaser/v2/teaser", lines[1]);
+        assertEquals("teaser,/apps/test/components/teaser,test/components/teaser,Content,./layout,"
+            + "granite/ui/components/coral/foundation/form/select,false,,2,core/wcm/components/teaser/v2/teaser", lines[2]);
+    }
+
+    /**
+     * 测试 TSV 中的制表符和换行被替换
+     */
+    @Test
+    public void testTsvSanitizesValues() throws Exception {
+        StringWriter out = new StringWriter();
+        try (ComponentFieldTableWriter writer = new ComponentFieldTableWriter(out, ComponentFieldTableWriter.Format.TSV)) {
+            writer.write(fieldTableComponent("teaser", "line1\nline2\tend"));
+        }
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(ComponentFieldTableWriter.COLUMNS.length, lines[1].split("\t", -1).length);
+        assertTrue(lines[1].contains("line1 line2 end"));
+        assertEquals(ComponentFieldTableWriter.Format.TSV, ComponentFieldTableWriter.Format.fromFileName("fields.TSV"));
+        assertEquals(ComponentFieldTableWriter.Format.CSV, ComponentFieldTableWriter.Format.fromFileName("fields.csv"));
+    }
+
+    /**
+     * defaultValue 为 null 时生成没有对话框的组件
+     */
+    private static Map<String, Object> fieldTableComponent(String name, String defaultValue) {
+        ComponentFixtures.Builder component = ComponentFixtures.component(name)
+            .superType("core/wcm/components/teaser/v2/teaser");
+        if (defaultValue != null) {
+            component.field(field("./title").required(true).defaultValue(defaultValue))
+                .field(field("./layout").type("select").options("left", "right"));
+        }
+        return component.build();
+    }
+}
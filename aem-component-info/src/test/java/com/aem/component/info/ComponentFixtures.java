@@ -0,0 +1,362 @@
+package com.aem.component.info;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 测试用组件信息
+ *
+ * 按 {@link ComponentInfoExtractor#extractComponentInfo(String)} 的输出结构构造组件信息，各测试共用，
+ * 不再各自拼装只含部分键的 Map：
+ * - basicProperties 包含 componentPath、componentName、primaryNodeType、isCqComponent 等全部键
+ * - properties（basic、editConfig、clientLibraries、rawProperties）、designDialog、template、dependencies、usage
+ * - dialog 为触摸对话框（content.items 和 fields），每个字段带有绝对路径 path；没有字段时为 type none
+ * - 顶层的 extractedAt、componentPath、componentName
+ *
+ * 使用示例：
+ * <pre>
+ * Map&lt;String, Object&gt; teaser = ComponentFixtures.component("teaser")
+ *     .title("Teaser")
+ *     .field(ComponentFixtures.field("./title").label("Title").required(true))
+ *     .build();
+ * </pre>
+ */
+public final class ComponentFixtures {
+
+    /**
+     * 只给出组件名时使用的基础路径
+     */
+    public static final String BASE_PATH = "/apps/test/components/";
+
+    private ComponentFixtures() {
+    }
+
+    /**
+     * @param nameOrPath 组件的绝对路径，或组件名（位于 {@link #BASE_PATH} 下）
+     */
+    public static Builder component(String nameOrPath) {
+        return new Builder(nameOrPath.startsWith("/") ? nameOrPath : BASE_PATH + nameOrPath);
+    }
+
+    /**
+     * @param name 字段的 name 属性（如 ./title）
+     */
+    public static Field field(String name) {
+        return new Field(name);
+    }
+
+    /**
+     * 组件信息构建器
+     */
+    public static final class Builder {
+
+        private final String path;
+        private final String name;
+        private String resourceType;
+        private String title;
+        private String description;
+        private String group = "Content";
+        private String superType;
+        private String icon;
+        private String tags;
+        private final List<Field> fields = new ArrayList<>();
+        private List<String> templateFiles = Arrays.asList("component.html");
+        private boolean clientLibraries;
+        private long extractedAt = 1L;
+
+        private Builder(String path) {
+            this.path = path;
+            this.name = path.substring(path.lastIndexOf('/') + 1);
+            // 与 Sling 相同：/apps 或 /libs 下的路径去掉搜索路径前缀即为资源类型
+            this.resourceType = path.replaceFirst("^/(apps|libs)/", "");
+            this.title = name;
+        }
+
+        public Builder resourceType(String resourceType) {
+            this.resourceType = resourceType;
+            return this;
+        }
+
+        public Builder title(String title) {
+            this.title = title;
+            return this;
+        }
+
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        public Builder group(String group) {
+            this.group = group;
+            return this;
+        }
+
+        public Builder superType(String superType) {
+            this.superType = superType;
+            return this;
+        }
+
+        public Builder icon(String icon) {
+            this.icon = icon;
+            return this;
+        }
+
+        public Builder tags(String... tags) {
+            this.tags = String.join(",", tags);
+            return this;
+        }
+
+        public Builder field(Field field) {
+            fields.add(field);
+            return this;
+        }
+
+        /**
+         * 添加若干文本字段（name 为 ./字段名）
+         */
+        public Builder fields(String... fieldNames) {
+            for (String fieldName : fieldNames) {
+                fields.add(new Field("./" + fieldName));
+            }
+            return this;
+        }
+
+        public Builder templateFiles(String... templateFiles) {
+            this.templateFiles = Arrays.asList(templateFiles);
+            return this;
+        }
+
+        public Builder clientLibraries(boolean exists) {
+            this.clientLibraries = exists;
+            return this;
+        }
+
+        public Builder extractedAt(long extractedAt) {
+            this.extractedAt = extractedAt;
+            return this;
+        }
+
+        public Map<String, Object> build() {
+            Map<String, Object> info = new HashMap<>();
+            Map<String, String> basicProperties = basicProperties();
+            info.put("basicProperties", basicProperties);
+            info.put("properties", properties(basicProperties));
+            info.put("dialog", dialog());
+            Map<String, Object> designDialog = new HashMap<>();
+            designDialog.put("exists", false);
+            info.put("designDialog", designDialog);
+            info.put("template", template());
+            info.put("dependencies", dependencies());
+            Map<String, Object> usage = new HashMap<>();
+            usage.put("resourceType", resourceType);
+            usage.put("note", "使用信息提取需要额外的 JCR 查询，此处提供框架");
+            info.put("usage", usage);
+            info.put("extractedAt", extractedAt);
+            info.put("componentPath", path);
+            info.put("componentName", name);
+            return info;
+        }
+
+        private Map<String, String> basicProperties() {
+            Map<String, String> basicProperties = new HashMap<>();
+            basicProperties.put("sling:resourceType", resourceType);
+            basicProperties.put("jcr:title", title);
+            basicProperties.put("jcr:description", description);
+            basicProperties.put("componentGroup", group);
+            basicProperties.put("sling:resourceSuperType", superType);
+            basicProperties.put("cq:icon", icon);
+            if (tags != null) {
+                basicProperties.put("cq:tags", tags);
+            }
+            basicProperties.put("componentPath", path);
+            basicProperties.put("componentName", name);
+            basicProperties.put("primaryNodeType", "cq:Component");
+            basicProperties.put("isCqComponent", "true");
+            return basicProperties;
+        }
+
+        private Map<String, Object> properties(Map<String, String> basicProperties) {
+            // rawProperties 与 JCRUtil.getAllProperties 一致：跳过 jcr: 开头的属性，只包含存在的属性
+            Map<String, String> rawProperties = new HashMap<>();
+            for (String key : new String[]{"sling:resourceType", "componentGroup", "sling:resourceSuperType", "cq:icon"}) {
+                if (basicProperties.get(key) != null) {
+                    rawProperties.put(key, basicProperties.get(key));
+                }
+            }
+            Map<String, Object> editConfig = new HashMap<>();
+            editConfig.put("exists", false);
+
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("basic", new HashMap<>(basicProperties));
+            properties.put("editConfig", editConfig);
+            properties.put("clientLibraries", clientLibraries());
+            properties.put("rawProperties", rawProperties);
+            return properties;
+        }
+
+        private Map<String, Object> dialog() {
+            Map<String, Object> dialog = new HashMap<>();
+            if (fields.isEmpty()) {
+                dialog.put("type", "none");
+                dialog.put("message", "组件没有对话框配置");
+                return dialog;
+            }
+
+            // 字段直接位于 _cq_dialog/content/items 下
+            String itemsPath = path + "/_cq_dialog/content/items/";
+            List<Map<String, Object>> items = new ArrayList<>();
+            List<Map<String, Object>> fieldInfos = new ArrayList<>();
+            for (Field field : fields) {
+                items.add(field.toItem());
+                fieldInfos.add(field.toFieldInfo(itemsPath));
+            }
+            Map<String, Object> content = new HashMap<>();
+            content.put("items", items);
+            Map<String, String> dialogProperties = new HashMap<>();
+            dialogProperties.put("sling:resourceType", "cq/gui/components/authoring/dialog");
+
+            Map<String, Object> touchDialog = new HashMap<>();
+            touchDialog.put("properties", dialogProperties);
+            touchDialog.put("content", content);
+            touchDialog.put("fields", fieldInfos);
+            dialog.put("type", "touch");
+            dialog.put("touchDialog", touchDialog);
+            return dialog;
+        }
+
+        private Map<String, Object> template() {
+            Map<String, Object> template = new HashMap<>();
+            for (String templateFile : templateFiles) {
+                template.put(templateFile + "_properties", new HashMap<String, String>());
+            }
+            template.put("templateFiles", new ArrayList<>(templateFiles));
+            return template;
+        }
+
+        private Map<String, Object> dependencies() {
+            Map<String, Object> dependencies = new HashMap<>();
+            if (superType != null) {
+                dependencies.put("resourceSuperType", superType);
+                dependencies.put("resourceSuperTypePath", "/libs/" + superType);
+                dependencies.put("resourceSuperTypeExists", true);
+            }
+            dependencies.put("clientLibraries", clientLibraries());
+            return dependencies;
+        }
+
+        private Map<String, Object> clientLibraries() {
+            Map<String, Object> clientLibs = new HashMap<>();
+            clientLibs.put("exists", clientLibraries);
+            if (clientLibraries) {
+                Map<String, String> properties = new HashMap<>();
+                properties.put("categories", resourceType.replace('/', '.'));
+                clientLibs.put("properties", properties);
+            }
+            return clientLibs;
+        }
+    }
+
+    /**
+     * 对话框字段构建器（默认为非必填的 textfield）
+     */
+    public static final class Field {
+
+        private final String name;
+        private String type = "textfield";
+        private String label;
+        private String defaultValue;
+        private boolean required;
+        private String[] options;
+
+        private Field(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param type Granite UI 字段类型（如 textfield、select、checkbox）
+         */
+        public Field type(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Field label(String label) {
+            this.label = label;
+            return this;
+        }
+
+        public Field defaultValue(String defaultValue) {
+            this.defaultValue = defaultValue;
+            return this;
+        }
+
+        public Field required(boolean required) {
+            this.required = required;
+            return this;
+        }
+
+        /**
+         * 选项值（text 与 value 相同）
+         */
+        public Field options(String... options) {
+            this.options = options;
+            return this;
+        }
+
+        private String nodeName() {
+            return name.replaceFirst("^\\./", "").replace(':', '_').replace('/', '_');
+        }
+
+        private Map<String, String> properties() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("name", name);
+            properties.put("sling:resourceType", "granite/ui/components/coral/foundation/form/" + type);
+            if (label != null) {
+                properties.put("fieldLabel", label);
+            }
+            if (defaultValue != null) {
+                properties.put("value", defaultValue);
+            }
+            if (required) {
+                properties.put("required", "true");
+            }
+            return properties;
+        }
+
+        private Map<String, Object> toItem() {
+            Map<String, Object> item = new HashMap<>();
+            item.put("name", nodeName());
+            item.put("nodeType", "nt:unstructured");
+            item.put("properties", properties());
+            return item;
+        }
+
+        private Map<String, Object> toFieldInfo(String itemsPath) {
+            Map<String, Object> fieldInfo = new HashMap<>();
+            fieldInfo.put("nodeName", nodeName());
+            fieldInfo.put("nodeType", "nt:unstructured");
+            fieldInfo.put("path", itemsPath + nodeName());
+            fieldInfo.put("properties", properties());
+            fieldInfo.put("name", name);
+            fieldInfo.put("fieldLabel", label);
+            fieldInfo.put("defaultValue", defaultValue);
+            fieldInfo.put("required", required);
+            if (options != null) {
+                List<Map<String, String>> optionList = new ArrayList<>();
+                for (String value : options) {
+                    Map<String, String> option = new HashMap<>();
+                    option.put("text", value);
+                    option.put("value", value);
+                    option.put("jcr:title", null);
+                    optionList.add(option);
+                }
+                fieldInfo.put("options", optionList);
+            }
+            return fieldInfo;
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package com.aem.component.info;
 
 import org.junit.Test;
+
+import javax.jcr.Node;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.lang.reflect.Proxy;
+
 import static org.junit.Assert.*;
 
 /**
@@ -120,5 +127,47 @@ public class ComponentInfoExtractorTest {
         
         assertTrue("这是一个示例测试框架", true);
     }
-}
 
+    /**
+     * 测试流式批量提取把仓库错误抛给调用方，而不是返回不完整的计数
+     */
+    @Test
+    public void testStreamingExtractionPropagatesRepositoryErrors() throws Exception {
+        Node base = (Node) Proxy.newProxyInstance(Node.class.getClassLoader(), new Class<?>[]{Node.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "isNodeType":
+                        return false;
+                    case "getNodes":
+                        throw new RepositoryException("遍历中断");
+                    default:
+                        return null;
+                }
+            });
+        Session session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "nodeExists":
+                        return "/apps/test".equals(args[0]);
+                    case "getNode":
+                        return base;
+                    default:
+                        return null;
+                }
+            });
+        ComponentInfoExtractor extractor = new ComponentInfoExtractor(session);
+
+        try {
+            extractor.extractComponentsFromPath("/apps/missing", componentInfo -> true);
+            fail("基础路径不存在时应抛出异常");
+        } catch (PathNotFoundException expected) {
+            assertTrue(expected.getMessage().contains("/apps/missing"));
+        }
+        try {
+            extractor.extractComponentsFromPath("/apps/test", componentInfo -> true);
+            fail("遍历出错时应抛出异常");
+        } catch (RepositoryException expected) {
+            assertEquals("遍历中断", expected.getMessage());
+        }
+    }
+}
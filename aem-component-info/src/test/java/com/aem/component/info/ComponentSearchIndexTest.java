@@ -0,0 +1,92 @@
+package com.aem.component.info;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.aem.component.info.ComponentFixtures.component;
+import static com.aem.component.info.ComponentFixtures.field;
+import static org.junit.Assert.*;
+
+/**
+ * ComponentSearchIndex 单元测试
+ *
+ * 索引只依赖组件信息 Map，不需要 JCR 环境即可测试。
+ */
+public class ComponentSearchIndexTest {
+
+    private ComponentSearchIndex index;
+
+    @Before
+    public void setUp() {
+        List<Map<String, Object>> components = new ArrayList<>();
+        components.add(component("teaser").title("Teaser").description("Link to a page")
+            .field(field("./linkURL").label("Link URL")).build());
+        components.add(component("carousel").title("Carousel").description("Rotating slides")
+            .field(field("./autoplay").type("checkbox").label("Autoplay")).build());
+        components.add(component("title").title("Title").group("Basic").description("Heading text")
+            .field(field("./type").type("select").label("Heading Level")).build());
+        index = ComponentSearchIndex.build(components);
+    }
+
+    /**
+     * 测试精确搜索
+     */
+    @Test
+    public void testExactSearch() {
+        List<Map<String, Object>> hits = index.search("teaser", 10);
+        assertFalse(hits.isEmpty());
+        assertEquals("/apps/test/components/teaser", hits.get(0).get("componentPath"));
+    }
+
+    /**
+     * 测试拼写错误容忍
+     */
+    @Test
+    public void testTypoTolerantSearch() {
+        List<Map<String, Object>> hits = index.search("carousle", 10);
+        assertFalse(hits.isEmpty());
+        assertEquals("/apps/test/components/carousel", hits.get(0).get("componentPath"));
+    }
+
+    /**
+     * 测试对话框字段标签参与搜索
+     */
+    @Test
+    public void testSearchByFieldLabel() {
+        List<Map<String, Object>> hits = index.search("autoplay", 10);
+        assertFalse(hits.isEmpty());
+        assertEquals("/apps/test/components/carousel", hits.get(0).get("componentPath"));
+    }
+
+    /**
+     * 测试增量更新和删除
+     */
+    @Test
+    public void testIncrementalUpdate() {
+        assertTrue(index.removeComponent("/apps/test/components/teaser"));
+        assertTrue(index.search("teaser", 10).isEmpty());
+        assertEquals(2, index.size());
+
+        index.addComponent(component("teaser").title("Promo Teaser").build());
+        assertEquals(3, index.size());
+        assertEquals("/apps/test/components/teaser", index.search("promo", 10).get(0).get("componentPath"));
+
+        // 重复添加相同路径视为更新
+        index.addComponent(component("teaser").title("Teaser").build());
+        assertEquals(3, index.size());
+        assertTrue(index.search("promo", 10).isEmpty());
+    }
+
+    /**
+     * 测试无关关键词没有结果
+     */
+    @Test
+    public void testNoMatch() {
+        assertTrue(index.search("xyzzy", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+    }
+}
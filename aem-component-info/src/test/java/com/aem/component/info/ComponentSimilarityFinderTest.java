@@ -0,0 +1,104 @@
+package com.aem.component.info;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * ComponentSimilarityFinder 单元测试
+ */
+public class ComponentSimilarityFinderTest {
+
+    /**
+     * 测试只有字段几乎相同的组件被找出，并对其运行详细对比
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFindsNearDuplicates() throws Exception {
+        final Map<String, Map<String, Object>> components = new HashMap<>();
+        String[] shared = {"title", "text", "link", "linkTarget", "image", "alt", "layout", "theme"};
+
+        components.put("/apps/a/components/teaser", component("/apps/a/components/teaser", shared, "extra1"));
+        components.put("/apps/b/components/teaser", component("/apps/b/components/teaser", shared, "extra2"));
+        components.put("/apps/a/components/promo", component("/apps/a/components/promo", shared, null));
+        // 100 个字段各不相同的组件
+        for (int i = 0; i < 100; i++) {
+            String[] fields = new String[6];
+            for (int f = 0; f < fields.length; f++) {
+                fields[f] = "field" + i + "_" + f;
+            }
+            components.put("/apps/other/components/c" + i, component("/apps/other/components/c" + i, fields, null));
+        }
+        // 没有对话框的组件
+        for (int i = 0; i < 5; i++) {
+            components.put("/apps/other/components/plain" + i,
+                ComponentFixtures.component("/apps/other/components/plain" + i).build());
+        }
+
+        ComponentSimilarityFinder finder = new ComponentSimilarityFinder();
+        for (Map<String, Object> info : components.values()) {
+            finder.handle(info);
+        }
+        assertEquals(103, finder.size());
+        assertEquals(5, finder.getSkipped());
+
+        List<Map<String, Object>> pairs = finder.findDuplicates(0.7, new ComponentComparator(), components::get);
+        assertEquals(3, pairs.size());
+        for (Map<String, Object> pair : pairs) {
+            assertTrue((String) pair.get("component1"), ((String) pair.get("component1")).matches(".*/(teaser|promo)"));
+            assertTrue((Double) pair.get("similarity") >= 0.7);
+            Map<String, Object> comparison = (Map<String, Object>) pair.get("comparison");
+            assertNotNull(comparison.get("summary"));
+        }
+
+        List<List<String>> groups = ComponentSimilarityFinder.groupPairs(pairs);
+        assertEquals(1, groups.size());
+        assertEquals(Arrays.asList("/apps/a/components/promo", "/apps/a/components/teaser",
+            "/apps/b/components/teaser"), groups.get(0));
+    }
+
+    /**
+     * 测试提取器输出中的标识属性和常量属性不参与相似度计算
+     */
+    @Test
+    public void testFeatureHashesIgnoreIdentityAndConstantProperties() {
+        // 路径、名称、标题、资源类型都不同，字段相同
+        int[] teaser = ComponentSimilarityFinder.featureHashes(
+            ComponentFixtures.component("/apps/site/components/teaser").title("Teaser").fields("title").build());
+        int[] hero = ComponentSimilarityFinder.featureHashes(
+            ComponentFixtures.component("/libs/other/components/hero").title("Hero").fields("title").build());
+        assertEquals(1.0, ComponentSimilarityFinder.jaccard(teaser, hero), 0.0);
+
+        // 节点类型、isCqComponent、组件分组和模板文件名都相同，字段完全不同
+        int[] form = ComponentSimilarityFinder.featureHashes(
+            ComponentFixtures.component("/apps/site/components/form").fields("email").build());
+        assertEquals(0.0, ComponentSimilarityFinder.jaccard(teaser, form), 0.0);
+
+        // 父类型有区分度
+        int[] child = ComponentSimilarityFinder.featureHashes(ComponentFixtures.component("/apps/site/components/child")
+            .superType("site/components/teaser").fields("title").build());
+        assertEquals(2.0 / 3, ComponentSimilarityFinder.jaccard(teaser, child), 1e-9);
+
+        // 没有对话框字段时没有特征
+        assertEquals(0, ComponentSimilarityFinder.featureHashes(
+            ComponentFixtures.component("/apps/site/components/plain").superType("site/components/teaser").build()).length);
+
+        assertEquals(0.0, ComponentSimilarityFinder.jaccard(new int[0], new int[0]), 0.0);
+        assertEquals(0.5, ComponentSimilarityFinder.jaccard(new int[]{1, 2, 3}, new int[]{2, 3, 4}), 0.0);
+    }
+
+    private static Map<String, Object> component(String path, String[] fieldNames, String extraField) {
+        ComponentFixtures.Builder component = ComponentFixtures.component(path)
+            .superType("core/wcm/components/teaser/v2/teaser")
+            .fields(fieldNames);
+        if (extraField != null) {
+            component.fields(extraField);
+        }
+        return component.build();
+    }
+}
@@ -0,0 +1,245 @@
+package com.aem.component.info;
+
+import org.junit.Test;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.Session;
+import javax.jcr.nodetype.NodeType;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * ComponentStatisticsEngine 单元测试（内存中的节点树）
+ */
+public class ComponentStatisticsEngineTest {
+
+    private static final String TEXTFIELD = "granite/ui/components/coral/foundation/form/textfield";
+
+    private final Map<String, FakeNode> nodes = new HashMap<>();
+
+    /**
+     * 测试分组、对话框计数和字段分布
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGroupAndDialogCounts() {
+        component("/apps/site/components/title", "Content", null, 2, false);
+        component("/apps/site/components/teaser", "Content", null, 7, true);
+        component("/apps/site/components/header", "Structure", null, 0, false);
+        component("/apps/site/components/spacer", null, null, -1, false);
+
+        Map<String, Object> stats = ComponentStatisticsEngine.compute(session(), "/apps/site");
+
+        assertEquals(4, stats.get("totalComponents"));
+        Map<String, Integer> groups = (Map<String, Integer>) stats.get("componentsByGroup");
+        assertEquals(Integer.valueOf(2), groups.get("Content"));
+        assertEquals(Integer.valueOf(1), groups.get("Structure"));
+        assertEquals(Integer.valueOf(1), groups.get("未分组"));
+
+        assertEquals(3, stats.get("componentsWithDialog"));
+        assertEquals(1, stats.get("componentsWithDesignDialog"));
+        assertEquals(9L, stats.get("totalDialogFields"));
+        assertEquals(7, stats.get("maxDialogFields"));
+        Map<String, Integer> distribution = (Map<String, Integer>) stats.get("dialogFieldDistribution");
+        assertEquals(Integer.valueOf(2), distribution.get("0"));
+        assertEquals(Integer.valueOf(1), distribution.get("1-5"));
+        assertEquals(Integer.valueOf(1), distribution.get("6-10"));
+    }
+
+    /**
+     * 测试继承深度按组件统计：/apps 覆盖 /libs 的同名组件各算一个，分布总数等于组件总数
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSuperTypeDepthPerComponent() {
+        component("/libs/core/components/title", "Core", null, 0, false);
+        component("/libs/core/components/teaser", "Core", "core/components/title", 0, false);
+        // 覆盖 /libs 的 teaser，并改为继承 site/components/base
+        component("/apps/core/components/teaser", "Core", "site/components/base", 0, false);
+        component("/apps/site/components/base", "Site", "core/components/title", 0, false);
+        component("/apps/site/components/hero", "Site", "core/components/teaser", 0, false);
+        // 父组件不在统计范围内：记为一层
+        component("/apps/site/components/button", "Site", "wcm/foundation/components/button", 0, false);
+
+        Map<String, Object> stats = ComponentStatisticsEngine.compute(session(), "/");
+
+        assertEquals(6, stats.get("totalComponents"));
+        Map<Integer, Integer> depths = (Map<Integer, Integer>) stats.get("superTypeDepthDistribution");
+        int total = 0;
+        for (int count : depths.values()) {
+            total += count;
+        }
+        assertEquals(6, total);
+        // title 0；libs teaser、base、button 1；apps teaser 2；hero 经由 apps teaser 为 3
+        assertEquals(Integer.valueOf(1), depths.get(0));
+        assertEquals(Integer.valueOf(3), depths.get(1));
+        assertEquals(Integer.valueOf(1), depths.get(2));
+        assertEquals(Integer.valueOf(1), depths.get(3));
+        assertEquals(3, stats.get("maxSuperTypeDepth"));
+    }
+
+    /**
+     * 测试分区并行统计与单次遍历结果一致（继承链跨分区）
+     */
+    @Test
+    public void testParallelMatchesSingleTraversal() throws Exception {
+        component("/libs/core/components/title", "Core", null, 3, false);
+        component("/apps/core/components/title", "Core", "core/components/text", 1, false);
+        component("/apps/site/components/hero", "Site", "core/components/title", 12, true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Map<String, Object> parallel = ComponentStatisticsEngine.computeParallel(this::session,
+                Arrays.asList("/apps", "/libs"), executor);
+            assertEquals(ComponentStatisticsEngine.compute(session(), "/"), parallel);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 创建组件节点
+     *
+     * @param fieldCount 对话框字段数，-1 表示没有对话框
+     */
+    private void component(String path, String group, String superType, int fieldCount, boolean designDialog) {
+        FakeNode component = node(path, "cq:Component");
+        if (group != null) {
+            component.properties.put("componentGroup", group);
+        }
+        if (superType != null) {
+            component.properties.put("sling:resourceSuperType", superType);
+        }
+        if (fieldCount >= 0) {
+            node(path + "/_cq_dialog", "nt:unstructured");
+            node(path + "/_cq_dialog/content", "nt:unstructured");
+            FakeNode items = node(path + "/_cq_dialog/content/items", "nt:unstructured");
+            for (int i = 0; i < fieldCount; i++) {
+                node(items.path + "/field" + i, "nt:unstructured").properties.put("sling:resourceType", TEXTFIELD);
+            }
+        }
+        if (designDialog) {
+            node(path + "/_cq_design_dialog", "nt:unstructured");
+        }
+    }
+
+    /**
+     * 创建节点（缺少的上级节点按 nt:folder 补齐）
+     */
+    private FakeNode node(String path, String primaryType) {
+        FakeNode node = nodes.get(path);
+        if (node == null) {
+            node = new FakeNode(path, primaryType);
+            nodes.put(path, node);
+            if (!"/".equals(path)) {
+                int slash = path.lastIndexOf('/');
+                String parentPath = slash == 0 ? "/" : path.substring(0, slash);
+                FakeNode parent = nodes.containsKey(parentPath) ? nodes.get(parentPath) : node(parentPath, "nt:folder");
+                parent.children.put(node.name, node);
+            }
+        }
+        return node;
+    }
+
+    private Session session() {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "nodeExists":
+                        return nodes.containsKey(args[0]);
+                    case "getNode":
+                        return nodes.get(args[0]).proxy();
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    /**
+     * 内存中的节点（通过动态代理实现 Node 中用到的方法）
+     */
+    private static class FakeNode {
+        final String path;
+        final String name;
+        final String primaryType;
+        final Map<String, String> properties = new HashMap<>();
+        final Map<String, FakeNode> children = new LinkedHashMap<>();
+
+        FakeNode(String path, String primaryType) {
+            this.path = path;
+            this.name = path.substring(path.lastIndexOf('/') + 1);
+            this.primaryType = primaryType;
+        }
+
+        Node proxy() {
+            return (Node) Proxy.newProxyInstance(Node.class.getClassLoader(), new Class<?>[]{Node.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getPath":
+                            return path;
+                        case "getName":
+                            return name;
+                        case "isNodeType":
+                            return primaryType.equals(args[0]);
+                        case "getPrimaryNodeType":
+                            return nodeType(primaryType);
+                        case "hasNode":
+                            return children.containsKey(args[0]);
+                        case "getNode":
+                            return children.get(args[0]).proxy();
+                        case "getNodes":
+                            return iterator(children.values());
+                        case "hasProperty":
+                            return properties.containsKey(args[0]);
+                        case "getProperty":
+                            return property(properties.get(args[0]));
+                        default:
+                            return null;
+                    }
+                });
+        }
+
+        private static NodeType nodeType(String name) {
+            return (NodeType) Proxy.newProxyInstance(NodeType.class.getClassLoader(), new Class<?>[]{NodeType.class},
+                (proxy, method, args) -> "getName".equals(method.getName()) ? name : null);
+        }
+
+        private static Property property(String value) {
+            return (Property) Proxy.newProxyInstance(Property.class.getClassLoader(), new Class<?>[]{Property.class},
+                (proxy, method, args) -> "getString".equals(method.getName()) ? value : null);
+        }
+
+        private static NodeIterator iterator(Iterable<FakeNode> nodes) {
+            List<Node> proxies = new ArrayList<>();
+            for (FakeNode node : nodes) {
+                proxies.add(node.proxy());
+            }
+            Iterator<Node> iterator = proxies.iterator();
+            return (NodeIterator) Proxy.newProxyInstance(NodeIterator.class.getClassLoader(),
+                new Class<?>[]{NodeIterator.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hasNext":
+                            return iterator.hasNext();
+                        case "nextNode":
+                        case "next":
+                            return iterator.next();
+                        default:
+                            return null;
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.aem.component.info.ComponentFixtures.component;
+import static org.junit.Assert.*;
+
+/**
+ * ComponentStreamWriter 单元测试
+ */
+public class ComponentStreamWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * 测试 NDJSON 输出：每行一个组件
+     */
+    @Test
+    public void testNdjsonOutput() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ComponentStreamWriter writer = new ComponentStreamWriter(out, ComponentStreamWriter.Format.NDJSON, false)) {
+            writer.write(component("teaser").build());
+            writer.write(component("title").build());
+            assertEquals(2, writer.getCount());
+        }
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("teaser", mapper.readTree(lines[0]).get("componentName").asText());
+        assertEquals("title", mapper.readTree(lines[1]).get("componentName").asText());
+    }
+
+    /**
+     * 测试 NDJSON 的精确字节：行首没有分隔符，每行以换行结尾
+     */
+    @Test
+    public void testNdjsonExactBytes() throws Exception {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("componentPath", "/apps/test/components/teaser");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("componentPath", "/apps/test/components/title");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ComponentStreamWriter writer = new ComponentStreamWriter(out, ComponentStreamWriter.Format.NDJSON, false)) {
+            writer.write(first);
+            writer.write(second);
+            writer.write(first);
+        }
+
+        assertEquals("{\"componentPath\":\"/apps/test/components/teaser\"}\n"
+                + "{\"componentPath\":\"/apps/test/components/title\"}\n"
+                + "{\"componentPath\":\"/apps/test/components/teaser\"}\n",
+            new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 测试 JSON 数组输出（包括格式化）
+     */
+    @Test
+    public void testJsonArrayOutput() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ComponentStreamWriter writer = new ComponentStreamWriter(out, ComponentStreamWriter.Format.JSON_ARRAY, true)) {
+            writer.write(component("teaser").build());
+            writer.write(component("title").build());
+        }
+
+        JsonNode array = mapper.readTree(out.toByteArray());
+        assertTrue(array.isArray());
+        assertEquals(2, array.size());
+        assertEquals("title", array.get(1).get("componentName").asText());
+    }
+
+    /**
+     * 测试空输出仍然是合法 JSON 数组
+     */
+    @Test
+    public void testEmptyArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ComponentStreamWriter(out, ComponentStreamWriter.Format.JSON_ARRAY, false).close();
+        assertEquals("[]", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,119 @@
+package com.aem.component.info;
+
+import org.junit.Test;
+
+import javax.jcr.Session;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * ComponentTypeResolver 单元测试
+ */
+public class ComponentTypeResolverTest {
+
+    private final Set<String> nodes = new HashSet<>();
+    private final AtomicInteger probes = new AtomicInteger();
+
+    /**
+     * 只有 nodeExists 的会话，记录探测次数
+     */
+    private Session session() {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+            (proxy, method, args) -> {
+                if ("nodeExists".equals(method.getName())) {
+                    probes.incrementAndGet();
+                    return nodes.contains(args[0]);
+                }
+                return null;
+            });
+    }
+
+    /**
+     * 测试按搜索路径顺序解析，命中缓存时不访问仓库
+     */
+    @Test
+    public void testResolveAndCache() {
+        nodes.add("/libs/core/components/teaser");
+        ComponentTypeResolver resolver = new ComponentTypeResolver();
+        Session session = session();
+
+        assertEquals("/libs/core/components/teaser", resolver.resolvePath(session, "core/components/teaser"));
+        assertEquals(2, probes.get());
+        assertEquals("/libs/core/components/teaser", resolver.resolvePath(session, "core/components/teaser"));
+        assertEquals(2, probes.get());
+        assertEquals(1L, resolver.getStats().get("hits"));
+    }
+
+    /**
+     * 测试不存在的类型被负向缓存，节点创建后失效
+     */
+    @Test
+    public void testNegativeCaching() {
+        ComponentTypeResolver resolver = new ComponentTypeResolver();
+        Session session = session();
+
+        assertNull(resolver.resolvePath(session, "site/components/missing"));
+        assertNull(resolver.resolvePath(session, "site/components/missing"));
+        assertEquals(2, probes.get());
+
+        nodes.add("/apps/site/components/missing");
+        resolver.invalidatePath("/apps/site/components/missing");
+        assertEquals("/apps/site/components/missing", resolver.resolvePath(session, "site/components/missing"));
+    }
+
+    /**
+     * 测试缓存容量有界，淘汰最久未使用的条目
+     */
+    @Test
+    public void testLruBound() {
+        nodes.add("/apps/a");
+        nodes.add("/apps/b");
+        nodes.add("/apps/c");
+        ComponentTypeResolver resolver = new ComponentTypeResolver(ComponentTypeResolver.DEFAULT_SEARCH_PATHS, 2);
+        Session session = session();
+
+        resolver.resolvePath(session, "a");
+        resolver.resolvePath(session, "b");
+        // 访问 a 后 b 成为最久未使用的条目
+        resolver.resolvePath(session, "a");
+        resolver.resolvePath(session, "c");
+        assertEquals(2, resolver.getStats().get("size"));
+
+        int before = probes.get();
+        resolver.resolvePath(session, "a");
+        assertEquals(before, probes.get());
+        resolver.resolvePath(session, "b");
+        assertTrue(probes.get() > before);
+    }
+
+    /**
+     * 测试在 /apps 下新建覆盖组件时，已缓存的 /libs 结果失效
+     */
+    @Test
+    public void testOverlayInvalidatesLibsResult() {
+        nodes.add("/libs/core/components/teaser");
+        nodes.add("/libs/core/components/title");
+        ComponentTypeResolver resolver = new ComponentTypeResolver();
+        Session session = session();
+        assertEquals("/libs/core/components/teaser", resolver.resolvePath(session, "core/components/teaser"));
+        assertEquals("/libs/core/components/title", resolver.resolvePath(session, "core/components/title"));
+
+        nodes.add("/apps/core/components/teaser");
+        resolver.invalidatePath("/apps/core/components/teaser");
+        assertEquals("/apps/core/components/teaser", resolver.resolvePath(session, "core/components/teaser"));
+
+        // 无关类型仍然命中缓存
+        int before = probes.get();
+        assertEquals("/libs/core/components/title", resolver.resolvePath(session, "core/components/title"));
+        assertEquals(before, probes.get());
+
+        // 部署整个 /apps/core 时其下所有类型都失效
+        nodes.add("/apps/core/components/title");
+        resolver.invalidatePath("/apps/core");
+        assertEquals("/apps/core/components/title", resolver.resolvePath(session, "core/components/title"));
+    }
+}
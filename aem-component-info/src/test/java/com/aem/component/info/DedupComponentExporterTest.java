@@ -0,0 +1,127 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.aem.component.info.ComponentFixtures.component;
+import static org.junit.Assert.*;
+
+/**
+ * DedupComponentExporter / DedupExportReader 单元测试
+ */
+public class DedupComponentExporterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * 测试相同对话框只写一次（字段的绝对路径不同也能去重），读取时还原为原始内容
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSharedDialogWrittenOnce() throws Exception {
+        File directory = temporaryFolder.newFolder("dedup");
+        Map<String, Object> teaser = component("teaser").fields("title").build();
+        Map<String, Object> hero = component("hero").fields("title").build();
+        Map<String, Object> form = component("form").fields("email").build();
+
+        DedupComponentExporter exporter = new DedupComponentExporter(directory.getPath(), false);
+        exporter.write(teaser);
+        exporter.write(hero);
+        exporter.write(form);
+        exporter.close();
+
+        Map<String, Object> stats = exporter.getStats();
+        assertEquals(3, stats.get("components"));
+        // 每个组件 dialog + designDialog + dependencies.clientLibraries + properties.clientLibraries
+        assertEquals(12L, stats.get("sectionReferences"));
+        // 两种 dialog；designDialog 和 clientLibraries 内容相同（{"exists": false}），共用一个段落
+        assertEquals(3, stats.get("uniqueSections"));
+        assertTrue((Long) stats.get("bytesSaved") > 0);
+
+        // 调用方的数据没有被修改
+        assertTrue(((Map<?, ?>) teaser.get("dialog")).containsKey("touchDialog"));
+
+        DedupExportReader reader = new DedupExportReader(directory.getPath());
+        Map<?, ?> shallow = reader.readComponentShallow(ComponentFixtures.BASE_PATH + "hero");
+        Map<?, ?> reference = (Map<?, ?>) shallow.get("dialog");
+        assertTrue(reference.containsKey(DedupComponentExporter.REFERENCE_KEY));
+        // 字段路径按组件单独保存
+        assertTrue(reference.get(DedupComponentExporter.LOCAL_KEY).toString().contains("/apps/test/components/hero/"));
+
+        // 导出时不写 null 值，比较时同样去掉
+        ObjectMapper mapper = new ObjectMapper().configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+        assertEquals(mapper.readTree(mapper.writeValueAsString(hero)),
+            mapper.readTree(mapper.writeValueAsString(reader.readComponent(ComponentFixtures.BASE_PATH + "hero"))));
+        assertEquals(mapper.readTree(mapper.writeValueAsString(form)),
+            mapper.readTree(mapper.writeValueAsString(reader.readComponent(ComponentFixtures.BASE_PATH + "form"))));
+        assertNull(reader.readComponent(ComponentFixtures.BASE_PATH + "missing"));
+
+        // 共享同一段落的组件得到各自的副本
+        Map<String, Object> teaserDialog = (Map<String, Object>) reader.readComponent(ComponentFixtures.BASE_PATH + "teaser").get("dialog");
+        teaserDialog.put("type", "modified");
+        assertEquals("touch", ((Map<?, ?>) reader.readComponent(ComponentFixtures.BASE_PATH + "hero").get("dialog")).get("type"));
+        assertEquals(3, reader.readIndex().get("totalComponents"));
+    }
+
+    /**
+     * 测试键顺序不同的相同内容得到相同哈希
+     */
+    @Test
+    public void testKeyOrderDoesNotAffectHash() throws Exception {
+        File directory = temporaryFolder.newFolder("order");
+        Map<String, Object> first = component("first").fields("title").build();
+        Map<String, Object> second = component("second").fields("title").build();
+
+        // 用插入顺序相反的 LinkedHashMap 替换 designDialog
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("type", "touch");
+        reversed.put("exists", true);
+        second.put("designDialog", reversed);
+        Map<String, Object> ordered = new LinkedHashMap<>();
+        ordered.put("exists", true);
+        ordered.put("type", "touch");
+        first.put("designDialog", ordered);
+
+        try (DedupComponentExporter exporter = new DedupComponentExporter(directory.getPath(), false)) {
+            exporter.write(first);
+            exporter.write(second);
+            assertEquals(3, exporter.getStats().get("uniqueSections"));
+        }
+    }
+
+    /**
+     * 测试 /apps 覆盖 /libs 的同名组件写入各自的文件，按路径读取时互不覆盖
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOverlayDoesNotOverwriteOriginal() throws Exception {
+        File directory = temporaryFolder.newFolder("overlay");
+        Map<String, Object> original = component("/libs/core/components/teaser").fields("title").build();
+        Map<String, Object> overlay = component("/apps/core/components/teaser").fields("title", "subtitle").build();
+
+        try (DedupComponentExporter exporter = new DedupComponentExporter(directory.getPath(), false)) {
+            exporter.write(original);
+            exporter.write(overlay);
+        }
+
+        DedupExportReader reader = new DedupExportReader(directory.getPath());
+        List<Map<String, String>> components = (List<Map<String, String>>) reader.readIndex().get("components");
+        assertEquals(2, components.size());
+        assertNotEquals(components.get(0).get("file"), components.get(1).get("file"));
+
+        ObjectMapper mapper = new ObjectMapper().configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
+        assertEquals(mapper.readTree(mapper.writeValueAsString(original)),
+            mapper.readTree(mapper.writeValueAsString(reader.readComponent("/libs/core/components/teaser"))));
+        assertEquals(mapper.readTree(mapper.writeValueAsString(overlay)),
+            mapper.readTree(mapper.writeValueAsString(reader.readComponent("/apps/core/components/teaser"))));
+    }
+}
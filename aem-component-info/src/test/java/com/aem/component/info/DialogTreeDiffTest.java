@@ -0,0 +1,159 @@
+package com.aem.component.info;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * DialogTreeDiff 单元测试
+ */
+public class DialogTreeDiffTest {
+
+    private static final String TABS = "granite/ui/components/coral/foundation/tabs";
+    private static final String CONTAINER = "granite/ui/components/coral/foundation/container";
+    private static final String TEXTFIELD = "granite/ui/components/coral/foundation/form/textfield";
+
+    /**
+     * 测试识别重命名、嵌套变化、重排和新增
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStructuralOperations() {
+        Map<String, Object> dialog1 = dialog(Arrays.asList(
+            item("tabs", TABS, Arrays.asList(
+                item("basic", CONTAINER, Arrays.asList(field("title"), field("text"))),
+                item("advanced", CONTAINER, Arrays.asList(field("id"), field("cssClass"))))),
+            field("hidden")));
+        Map<String, Object> dialog2 = dialog(Arrays.asList(
+            item("tabs", TABS, Arrays.asList(
+                // text 改名为 description，id 从 advanced 移到 basic
+                item("basic", CONTAINER, Arrays.asList(field("title"), field("description"), field("id"))),
+                item("advanced", CONTAINER, Arrays.asList(field("cssClass"), field("theme"))))),
+            field("hidden")));
+
+        Map<String, Object> diff = DialogTreeDiff.diff(dialog1, dialog2);
+        assertEquals(false, diff.get("identical"));
+        assertEquals(8, diff.get("nodes1"));
+        assertEquals(9, diff.get("nodes2"));
+
+        List<Map<String, Object>> operations = (List<Map<String, Object>>) diff.get("operations");
+        Map<String, Object> renamed = find(operations, "renamed");
+        assertEquals("tabs/basic/text", renamed.get("path1"));
+        assertEquals("./text", renamed.get("from"));
+        assertEquals("./description", renamed.get("to"));
+
+        Map<String, Object> moved = find(operations, "moved");
+        assertEquals("tabs/advanced/id", moved.get("path1"));
+        assertEquals("tabs/basic/id", moved.get("path2"));
+
+        assertEquals("tabs/advanced/theme", find(operations, "added").get("path2"));
+        assertNull(find(operations, "removed"));
+    }
+
+    /**
+     * 测试同级重排和容器包裹导致的嵌套层级变化
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReorderAndNesting() {
+        Map<String, Object> dialog1 = dialog(Arrays.asList(
+            item("first", CONTAINER, Arrays.asList(field("a"), field("b"))),
+            item("second", CONTAINER, Arrays.asList(field("c"), field("d"))),
+            field("plain")));
+        Map<String, Object> dialog2 = dialog(Arrays.asList(
+            item("second", CONTAINER, Arrays.asList(field("c"), field("d"))),
+            item("first", CONTAINER, Arrays.asList(field("a"), field("b"))),
+            item("wrapper", CONTAINER, Arrays.asList(field("plain")))));
+
+        List<Map<String, Object>> operations = (List<Map<String, Object>>) DialogTreeDiff.diff(dialog1, dialog2).get("operations");
+        assertNotNull(find(operations, "reordered"));
+        Map<String, Object> nested = find(operations, "moved");
+        assertEquals("plain", nested.get("path1"));
+        assertEquals("wrapper/plain", nested.get("path2"));
+        assertEquals(1, nested.get("nestingChange"));
+        assertEquals("wrapper", find(operations, "added").get("path2"));
+    }
+
+    /**
+     * 测试相同分支被折叠，大对话框只对比变化的部分
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIdenticalBranchesAreSkipped() {
+        List<Map<String, Object>> tabs1 = new ArrayList<>();
+        List<Map<String, Object>> tabs2 = new ArrayList<>();
+        for (int t = 0; t < 20; t++) {
+            List<Map<String, Object>> fields1 = new ArrayList<>();
+            List<Map<String, Object>> fields2 = new ArrayList<>();
+            for (int f = 0; f < 20; f++) {
+                fields1.add(field("field" + t + "_" + f));
+                fields2.add(field(t == 7 && f == 3 ? "changed" : "field" + t + "_" + f));
+            }
+            tabs1.add(item("tab" + t, CONTAINER, fields1));
+            tabs2.add(item("tab" + t, CONTAINER, fields2));
+        }
+        Map<String, Object> diff = DialogTreeDiff.diff(dialog(tabs1), dialog(tabs2));
+
+        assertEquals(420, diff.get("nodes1"));
+        assertTrue((Integer) diff.get("comparedNodes1") < 50);
+        List<Map<String, Object>> operations = (List<Map<String, Object>>) diff.get("operations");
+        assertEquals(1, operations.size());
+        assertEquals("renamed", operations.get(0).get("op"));
+        assertEquals("tab7/field7_3", operations.get(0).get("path1"));
+
+        Map<String, Object> same = DialogTreeDiff.diff(dialog(tabs1), dialog(tabs1));
+        assertEquals(true, same.get("identical"));
+        assertEquals(0, same.get("distance"));
+    }
+
+    private static Map<String, Object> find(List<Map<String, Object>> operations, String op) {
+        for (Map<String, Object> operation : operations) {
+            if (op.equals(operation.get("op"))) {
+                return operation;
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Object> dialog(List<Map<String, Object>> items) {
+        Map<String, Object> content = new HashMap<>();
+        content.put("items", items);
+        Map<String, Object> touchDialog = new HashMap<>();
+        touchDialog.put("content", content);
+        Map<String, Object> dialog = new HashMap<>();
+        dialog.put("type", "touch");
+        dialog.put("touchDialog", touchDialog);
+        return dialog;
+    }
+
+    private static Map<String, Object> item(String name, String resourceType, List<Map<String, Object>> children) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("sling:resourceType", resourceType);
+        properties.put("jcr:title", name);
+        Map<String, Object> item = node(name, properties);
+        item.put("childItems", children);
+        return item;
+    }
+
+    private static Map<String, Object> field(String name) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("sling:resourceType", TEXTFIELD);
+        properties.put("name", "./" + name);
+        properties.put("fieldLabel", "Label");
+        return node(name, properties);
+    }
+
+    private static Map<String, Object> node(String name, Map<String, String> properties) {
+        Map<String, Object> node = new HashMap<>();
+        node.put("name", name);
+        node.put("nodeType", "nt:unstructured");
+        node.put("properties", properties);
+        return node;
+    }
+}
@@ -0,0 +1,59 @@
+package com.aem.component.info;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * ExportFormat 单元测试
+ */
+public class ExportFormatTest {
+
+    /**
+     * 测试按名称解析格式
+     */
+    @Test
+    public void testFromName() {
+        assertEquals(ExportFormat.JSON, ExportFormat.fromName(null));
+        assertEquals(ExportFormat.JSON, ExportFormat.fromName(""));
+        assertEquals(ExportFormat.JSON, ExportFormat.fromName("pretty"));
+        assertEquals(ExportFormat.SMILE, ExportFormat.fromName(" Smile "));
+        assertEquals(ExportFormat.CBOR, ExportFormat.fromName("cbor"));
+    }
+
+    /**
+     * 测试不支持的格式名称
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromUnknownName() {
+        ExportFormat.fromName("xml");
+    }
+
+    /**
+     * 测试内容协商：默认、按出现顺序、别名和通配符
+     */
+    @Test
+    public void testFromAcceptHeader() {
+        assertEquals(ExportFormat.JSON, ExportFormat.fromAcceptHeader(null));
+        assertEquals(ExportFormat.JSON, ExportFormat.fromAcceptHeader("text/html"));
+        assertEquals(ExportFormat.CBOR, ExportFormat.fromAcceptHeader("application/cbor"));
+        assertEquals(ExportFormat.SMILE, ExportFormat.fromAcceptHeader("application/smile, application/json"));
+        assertEquals(ExportFormat.CBOR, ExportFormat.fromAcceptHeader("application/cbor, */*"));
+        assertEquals(ExportFormat.JSON, ExportFormat.fromAcceptHeader("text/html, */*;q=0.8"));
+    }
+
+    /**
+     * 测试内容协商按 q 值选择，q=0 表示不接受
+     */
+    @Test
+    public void testFromAcceptHeaderWithQuality() {
+        assertEquals(ExportFormat.JSON,
+            ExportFormat.fromAcceptHeader("application/cbor;q=0.5, application/json;q=0.9"));
+        assertEquals(ExportFormat.SMILE,
+            ExportFormat.fromAcceptHeader("application/json;q=0.1, application/x-jackson-smile"));
+        assertEquals(ExportFormat.JSON, ExportFormat.fromAcceptHeader("application/cbor;q=0"));
+        assertEquals(ExportFormat.JSON, ExportFormat.fromAcceptHeader("application/cbor; q=0.0, */*"));
+        assertEquals(ExportFormat.CBOR,
+            ExportFormat.fromAcceptHeader("application/smile;q=invalid, application/cbor;Q=0.2"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.aem.component.info.ComponentFixtures.component;
+import static org.junit.Assert.*;
+
+/**
+ * ParallelComponentExporter 单元测试
+ */
+public class ParallelComponentExporterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * 测试并行导出所有组件并写入索引
+     */
+    @Test
+    public void testExportComponents() throws Exception {
+        List<Map<String, Object>> components = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            components.add(component("component" + i).build());
+        }
+
+        File outputDir = temporaryFolder.newFolder("export");
+        // 在途数量小于组件数量，验证背压不会导致死锁
+        ParallelComponentExporter exporter = new ParallelComponentExporter(4, 3, false);
+        assertEquals(50, exporter.exportComponents(components, outputDir.getPath()));
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode index = mapper.readTree(new File(outputDir, "index.json"));
+        assertEquals(50, index.get("totalComponents").asInt());
+        JsonNode first = index.get("components").get(0);
+        assertEquals("/apps/test/components/component0", first.get("path").asText());
+        assertTrue(first.get("file").asText().matches("component0-[0-9a-f]{12}\\.json"));
+        JsonNode component = mapper.readTree(new File(outputDir, first.get("file").asText()));
+        assertEquals("component0", component.get("basicProperties").get("componentName").asText());
+        assertFalse(new File(outputDir, "index.json.tmp").exists());
+    }
+
+    /**
+     * 测试 /apps 覆盖 /libs 的同名组件写入不同文件，按索引读回各自的内容
+     */
+    @Test
+    public void testOverlaysDoNotCollide() throws Exception {
+        List<Map<String, Object>> components = new ArrayList<>();
+        components.add(component("/libs/core/components/teaser").title("Core Teaser").build());
+        components.add(component("/apps/core/components/teaser").title("Overlay Teaser").build());
+
+        File outputDir = temporaryFolder.newFolder("overlay");
+        assertEquals(2, new ParallelComponentExporter(2, 2, false).exportComponents(components, outputDir.getPath()));
+        assertEquals(3, outputDir.list().length);
+
+        try (ComponentDeltaExporter.ComponentSource source = ComponentDeltaExporter.openSource(outputDir.getPath())) {
+            assertEquals("Overlay Teaser", jcrTitle(source.read("/apps/core/components/teaser")));
+            assertEquals("Core Teaser", jcrTitle(source.read("/libs/core/components/teaser")));
+        }
+    }
+
+    private static Object jcrTitle(Map<String, Object> componentInfo) {
+        return ((Map<?, ?>) componentInfo.get("basicProperties")).get("jcr:title");
+    }
+}
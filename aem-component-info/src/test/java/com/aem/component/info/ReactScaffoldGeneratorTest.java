@@ -0,0 +1,160 @@
+package com.aem.component.info;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.aem.component.info.ComponentFixtures.field;
+import static org.junit.Assert.*;
+
+/**
+ * ReactScaffoldGenerator 单元测试
+ */
+public class ReactScaffoldGeneratorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * 测试 Props 接口的生成
+     */
+    @Test
+    public void testRenderPropsInterface() {
+        Map<String, String> files = new ReactScaffoldGenerator(1, ReactScaffoldGenerator.DEFAULT_TEMPLATES)
+            .render(scaffoldComponent("hero-banner", "Title"));
+
+        String types = files.get("apps/test/components/HeroBanner/HeroBanner.types.ts");
+        assertNotNull(types);
+        assertTrue(types.contains("export interface HeroBannerProps {"));
+        assertTrue(types.contains("  /** Title */\n  title: string;\n"));
+        assertTrue(types.contains("  layout?: 'left' | 'right';\n"));
+        assertTrue(types.contains("  showLink?: boolean;\n"));
+
+        String component = files.get("apps/test/components/HeroBanner/HeroBanner.tsx");
+        assertTrue(component.contains("({ title, layout, showLink }) =>"));
+        assertEquals(4, files.size());
+    }
+
+    /**
+     * 测试重新生成时只写入内容变化的文件
+     */
+    @Test
+    public void testOnlyChangedFilesAreWritten() throws Exception {
+        File output = temporaryFolder.newFolder("scaffold");
+        ReactScaffoldGenerator generator = new ReactScaffoldGenerator(4, ReactScaffoldGenerator.DEFAULT_TEMPLATES);
+
+        List<Map<String, Object>> components = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            components.add(scaffoldComponent("component-" + i, "Title"));
+        }
+
+        Map<String, Object> first = generator.generate(components, output.getPath());
+        assertEquals(20, first.get("components"));
+        assertEquals(80, first.get("filesWritten"));
+        assertEquals(0, first.get("filesUnchanged"));
+
+        Map<String, Object> second = generator.generate(components, output.getPath());
+        assertEquals(0, second.get("filesWritten"));
+        assertEquals(80, second.get("filesUnchanged"));
+
+        // 只修改一个字段标签：只有 types.ts 变化
+        components.set(3, scaffoldComponent("component-3", "Headline"));
+        Map<String, Object> third = generator.generate(components, output.getPath());
+        assertEquals(1, third.get("filesWritten"));
+        assertEquals(79, third.get("filesUnchanged"));
+
+        String types = new String(Files.readAllBytes(
+            new File(output, "apps/test/components/Component3/Component3.types.ts").toPath()), StandardCharsets.UTF_8);
+        assertTrue(types.contains("/** Headline */"));
+    }
+
+    /**
+     * 测试写入失败的文件在清单中保留上一次的哈希，下一次生成时重新写入
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedWriteKeepsPreviousHash() throws Exception {
+        File output = temporaryFolder.newFolder("failed");
+        ReactScaffoldGenerator generator = new ReactScaffoldGenerator(2, ReactScaffoldGenerator.DEFAULT_TEMPLATES);
+        List<Map<String, Object>> components = new ArrayList<>();
+        components.add(scaffoldComponent("teaser", "Title"));
+        generator.generate(components, output.getPath());
+
+        String typesPath = "apps/test/components/Teaser/Teaser.types.ts";
+        File manifestFile = new File(output, ReactScaffoldGenerator.MANIFEST_FILE);
+        String previousHash = (String) new ObjectMapper().readValue(manifestFile, Map.class).get(typesPath);
+
+        // 用非空目录占住 types.ts，替换文件时失败
+        File types = new File(output, typesPath);
+        assertTrue(types.delete());
+        assertTrue(new File(types, "blocker").mkdirs());
+        components.set(0, scaffoldComponent("teaser", "Headline"));
+        try {
+            generator.generate(components, output.getPath());
+            fail("写入失败时应抛出异常");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("1 个组件生成失败"));
+        }
+        assertEquals(previousHash, new ObjectMapper().readValue(manifestFile, Map.class).get(typesPath));
+        assertFalse(new File(output, typesPath + ".tmp").exists());
+
+        assertTrue(new File(types, "blocker").delete());
+        assertTrue(types.delete());
+        Map<String, Object> retry = generator.generate(components, output.getPath());
+        assertEquals(1, retry.get("filesWritten"));
+        assertTrue(new String(Files.readAllBytes(types.toPath()), StandardCharsets.UTF_8).contains("/** Headline */"));
+    }
+
+    /**
+     * 测试 /apps 覆盖 /libs 的同名组件生成到各自的目录
+     */
+    @Test
+    public void testOverlaysGenerateSeparateDirectories() throws Exception {
+        File output = temporaryFolder.newFolder("overlay");
+        List<Map<String, Object>> components = new ArrayList<>();
+        components.add(ComponentFixtures.component("/libs/core/components/teaser").fields("title").build());
+        components.add(ComponentFixtures.component("/apps/core/components/teaser").fields("title", "text").build());
+
+        Map<String, Object> stats = new ReactScaffoldGenerator(2, ReactScaffoldGenerator.DEFAULT_TEMPLATES)
+            .generate(components, output.getPath());
+        assertEquals(2, stats.get("components"));
+        assertTrue(new File(output, "libs/core/components/Teaser/Teaser.tsx").exists());
+        String overlayTypes = new String(Files.readAllBytes(
+            new File(output, "apps/core/components/Teaser/Teaser.types.ts").toPath()), StandardCharsets.UTF_8);
+        assertTrue(overlayTypes.contains("text?: string;"));
+        assertEquals("", ReactScaffoldGenerator.namespace(new HashMap<String, Object>()));
+    }
+
+    /**
+     * 测试预编译模板渲染
+     */
+    @Test
+    public void testTemplate() {
+        Map<String, String> values = new HashMap<>();
+        values.put("name", "Teaser");
+        assertEquals("a Teaser b  c", ReactScaffoldGenerator.Template.compile("a {{name}} b {{missing}} c").render(values));
+        assertEquals("no variables", ReactScaffoldGenerator.Template.compile("no variables").render(values));
+        assertEquals("Teaser{{", ReactScaffoldGenerator.Template.compile("{{ name }}{{").render(values));
+    }
+
+    /**
+     * 三个字段：必填的标题、两个选项的布局下拉框和复选框
+     */
+    private static Map<String, Object> scaffoldComponent(String name, String titleLabel) {
+        return ComponentFixtures.component(name)
+            .field(field("./jcr:title").label(titleLabel).required(true))
+            .field(field("./layout").type("select").label("Layout").options("left", "right"))
+            .field(field("./showLink").type("checkbox").label("Show link"))
+            .build();
+    }
+}
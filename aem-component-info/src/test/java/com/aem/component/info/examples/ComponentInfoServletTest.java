@@ -0,0 +1,229 @@
+package com.aem.component.info.examples;
+
+import com.aem.component.info.templates.JcrSessionPoolService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.junit.Test;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * ComponentInfoServlet 批量请求单元测试（内存中的会话）
+ */
+public class ComponentInfoServletTest {
+
+    private final Map<String, String> parameters = new HashMap<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private int status = 200;
+    private int released;
+
+    /**
+     * 测试完整遍历时输出完整的 JSON，total 为组件数量
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBatchCompletes() throws Exception {
+        parameters.put("basePath", "/apps/test");
+
+        servlet(session(false)).doGet(request(), response());
+
+        assertEquals(200, status);
+        Map<String, Object> result = new ObjectMapper().readValue(body.toByteArray(), Map.class);
+        assertEquals("/apps/test", result.get("basePath"));
+        assertEquals(1, ((List<Object>) result.get("components")).size());
+        assertEquals(1, result.get("total"));
+        assertEquals(1, released);
+    }
+
+    /**
+     * 测试遍历中途出错时响应被截断：已写出的组件保留，但不补全数组和 total，整体不是合法 JSON
+     */
+    @Test
+    public void testBatchTruncatedOnTraversalError() throws Exception {
+        parameters.put("basePath", "/apps/test");
+
+        servlet(session(true)).doGet(request(), response());
+
+        String text = new String(body.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("{\"basePath\":\"/apps/test\",\"components\":[{"));
+        assertTrue(text.contains("/apps/test/first"));
+        assertFalse(text.contains("total"));
+        try {
+            new ObjectMapper().readTree(text);
+            fail("截断的响应不应是合法 JSON");
+        } catch (JsonProcessingException expected) {
+            // 客户端据此判断结果不完整
+        }
+        assertEquals(1, released);
+    }
+
+    /**
+     * 测试 limit 参数不是整数时返回 400，且不借出会话
+     */
+    @Test
+    public void testBatchRejectsInvalidLimit() throws Exception {
+        parameters.put("basePath", "/apps/test");
+        parameters.put("limit", "ten");
+
+        servlet(session(false)).doGet(request(), response());
+
+        assertEquals(400, status);
+        assertEquals(0, released);
+    }
+
+    private ComponentInfoServlet servlet(Session session) throws Exception {
+        JcrSessionPoolService sessionPool = new JcrSessionPoolService() {
+            @Override
+            public Session borrow() {
+                return session;
+            }
+
+            @Override
+            public void release(Session released) {
+                ComponentInfoServletTest.this.released++;
+            }
+        };
+        ComponentInfoServlet servlet = new ComponentInfoServlet();
+        Field field = ComponentInfoServlet.class.getDeclaredField("sessionPool");
+        field.setAccessible(true);
+        field.set(servlet, sessionPool);
+        return servlet;
+    }
+
+    /**
+     * /apps/test 下有两个组件节点：first 已被删除（提取结果为错误信息），
+     * failing 为 true 时第二个子节点在遍历时抛出 RepositoryException
+     */
+    private Session session(boolean failing) {
+        List<Node> children = new ArrayList<>();
+        children.add(node("/apps/test/first", false));
+        if (failing) {
+            children.add(node("/apps/test/second", true));
+        }
+        Node base = (Node) Proxy.newProxyInstance(Node.class.getClassLoader(), new Class<?>[]{Node.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "isNodeType":
+                        return false;
+                    case "getNodes":
+                        return iterator(children);
+                    default:
+                        return null;
+                }
+            });
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "nodeExists":
+                        return "/apps/test".equals(args[0]);
+                    case "getNode":
+                        return base;
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    private static Node node(String path, boolean failing) {
+        return (Node) Proxy.newProxyInstance(Node.class.getClassLoader(), new Class<?>[]{Node.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "isNodeType":
+                        if (failing) {
+                            throw new RepositoryException("仓库连接中断");
+                        }
+                        return "cq:Component".equals(args[0]);
+                    case "getPath":
+                        return path;
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    private static NodeIterator iterator(List<Node> nodes) {
+        Iterator<Node> iterator = nodes.iterator();
+        return (NodeIterator) Proxy.newProxyInstance(NodeIterator.class.getClassLoader(),
+            new Class<?>[]{NodeIterator.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "hasNext":
+                        return iterator.hasNext();
+                    case "nextNode":
+                    case "next":
+                        return iterator.next();
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    private SlingHttpServletRequest request() {
+        return (SlingHttpServletRequest) Proxy.newProxyInstance(SlingHttpServletRequest.class.getClassLoader(),
+            new Class<?>[]{SlingHttpServletRequest.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getPathInfo":
+                        return "/bin/componentinfo/batch";
+                    case "getParameter":
+                        return parameters.get(args[0]);
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    private SlingHttpServletResponse response() {
+        ServletOutputStream out = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), true);
+        return (SlingHttpServletResponse) Proxy.newProxyInstance(SlingHttpServletResponse.class.getClassLoader(),
+            new Class<?>[]{SlingHttpServletResponse.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setStatus":
+                        status = (Integer) args[0];
+                        return null;
+                    case "getOutputStream":
+                        return out;
+                    case "getWriter":
+                        return writer;
+                    default:
+                        return null;
+                }
+            });
+    }
+}
@@ -0,0 +1,147 @@
+package com.aem.component.info.templates;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * ComponentInfoCache 单元测试
+ */
+public class ComponentInfoCacheTest {
+
+    /**
+     * 测试总权重不超过上限，一次性扫描不会冲掉频繁访问的条目
+     */
+    @Test
+    public void testFrequencyAwareAdmission() {
+        ComponentInfoCache cache = new ComponentInfoCache(100_000, 60_000);
+        for (int i = 0; i < 20; i++) {
+            cache.put("/apps/hot/" + i, info(i), 1_000);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 20; i++) {
+                assertNotNull(cache.get("/apps/hot/" + i));
+            }
+        }
+
+        // 扫描 1000 个只访问一次的组件
+        for (int i = 0; i < 1000; i++) {
+            cache.put("/apps/scan/" + i, info(i), 1_000);
+            assertTrue(cache.weightedSize() <= cache.getMaxWeight());
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertNotNull("/apps/hot/" + i, cache.get("/apps/hot/" + i));
+        }
+        assertTrue(cache.size() <= 100);
+        assertTrue((Long) cache.getStats().get("evictions") > 0);
+    }
+
+    /**
+     * 测试过期条目被主动清除，超过上限的条目不缓存
+     */
+    @Test
+    public void testExpiryAndRejection() {
+        ComponentInfoCache expiring = new ComponentInfoCache(10_000, 0);
+        expiring.put("/apps/a", info(1), 100);
+        expiring.put("/apps/b", info(2), 100);
+        assertEquals(2, expiring.cleanUp());
+        assertEquals(0, expiring.size());
+        assertEquals(0, expiring.weightedSize());
+        assertNull(expiring.get("/apps/a"));
+
+        ComponentInfoCache cache = new ComponentInfoCache(10_000, 60_000);
+        assertFalse(cache.put("/apps/huge", info(1), 20_000));
+        assertTrue(cache.put("/apps/small", info(1)));
+        assertEquals(ComponentInfoCache.estimateWeight(info(1)), cache.weightedSize());
+        cache.invalidate("/apps/small");
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.getStats().get("rejections"));
+    }
+
+    /**
+     * 测试权重估算随内容增长
+     */
+    @Test
+    public void testEstimateWeight() {
+        Map<String, Object> small = info(1);
+        Map<String, Object> large = info(1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append('x');
+        }
+        large.put("description", text.toString());
+        assertTrue(ComponentInfoCache.estimateWeight(large) - ComponentInfoCache.estimateWeight(small) >= 2000);
+    }
+
+    /**
+     * 测试预编码字节计入权重，条目被替换后不再附带
+     */
+    @Test
+    public void testAttachEncoded() throws Exception {
+        ComponentInfoCache cache = new ComponentInfoCache(100_000, 60_000);
+        cache.put("/apps/a", info(1), 100);
+        ComponentInfoCache.Entry entry = cache.getEntry("/apps/a");
+        assertNull(entry.getEncoded(ComponentInfoEncoding.JSON));
+
+        byte[] json = ComponentInfoEncoding.JSON.encode(entry.getData());
+        assertTrue(cache.attachEncoded(entry, ComponentInfoEncoding.JSON, json));
+        assertSame(json, cache.getEntry("/apps/a").getEncoded(ComponentInfoEncoding.JSON));
+        assertEquals(100 + 16 + json.length, cache.weightedSize());
+        // 同一编码只附带一次
+        assertFalse(cache.attachEncoded(entry, ComponentInfoEncoding.JSON, new byte[10]));
+
+        cache.put("/apps/a", info(2), 100);
+        assertFalse(cache.attachEncoded(entry, ComponentInfoEncoding.PRETTY_JSON, json));
+        assertNull(cache.getEntry("/apps/a").getEncoded(ComponentInfoEncoding.JSON));
+        assertEquals(100, cache.weightedSize());
+    }
+
+    /**
+     * 测试并发读取（不加锁）与写入交错时统计完整、权重和分段保持一致
+     */
+    @Test
+    public void testConcurrentReads() throws Exception {
+        final ComponentInfoCache cache = new ComponentInfoCache(50_000, 60_000);
+        for (int i = 0; i < 40; i++) {
+            cache.put("/apps/c/" + i, info(i), 1_000);
+        }
+
+        final int threads = 8;
+        final int reads = 20_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < reads; i++) {
+                    String key = "/apps/c/" + ((i * 7 + seed) % 60);
+                    if (cache.getEntry(key) == null && i % 10 == 0) {
+                        cache.put(key, info(i), 1_000);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Map<String, Object> stats = cache.getStats();
+        assertEquals((long) threads * reads, (Long) stats.get("hits") + (Long) stats.get("misses"));
+        assertTrue(cache.weightedSize() <= cache.getMaxWeight());
+        assertEquals(cache.size(), cache.entries().size());
+        assertEquals(cache.size() * 1_000L, cache.weightedSize());
+    }
+
+    private static Map<String, Object> info(int i) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("componentPath", "/apps/test/components/c" + i);
+        return info;
+    }
+}
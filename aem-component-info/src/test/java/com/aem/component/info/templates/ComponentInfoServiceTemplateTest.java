@@ -0,0 +1,519 @@
+package com.aem.component.info.templates;
+
+import com.aem.component.info.ComponentInfoExtractor;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * ComponentInfoServiceTemplate 单元测试（覆盖 extract，不需要仓库）
+ */
+public class ComponentInfoServiceTemplateTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private TestService service;
+
+    @After
+    public void tearDown() {
+        if (service != null) {
+            service.deactivate();
+        }
+    }
+
+    /**
+     * 测试软过期后立即返回旧数据并在后台刷新
+     */
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        service = new TestService();
+        service.activate(config(3600, 1, null));
+
+        Map<String, Object> first = service.getComponentInfo("/apps/test/components/teaser");
+        assertEquals(1, first.get("version"));
+        assertEquals(1, service.extractions.get());
+
+        // 超过软过期时间：立即返回旧数据，后台刷新被阻塞也不影响
+        service.now.addAndGet(1000);
+        service.blockExtraction = new CountDownLatch(1);
+        assertSame(first, service.getComponentInfo("/apps/test/components/teaser"));
+        assertSame(first, service.getComponentInfo("/apps/test/components/teaser"));
+
+        service.blockExtraction.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.getComponentInfo("/apps/test/components/teaser").get("version").equals(1)
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, service.getComponentInfo("/apps/test/components/teaser").get("version"));
+        // 两次软过期命中只触发一次刷新
+        assertEquals(2, service.extractions.get());
+    }
+
+    /**
+     * 测试停用时写出快照，重新激活后未修改的条目直接复用，修改过的条目重新提取
+     */
+    @Test
+    public void testWarmStartSnapshot() throws Exception {
+        File snapshot = new File(temporaryFolder.getRoot(), "cache/snapshot.carc");
+        Map<String, Long> revisions = new ConcurrentHashMap<>();
+        revisions.put("/apps/test/components/title", 100L);
+        revisions.put("/apps/test/components/teaser", 200L);
+
+        TestService first = new TestService(revisions);
+        first.activate(config(3600, 0, snapshot.getPath()));
+        first.getComponentInfo("/apps/test/components/title");
+        first.getComponentInfo("/apps/test/components/teaser");
+        // 版本未知的条目不写入快照
+        first.getComponentInfo("/apps/test/components/unknown");
+        first.deactivate();
+        assertTrue(snapshot.isFile());
+
+        revisions.put("/apps/test/components/teaser", 201L);
+        service = new TestService(revisions);
+        service.activate(config(3600, 0, snapshot.getPath()));
+        assertEquals(2, service.getCacheStats().get("warmStartRemaining"));
+
+        Map<String, Object> title = service.getComponentInfo("/apps/test/components/title");
+        assertEquals("/apps/test/components/title", title.get("componentPath"));
+        assertEquals(1, title.get("version"));
+        assertEquals(0, service.extractions.get());
+
+        // 快照之后修改过：重新提取
+        assertEquals(1, service.getComponentInfo("/apps/test/components/teaser").get("version"));
+        assertEquals(1, service.extractions.get());
+        assertEquals(1L, service.getCacheStats().get("warmStartHits"));
+        assertEquals(1L, service.getCacheStats().get("warmStartStale"));
+        assertEquals(0, service.getCacheStats().get("warmStartRemaining"));
+    }
+
+    /**
+     * 测试按配置列表后台预热，范围外和重复的路径被跳过；停用时记录高频组件列表
+     */
+    @Test
+    public void testBackgroundWarmup() throws Exception {
+        File snapshot = new File(temporaryFolder.getRoot(), "snapshot.carc");
+        service = new TestService();
+        service.activate(config(3600, 0, snapshot.getPath(), 10,
+            "/apps/test/components/title", "/apps/test/components/teaser", "/apps/other/components/x",
+            "/apps/test/components/title"));
+        assertEquals(2, service.getCacheStats().get("warmupTotal"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Long) service.getCacheStats().get("warmupCompleted") < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, service.extractions.get());
+        // 预热后的请求直接命中缓存
+        service.getComponentInfo("/apps/test/components/teaser");
+        service.getComponentInfo("/apps/test/components/teaser");
+        service.getComponentInfo("/apps/test/components/title");
+        assertEquals(2, service.extractions.get());
+
+        service.deactivate();
+        service = null;
+        List<String> hot = Files.readAllLines(new File(temporaryFolder.getRoot(), "snapshot.carc.hot").toPath(),
+            StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("/apps/test/components/teaser", "/apps/test/components/title"), hot);
+    }
+
+    /**
+     * 测试命中/未命中计数与提取耗时，以及激活期间注册的 MBean
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMetrics() throws Exception {
+        service = new TestService();
+        service.activate(config(3600, 0, null));
+        service.getComponentInfo("/apps/test/components/title");
+        service.getComponentInfo("/apps/test/components/title");
+        service.getComponentInfo("/apps/test/components/teaser");
+
+        Map<String, Object> metrics = service.getMetrics();
+        Map<String, Object> requests = (Map<String, Object>) metrics.get("requests");
+        assertEquals(3L, requests.get("total"));
+        // 没有配置快照时未命中不读取版本
+        assertEquals(0, service.revisionReads.get());
+        assertEquals(1L, requests.get("hits"));
+        assertEquals(2L, requests.get("misses"));
+        assertEquals(2L, ((Map<String, Object>) metrics.get("loadTime")).get("count"));
+        assertEquals(2, ((Map<String, Object>) metrics.get("cache")).get("size"));
+
+        ObjectName name = new ObjectName(ComponentInfoMetrics.OBJECT_NAME);
+        assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CacheMisses"));
+        String json = (String) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "MetricsJson");
+        assertTrue(json.contains("\"loadTime\""));
+
+        service.deactivate();
+        service = null;
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    /**
+     * 测试缓存命中时复用预编码字节，gzip 编码可以还原为同一 JSON
+     */
+    @Test
+    public void testEncodedComponentInfo() throws Exception {
+        service = new TestService();
+        service.activate(config(3600, 0, null));
+
+        ComponentInfoServiceTemplate.EncodedComponentInfo first =
+            service.getEncodedComponentInfo("/apps/test/components/title", ComponentInfoEncoding.JSON);
+        ComponentInfoServiceTemplate.EncodedComponentInfo second =
+            service.getEncodedComponentInfo("/apps/test/components/title", ComponentInfoEncoding.JSON);
+        assertFalse(first.isError());
+        assertSame(first.getBytes(), second.getBytes());
+        assertEquals(1, service.extractions.get());
+
+        byte[] gzip = service.getEncodedComponentInfo("/apps/test/components/title",
+            ComponentInfoEncoding.GZIP_JSON).getBytes();
+        ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            byte[] buffer = new byte[1024];
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                unzipped.write(buffer, 0, n);
+            }
+        }
+        assertArrayEquals(first.getBytes(), unzipped.toByteArray());
+
+        String pretty = service.exportComponentInfoAsJson("/apps/test/components/title");
+        assertTrue(pretty.contains("\n"));
+        assertEquals(1, service.extractions.get());
+    }
+
+    /**
+     * 测试编码结果的状态码：组件不存在为 404，提取失败为 500；服务范围外的路径交给调用方直接提取
+     */
+    @Test
+    public void testEncodedStatus() throws Exception {
+        service = new TestService();
+        service.activate(config(3600, 0, null));
+
+        assertEquals(200, service.getEncodedComponentInfo("/apps/test/components/title",
+            ComponentInfoEncoding.JSON).getStatus());
+        ComponentInfoServiceTemplate.EncodedComponentInfo missing =
+            service.getEncodedComponentInfo("/apps/test/components/missing", ComponentInfoEncoding.JSON);
+        assertTrue(missing.isError());
+        assertEquals(404, missing.getStatus());
+        assertEquals(500, service.getEncodedComponentInfo("/apps/test/components/broken",
+            ComponentInfoEncoding.JSON).getStatus());
+
+        assertTrue(service.isServedPath("/apps/test/components/title"));
+        assertTrue(service.isServedPath("/libs/core/components/title"));
+        assertFalse(service.isServedPath("/apps/other/components/title"));
+        assertFalse(service.isServedPath("/apps/test/../other/components/title"));
+    }
+
+    /**
+     * 测试不属于基础路径的变化：范围外的路径被忽略，范围内的路径去重后丢弃自身、子路径和上级路径
+     */
+    @Test
+    public void testInvalidateLocalPaths() throws Exception {
+        service = new TestService();
+        service.activate(config(3600, 0, null));
+        service.getComponentInfo("/apps/test/components/title");
+        service.getComponentInfo("/apps/test/components/teaser");
+        service.getComponentInfo("/libs/core/components/text");
+        Session session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+            (proxy, method, args) -> "nodeExists".equals(method.getName()) ? Boolean.FALSE : null);
+        service.getTypeResolver().resolvePath(session, "core/components/text");
+
+        service.invalidate(Arrays.asList("/apps/other/components/x", "/content/site/page", "/etc/clientlibs/a"));
+        assertEquals(3, service.getCacheStats().get("size"));
+        assertEquals(1, service.getTypeResolver().getStats().get("size"));
+
+        service.invalidate(Arrays.asList("/apps/test/components/title/cq:dialog",
+            "/apps/test/components/title/cq:dialog", "/libs/core/components/text/text.html"));
+        assertEquals(1, service.getCacheStats().get("size"));
+        // 共享的资源类型解析缓存随组件变化清空
+        assertEquals(0, service.getTypeResolver().getStats().get("size"));
+        // teaser 仍然命中缓存
+        assertEquals(2, service.getComponentInfo("/apps/test/components/teaser").get("version"));
+        assertEquals(3, service.extractions.get());
+
+        // 服务范围的上级路径（如整个项目被删除）
+        service.invalidate(Collections.singletonList("/apps"));
+        assertEquals(0, service.getCacheStats().get("size"));
+    }
+
+    /**
+     * 多实例收敛测试：三个实例共享一个内存版本标记，一个实例上的变化在每个实例各轮询一轮后
+     * 让其他实例丢弃同一基础路径下的缓存，其他基础路径不受影响
+     */
+    @Test
+    public void testClusterInvalidationConverges() throws Exception {
+        InMemoryInvalidationProtocol protocol = new InMemoryInvalidationProtocol();
+        String content = "/apps/test/components/content";
+        String structure = "/apps/test/components/structure";
+        List<TestService> instances = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                TestService instance = new TestService();
+                instance.invalidationProtocol = protocol;
+                // 轮询间隔足够长，定时轮询不会在测试期间执行，轮次由测试驱动
+                instance.activate(invalidationConfig(3600, content, structure));
+                instance.getComponentInfo(content + "/title");
+                instance.getComponentInfo(structure + "/header");
+                instances.add(instance);
+            }
+
+            instances.get(0).invalidate(content + "/title/cq:dialog");
+            assertEquals(1L, protocol.versions.get(content).get());
+            // 本实例立即失效
+            assertEquals(3, instances.get(0).getComponentInfo(content + "/title").get("version"));
+            // 其他实例在下一轮轮询前继续使用缓存
+            assertEquals(1, instances.get(1).getComponentInfo(content + "/title").get("version"));
+
+            // 一轮轮询后所有实例收敛；发布的实例在轮询时再次失效（见 CacheInvalidator），多提取一次
+            for (int i = 0; i < instances.size(); i++) {
+                TestService instance = instances.get(i);
+                instance.pollInvalidations();
+                int expected = i == 0 ? 4 : 3;
+                assertEquals(expected, instance.getComponentInfo(content + "/title").get("version"));
+                assertEquals(expected, instance.extractions.get());
+                // header 仍然命中缓存
+                assertEquals(2, instance.getComponentInfo(structure + "/header").get("version"));
+            }
+
+            // 版本没有变化时再轮询一轮不会失效
+            for (TestService instance : instances) {
+                int extractions = instance.extractions.get();
+                instance.pollInvalidations();
+                instance.getComponentInfo(content + "/title");
+                assertEquals(extractions, instance.extractions.get());
+            }
+        } finally {
+            for (TestService instance : instances) {
+                instance.deactivate();
+            }
+        }
+    }
+
+    static ComponentInfoServiceTemplate.ServiceConfig config(final long expiration, final long refreshAfter,
+                                                             final String snapshotFile) {
+        return config(expiration, refreshAfter, snapshotFile, 0);
+    }
+
+    static ComponentInfoServiceTemplate.ServiceConfig config(final long expiration, final long refreshAfter,
+                                                             final String snapshotFile, final int warmupCount,
+                                                             final String... warmupPaths) {
+        return config(expiration, refreshAfter, snapshotFile, warmupCount, warmupPaths, 0, new String[0]);
+    }
+
+    static ComponentInfoServiceTemplate.ServiceConfig invalidationConfig(final long pollInterval,
+                                                                         final String... basePaths) {
+        return config(3600, 0, null, 0, new String[0], pollInterval, basePaths);
+    }
+
+    private static ComponentInfoServiceTemplate.ServiceConfig config(final long expiration, final long refreshAfter,
+                                                                     final String snapshotFile, final int warmupCount,
+                                                                     final String[] warmupPaths,
+                                                                     final long pollInterval,
+                                                                     final String[] invalidationBasePaths) {
+        return new ComponentInfoServiceTemplate.ServiceConfig() {
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return ComponentInfoServiceTemplate.ServiceConfig.class;
+            }
+
+            @Override
+            public String allowedBasePath() {
+                return "/apps/test";
+            }
+
+            @Override
+            public int maxDepth() {
+                return 5;
+            }
+
+            @Override
+            public boolean enableCache() {
+                return true;
+            }
+
+            @Override
+            public long cacheExpirationTime() {
+                return expiration;
+            }
+
+            @Override
+            public long cacheMaxWeight() {
+                return 1024 * 1024;
+            }
+
+            @Override
+            public long extractionTimeout() {
+                return 5;
+            }
+
+            @Override
+            public long cacheRefreshAfter() {
+                return refreshAfter;
+            }
+
+            @Override
+            public int refreshThreads() {
+                return 1;
+            }
+
+            @Override
+            public boolean warmStart() {
+                return snapshotFile != null;
+            }
+
+            @Override
+            public String cacheSnapshotFile() {
+                return snapshotFile != null ? snapshotFile : "";
+            }
+
+            @Override
+            public int warmupCount() {
+                return warmupCount;
+            }
+
+            @Override
+            public String[] warmupPaths() {
+                return warmupPaths;
+            }
+
+            @Override
+            public double warmupRate() {
+                return 100;
+            }
+
+            @Override
+            public long invalidationPollInterval() {
+                return pollInterval;
+            }
+
+            @Override
+            public String[] invalidationBasePaths() {
+                return invalidationBasePaths;
+            }
+
+            @Override
+            public String invalidationMarkerRoot() {
+                return "/var/component-info/invalidation";
+            }
+
+            @Override
+            public String invalidationWriterSubService() {
+                return "component-invalidation-writer";
+            }
+        };
+    }
+
+    /**
+     * 内存中的版本标记（模拟各实例共享的仓库）
+     */
+    static class InMemoryInvalidationProtocol implements InvalidationProtocol {
+        final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+        @Override
+        public void publish(String basePath) {
+            versions.computeIfAbsent(basePath, key -> new AtomicLong()).incrementAndGet();
+        }
+
+        @Override
+        public Map<String, Long> readVersions(Collection<String> basePaths) {
+            Map<String, Long> result = new HashMap<>();
+            for (String basePath : basePaths) {
+                AtomicLong version = versions.get(basePath);
+                result.put(basePath, version != null ? version.get() : 0L);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 每次提取返回递增的 version，版本号来自给定的 Map（没有时为 0），当前时间由 now 控制；
+ * 以 /missing 结尾的路径返回组件不存在，以 /broken 结尾的路径抛出仓库异常
+     */
+    static class TestService extends ComponentInfoServiceTemplate {
+        final AtomicInteger extractions = new AtomicInteger();
+        final AtomicInteger revisionReads = new AtomicInteger();
+        final Map<String, Long> revisions;
+        final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        volatile CountDownLatch blockExtraction;
+        InvalidationProtocol invalidationProtocol;
+
+        TestService() {
+            this(new ConcurrentHashMap<String, Long>());
+        }
+
+        TestService(Map<String, Long> revisions) {
+            this.revisions = revisions;
+        }
+
+        @Override
+        protected InvalidationProtocol createInvalidationProtocol(ServiceConfig config) {
+            return invalidationProtocol;
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            return now.get();
+        }
+
+        @Override
+        protected long readRevision(String componentPath) {
+            revisionReads.incrementAndGet();
+            Long revision = revisions.get(componentPath);
+            return revision != null ? revision : 0;
+        }
+
+        @Override
+        protected Map<String, Object> extract(String componentPath) throws RepositoryException {
+            if (componentPath.endsWith("/missing")) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "组件节点不存在: " + componentPath);
+                error.put("status", ComponentInfoExtractor.STATUS_NOT_FOUND);
+                return error;
+            }
+            if (componentPath.endsWith("/broken")) {
+                throw new RepositoryException("仓库不可用");
+            }
+            CountDownLatch latch = blockExtraction;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Map<String, Object> info = new HashMap<>();
+            info.put("componentPath", componentPath);
+            info.put("version", extractions.incrementAndGet());
+            return info;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.aem.component.info.templates;
+
+import org.junit.Test;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * JcrSessionPool 单元测试（会话用动态代理模拟）
+ */
+public class JcrSessionPoolTest {
+
+    /**
+     * 测试归还的会话被刷新并再次借出，池满时等待超时
+     */
+    @Test
+    public void testReuseAndLimit() throws Exception {
+        FakeSessions sessions = new FakeSessions();
+        JcrSessionPool pool = new JcrSessionPool(sessions, 2, 60_000, 50);
+
+        Session first = pool.borrow();
+        pool.release(first);
+        assertEquals(1, sessions.refreshes.get());
+        assertSame(first, pool.borrow());
+        Session second = pool.borrow();
+        assertEquals(2, sessions.logins.get());
+
+        try {
+            pool.borrow();
+            fail("池满时应该等待超时");
+        } catch (RepositoryException expected) {
+            assertEquals(1L, pool.getStats().get("timeouts"));
+        }
+
+        pool.release(second);
+        assertSame(second, pool.borrow());
+        assertEquals(2, pool.getStats().get("active"));
+    }
+
+    /**
+     * 测试超过最长存活时间和已失效的会话被登出并重新登录
+     */
+    @Test
+    public void testMaxAgeAndDeadSessions() throws Exception {
+        FakeSessions sessions = new FakeSessions();
+        JcrSessionPool pool = new JcrSessionPool(sessions, 2, 0, 50);
+        Session expired = pool.borrow();
+        pool.release(expired);
+        assertEquals(1, sessions.logouts.get());
+        assertNotSame(expired, pool.borrow());
+
+        JcrSessionPool longLived = new JcrSessionPool(sessions, 1, 60_000, 50);
+        Session dead = longLived.borrow();
+        longLived.release(dead);
+        sessions.live = false;
+        Session fresh = longLived.borrow();
+        assertNotSame(dead, fresh);
+
+        sessions.live = true;
+        longLived.release(fresh);
+        longLived.close();
+        assertEquals(0, longLived.getStats().get("idle"));
+        try {
+            longLived.borrow();
+            fail("关闭后不能再借出");
+        } catch (RepositoryException expected) {
+            // 预期
+        }
+    }
+
+    private static class FakeSessions implements JcrSessionPool.SessionFactory {
+        final AtomicInteger logins = new AtomicInteger();
+        final AtomicInteger logouts = new AtomicInteger();
+        final AtomicInteger refreshes = new AtomicInteger();
+        volatile boolean live = true;
+
+        @Override
+        public Session login() {
+            logins.incrementAndGet();
+            final boolean[] loggedOut = new boolean[1];
+            return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isLive":
+                            return live && !loggedOut[0];
+                        case "logout":
+                            loggedOut[0] = true;
+                            logouts.incrementAndGet();
+                            return null;
+                        case "refresh":
+                            refreshes.incrementAndGet();
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.aem.component.info.templates;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * LatencyHistogram 单元测试
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * 测试分位数的相对误差不超过一个子桶（12.5%）
+     */
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMeanMillis(), 0.001);
+        assertEquals(1000.0, histogram.getMaxMillis(), 0.001);
+        assertEquals(500, histogram.getPercentileMillis(0.5), 500 * 0.125);
+        assertEquals(990, histogram.getPercentileMillis(0.99), 990 * 0.125);
+        assertTrue(histogram.getPercentileMillis(0.99) <= histogram.getMaxMillis());
+
+        Map<String, Object> map = histogram.toMap();
+        assertEquals(1000L, map.get("count"));
+        assertTrue(map.containsKey("p999Ms"));
+    }
+
+    /**
+     * 测试桶边界连续且覆盖每个值
+     */
+    @Test
+    public void testBucketBounds() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 1000, 123456789L, Long.MAX_VALUE / 1000};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(value + " 超出桶上界", value <= LatencyHistogram.upperBound(index) || index == LatencyHistogram.BUCKETS - 1);
+            if (index > 0) {
+                assertTrue(value + " 应属于更高的桶", value > LatencyHistogram.upperBound(index - 1));
+            }
+        }
+        assertEquals(0.0, new LatencyHistogram().getPercentileMillis(0.99), 0.0);
+    }
+}
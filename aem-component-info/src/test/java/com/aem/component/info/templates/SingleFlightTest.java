@@ -0,0 +1,105 @@
+package com.aem.component.info.templates;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * SingleFlight 单元测试
+ */
+public class SingleFlightTest {
+
+    /**
+     * 测试同一个键的并发加载只执行一次，所有调用者得到同一个结果
+     */
+    @Test
+    public void testConcurrentCallsShareOneLoad() throws Exception {
+        final SingleFlight singleFlight = new SingleFlight();
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Map<String, Object>>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(pool.submit(() -> singleFlight.load("/apps/teaser", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return Collections.<String, Object>singletonMap("componentPath", "/apps/teaser");
+                }, 10_000)));
+            }
+            // 等所有调用者都进入等待后再放行
+            while (singleFlight.getLoadCount() + singleFlight.getCoalescedCount() < 16) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            Map<String, Object> first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Map<String, Object>> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(15, singleFlight.getCoalescedCount());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 测试失败传递给本轮等待者但不缓存，等待者超时不影响 leader
+     */
+    @Test
+    public void testFailureAndTimeout() throws Exception {
+        final SingleFlight singleFlight = new SingleFlight();
+        try {
+            singleFlight.load("/apps/broken", () -> {
+                throw new IOException("repository unavailable");
+            }, 1_000);
+            fail();
+        } catch (IOException e) {
+            assertEquals("repository unavailable", e.getMessage());
+        }
+        // 下一次调用重新加载
+        assertNotNull(singleFlight.load("/apps/broken", HashMap::new, 1_000));
+        assertEquals(2, singleFlight.getLoadCount());
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread leader = new Thread(() -> {
+            try {
+                singleFlight.load("/apps/slow", () -> {
+                    started.countDown();
+                    release.await();
+                    return new HashMap<>();
+                }, 1_000);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        leader.start();
+        started.await();
+        try {
+            singleFlight.load("/apps/slow", HashMap::new, 50);
+            fail();
+        } catch (TimeoutException e) {
+            assertEquals(1, singleFlight.getTimeoutCount());
+        }
+        release.countDown();
+        leader.join(10_000);
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+}